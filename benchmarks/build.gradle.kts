@@ -0,0 +1,81 @@
+plugins {
+  groovy
+  id("com.github.ben-manes.versions")
+  id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+  toolchain {
+    languageVersion.set(JavaLanguageVersion.of(8))
+  }
+}
+
+// the stub daemon reuses the HttpTestServer from the client's tests
+sourceSets {
+  jmh {
+    groovy {
+      srcDir(project(":client").file("src/test/groovy"))
+      include("de/gesellix/docker/benchmarks/**")
+      include("de/gesellix/docker/testutil/HttpTestServer.groovy")
+    }
+  }
+}
+
+dependencies {
+  constraints {
+    implementation(libs.slf4j) {
+      version {
+        strictly(libs.versions.slf4jVersionrange.get())
+        prefer(libs.versions.slf4j.get())
+      }
+    }
+    implementation(libs.okio) {
+      version {
+        strictly(libs.versions.okioVersionrange.get())
+      }
+    }
+    listOf(libs.bundles.moshi).forEach {
+      implementation(it) {
+        version {
+          strictly(libs.versions.moshiVersionrange.get())
+        }
+      }
+    }
+    listOf(libs.bundles.kotlin).forEach {
+      implementation(it) {
+        version {
+          strictly(libs.versions.kotlinVersionrange.get())
+          prefer(libs.versions.kotlin.get())
+        }
+      }
+    }
+  }
+  jmh(project(":client"))
+  jmh(libs.groovy3)
+  jmh(libs.groovy3json)
+  jmh(libs.okio)
+  jmh(libs.slf4j)
+  jmh("org.apache.commons:commons-compress:1.27.1")
+  jmhRuntimeOnly("ch.qos.logback:logback-classic:${libs.versions.logbackVersionrange.get()}!!${libs.versions.logback.get()}")
+}
+
+fun findProperty(s: String) = project.findProperty(s) as String?
+
+jmh {
+  jmhVersion.set("1.37")
+  // e.g. `./gradlew :benchmarks:jmh -Pjmh.includes=ReferenceParser -Pjmh.resultsFile=build/results/jmh/$(git rev-parse --short HEAD).json`
+  findProperty("jmh.includes")?.let { includes.set(listOf(it)) }
+  // e.g. `-Pjmh.profilers=gc` to compare allocation rates
+  findProperty("jmh.profilers")?.let { profilers.set(it.split(",")) }
+  resultFormat.set("JSON")
+  resultsFile.set(findProperty("jmh.resultsFile")?.let { file(it) } ?: layout.buildDirectory.file("results/jmh/results.json").get().asFile)
+  fork.set(1)
+  warmupIterations.set(3)
+  iterations.set(5)
+}
+
+tasks {
+  withType<JavaCompile> {
+    options.encoding = "UTF-8"
+  }
+}
@@ -0,0 +1,92 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.DockerClientImpl;
+import de.gesellix.docker.client.archive.TarOptions;
+import de.gesellix.docker.client.archive.TarProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Uploads a local directory via <code>putArchive</code> to a {@link StubDaemon},
+ * either by writing a temporary tar file first or by streaming the archive through a pipe.
+ * Divide the context size by the average time for the upload throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveUploadBenchmark {
+
+  /**
+   * Total size of the uploaded files, spread over files of 1 MiB each.
+   */
+  @Param({"16", "256"})
+  public int megabytes;
+
+  private StubDaemon daemon;
+  private DockerClientImpl dockerClient;
+  private TarProducer tarProducer;
+  private Path context;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    daemon = new StubDaemon(1, 1);
+    dockerClient = new DockerClientImpl(daemon.start());
+    tarProducer = new TarProducer();
+    context = Files.createTempDirectory("benchmark-context");
+    byte[] file = new byte[1024 * 1024];
+    Random random = new Random(4711);
+    for (int i = 0; i < megabytes; i++) {
+      random.nextBytes(file);
+      Path directory = Files.createDirectories(context.resolve("dir-" + (i % 8)));
+      Files.write(directory.resolve("file-" + i + ".bin"), file);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    tarProducer.close();
+    dockerClient.close();
+    daemon.stop();
+    try (Stream<Path> paths = Files.walk(context)) {
+      paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public void uploadViaTempFile() throws IOException {
+    Path archive = Files.createTempFile("benchmark-context", ".tar");
+    try {
+      try (OutputStream out = Files.newOutputStream(archive)) {
+        tarProducer.write(context, out, null);
+      }
+      try (InputStream in = Files.newInputStream(archive)) {
+        dockerClient.putArchive("container-1", "/tmp", in);
+      }
+    } finally {
+      Files.delete(archive);
+    }
+  }
+
+  @Benchmark
+  public void uploadStreaming() throws IOException {
+    dockerClient.putArchive("container-1", "/tmp", context, new TarOptions());
+  }
+}
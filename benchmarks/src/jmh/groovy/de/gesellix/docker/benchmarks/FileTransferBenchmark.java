@@ -0,0 +1,99 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.archive.FileTransfer;
+import de.gesellix.docker.client.archive.TransferOptions;
+import de.gesellix.docker.client.archive.TransferResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an in-memory stream, like the content of <code>export</code> or <code>save</code>, into a file,
+ * either with an 8 KiB copy loop or with a {@link FileTransfer}.
+ * Half of the content is random, half repeats itself, so that compression has something to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileTransferBenchmark {
+
+  @Param({"64", "256"})
+  public int megabytes;
+
+  private FileTransfer fileTransfer;
+  private byte[] content;
+  private Path target;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fileTransfer = new FileTransfer();
+    content = new byte[megabytes * 1024 * 1024];
+    byte[] random = new byte[content.length / 2];
+    new Random(4711).nextBytes(random);
+    System.arraycopy(random, 0, content, 0, random.length);
+    for (int i = random.length; i < content.length; i++) {
+      content[i] = (byte) (i % 61);
+    }
+    target = Files.createTempFile("benchmark-transfer", ".tar");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fileTransfer.close();
+    Files.deleteIfExists(target);
+  }
+
+  @Benchmark
+  public long copyLoop() throws IOException {
+    try (InputStream in = new ByteArrayInputStream(content);
+         OutputStream out = Files.newOutputStream(target)) {
+      return copy(in, out);
+    }
+  }
+
+  @Benchmark
+  public TransferResult fileTransfer() throws IOException {
+    return fileTransfer.write(new ByteArrayInputStream(content), target, new TransferOptions());
+  }
+
+  @Benchmark
+  public long copyLoopGzip() throws IOException {
+    try (InputStream in = new ByteArrayInputStream(content);
+         OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+      return copy(in, out);
+    }
+  }
+
+  @Benchmark
+  public TransferResult fileTransferParallelGzip() throws IOException {
+    return fileTransfer.write(new ByteArrayInputStream(content), target, new TransferOptions().setGzip(true));
+  }
+
+  private static long copy(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[8192];
+    long count = 0;
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      out.write(buffer, 0, read);
+      count += read;
+    }
+    return count;
+  }
+}
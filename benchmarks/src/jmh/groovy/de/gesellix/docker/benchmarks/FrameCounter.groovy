@@ -0,0 +1,44 @@
+package de.gesellix.docker.benchmarks
+
+import de.gesellix.docker.remote.api.core.Frame
+import de.gesellix.docker.remote.api.core.StreamCallback
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class FrameCounter implements StreamCallback<Frame> {
+
+  private final CountDownLatch finished = new CountDownLatch(1)
+  private Exception failure
+  long frames
+  long bytes
+
+  @Override
+  void onNext(Frame element) {
+    frames++
+    bytes += element.payload?.length ?: 0
+  }
+
+  @Override
+  void onFailed(Exception e) {
+    failure = e
+    finished.countDown()
+  }
+
+  @Override
+  void onFinished() {
+    finished.countDown()
+  }
+
+  FrameCounter await(Duration timeout) {
+    if (!finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      throw new TimeoutException("logs didn't finish within ${timeout}")
+    }
+    if (failure) {
+      throw new IllegalStateException("logs failed", failure)
+    }
+    return this
+  }
+}
@@ -0,0 +1,70 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.authentication.ReferenceParser;
+import de.gesellix.docker.client.filters.Filters;
+import de.gesellix.docker.client.repository.RepositoryAndTag;
+import de.gesellix.docker.client.repository.RepositoryTagParser;
+import de.gesellix.util.QueryParameterEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+
+  @Param({
+      "alpine",
+      "gesellix/echo-server:2025-01-18",
+      "localhost.localdomain:5000/samalba/hipache:latest",
+      "registry.example.com:443/team/project/image@sha256:0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"})
+  public String image;
+
+  private final RepositoryTagParser repositoryTagParser = new RepositoryTagParser();
+  private final ReferenceParser referenceParser = new ReferenceParser();
+  private final QueryParameterEncoder queryParameterEncoder = new QueryParameterEncoder();
+
+  @Benchmark
+  public RepositoryAndTag parseRepositoryTag() {
+    return repositoryTagParser.parseRepositoryTag(image);
+  }
+
+  @Benchmark
+  public Object parseReference() {
+    return referenceParser.parse(image);
+  }
+
+  @Benchmark
+  public Map<String, Object> encodeFilters() {
+    Map<String, Object> filters = new HashMap<>();
+    filters.put("label", Arrays.asList("com.example.team=benchmarks", "com.example.service"));
+    filters.put("status", Collections.singletonList("running"));
+    filters.put("ancestor", Collections.singletonList(image));
+    Map<String, Object> query = new HashMap<>();
+    query.put("all", true);
+    query.put("filters", filters);
+    queryParameterEncoder.jsonEncodeQueryParameter(query, "filters");
+    return query;
+  }
+
+  @Benchmark
+  public String buildTypedFilters() {
+    return Filters.builder()
+        .label("com.example.team=benchmarks", "com.example.service")
+        .status("running")
+        .ancestor(image)
+        .build()
+        .toJson();
+  }
+}
@@ -0,0 +1,102 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.container.ArchiveUtil;
+import de.gesellix.docker.client.container.DockerResponseHandler;
+import de.gesellix.docker.engine.EngineResponse;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseHandlingBenchmark {
+
+  /**
+   * Number of progress messages in a pull/build response,
+   * and size of the single file in the tar archive in KiB.
+   */
+  @Param({"16", "1024"})
+  public int size;
+
+  private final DockerResponseHandler responseHandler = new DockerResponseHandler();
+  private final ArchiveUtil archiveUtil = new ArchiveUtil();
+
+  private EngineResponse progressResponse;
+  private byte[] tar;
+
+  @Setup
+  public void setup() throws IOException {
+    List<Map<String, Object>> progress = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Map<String, Object> message = new HashMap<>();
+      message.put("status", "Downloading");
+      message.put("id", "layer-" + (i % 8));
+      message.put("progress", "[=====>     ] " + i + "kB/" + size + "kB");
+      progress.add(message);
+    }
+    progressResponse = new EngineResponse();
+    progressResponse.setMimeType("application/json");
+    progressResponse.setContent(progress);
+
+    byte[] file = new byte[size * 1024];
+    new Random(4711).nextBytes(file);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tarStream = new TarArchiveOutputStream(archive)) {
+      TarArchiveEntry entry = new TarArchiveEntry("file.bin");
+      entry.setSize(file.length);
+      tarStream.putArchiveEntry(entry);
+      tarStream.write(file);
+      tarStream.closeArchiveEntry();
+    }
+    tar = archive.toByteArray();
+  }
+
+  @Benchmark
+  public List<Object> getErrors() {
+    return responseHandler.getErrors(progressResponse);
+  }
+
+  @Benchmark
+  public long copySingleTarEntry(Blackhole blackhole) {
+    return archiveUtil.copySingleTarEntry(new ByteArrayInputStream(tar), "/tmp/file.bin", new BlackholeOutputStream(blackhole));
+  }
+
+  static class BlackholeOutputStream extends OutputStream {
+
+    private final Blackhole blackhole;
+
+    BlackholeOutputStream(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(int b) {
+      blackhole.consume(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      blackhole.consume(b);
+    }
+  }
+}
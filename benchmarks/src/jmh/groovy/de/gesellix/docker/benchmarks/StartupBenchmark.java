@@ -0,0 +1,68 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.DockerClientImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first <code>ping()</code> of a new client in a fresh JVM,
+ * like a CLI wrapper would experience it, and the number of classes loaded on the way.
+ * The stub daemon runs in another JVM, so that only the client's classes are loaded in the measured one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Daemon {
+
+    StubDaemonProcess daemon;
+    String dockerHost;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+      daemon = StubDaemonProcess.start(1, 1);
+      dockerHost = daemon.getDockerHost();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+      daemon.close();
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ClassLoading {
+
+    public long classesLoaded;
+  }
+
+  @Benchmark
+  public String timeToFirstPing(Daemon daemon, ClassLoading classLoading) {
+    long loadedBefore = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+    DockerClientImpl dockerClient = new DockerClientImpl(daemon.dockerHost);
+    String ping = dockerClient.ping().getContent();
+    classLoading.classesLoaded = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - loadedBefore;
+    dockerClient.close();
+    return ping;
+  }
+}
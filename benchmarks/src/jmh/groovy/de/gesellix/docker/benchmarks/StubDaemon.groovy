@@ -0,0 +1,125 @@
+package de.gesellix.docker.benchmarks
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.testutil.HttpTestServer
+import groovy.json.JsonOutput
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+/**
+ * An in-process stand-in for the Docker daemon, serving canned responses
+ * for the endpoints exercised by the benchmarks.
+ */
+class StubDaemon implements HttpHandler {
+
+  private final HttpTestServer server = new HttpTestServer()
+
+  private final byte[] containerList
+  private final byte[] containerInspect
+  private final byte[] logs
+
+  StubDaemon(int containers, int logLines) {
+    this.containerList = JsonOutput.toJson((1..containers).collect { int i -> container(i) }).getBytes(StandardCharsets.UTF_8)
+    this.containerInspect = JsonOutput.toJson(inspect(1)).getBytes(StandardCharsets.UTF_8)
+    this.logs = multiplexedLogs(logLines)
+  }
+
+  /**
+   * @return the docker host url, e.g. <code>tcp://127.0.0.1:4711</code>
+   */
+  String start() {
+    InetSocketAddress address = server.start('/', this)
+    return "tcp://127.0.0.1:${address.port}"
+  }
+
+  void stop() {
+    server.stop()
+  }
+
+  @Override
+  void handle(HttpExchange exchange) {
+    String path = exchange.requestURI.path.replaceFirst("^/v[0-9.]+", "")
+    if (path == "/_ping") {
+      respond(exchange, "text/plain", "OK".bytes)
+    }
+    else if (path == "/containers/json") {
+      respond(exchange, "application/json", containerList)
+    }
+    else if (path.startsWith("/containers/") && path.endsWith("/logs")) {
+      respond(exchange, "application/vnd.docker.multiplexed-stream", logs)
+    }
+    else if (path.startsWith("/containers/") && path.endsWith("/json")) {
+      respond(exchange, "application/json", containerInspect)
+    }
+    else if (path.startsWith("/containers/") && path.endsWith("/archive") && exchange.requestMethod == "PUT") {
+      drain(exchange.requestBody)
+      exchange.sendResponseHeaders(200, -1)
+      exchange.close()
+    }
+    else {
+      exchange.sendResponseHeaders(404, -1)
+      exchange.close()
+    }
+  }
+
+  private static void respond(HttpExchange exchange, String contentType, byte[] body) {
+    exchange.responseHeaders.set("Content-Type", contentType)
+    exchange.sendResponseHeaders(200, body.length)
+    exchange.responseBody.write(body)
+    exchange.close()
+  }
+
+  private static long drain(InputStream body) {
+    byte[] buffer = new byte[64 * 1024]
+    long total = 0
+    int count
+    while ((count = body.read(buffer)) >= 0) {
+      total += count
+    }
+    return total
+  }
+
+  static byte[] multiplexedLogs(int lines) {
+    ByteArrayOutputStream frames = new ByteArrayOutputStream()
+    (1..lines).each { int i ->
+      byte[] payload = "${new Date(i * 1000L).toInstant()} log line ${i} of a chatty container\n".toString().getBytes(StandardCharsets.UTF_8)
+      ByteBuffer header = ByteBuffer.allocate(8)
+      header.put((byte) (i % 10 == 0 ? 2 : 1))
+      header.position(4)
+      header.putInt(payload.length)
+      frames.write(header.array())
+      frames.write(payload)
+    }
+    return frames.toByteArray()
+  }
+
+  private static Map<String, Object> container(int i) {
+    return [
+        Id     : String.format("%064x", i),
+        Names  : ["/container-${i}".toString()],
+        Image  : "alpine:3.21",
+        ImageID: "sha256:${String.format("%064x", 4711)}".toString(),
+        Command: "sh -c 'sleep 3600'",
+        Created: 1700000000 + i,
+        State  : "running",
+        Status : "Up 2 hours",
+        Ports  : [[PrivatePort: 8080, Type: "tcp"]],
+        Labels : ["com.example.service": "service-${i % 10}".toString(), "com.example.team": "benchmarks"],
+    ]
+  }
+
+  private static Map<String, Object> inspect(int i) {
+    return [
+        Id     : String.format("%064x", i),
+        Created: "2025-01-18T20:57:00.000000000Z",
+        Path   : "sh",
+        Args   : ["-c", "sleep 3600"],
+        State  : [Status: "running", Running: true, Paused: false, Restarting: false, OOMKilled: false, Dead: false, Pid: 4711, ExitCode: 0],
+        Image  : "sha256:${String.format("%064x", 4711)}".toString(),
+        Name   : "/container-${i}".toString(),
+        Config : [Hostname: "container-${i}".toString(), Tty: false, Image: "alpine:3.21", Cmd: ["sh", "-c", "sleep 3600"], Labels: ["com.example.team": "benchmarks"]],
+    ]
+  }
+}
@@ -0,0 +1,102 @@
+package de.gesellix.docker.benchmarks;
+
+import de.gesellix.docker.client.DockerClientImpl;
+import de.gesellix.docker.client.EngineResponseContent;
+import de.gesellix.docker.remote.api.ContainerInspectResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete round trips, including serialization and frame demultiplexing,
+ * against an in-process {@link StubDaemon}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StubDaemonBenchmark {
+
+  /**
+   * Number of containers returned by <code>ps()</code>, and number of log lines per <code>logs()</code> call.
+   */
+  @Param({"10", "1000"})
+  public int size;
+
+  private StubDaemon daemon;
+  private DockerClientImpl dockerClient;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    daemon = new StubDaemon(size, size);
+    dockerClient = new DockerClientImpl(daemon.start());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dockerClient.close();
+    daemon.stop();
+  }
+
+  @Benchmark
+  public EngineResponseContent<List<Map<String, Object>>> ps() {
+    return dockerClient.ps();
+  }
+
+  @Benchmark
+  public EngineResponseContent<ContainerInspectResponse> inspectContainer() {
+    return dockerClient.inspectContainer("container-1");
+  }
+
+  @Benchmark
+  public long logs() {
+    Map<String, Object> query = new HashMap<>();
+    query.put("follow", false);
+    FrameCounter counter = new FrameCounter();
+    dockerClient.logs("container-1", query, counter, Duration.ofSeconds(10));
+    return counter.await(Duration.ofSeconds(10)).getFrames();
+  }
+
+  /**
+   * Same response as {@link #logs()}, demultiplexed into streams instead of a {@link de.gesellix.docker.remote.api.core.Frame} per line.
+   * Compare allocation rates with <code>-Pjmh.profilers=gc</code>.
+   */
+  @Benchmark
+  public long logsIntoStreams() throws IOException {
+    Map<String, Object> query = new HashMap<>();
+    query.put("follow", false);
+    CountingOutputStream stdout = new CountingOutputStream();
+    CountingOutputStream stderr = new CountingOutputStream();
+    dockerClient.logs("container-1", query, stdout, stderr);
+    return stdout.bytes + stderr.bytes;
+  }
+
+  static class CountingOutputStream extends OutputStream {
+
+    long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+  }
+}
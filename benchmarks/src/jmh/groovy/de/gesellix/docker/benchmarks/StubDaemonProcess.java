@@ -0,0 +1,69 @@
+package de.gesellix.docker.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs a {@link StubDaemon} in a separate JVM, so that a benchmark measuring the client's startup
+ * doesn't count the classes loaded by the stub, e.g. of the Groovy runtime or the HttpServer.
+ * <p>
+ * The child prints the docker host url and stops when its standard input is closed.
+ */
+public final class StubDaemonProcess implements AutoCloseable {
+
+  private final Process process;
+  private final String dockerHost;
+
+  private StubDaemonProcess(Process process, String dockerHost) {
+    this.process = process;
+    this.dockerHost = dockerHost;
+  }
+
+  public static StubDaemonProcess start(int containers, int logLines) throws IOException {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                         // referring to the class by name keeps it out of the benchmark JVM
+                                         "de.gesellix.docker.benchmarks.StubDaemonProcess",
+                                         String.valueOf(containers), String.valueOf(logLines))
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    String dockerHost = output.readLine();
+    if (dockerHost == null) {
+      process.destroyForcibly();
+      throw new IOException("stub daemon exited without reporting its address");
+    }
+    return new StubDaemonProcess(process, dockerHost);
+  }
+
+  public String getDockerHost() {
+    return dockerHost;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    try {
+      process.getOutputStream().close();
+    } catch (IOException ignored) {
+      // the child has already exited
+    }
+    process.waitFor();
+  }
+
+  public static void main(String[] args) throws IOException {
+    StubDaemon daemon = new StubDaemon(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+    System.out.println(daemon.start());
+    System.out.flush();
+    try {
+      // blocks until the parent closes our standard input or exits
+      while (System.in.read() >= 0) {
+        // ignore
+      }
+    } finally {
+      daemon.stop();
+    }
+  }
+}
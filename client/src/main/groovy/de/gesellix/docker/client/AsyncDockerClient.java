@@ -0,0 +1,270 @@
+package de.gesellix.docker.client;
+
+import de.gesellix.docker.remote.api.Config;
+import de.gesellix.docker.remote.api.ContainerCreateRequest;
+import de.gesellix.docker.remote.api.ContainerCreateResponse;
+import de.gesellix.docker.remote.api.ContainerInspectResponse;
+import de.gesellix.docker.remote.api.ContainerTopResponse;
+import de.gesellix.docker.remote.api.ContainerWaitResponse;
+import de.gesellix.docker.remote.api.FilesystemChange;
+import de.gesellix.docker.remote.api.HistoryResponseItem;
+import de.gesellix.docker.remote.api.ImageDeleteResponseItem;
+import de.gesellix.docker.remote.api.ImageInspect;
+import de.gesellix.docker.remote.api.ImageSummary;
+import de.gesellix.docker.remote.api.Network;
+import de.gesellix.docker.remote.api.Node;
+import de.gesellix.docker.remote.api.Secret;
+import de.gesellix.docker.remote.api.Service;
+import de.gesellix.docker.remote.api.ServiceCreateRequest;
+import de.gesellix.docker.remote.api.ServiceCreateResponse;
+import de.gesellix.docker.remote.api.ServiceUpdateResponse;
+import de.gesellix.docker.remote.api.SystemInfo;
+import de.gesellix.docker.remote.api.SystemVersion;
+import de.gesellix.docker.remote.api.Task;
+import de.gesellix.docker.remote.api.Volume;
+import de.gesellix.docker.remote.api.VolumeListResponse;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade for a {@link DockerClient}.
+ * <p>
+ * Every operation is executed on the configured {@link Executor}, which defaults to
+ * one virtual thread per call when the runtime supports virtual threads.
+ * The most frequently used operations are available as typed methods,
+ * all others can be submitted via {@link #submit(Function)} or {@link #run(Consumer)}.
+ * <p>
+ * Cancelling a returned future interrupts the thread performing the call and,
+ * for a {@link DockerClientImpl}, cancels the HTTP requests started by that thread.
+ */
+public class AsyncDockerClient implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(AsyncDockerClient.class);
+
+  private final DockerClient client;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public AsyncDockerClient(DockerClient client) {
+    this(client, DefaultExecutors.newTaskExecutor("docker-client-async"), true);
+  }
+
+  public AsyncDockerClient(DockerClient client, Executor executor) {
+    this(client, executor, false);
+  }
+
+  private AsyncDockerClient(DockerClient client, Executor executor, boolean ownsExecutor) {
+    this.client = client;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  public DockerClient getClient() {
+    return client;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public <T> CompletableFuture<T> submit(Function<DockerClient, T> operation) {
+    InterruptibleFuture<T> future = new InterruptibleFuture<>(() -> operation.apply(client), callCanceller());
+    try {
+      executor.execute(future);
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  public CompletableFuture<Void> run(Consumer<DockerClient> operation) {
+    return submit((DockerClient c) -> {
+      operation.accept(c);
+      return null;
+    });
+  }
+
+  public CompletableFuture<EngineResponseContent<String>> ping() {
+    return submit(DockerClient::ping);
+  }
+
+  public CompletableFuture<EngineResponseContent<SystemVersion>> version() {
+    return submit(DockerClient::version);
+  }
+
+  public CompletableFuture<EngineResponseContent<SystemInfo>> info() {
+    return submit(DockerClient::info);
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Map<String, Object>>>> ps() {
+    return submit((DockerClient c) -> c.ps());
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Map<String, Object>>>> ps(Boolean all, Integer limit, Boolean size, String filters) {
+    return submit((DockerClient c) -> c.ps(all, limit, size, filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<ContainerInspectResponse>> inspectContainer(String container) {
+    return submit((DockerClient c) -> c.inspectContainer(container));
+  }
+
+  public CompletableFuture<EngineResponseContent<ContainerCreateResponse>> createContainer(ContainerCreateRequest containerCreateRequest, String name) {
+    return submit((DockerClient c) -> c.createContainer(containerCreateRequest, name));
+  }
+
+  public CompletableFuture<EngineResponseContent<ContainerCreateResponse>> run(ContainerCreateRequest containerCreateRequest, String name) {
+    return submit((DockerClient c) -> c.run(containerCreateRequest, name));
+  }
+
+  public CompletableFuture<Void> startContainer(String container) {
+    return run((DockerClient c) -> c.startContainer(container));
+  }
+
+  public CompletableFuture<Void> stop(String container, Duration timeout) {
+    return run((DockerClient c) -> c.stop(container, timeout));
+  }
+
+  public CompletableFuture<Void> restart(String container) {
+    return run((DockerClient c) -> c.restart(container));
+  }
+
+  public CompletableFuture<Void> kill(String container) {
+    return run((DockerClient c) -> c.kill(container));
+  }
+
+  public CompletableFuture<Void> pause(String container) {
+    return run((DockerClient c) -> c.pause(container));
+  }
+
+  public CompletableFuture<Void> unpause(String container) {
+    return run((DockerClient c) -> c.unpause(container));
+  }
+
+  public CompletableFuture<Void> rm(String container, Map<String, Object> query) {
+    return run((DockerClient c) -> c.rm(container, query));
+  }
+
+  public CompletableFuture<EngineResponseContent<ContainerWaitResponse>> wait(String container) {
+    return submit((DockerClient c) -> c.wait(container));
+  }
+
+  public CompletableFuture<EngineResponseContent<ContainerTopResponse>> top(String container) {
+    return submit((DockerClient c) -> c.top(container));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<FilesystemChange>>> diff(String container) {
+    return submit((DockerClient c) -> c.diff(container));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<ImageSummary>>> images(Boolean all, String filters, Boolean digests) {
+    return submit((DockerClient c) -> c.images(all, filters, digests));
+  }
+
+  public CompletableFuture<EngineResponseContent<ImageInspect>> inspectImage(String image) {
+    return submit((DockerClient c) -> c.inspectImage(image));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<HistoryResponseItem>>> history(String image) {
+    return submit((DockerClient c) -> c.history(image));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<ImageDeleteResponseItem>>> rmi(String image) {
+    return submit((DockerClient c) -> c.rmi(image));
+  }
+
+  public CompletableFuture<Void> tag(String image, String repository) {
+    return run((DockerClient c) -> c.tag(image, repository));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Service>>> services(String filters) {
+    return submit((DockerClient c) -> c.services(filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<Service>> inspectService(String service) {
+    return submit((DockerClient c) -> c.inspectService(service));
+  }
+
+  public CompletableFuture<EngineResponseContent<ServiceCreateResponse>> createService(ServiceCreateRequest serviceSpec) {
+    return submit((DockerClient c) -> c.createService(serviceSpec));
+  }
+
+  public CompletableFuture<EngineResponseContent<ServiceUpdateResponse>> scaleService(String service, int replicas) {
+    return submit((DockerClient c) -> c.scaleService(service, replicas));
+  }
+
+  public CompletableFuture<Void> rmService(String service) {
+    return run((DockerClient c) -> c.rmService(service));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Task>>> tasks(String filters) {
+    return submit((DockerClient c) -> c.tasks(filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Task>>> tasksOfService(String service) {
+    return submit((DockerClient c) -> c.tasksOfService(service));
+  }
+
+  public CompletableFuture<EngineResponseContent<Task>> inspectTask(String task) {
+    return submit((DockerClient c) -> c.inspectTask(task));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Node>>> nodes(String filters) {
+    return submit((DockerClient c) -> c.nodes(filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<Node>> inspectNode(String node) {
+    return submit((DockerClient c) -> c.inspectNode(node));
+  }
+
+  public CompletableFuture<EngineResponseContent<List<Network>>> networks(String filters) {
+    return submit((DockerClient c) -> c.networks(filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<Network>> inspectNetwork(String network) {
+    return submit((DockerClient c) -> c.inspectNetwork(network));
+  }
+
+  public CompletableFuture<EngineResponseContent<VolumeListResponse>> volumes(String filters) {
+    return submit((DockerClient c) -> c.volumes(filters));
+  }
+
+  public CompletableFuture<EngineResponseContent<Volume>> inspectVolume(String volume) {
+    return submit((DockerClient c) -> c.inspectVolume(volume));
+  }
+
+  public CompletableFuture<EngineResponseContent<Secret>> inspectSecret(String secret) {
+    return submit((DockerClient c) -> c.inspectSecret(secret));
+  }
+
+  public CompletableFuture<EngineResponseContent<Config>> inspectConfig(String config) {
+    return submit((DockerClient c) -> c.inspectConfig(config));
+  }
+
+  private InterruptibleFuture.Canceller callCanceller() {
+    return client instanceof DockerClientImpl ? ((DockerClientImpl) client).getTransport().getCalls() : null;
+  }
+
+  /**
+   * Shuts down the default executor. Executors passed by the caller are left untouched.
+   */
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      log.debug("shutting down async executor");
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+}
@@ -7,10 +7,14 @@ import de.gesellix.docker.client.config.ManageConfig
 import de.gesellix.docker.client.config.ManageConfigClient
 import de.gesellix.docker.client.container.ManageContainer
 import de.gesellix.docker.client.container.ManageContainerClient
+import de.gesellix.docker.client.container.TtyModes
 import de.gesellix.docker.client.distribution.ManageDistribution
 import de.gesellix.docker.client.distribution.ManageDistributionService
 import de.gesellix.docker.client.image.ManageImage
 import de.gesellix.docker.client.image.ManageImageClient
+import de.gesellix.docker.client.lists.StreamingLists
+import de.gesellix.docker.client.metrics.DockerClientMetrics
+import de.gesellix.docker.client.metrics.MeteringInterceptor
 import de.gesellix.docker.client.network.ManageNetwork
 import de.gesellix.docker.client.network.ManageNetworkClient
 import de.gesellix.docker.client.node.ManageNode
@@ -23,118 +27,388 @@ import de.gesellix.docker.client.service.ManageService
 import de.gesellix.docker.client.service.ManageServiceClient
 import de.gesellix.docker.client.stack.ManageStack
 import de.gesellix.docker.client.stack.ManageStackClient
+import de.gesellix.docker.client.stats.StreamingStats
 import de.gesellix.docker.client.swarm.ManageSwarm
 import de.gesellix.docker.client.swarm.ManageSwarmClient
+import de.gesellix.docker.client.system.DaemonCapabilities
 import de.gesellix.docker.client.system.ManageSystem
 import de.gesellix.docker.client.system.ManageSystemClient
 import de.gesellix.docker.client.tasks.ManageTask
 import de.gesellix.docker.client.tasks.ManageTaskClient
+import de.gesellix.docker.client.transport.EngineApiClients
+import de.gesellix.docker.client.transport.EngineTransport
+import de.gesellix.docker.client.transport.EngineTransportConfig
+import de.gesellix.docker.client.transport.PooledOkDockerClient
 import de.gesellix.docker.client.volume.ManageVolume
 import de.gesellix.docker.client.volume.ManageVolumeClient
 import de.gesellix.docker.engine.DockerClientConfig
 import de.gesellix.docker.engine.DockerEnv
 import de.gesellix.docker.engine.EngineClient
-import de.gesellix.docker.engine.OkDockerClient
 import de.gesellix.docker.remote.api.EngineApiClient
-import de.gesellix.docker.remote.api.EngineApiClientImpl
 import de.gesellix.docker.remote.api.Node
+import de.gesellix.docker.remote.api.SwarmInitRequest
+import de.gesellix.docker.remote.api.SwarmJoinRequest
+import de.gesellix.util.CoalescingInterceptor
+import de.gesellix.util.Interceptor
+import de.gesellix.util.Lazy
+import de.gesellix.util.SingleFlight
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.time.Duration
+
 import static java.net.Proxy.NO_PROXY
 
-class DockerClientImpl implements DockerClient {
+class DockerClientImpl implements DockerClient, Closeable {
 
   private final Logger log = LoggerFactory.getLogger(DockerClientImpl)
 
-  RepositoryTagParser repositoryTagParser
-
   Proxy proxy
   DockerClientConfig dockerClientConfig
   DockerEnv env
-  EngineClient httpClient
-  EngineApiClient engineApiClient
+  EngineTransportConfig transportConfig
+  DockerClientMetrics metrics = DockerClientMetrics.NOOP
+  DaemonCapabilities daemonCapabilities
+  boolean coalesceInspects = Boolean.getBoolean("docker.client.coalesceInspects")
+  // lets attach and startExec skip the inspect request. The client doesn't follow the daemon's events on its own,
+  // so containers removed by others are only evicted when the caller subscribes TtyModes#getEventCallback().
+  // Without that subscription, memory stays bounded by the LRU and stale entries are harmless,
+  // because full container ids aren't reused.
+  final TtyModes ttyModes = new TtyModes()
+
+  // shared by the Manage* clients, so that the hit rate covers all inspect operations
+  private final SingleFlight<List<Object>, Object> inspectCoalescing = new SingleFlight<List<Object>, Object>({ List<Object> key ->
+    metrics.requestCoalesced(key.get(0) as String)
+  })
+
+  // Everything below is created on first use, so that short-lived tools which only
+  // call a few operations don't pay for the HTTP clients, auth config and Manage* clients they don't need.
+  // Dependencies between the Manage* clients are resolved via this instance for the same reason.
+
+  private final Lazy<RepositoryTagParser> repositoryTagParserRef = new Lazy<RepositoryTagParser>({ new RepositoryTagParser() })
+  private final Lazy<EngineTransport> transportRef = new Lazy<EngineTransport>({
+    EngineTransport transport = new EngineTransport(transportConfig ?: new EngineTransportConfig())
+    transport.calls.metrics = metrics
+    return transport
+  })
+  private final Lazy<EngineClient> httpClientRef = new Lazy<EngineClient>({ new PooledOkDockerClient(getTransport(), dockerClientConfig, proxy) })
+  private final Lazy<EngineApiClient> engineApiClientRef = new Lazy<EngineApiClient>({ EngineApiClients.create(getTransport(), dockerClientConfig, proxy) })
+  private final Lazy<StreamingLists> streamingListsRef = new Lazy<StreamingLists>({ new StreamingLists(getHttpClient()) })
+  private final Lazy<StreamingStats> streamingStatsRef = new Lazy<StreamingStats>({ new StreamingStats(getHttpClient()) })
+
+  private final Lazy<ManageSystem> manageSystemRef = new Lazy<ManageSystem>({
+    intercepted(ManageSystem, new ManageSystemClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageAuthentication> manageAuthenticationRef = new Lazy<ManageAuthentication>({
+    // reads the Docker config files only when credentials are needed
+    intercepted(ManageAuthentication, new ManageAuthenticationClient(getEngineApiClient(), new AuthConfigReader(env), env.dockerConfigReader))
+  })
+  private final Lazy<ManageImage> manageImageRef = new Lazy<ManageImage>({
+    intercepted(ManageImage, new ManageImageClient(getEngineApiClient(), this), "inspectImage")
+  })
+  private final Lazy<ManageContainer> manageContainerRef = new Lazy<ManageContainer>({
+    intercepted(ManageContainer, new ManageContainerClient(getEngineApiClient(), getHttpClient(), ttyModes), "inspectContainer")
+  })
+  private final Lazy<ManageVolume> manageVolumeRef = new Lazy<ManageVolume>({
+    intercepted(ManageVolume, new ManageVolumeClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageNetwork> manageNetworkRef = new Lazy<ManageNetwork>({
+    intercepted(ManageNetwork, new ManageNetworkClient(getEngineApiClient()), "inspectNetwork")
+  })
+  private final Lazy<ManageSwarm> manageSwarmRef = new Lazy<ManageSwarm>({
+    intercepted(ManageSwarm, new ManageSwarmClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageSecret> manageSecretRef = new Lazy<ManageSecret>({
+    intercepted(ManageSecret, new ManageSecretClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageConfig> manageConfigRef = new Lazy<ManageConfig>({
+    intercepted(ManageConfig, new ManageConfigClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageService> manageServiceRef = new Lazy<ManageService>({
+    intercepted(ManageService, new ManageServiceClient(getEngineApiClient(), this, new NodeUtil(daemonCapabilities)), "inspectService")
+  })
+  private final Lazy<ManageStack> manageStackRef = new Lazy<ManageStack>({
+    intercepted(ManageStack, new ManageStackClient(this, this, this, this, this, this, this, this, daemonCapabilities))
+  })
+  private final Lazy<ManageNode> manageNodeRef = new Lazy<ManageNode>({
+    intercepted(ManageNode, new ManageNodeClient(getEngineApiClient(), this, new NodeUtil(daemonCapabilities)))
+  })
+  private final Lazy<ManageTask> manageTaskRef = new Lazy<ManageTask>({
+    intercepted(ManageTask, new ManageTaskClient(getEngineApiClient()))
+  })
+  private final Lazy<ManageDistribution> manageDistributionRef = new Lazy<ManageDistribution>({
+    intercepted(ManageDistribution, new ManageDistributionService(getEngineApiClient()))
+  })
+
+  private final List<Lazy<?>> lazyComponents = [
+      repositoryTagParserRef, httpClientRef, engineApiClientRef, streamingListsRef, streamingStatsRef,
+      manageSystemRef, manageAuthenticationRef, manageImageRef, manageContainerRef, manageVolumeRef, manageNetworkRef,
+      manageSwarmRef, manageSecretRef, manageConfigRef, manageServiceRef, manageStackRef, manageNodeRef, manageTaskRef,
+      manageDistributionRef] as List<Lazy<?>>
+
+  DockerClientImpl() {
+    this(new DockerClientConfig())
+  }
+
+  DockerClientImpl(String dockerHost) {
+    this(new DockerClientConfig(dockerHost))
+  }
+
+  DockerClientImpl(DockerEnv env, Proxy proxy = NO_PROXY) {
+    this(new DockerClientConfig(env), proxy)
+  }
+
+  DockerClientImpl(DockerClientConfig dockerClientConfig, Proxy proxy = NO_PROXY, EngineTransportConfig transportConfig = new EngineTransportConfig()) {
+    this.transportConfig = transportConfig
+    apply(dockerClientConfig, proxy)
+  }
+
+  void apply(DockerClientConfig dockerClientConfig, Proxy proxy = NO_PROXY) {
+    this.dockerClientConfig = dockerClientConfig
+    this.env = dockerClientConfig.env
+    this.proxy = proxy
+
+    // connections of a previous configuration might point to another daemon
+    transportRef.reset()?.close()
+    closeManageClients()
+    lazyComponents.each { it.reset() }
+    ttyModes.clear()
+    log.info("using docker at '${env.dockerHost}'")
+
+    // reads via this client, so that replacing the manageSystem delegate is respected
+    Duration capabilitiesTtl = daemonCapabilities?.ttl
+    this.daemonCapabilities = capabilitiesTtl != null ? new DaemonCapabilities(this, capabilitiesTtl) : new DaemonCapabilities(this)
+  }
+
+  RepositoryTagParser getRepositoryTagParser() {
+    return repositoryTagParserRef.get()
+  }
+
+  EngineTransport getTransport() {
+    return transportRef.get()
+  }
+
+  EngineClient getHttpClient() {
+    return httpClientRef.get()
+  }
+
+  void setHttpClient(EngineClient httpClient) {
+    httpClientRef.set(httpClient)
+  }
+
+  EngineApiClient getEngineApiClient() {
+    return engineApiClientRef.get()
+  }
+
+  void setEngineApiClient(EngineApiClient engineApiClient) {
+    engineApiClientRef.set(engineApiClient)
+  }
+
+  /**
+   * @return streaming variants of <code>ps</code>, <code>images</code>, <code>tasks</code> and <code>services</code>
+   */
+  StreamingLists getStreamingLists() {
+    return streamingListsRef.get()
+  }
+
+  /**
+   * @return raw stats responses for a {@link de.gesellix.docker.client.stats.StatsMonitor}
+   */
+  StreamingStats getStreamingStats() {
+    return streamingStatsRef.get()
+  }
 
   @Delegate
-  ManageSystem manageSystem
+  ManageSystem getManageSystem() {
+    return manageSystemRef.get()
+  }
+
+  void setManageSystem(ManageSystem manageSystem) {
+    manageSystemRef.set(manageSystem)
+  }
+
   @Delegate
-  ManageAuthentication manageAuthentication
+  ManageAuthentication getManageAuthentication() {
+    return manageAuthenticationRef.get()
+  }
+
+  void setManageAuthentication(ManageAuthentication manageAuthentication) {
+    manageAuthenticationRef.set(manageAuthentication)
+  }
+
   @Delegate
-  ManageImage manageImage
+  ManageImage getManageImage() {
+    return manageImageRef.get()
+  }
+
+  void setManageImage(ManageImage manageImage) {
+    manageImageRef.set(manageImage)
+  }
+
   @Delegate
-  ManageContainer manageContainer
+  ManageContainer getManageContainer() {
+    return manageContainerRef.get()
+  }
+
+  void setManageContainer(ManageContainer manageContainer) {
+    manageContainerRef.set(manageContainer)
+  }
+
   @Delegate
-  ManageVolume manageVolume
+  ManageVolume getManageVolume() {
+    return manageVolumeRef.get()
+  }
+
+  void setManageVolume(ManageVolume manageVolume) {
+    manageVolumeRef.set(manageVolume)
+  }
+
   @Delegate
-  ManageNetwork manageNetwork
+  ManageNetwork getManageNetwork() {
+    return manageNetworkRef.get()
+  }
+
+  void setManageNetwork(ManageNetwork manageNetwork) {
+    manageNetworkRef.set(manageNetwork)
+  }
+
   @Delegate
-  ManageSwarm manageSwarm
+  ManageSwarm getManageSwarm() {
+    return manageSwarmRef.get()
+  }
+
+  void setManageSwarm(ManageSwarm manageSwarm) {
+    manageSwarmRef.set(manageSwarm)
+  }
+
   @Delegate
-  ManageSecret manageSecret
+  ManageSecret getManageSecret() {
+    return manageSecretRef.get()
+  }
+
+  void setManageSecret(ManageSecret manageSecret) {
+    manageSecretRef.set(manageSecret)
+  }
+
   @Delegate
-  ManageConfig manageConfig
+  ManageConfig getManageConfig() {
+    return manageConfigRef.get()
+  }
+
+  void setManageConfig(ManageConfig manageConfig) {
+    manageConfigRef.set(manageConfig)
+  }
+
   @Delegate
-  ManageService manageService
+  ManageService getManageService() {
+    return manageServiceRef.get()
+  }
+
+  void setManageService(ManageService manageService) {
+    manageServiceRef.set(manageService)
+  }
+
   @Delegate
-  ManageStack manageStack
+  ManageStack getManageStack() {
+    return manageStackRef.get()
+  }
+
+  void setManageStack(ManageStack manageStack) {
+    manageStackRef.set(manageStack)
+  }
+
   @Delegate
-  ManageNode manageNode
+  ManageNode getManageNode() {
+    return manageNodeRef.get()
+  }
+
+  void setManageNode(ManageNode manageNode) {
+    manageNodeRef.set(manageNode)
+  }
+
   @Delegate
-  ManageTask manageTask
+  ManageTask getManageTask() {
+    return manageTaskRef.get()
+  }
+
+  void setManageTask(ManageTask manageTask) {
+    manageTaskRef.set(manageTask)
+  }
+
   @Delegate
-  ManageDistribution manageDistribution
+  ManageDistribution getManageDistribution() {
+    return manageDistributionRef.get()
+  }
 
-  DockerClientImpl() {
-    this(new DockerClientConfig())
+  void setManageDistribution(ManageDistribution manageDistribution) {
+    manageDistributionRef.set(manageDistribution)
   }
 
-  DockerClientImpl(String dockerHost) {
-    this(new DockerClientConfig(dockerHost))
+  private <T> T intercepted(Class<T> type, T delegate, String coalescedOperation = null) {
+    // without metrics and coalescing, calls reach the Manage* clients directly
+    Interceptor interceptor = Interceptor.chain(
+        metrics == DockerClientMetrics.NOOP ? null : new MeteringInterceptor(metrics),
+        coalesceInspects && coalescedOperation ? new CoalescingInterceptor([coalescedOperation], inspectCoalescing) : null)
+    return InterceptingClients.wrap(type, delegate, interceptor)
   }
 
-  DockerClientImpl(DockerEnv env, Proxy proxy = NO_PROXY) {
-    this(new DockerClientConfig(env), proxy)
+  /**
+   * Lets concurrent identical calls of <code>inspectContainer</code>, <code>inspectImage</code>,
+   * <code>inspectService</code> and <code>inspectNetwork</code> share a single request.
+   * Can also be enabled via the system property <code>docker.client.coalesceInspects</code>.
+   * <p>
+   * Like {@link #setMetrics(DockerClientMetrics)}, this only wraps the <code>Manage*</code> clients again.
+   */
+  void setCoalesceInspects(boolean coalesceInspects) {
+    this.coalesceInspects = coalesceInspects
+    rewrapManageClients()
   }
 
-  DockerClientImpl(DockerClientConfig dockerClientConfig, Proxy proxy = NO_PROXY) {
-    apply(dockerClientConfig, proxy)
+  /**
+   * @return the number of coalesced inspect calls and the hit rate, see {@link #setCoalesceInspects(boolean)}
+   */
+  SingleFlight<List<Object>, Object> getInspectCoalescing() {
+    return inspectCoalescing
   }
 
-  void apply(DockerClientConfig dockerClientConfig, Proxy proxy = NO_PROXY) {
-    this.dockerClientConfig = dockerClientConfig
-    this.env = dockerClientConfig.env
-    this.proxy = proxy
+  /**
+   * Records count, errors and latency of every operation, e.g. via an {@link de.gesellix.docker.client.metrics.InMemoryDockerClientMetrics}.
+   * HTTP body bytes are recorded for operations using the shared {@link #getTransport() transport}.
+   * The latency of operations returning streams doesn't include consuming the stream.
+   * <p>
+   * Only the <code>Manage*</code> clients are wrapped again, so that connections, delegates and caches are kept.
+   */
+  void setMetrics(DockerClientMetrics metrics) {
+    this.metrics = metrics ?: DockerClientMetrics.NOOP
+    if (transportRef.initialized) {
+      transport.calls.metrics = this.metrics
+    }
+    rewrapManageClients()
+  }
 
-    AuthConfigReader authConfigReader = new AuthConfigReader(env)
-    this.engineApiClient = new EngineApiClientImpl(dockerClientConfig, proxy)
-    this.httpClient = new OkDockerClient(dockerClientConfig, proxy)
-    log.info("using docker at '${env.dockerHost}'")
+  private void rewrapManageClients() {
+    rewrap(ManageSystem, manageSystemRef)
+    rewrap(ManageAuthentication, manageAuthenticationRef)
+    rewrap(ManageImage, manageImageRef, "inspectImage")
+    rewrap(ManageContainer, manageContainerRef, "inspectContainer")
+    rewrap(ManageVolume, manageVolumeRef)
+    rewrap(ManageNetwork, manageNetworkRef, "inspectNetwork")
+    rewrap(ManageSwarm, manageSwarmRef)
+    rewrap(ManageSecret, manageSecretRef)
+    rewrap(ManageConfig, manageConfigRef)
+    rewrap(ManageService, manageServiceRef, "inspectService")
+    rewrap(ManageStack, manageStackRef)
+    rewrap(ManageNode, manageNodeRef)
+    rewrap(ManageTask, manageTaskRef)
+    rewrap(ManageDistribution, manageDistributionRef)
+  }
 
-    this.repositoryTagParser = new RepositoryTagParser()
-
-    this.manageSystem = new ManageSystemClient(engineApiClient)
-    this.manageAuthentication = new ManageAuthenticationClient(engineApiClient, authConfigReader, env.dockerConfigReader)
-    this.manageImage = new ManageImageClient(engineApiClient, manageAuthentication)
-    this.manageDistribution = new ManageDistributionService(engineApiClient)
-    this.manageContainer = new ManageContainerClient(engineApiClient, httpClient)
-    this.manageVolume = new ManageVolumeClient(engineApiClient)
-    this.manageNetwork = new ManageNetworkClient(engineApiClient)
-    this.manageSwarm = new ManageSwarmClient(engineApiClient)
-    this.manageSecret = new ManageSecretClient(engineApiClient)
-    this.manageConfig = new ManageConfigClient(engineApiClient)
-    this.manageTask = new ManageTaskClient(engineApiClient)
-    NodeUtil nodeUtil = new NodeUtil(manageSystem)
-    this.manageService = new ManageServiceClient(engineApiClient, manageTask, nodeUtil)
-    this.manageNode = new ManageNodeClient(engineApiClient, manageTask, nodeUtil)
-    this.manageStack = new ManageStackClient(
-        manageService,
-        manageTask,
-        manageNode,
-        manageNetwork,
-        manageSecret,
-        manageConfig,
-        manageSystem,
-        manageAuthentication)
+  private <T> void rewrap(Class<T> type, Lazy<T> ref, String coalescedMethod = null) {
+    // clients which haven't been created yet are wrapped on first use
+    if (ref.initialized) {
+      T delegate = type.cast(InterceptingClients.unwrap(ref.get()))
+      ref.set(intercepted(type, delegate, coalescedMethod))
+    }
   }
 
   void setDockerClientConfig(DockerClientConfig dockerClientConfig) {
@@ -145,11 +419,63 @@ class DockerClientImpl implements DockerClient {
     setDockerClientConfig(new DockerClientConfig(env))
   }
 
+  /**
+   * Releases the pooled connections and dispatcher threads, and the threads of pending log watches and transfers.
+   */
+  @Override
+  void close() {
+    closeManageClients()
+    transportRef.reset()?.close()
+  }
+
+  private void closeManageClients() {
+    [manageContainerRef, manageImageRef].each { Lazy<?> ref ->
+      if (ref.initialized) {
+        Object manageClient = InterceptingClients.unwrap(ref.get())
+        if (manageClient instanceof Closeable) {
+          ((Closeable) manageClient).close()
+        }
+      }
+    }
+  }
+
+  @Override
+  EngineResponseContent<String> initSwarm() {
+    EngineResponseContent<String> response = getManageSwarm().initSwarm()
+    daemonCapabilities.invalidateInfo()
+    return response
+  }
+
+  @Override
+  EngineResponseContent<String> initSwarm(SwarmInitRequest swarmInitRequest) {
+    EngineResponseContent<String> response = getManageSwarm().initSwarm(swarmInitRequest)
+    daemonCapabilities.invalidateInfo()
+    return response
+  }
+
+  @Override
+  void joinSwarm(SwarmJoinRequest swarmJoinRequest) {
+    getManageSwarm().joinSwarm(swarmJoinRequest)
+    daemonCapabilities.invalidateInfo()
+  }
+
+  @Override
+  void leaveSwarm() {
+    getManageSwarm().leaveSwarm()
+    daemonCapabilities.invalidateInfo()
+  }
+
+  @Override
+  void leaveSwarm(Boolean force) {
+    getManageSwarm().leaveSwarm(force)
+    daemonCapabilities.invalidateInfo()
+  }
+
   // TODO move to ManageSwarm?
   @Override
   String getSwarmMangerAddress() {
     log.info("docker get swarm manager address")
-    String swarmNodeId = info().content.swarm.nodeID
+    String swarmNodeId = daemonCapabilities.swarmNodeId
     Node node = inspectNode(swarmNodeId).content
     return node.managerStatus.addr
   }
@@ -1,36 +1,188 @@
 package de.gesellix.docker.client
 
+import de.gesellix.docker.engine.DockerClientConfig
 import de.gesellix.docker.engine.DockerVersion
 import de.gesellix.docker.remote.api.SystemInfo
 import de.gesellix.docker.remote.api.SystemVersion
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.function.Supplier
+
 import static de.gesellix.docker.engine.DockerVersion.parseDockerVersion
 
+/**
+ * Probes the local Docker daemon, e.g. to decide whether a test can run.
+ * <p>
+ * Instances share a single client per docker host and memoize each probe result,
+ * including failures, until {@link #refresh()} is called.
+ * The static methods are thin wrappers around the instance for the default docker host.
+ */
 class LocalDocker {
 
   private final static Logger log = LoggerFactory.getLogger(LocalDocker)
 
-  static void main(String[] args) {
-//    println(available() ? "connection success" : "failed to connect")
-    log.debug(available() ? "connection success" : "failed to connect")
-  }
+  private static final ConcurrentMap<String, LocalDocker> instancesByHost = new ConcurrentHashMap<>()
+  private static volatile LocalDocker defaultInstance
 
-  static boolean available() {
+  final String dockerHost
+
+  private final Supplier<DockerClient> clientFactory
+  private DockerClient client
+
+  private final Probe<Boolean> available = new Probe<>({
     try {
-      return new DockerClientImpl().ping().content == "OK"
+      return getClient().ping().content == "OK"
     }
     catch (Exception e) {
       log.info("Docker not available", e)
       return false
     }
+  })
+  private final Probe<DockerVersion> version = new Probe<>({
+    parseDockerVersion(getClient().version().content.version)
+  })
+  private final Probe<Boolean> nativeWindows = new Probe<>({
+    getClient().daemonCapabilities.nativeWindows
+  })
+  private final Probe<String> daemonPlatform = new Probe<>({
+    getClient().daemonCapabilities.osType
+  })
+  private final Probe<SystemInfo.Isolation> daemonIsolation = new Probe<>({
+    getClient().daemonCapabilities.isolation
+  })
+
+  /**
+   * Uses the given client, e.g. one which is already configured for the tests.
+   */
+  LocalDocker(DockerClientImpl client) {
+    this(client.env.dockerHost, { client } as Supplier<DockerClient>)
+  }
+
+  private LocalDocker(String dockerHost, Supplier<DockerClient> clientFactory) {
+    this.dockerHost = dockerHost
+    this.clientFactory = clientFactory
+  }
+
+  /**
+   * @return the shared instance for the docker host configured via environment or Docker context
+   */
+  static LocalDocker getDefault() {
+    if (defaultInstance == null) {
+      synchronized (LocalDocker) {
+        if (defaultInstance == null) {
+          DockerClientConfig config = new DockerClientConfig()
+          defaultInstance = instancesByHost.computeIfAbsent(config.env.dockerHost) { String dockerHost ->
+            new LocalDocker(dockerHost, { new DockerClientImpl(config) } as Supplier<DockerClient>)
+          }
+        }
+      }
+    }
+    return defaultInstance
+  }
+
+  /**
+   * @return the shared instance for the given docker host, e.g. <code>unix:///var/run/docker.sock</code>
+   */
+  static LocalDocker forHost(String dockerHost) {
+    return instancesByHost.computeIfAbsent(dockerHost) { String host ->
+      new LocalDocker(host, { new DockerClientImpl(host) } as Supplier<DockerClient>)
+    }
+  }
+
+  /**
+   * Forgets all memoized probe results of all shared instances.
+   */
+  static void refreshAll() {
+    instancesByHost.values().each { it.refresh() }
+  }
+
+  synchronized DockerClient getClient() {
+    if (client == null) {
+      client = clientFactory.get()
+    }
+    return client
+  }
+
+  /**
+   * Forgets the memoized probe results, so that the next call performs a new round trip.
+   */
+  void refresh() {
+    [available, version, nativeWindows, daemonPlatform, daemonIsolation].each { it.reset() }
+    DockerClient current = client
+    current?.daemonCapabilities?.invalidate()
+  }
+
+  boolean isAvailable() {
+    return available.get()
+  }
+
+  DockerVersion getVersion() {
+    return version.get()
+  }
+
+  boolean isSwarmModeSupported() {
+    DockerVersion version = getVersion()
+    return (version.major >= 1 && version.minor >= 12) || version.major >= 17
+  }
+
+  boolean isSecretsSupported() {
+    DockerVersion version = getVersion()
+    return (version.major >= 1 && version.minor >= 13) || version.major >= 17
+  }
+
+  boolean isConfigsSupported() {
+    DockerVersion version = getVersion()
+    return version.major >= 17 && version.minor >= 6
+  }
+
+  boolean isStackSupported() {
+    DockerVersion version = getVersion()
+    return (version.major >= 1 && version.minor >= 13) || version.major >= 17
+  }
+
+  boolean isNativeWindowsDaemon() {
+    return nativeWindows.get()
+  }
+
+  String getPlatform() {
+    return daemonPlatform.get()
+  }
+
+  SystemInfo.Isolation getIsolation() {
+    return daemonIsolation.get()
+  }
+
+  boolean isPausableDaemon() {
+    return getPlatform() != "windows" || getIsolation() != SystemInfo.Isolation.Process
+  }
+
+  boolean isNamedPipeHost() {
+    return dockerHost.startsWith("npipe://")
+  }
+
+  boolean isUnixSocketHost() {
+    return dockerHost.startsWith("unix://")
+  }
+
+  boolean isTcpSocketHost() {
+    return dockerHost.startsWith("tcp://") || dockerHost.startsWith("http://") || dockerHost.startsWith("https://")
+  }
+
+  static void main(String[] args) {
+//    println(available() ? "connection success" : "failed to connect")
+    log.debug(available() ? "connection success" : "failed to connect")
+  }
+
+  static boolean available() {
+    return getDefault().isAvailable()
   }
 
   static boolean supportsSwarmMode() {
     try {
-      DockerVersion version = getDockerVersion()
-      return (version.major >= 1 && version.minor >= 12) || version.major >= 17
+      return getDefault().isSwarmModeSupported()
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -40,8 +192,7 @@ class LocalDocker {
 
   static boolean supportsSecrets() {
     try {
-      DockerVersion version = getDockerVersion()
-      return (version.major >= 1 && version.minor >= 13) || version.major >= 17
+      return getDefault().isSecretsSupported()
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -51,8 +202,7 @@ class LocalDocker {
 
   static boolean supportsConfigs() {
     try {
-      DockerVersion version = getDockerVersion()
-      return version.major >= 17 && version.minor >= 6
+      return getDefault().isConfigsSupported()
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -62,8 +212,7 @@ class LocalDocker {
 
   static boolean supportsStack() {
     try {
-      DockerVersion version = getDockerVersion()
-      return (version.major >= 1 && version.minor >= 13) || version.major >= 17
+      return getDefault().isStackSupported()
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -73,8 +222,7 @@ class LocalDocker {
 
   static DockerVersion getDockerVersion() {
     try {
-      String version = new DockerClientImpl().version().content.version
-      return parseDockerVersion(version)
+      return getDefault().getVersion()
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -84,11 +232,15 @@ class LocalDocker {
 
   static boolean isNativeWindows(DockerClient client = null) {
     try {
-      DockerClient dockerClient = (client ?: new DockerClientImpl())
-      SystemVersion version = dockerClient.version().content
-      String arch = version.arch
-      String os = version.os
-      return "$os/$arch".toString() == "windows/amd64"
+      if (client == null) {
+        return getDefault().isNativeWindowsDaemon()
+      }
+      // the client caches its daemon capabilities by itself
+      if (client.daemonCapabilities) {
+        return client.daemonCapabilities.nativeWindows
+      }
+      SystemVersion version = client.version().content
+      return "${version.os}/${version.arch}".toString() == "windows/amd64"
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -97,9 +249,8 @@ class LocalDocker {
   }
 
   static boolean isPausable(DockerClient client = null) {
-    DockerClient dockerClient = (client ?: new DockerClientImpl())
-    String daemonPlatform = getDaemonPlatform(dockerClient)
-    SystemInfo.Isolation daemonIsolation = getDaemonIsolation(dockerClient)
+    String daemonPlatform = getDaemonPlatform(client)
+    SystemInfo.Isolation daemonIsolation = getDaemonIsolation(client)
     return daemonPlatform != "windows" || daemonIsolation != SystemInfo.Isolation.Process
   }
 
@@ -110,9 +261,10 @@ class LocalDocker {
 
   static String getDaemonPlatform(DockerClient client = null) {
     try {
-      DockerClient dockerClient = (client ?: new DockerClientImpl())
-      String osType = dockerClient.info().content.osType
-      return osType
+      if (client == null) {
+        return getDefault().getPlatform()
+      }
+      return client.daemonCapabilities ? client.daemonCapabilities.osType : client.info().content.osType
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -122,9 +274,10 @@ class LocalDocker {
 
   static SystemInfo.Isolation getDaemonIsolation(DockerClient client = null) {
     try {
-      DockerClient dockerClient = (client ?: new DockerClientImpl())
-      SystemInfo.Isolation isolation = dockerClient.info().content.isolation
-      return isolation
+      if (client == null) {
+        return getDefault().getIsolation()
+      }
+      return client.daemonCapabilities ? client.daemonCapabilities.isolation : client.info().content.isolation
     }
     catch (Exception e) {
       log.info("Docker not available", e)
@@ -133,17 +286,51 @@ class LocalDocker {
   }
 
   static boolean isNamedPipe() {
-    String dockerHost = new DockerClientImpl().env.dockerHost
-    return dockerHost.startsWith("npipe://")
+    return getDefault().isNamedPipeHost()
   }
 
   static boolean isUnixSocket() {
-    String dockerHost = new DockerClientImpl().env.dockerHost
-    return dockerHost.startsWith("unix://")
+    return getDefault().isUnixSocketHost()
   }
 
   static boolean isTcpSocket() {
-    String dockerHost = new DockerClientImpl().env.dockerHost
-    return dockerHost.startsWith("tcp://") || dockerHost.startsWith("http://") || dockerHost.startsWith("https://")
+    return getDefault().isTcpSocketHost()
+  }
+
+  /**
+   * Memoizes the result of a single probe, or the exception it has thrown.
+   */
+  private static class Probe<T> {
+
+    private final Closure<T> action
+    private boolean done
+    private T result
+    private RuntimeException failure
+
+    Probe(Closure<T> action) {
+      this.action = action
+    }
+
+    synchronized T get() {
+      if (!done) {
+        try {
+          result = action.call()
+        }
+        catch (RuntimeException e) {
+          failure = e
+        }
+        done = true
+      }
+      if (failure != null) {
+        throw failure
+      }
+      return result
+    }
+
+    synchronized void reset() {
+      done = false
+      result = null
+      failure = null
+    }
   }
 }
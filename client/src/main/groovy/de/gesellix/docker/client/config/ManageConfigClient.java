@@ -20,9 +20,11 @@ public class ManageConfigClient implements ManageConfig {
 
   private final Logger log = LoggerFactory.getLogger(ManageConfigClient.class);
   private final EngineApiClient client;
+  private final QueryParameterEncoder queryParameterEncoder;
 
   public ManageConfigClient(EngineApiClient client) {
     this.client = client;
+    this.queryParameterEncoder = new QueryParameterEncoder();
   }
 
   @Override
@@ -58,7 +60,7 @@ public class ManageConfigClient implements ManageConfig {
       actualQuery.putAll(query);
     }
 
-    new QueryParameterEncoder().jsonEncodeQueryParameter(actualQuery, "filters");
+    queryParameterEncoder.jsonEncodeQueryParameter(actualQuery, "filters");
     return configs((String) actualQuery.get("filters"));
   }
 
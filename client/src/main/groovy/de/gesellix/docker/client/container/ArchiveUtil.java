@@ -1,23 +1,23 @@
 package de.gesellix.docker.client.container;
 
-import de.gesellix.util.IOUtils;
-import okio.Okio;
-import okio.Sink;
-import okio.Source;
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.Callable;
 
 public class ArchiveUtil {
 
-  private final Logger log = LoggerFactory.getLogger(ArchiveUtil.class);
+  private final ArchiveExtractor archiveExtractor;
+
+  public ArchiveUtil() {
+    this(new ArchiveExtractor());
+  }
+
+  public ArchiveUtil(ArchiveExtractor archiveExtractor) {
+    this.archiveExtractor = archiveExtractor;
+  }
 
   /**
    * @see #copySingleTarEntry(InputStream, String, OutputStream)
@@ -32,46 +32,25 @@ public class ArchiveUtil {
 
   /**
    * Closes the tarContent InputStream and the target OutputStream when done.
+   *
+   * @see ArchiveExtractor#copyFile(InputStream, String, WritableByteChannel)
    */
   public long copySingleTarEntry(InputStream tarContent, String filename, OutputStream target) {
-    TarArchiveInputStream stream = new TarArchiveInputStream(new BufferedInputStream(tarContent));
-
-    final TarArchiveEntry entry;
-    try {
-      entry = stream.getNextEntry();
-      log.debug("entry size: {}", entry.getSize());
-    } catch (Exception e) {
-      throw new RuntimeException("failed to get next TarArchiveEntry", e);
-    }
-
-    final String entryName = entry.getName();
-    if (!filename.endsWith(entryName)) {
-      log.warn("entry name '{}' doesn't match expected filename '{}'", entryName, filename);
-    } else {
-      log.debug("entry name: '{}'", entryName);
-    }
-
-    final byte[] content = new byte[(int) entry.getSize()];
-    log.debug("going to read {} bytes", content.length);
-
-    final Source source = Okio.source(stream);
-    final Sink sink = Okio.sink(target);
     try {
-      IOUtils.copy(source, sink);
-      return entry.getSize();
+      return archiveExtractor.copyFile(tarContent, filename, Channels.newChannel(target));
     } catch (Exception e) {
       throw new RuntimeException("failed to write TarArchiveEntry to target OutputStream", e);
     } finally {
       silently(() -> {
-        sink.flush();
+        target.flush();
         return null;
       });
       silently(() -> {
-        sink.close();
+        target.close();
         return null;
       });
       silently(() -> {
-        source.close();
+        tarContent.close();
         return null;
       });
     }
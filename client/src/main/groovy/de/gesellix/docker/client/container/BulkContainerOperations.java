@@ -0,0 +1,213 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.client.DockerClientImpl;
+import de.gesellix.docker.remote.api.ContainerInspectResponse;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs container operations for many containers concurrently.
+ * <p>
+ * At most <code>concurrency</code> requests are in flight at the same time.
+ * Each request is aborted after <code>itemTimeout</code>, but keeps its slot until it has actually returned,
+ * because interrupting a thread doesn't abort every blocking call.
+ * When <code>manageContainer</code> is a {@link DockerClientImpl}, the HTTP calls of timed out requests are cancelled as well.
+ * Failures are collected per container instead of aborting the whole operation.
+ */
+public class BulkContainerOperations implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(BulkContainerOperations.class);
+
+  public static final int DEFAULT_CONCURRENCY = 16;
+  public static final Duration DEFAULT_ITEM_TIMEOUT = Duration.ofMinutes(1);
+
+  private final ManageContainer manageContainer;
+  private final int concurrency;
+  private final Duration itemTimeout;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final ScheduledExecutorService timeouts;
+  private final InterruptibleFuture.Canceller canceller;
+
+  public BulkContainerOperations(ManageContainer manageContainer) {
+    this(manageContainer, DEFAULT_CONCURRENCY, DEFAULT_ITEM_TIMEOUT);
+  }
+
+  public BulkContainerOperations(ManageContainer manageContainer, int concurrency, Duration itemTimeout) {
+    this(manageContainer, concurrency, itemTimeout, DefaultExecutors.newTaskExecutor("docker-client-bulk"), true);
+  }
+
+  public BulkContainerOperations(ManageContainer manageContainer, int concurrency, Duration itemTimeout, Executor executor) {
+    this(manageContainer, concurrency, itemTimeout, executor, false);
+  }
+
+  private BulkContainerOperations(ManageContainer manageContainer, int concurrency, Duration itemTimeout, Executor executor, boolean ownsExecutor) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be at least 1, but was " + concurrency);
+    }
+    this.manageContainer = manageContainer;
+    this.concurrency = concurrency;
+    this.itemTimeout = itemTimeout;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.timeouts = Executors.newSingleThreadScheduledExecutor(DefaultExecutors.daemonThreadFactory("docker-client-bulk-timeout"));
+    this.canceller = callCanceller(manageContainer);
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public Duration getItemTimeout() {
+    return itemTimeout;
+  }
+
+  /**
+   * @param stopTimeout grace period for each container before it gets killed by the daemon
+   */
+  public BulkResult<Void> stopAll(Collection<String> containers, Duration stopTimeout) {
+    log.info("docker stop {} containers", containers.size());
+    return forEach(containers, (String container) -> {
+      manageContainer.stop(container, stopTimeout);
+      return null;
+    });
+  }
+
+  public BulkResult<Void> killAll(Collection<String> containers) {
+    log.info("docker kill {} containers", containers.size());
+    return forEach(containers, (String container) -> {
+      manageContainer.kill(container);
+      return null;
+    });
+  }
+
+  /**
+   * @param query supports the same parameters as {@link ManageContainer#rm(String, Map)}, e.g. <code>force</code> or <code>v</code>
+   */
+  public BulkResult<Void> rmAll(Collection<String> containers, Map<String, Object> query) {
+    log.info("docker rm {} containers", containers.size());
+    return forEach(containers, (String container) -> {
+      manageContainer.rm(container, query == null ? new LinkedHashMap<>() : query);
+      return null;
+    });
+  }
+
+  public BulkResult<Void> rmAll(Collection<String> containers) {
+    return rmAll(containers, null);
+  }
+
+  public BulkResult<ContainerInspectResponse> inspectAll(Collection<String> containers) {
+    log.info("docker inspect {} containers", containers.size());
+    return forEach(containers, (String container) -> manageContainer.inspectContainer(container).getContent());
+  }
+
+  /**
+   * Runs an arbitrary action per container with the configured concurrency and timeout.
+   */
+  public <T> BulkResult<T> forEach(Collection<String> containers, Function<String, T> action) {
+    Map<String, InterruptibleFuture<T>> futures = new LinkedHashMap<>();
+    Semaphore permits = new Semaphore(concurrency);
+    try {
+      for (String container : new LinkedHashSet<>(containers)) {
+        permits.acquire();
+        InterruptibleFuture<T> future = new InterruptibleFuture<>(() -> action.apply(container), canceller);
+        futures.put(container, future);
+        start(container, future, permits);
+      }
+      // timed out operations may still be running, but their results aren't awaited
+      for (InterruptibleFuture<T> future : futures.values()) {
+        try {
+          future.get();
+        } catch (ExecutionException | CancellationException ignored) {
+          // collected below
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.values().forEach((InterruptibleFuture<T> future) -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new CancellationException("bulk operation has been interrupted");
+    }
+
+    Map<String, T> results = new LinkedHashMap<>();
+    Map<String, Exception> failures = new LinkedHashMap<>();
+    futures.forEach((String container, InterruptibleFuture<T> future) -> {
+      try {
+        results.put(container, future.get());
+      } catch (ExecutionException | CompletionException e) {
+        failures.put(container, unwrap(e));
+      } catch (Exception e) {
+        failures.put(container, e);
+      }
+    });
+    if (!failures.isEmpty()) {
+      log.warn("{} of {} operations failed: {}", failures.size(), futures.size(), failures.keySet());
+    }
+    return new BulkResult<>(results, failures);
+  }
+
+  private <T> void start(String container, InterruptibleFuture<T> future, Semaphore permits) {
+    if (itemTimeout != null && !itemTimeout.isZero() && !itemTimeout.isNegative()) {
+      ScheduledFuture<?> timeout = timeouts.schedule(
+          () -> future.abort(new TimeoutException("operation on '" + container + "' timed out after " + itemTimeout)),
+          itemTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      future.whenComplete((T result, Throwable failure) -> timeout.cancel(false));
+    }
+    // the permit is released when the action returns, not when the future has timed out,
+    // so that no more than the configured number of requests reach the daemon
+    Runnable task = () -> {
+      try {
+        future.run();
+      } finally {
+        permits.release();
+      }
+    };
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      future.completeExceptionally(e);
+    }
+  }
+
+  private static InterruptibleFuture.Canceller callCanceller(ManageContainer manageContainer) {
+    return manageContainer instanceof DockerClientImpl ? ((DockerClientImpl) manageContainer).getTransport().getCalls() : null;
+  }
+
+  private Exception unwrap(Exception e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Exception) {
+      return (Exception) cause;
+    }
+    return e;
+  }
+
+  @Override
+  public void close() {
+    timeouts.shutdownNow();
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+}
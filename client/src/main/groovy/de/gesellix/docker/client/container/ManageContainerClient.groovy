@@ -1,6 +1,11 @@
 package de.gesellix.docker.client.container
 
 import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.client.archive.FileTransfer
+import de.gesellix.docker.client.archive.TarOptions
+import de.gesellix.docker.client.archive.TarProducer
+import de.gesellix.docker.client.archive.TransferOptions
+import de.gesellix.docker.client.archive.TransferResult
 import de.gesellix.docker.client.repository.RepositoryAndTag
 import de.gesellix.docker.client.repository.RepositoryTagParser
 import de.gesellix.docker.engine.AttachConfig
@@ -26,19 +31,23 @@ import de.gesellix.docker.remote.api.client.ContainerApi
 import de.gesellix.docker.remote.api.core.ClientException
 import de.gesellix.docker.remote.api.core.Frame
 import de.gesellix.docker.remote.api.core.StreamCallback
+import de.gesellix.util.Lazy
 import de.gesellix.util.QueryParameterEncoder
 import okhttp3.WebSocket
 import okhttp3.WebSocketListener
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Path
 import java.time.Duration
 import java.time.temporal.ChronoUnit
-import java.util.concurrent.CountDownLatch
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeoutException
 import java.util.function.Predicate
 
-class ManageContainerClient implements ManageContainer {
+class ManageContainerClient implements ManageContainer, Closeable {
 
   private final Logger log = LoggerFactory.getLogger(ManageContainerClient)
 
@@ -47,26 +56,44 @@ class ManageContainerClient implements ManageContainer {
   private DockerResponseHandler responseHandler
   private QueryParameterEncoder queryParameterEncoder
   private ArchiveUtil archiveUtil
+  private ArchiveExtractor archiveExtractor
   private RepositoryTagParser repositoryTagParser
+  private TtyModes ttyModes
+  private StreamDemultiplexer demultiplexer
+  private final Lazy<LogWatcher> logWatcher = new Lazy<LogWatcher>({ new LogWatcher(this) })
+  private final Lazy<TarProducer> tarProducer = new Lazy<TarProducer>({ new TarProducer() })
+  private final Lazy<ArchiveRewriter> archiveRewriter = new Lazy<ArchiveRewriter>({ new ArchiveRewriter() })
+  private final Lazy<FileTransfer> fileTransfer = new Lazy<FileTransfer>({ new FileTransfer() })
 
   ManageContainerClient(EngineApiClient client, EngineClient engineClient) {
+    this(client, engineClient, new TtyModes())
+  }
+
+  ManageContainerClient(EngineApiClient client, EngineClient engineClient, TtyModes ttyModes) {
     this.client = client
     this.engineClient = engineClient
+    this.ttyModes = ttyModes
     this.responseHandler = new DockerResponseHandler()
     this.repositoryTagParser = new RepositoryTagParser()
     this.queryParameterEncoder = new QueryParameterEncoder()
-    this.archiveUtil = new ArchiveUtil()
+    this.archiveExtractor = new ArchiveExtractor()
+    this.archiveUtil = new ArchiveUtil(archiveExtractor)
+    this.demultiplexer = new StreamDemultiplexer()
   }
 
   @Override
   EngineResponse attach(String containerId, Map<String, Object> query, AttachConfig callback = null) {
+    return attach(containerId, query, callback, containerTty(containerId))
+  }
+
+  @Override
+  EngineResponse attach(String containerId, Map<String, Object> query, AttachConfig callback, boolean tty) {
     log.info("docker attach")
 
     // When using the TTY setting is enabled in POST /containers/create,
     // the stream is the raw data from the process PTY and client’s stdin.
     // When the TTY is disabled, then the stream is multiplexed to separate stdout and stderr.
-    EngineResponseContent<ContainerInspectResponse> container = inspectContainer(containerId)
-    boolean multiplexStreams = !container.content.config.tty
+    boolean multiplexStreams = !tty
 
     EngineResponse response = engineClient.post([
         path            : "/containers/${containerId}/attach".toString(),
@@ -88,6 +115,26 @@ class ManageContainerClient implements ManageContainer {
     client.containerApi.containerAttach(containerId, detachKeys, logs, stream, stdin, stdout, stderr, callback, timeout.toMillis())
   }
 
+  @Override
+  long attach(String containerId, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+    log.info("docker attach (demultiplexing)")
+    requireSink(stdout)
+    boolean tty = containerTty(containerId)
+    return copyStream(post("/containers/${containerId}/attach".toString(), query)) { InputStream stream ->
+      tty ? demultiplexer.copy(stream, stdout) : demultiplexer.demultiplex(stream, stdout, stderr)
+    }
+  }
+
+  @Override
+  long attach(String containerId, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+    log.info("docker attach (demultiplexing)")
+    requireSink(stdout)
+    boolean tty = containerTty(containerId)
+    return copyStream(post("/containers/${containerId}/attach".toString(), query)) { InputStream stream ->
+      tty ? demultiplexer.copy(stream, stdout) : demultiplexer.demultiplex(stream, stdout, stderr)
+    }
+  }
+
   @Override
   WebSocket attachWebsocket(String containerId, Map<String, Object> query, WebSocketListener listener) {
     log.info("docker attach via websocket")
@@ -155,13 +202,39 @@ class ManageContainerClient implements ManageContainer {
 
     EngineResponseContent<InputStream> response = getArchive(container, filename)
 
-    // TODO make this one a parameter so that the caller has a chance to reduce memory overhead
+    // see the extractFile variants with a target file or channel to reduce memory overhead
     def output = new ByteArrayOutputStream()
     def bytesRead = archiveUtil.copySingleTarEntry(response.content, filename, output)
     log.info("read ${bytesRead} bytes")
     return output.toByteArray()
   }
 
+  @Override
+  long extractFile(String container, String filename, Path target) throws IOException {
+    log.info("extract '${filename}' from '${container}' to '${target}'")
+    return getArchive(container, filename).content.withCloseable { InputStream archive ->
+      archiveExtractor.copyFile(archive, filename, target)
+    }
+  }
+
+  @Override
+  long extractFile(String container, String filename, WritableByteChannel target) throws IOException {
+    log.info("extract '${filename}' from '${container}'")
+    return getArchive(container, filename).content.withCloseable { InputStream archive ->
+      archiveExtractor.copyFile(archive, filename, target)
+    }
+  }
+
+  @Override
+  ExtractResult extractArchive(String container, String path, Path targetDirectory, ExtractOptions options) throws IOException {
+    log.info("extract '${path}' from '${container}' to '${targetDirectory}'")
+    ExtractResult result = getArchive(container, path).content.withCloseable { InputStream archive ->
+      archiveExtractor.extract(archive, targetDirectory, options)
+    }
+    log.info("extracted ${result.files} files, ${result.bytes} bytes")
+    return result
+  }
+
   @Override
   EngineResponseContent<InputStream> getArchive(String container, String path) {
     log.info("docker download from ${container}|${path}")
@@ -176,6 +249,30 @@ class ManageContainerClient implements ManageContainer {
     client.containerApi.putContainerArchive(container, path, archive, null, null)
   }
 
+  @Override
+  void putArchive(String container, String path, Path source, TarOptions options) throws IOException {
+    log.info("docker upload ${source} to ${container}|${path}")
+    TarOptions actualOptions = options ?: new TarOptions().setUseDockerIgnore(false)
+    tarProducer.get().open(source, actualOptions).withCloseable { InputStream archive ->
+      putArchive(container, path, archive)
+    }
+  }
+
+  @Override
+  void copyBetweenContainers(String source, String sourcePath, String target, String targetPath, CopyOptions options = null) {
+    log.info("docker copy ${source}|${sourcePath} to ${target}|${targetPath}")
+    getArchive(source, sourcePath).content.withCloseable { InputStream archive ->
+      if (options == null || options.identity) {
+        // the response body is uploaded while it is being read
+        putArchive(target, targetPath, archive)
+      } else {
+        archiveRewriter.get().open(archive, options).withCloseable { InputStream rewritten ->
+          putArchive(target, targetPath, rewritten)
+        }
+      }
+    }
+  }
+
   @Override
   EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest, String name = "", String authBase64Encoded = "") {
     log.info("docker create")
@@ -184,6 +281,7 @@ class ManageContainerClient implements ManageContainer {
     }
     try {
       ContainerCreateResponse containerCreate = client.containerApi.containerCreate(containerCreateRequest, name)
+      rememberTty(containerCreate, name, containerCreateRequest)
       return new EngineResponseContent<ContainerCreateResponse>(containerCreate)
     }
     catch (ClientException exception) {
@@ -192,12 +290,31 @@ class ManageContainerClient implements ManageContainer {
         log.info("'${repoAndTag.repo}:${repoAndTag.tag}' not found locally.")
         client.imageApi.imageCreate(repoAndTag.repo, null, null, repoAndTag.tag, null, authBase64Encoded, null, null, null)
         ContainerCreateResponse containerCreateWithPulledImage = client.containerApi.containerCreate(containerCreateRequest, name)
+        rememberTty(containerCreateWithPulledImage, name, containerCreateRequest)
         return new EngineResponseContent<ContainerCreateResponse>(containerCreateWithPulledImage)
       }
       throw exception
     }
   }
 
+  private void rememberTty(ContainerCreateResponse created, String name, ContainerCreateRequest containerCreateRequest) {
+    boolean tty = containerCreateRequest.tty ?: false
+    ttyModes.rememberContainer(created?.id, tty)
+    ttyModes.rememberAlias(name, created?.id)
+  }
+
+  // names might belong to another container by now, so they are resolved by an inspect
+  private boolean containerTty(String containerIdOrName) {
+    Boolean tty = ttyModes.getContainerTty(containerIdOrName)
+    if (tty == null) {
+      ContainerInspectResponse container = inspectContainer(containerIdOrName).content
+      tty = container.config.tty ?: false
+      ttyModes.rememberContainer(container.id, tty)
+      ttyModes.rememberAlias(containerIdOrName, container.id)
+    }
+    return tty
+  }
+
   @Override
   EngineResponseContent<List<FilesystemChange>> diff(String containerId) {
     log.info("docker diff")
@@ -209,18 +326,28 @@ class ManageContainerClient implements ManageContainer {
   EngineResponseContent<IdResponse> createExec(String containerId, ExecConfig execConfig) {
     log.info("docker create exec on '${containerId}'")
     IdResponse containerExec = client.execApi.containerExec(containerId, execConfig)
+    ttyModes.rememberExec(containerExec?.id, execConfig?.tty)
     return new EngineResponseContent<IdResponse>(containerExec)
   }
 
   @Override
   void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig) {
+    Boolean tty = ttyModes.getExecTty(execId)
+    if (tty == null) {
+      tty = client.execApi.execInspect(execId).processConfig.tty ?: false
+      ttyModes.rememberExec(execId, tty)
+    }
+    startExec(execId, execStartConfig, attachConfig, tty)
+  }
+
+  @Override
+  void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig, boolean tty) {
     log.info("docker start exec '${execId}'")
 
     // When using the TTY setting is enabled in POST /containers/create,
     // the stream is the raw data from the process PTY and client’s stdin.
     // When the TTY is disabled, then the stream is multiplexed to separate stdout and stderr.
-    ExecInspectResponse execInspect = client.execApi.execInspect(execId)
-    boolean multiplexStreams = !execInspect.processConfig.tty
+    boolean multiplexStreams = !tty
     EngineResponse response = engineClient.post([
         path              : "/exec/${execId}/start".toString(),
         body              : [Detach: execStartConfig.detach, Tty: execStartConfig.tty],
@@ -299,6 +426,14 @@ class ManageContainerClient implements ManageContainer {
     return new EngineResponseContent<InputStream>(containerExport)
   }
 
+  @Override
+  TransferResult exportTo(String container, Path target, TransferOptions options) throws IOException {
+    log.info("docker export $container to ${target}")
+    return export(container).content.withCloseable { InputStream containerExport ->
+      fileTransfer.get().write(containerExport, target, options)
+    }
+  }
+
   @Override
   EngineResponseContent<ContainerInspectResponse> inspectContainer(String containerId) {
     log.info("docker inspect container")
@@ -338,39 +473,105 @@ class ManageContainerClient implements ManageContainer {
   }
 
   @Override
-  void waitForLogEvent(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
-    CountDownLatch latch = new CountDownLatch(1)
-    def frameHandler = new StreamCallback<Frame>() {
+  long logs(String container, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+    log.info("docker logs (demultiplexing)")
+    requireSink(stdout)
+    boolean tty = containerTty(container)
+    return copyStream(getLogs(container, query)) { InputStream stream ->
+      tty ? demultiplexer.copy(stream, stdout) : demultiplexer.demultiplex(stream, stdout, stderr)
+    }
+  }
 
-      @Override
-      void onNext(Frame element) {
-        if (matcher.test(element)) {
-          latch.countDown()
-        }
-      }
+  @Override
+  long logs(String container, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+    log.info("docker logs (demultiplexing)")
+    requireSink(stdout)
+    boolean tty = containerTty(container)
+    return copyStream(getLogs(container, query)) { InputStream stream ->
+      tty ? demultiplexer.copy(stream, stdout) : demultiplexer.demultiplex(stream, stdout, stderr)
+    }
+  }
 
-      @Override
-      void onFailed(Exception e) {
-        log.error("Logs failed", e)
-        latch.countDown()
-      }
+  private EngineResponse getLogs(String container, Map<String, Object> query) {
+    Map<String, Object> actualQuery = [
+        follow    : true,
+        stdout    : true,
+        stderr    : true,
+        timestamps: false,
+        tail      : "all"] as Map<String, Object>
+    if (query) {
+      actualQuery.putAll(query)
+    }
+    // async keeps the response body open instead of reading it as a whole
+    return engineClient.get([
+        path : "/containers/${container}/logs".toString(),
+        query: actualQuery.findAll { it.value != null },
+        async: true])
+  }
 
-      @Override
-      void onFinished() {
-        latch.countDown()
-      }
+  private EngineResponse post(String path, Map<String, Object> query) {
+    return engineClient.post([
+        path : path,
+        query: query ?: [:],
+        async: true])
+  }
+
+  private static void requireSink(Object stdout) {
+    if (stdout == null) {
+      throw new IllegalArgumentException("stdout must not be null")
     }
+  }
 
-    new Thread({
-      query.tail = 1 // "all"
-      logs(container, query, frameHandler, timeout)
-    }).start()
-    def success = latch.await(timeout.toMillis(), TimeUnit.MILLISECONDS)
-    if (!success) {
-      log.warn("Timeout reached after {} while waiting for the expected log message", timeout)
+  private long copyStream(EngineResponse response, Closure<Long> copy) {
+    InputStream stream = response?.stream as InputStream
+    if (stream == null || !response.status?.success) {
+      stream?.close()
+      responseHandler.ensureSuccessfulResponse(response, new IllegalStateException("docker stream failed"))
+      throw new IllegalStateException("docker stream returned no content")
+    }
+    try {
+      return copy(stream)
+    }
+    finally {
+      stream.close()
+    }
+  }
+
+  @Override
+  void waitForLogEvent(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+    try {
+      watchLogs(container, query, matcher, timeout).get()
+    }
+    catch (ExecutionException e) {
+      if (e.cause instanceof TimeoutException) {
+        log.warn("Timeout reached after {} while waiting for the expected log message", timeout)
+      }
+      else if (e.cause instanceof NoSuchElementException) {
+        log.info(e.cause.message)
+      }
+      else {
+        log.error("Logs failed", e.cause)
+      }
     }
   }
 
+  @Override
+  CompletableFuture<Frame> watchLogs(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+    return logWatcher.get().watch(container, query, matcher, timeout)
+  }
+
+  /**
+   * Stops the threads of pending {@link #watchLogs(String, Map, Predicate, Duration) log watches}
+   * and of the archive and file transfer helpers.
+   */
+  @Override
+  void close() {
+    logWatcher.reset()?.close()
+    tarProducer.reset()?.close()
+    archiveRewriter.reset()?.close()
+    fileTransfer.reset()?.close()
+  }
+
   @Override
   EngineResponseContent<List<Map<String, Object>>> ps(Map<String, Object> query) {
     log.info("docker ps")
@@ -427,6 +628,7 @@ class ManageContainerClient implements ManageContainer {
   void rm(String containerIdOrName, Map<String, Object> query = [:]) {
     log.info("docker rm")
     client.containerApi.containerDelete(containerIdOrName, query.v as Boolean, query.force as Boolean, query.link as Boolean)
+    ttyModes.forgetContainer(containerIdOrName)
   }
 
   @Override
@@ -1,6 +1,11 @@
 package de.gesellix.docker.client.image
 
 import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.client.archive.FileTransfer
+import de.gesellix.docker.client.archive.TarOptions
+import de.gesellix.docker.client.archive.TarProducer
+import de.gesellix.docker.client.archive.TransferOptions
+import de.gesellix.docker.client.archive.TransferResult
 import de.gesellix.docker.client.authentication.ManageAuthentication
 import de.gesellix.docker.client.repository.RepositoryAndTag
 import de.gesellix.docker.client.repository.RepositoryTagParser
@@ -16,13 +21,16 @@ import de.gesellix.docker.remote.api.ImageSummary
 import de.gesellix.docker.remote.api.PushImageInfo
 import de.gesellix.docker.remote.api.client.ImageApi
 import de.gesellix.docker.remote.api.core.StreamCallback
+import de.gesellix.util.Lazy
 import de.gesellix.util.QueryParameterEncoder
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.nio.file.Files
+import java.nio.file.Path
 import java.time.Duration
 
-class ManageImageClient implements ManageImage {
+class ManageImageClient implements ManageImage, Closeable {
 
   private final Logger log = LoggerFactory.getLogger(ManageImageClient)
 
@@ -30,6 +38,8 @@ class ManageImageClient implements ManageImage {
   private RepositoryTagParser repositoryTagParser
   private QueryParameterEncoder queryParameterEncoder
   private ManageAuthentication manageAuthentication
+  private final Lazy<TarProducer> tarProducer = new Lazy<TarProducer>({ new TarProducer() })
+  private final Lazy<FileTransfer> fileTransfer = new Lazy<FileTransfer>({ new FileTransfer() })
 
   ManageImageClient(EngineApiClient client, ManageAuthentication manageAuthentication) {
     this.client = client
@@ -111,6 +121,18 @@ class ManageImageClient implements ManageImage {
         callback, timeout ? timeout.toMillis() : null)
   }
 
+  @Override
+  void build(StreamCallback<BuildInfo> callback, Duration timeout,
+             String dockerfile, String tag,
+             Path buildContext, TarOptions options) throws IOException {
+    TarOptions actualOptions = options ?: new TarOptions().setDockerfile(dockerfile ?: "Dockerfile")
+    tarProducer.get().open(buildContext, actualOptions).withCloseable { InputStream archive ->
+      build(callback, timeout,
+          dockerfile, tag, null, null, null, null, null, null, null, null,
+          archive)
+    }
+  }
+
   @Override
   EngineResponseContent<List<HistoryResponseItem>> history(String imageId) {
     log.info("docker history")
@@ -131,6 +153,14 @@ class ManageImageClient implements ManageImage {
     client.imageApi.imageLoad(null, imagesTarball)
   }
 
+  @Override
+  void loadFrom(Path imagesTarball) throws IOException {
+    log.info("docker load from ${imagesTarball}")
+    new BufferedInputStream(Files.newInputStream(imagesTarball), TransferOptions.DEFAULT_BUFFER_SIZE).withCloseable { InputStream tarball ->
+      load(tarball)
+    }
+  }
+
   /**
    * @see #images(Boolean, String, Boolean)
    * @deprecated use {@link #images(Boolean, String, Boolean)}
@@ -276,6 +306,14 @@ class ManageImageClient implements ManageImage {
     return new EngineResponseContent<InputStream>(savedImages)
   }
 
+  @Override
+  TransferResult saveTo(List<String> images, Path target, TransferOptions options) throws IOException {
+    log.info("docker save to ${target}")
+    return save(images).content.withCloseable { InputStream savedImages ->
+      fileTransfer.get().write(savedImages, target, options)
+    }
+  }
+
   @Override
   void tag(String imageId, String repository) {
     log.info("docker tag")
@@ -318,4 +356,13 @@ class ManageImageClient implements ManageImage {
       return canonicalImageName
     }
   }
+
+  /**
+   * Stops the threads of the build context and file transfer helpers.
+   */
+  @Override
+  void close() {
+    tarProducer.reset()?.close()
+    fileTransfer.reset()?.close()
+  }
 }
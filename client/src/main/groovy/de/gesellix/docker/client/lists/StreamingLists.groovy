@@ -0,0 +1,83 @@
+package de.gesellix.docker.client.lists
+
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import de.gesellix.docker.client.container.DockerResponseHandler
+import de.gesellix.docker.engine.EngineClient
+import de.gesellix.docker.engine.EngineResponse
+import de.gesellix.docker.remote.api.ImageSummary
+import de.gesellix.docker.remote.api.Service
+import de.gesellix.docker.remote.api.Task
+import de.gesellix.docker.remote.api.core.Serializer
+import de.gesellix.util.JsonArrayIterator
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+
+/**
+ * Streaming variants of the list endpoints, which parse the response incrementally
+ * instead of materializing the complete list:
+ * <pre>
+ * try (Stream&lt;Map&lt;String, Object&gt;&gt; containers = streamingLists.ps(true, filters).stream()) {
+ *   containers.filter(...).findFirst();
+ * }
+ * </pre>
+ * Closing an iterator before reaching the end aborts the request.
+ * Elements have the same types as the results of the regular list methods.
+ */
+class StreamingLists {
+
+  private final Logger log = LoggerFactory.getLogger(StreamingLists)
+
+  // the typed client's serializer knows the generated models and their date and enum adapters,
+  // so that elements are read exactly like the regular list methods do. Moshi and its adapters are thread-safe.
+  private static final Moshi moshi = Serializer.INSTANCE.moshi
+  private static final JsonAdapter<Map<String, Object>> containerAdapter = moshi.adapter(Types.newParameterizedType(Map, String, Object))
+  private static final JsonAdapter<ImageSummary> imageAdapter = moshi.adapter(ImageSummary)
+  private static final JsonAdapter<Task> taskAdapter = moshi.adapter(Task)
+  private static final JsonAdapter<Service> serviceAdapter = moshi.adapter(Service)
+
+  private final EngineClient engineClient
+  private final DockerResponseHandler responseHandler = new DockerResponseHandler()
+
+  StreamingLists(EngineClient engineClient) {
+    this.engineClient = engineClient
+  }
+
+  /**
+   * @param filters JSON encoded filters, see {@link de.gesellix.docker.client.filters.Filters#toJson()}
+   */
+  JsonArrayIterator<Map<String, Object>> ps(Boolean all = true, String filters = null) {
+    log.info("docker ps (streaming)")
+    return get("/containers/json", [all: all == null ? true : all, filters: filters], containerAdapter)
+  }
+
+  JsonArrayIterator<ImageSummary> images(Boolean all = false, String filters = null) {
+    log.info("docker images (streaming)")
+    return get("/images/json", [all: all ?: false, filters: filters], imageAdapter)
+  }
+
+  JsonArrayIterator<Task> tasks(String filters = null) {
+    log.info("docker tasks (streaming)")
+    return get("/tasks", [filters: filters], taskAdapter)
+  }
+
+  JsonArrayIterator<Service> services(String filters = null) {
+    log.info("docker services (streaming)")
+    return get("/services", [filters: filters], serviceAdapter)
+  }
+
+  private <T> JsonArrayIterator<T> get(String path, Map<String, Object> query, JsonAdapter<T> adapter) {
+    // async keeps the response body open instead of parsing it as a whole
+    EngineResponse response = engineClient.get([
+        path : path,
+        query: query.findAll { it.value != null },
+        async: true])
+    if (response?.stream == null || !response.status?.success) {
+      response?.stream?.close()
+      responseHandler.ensureSuccessfulResponse(response, new IllegalStateException("GET ${path} failed"))
+      throw new IllegalStateException("GET ${path} returned no content")
+    }
+    return new JsonArrayIterator<T>(response.stream, adapter)
+  }
+}
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.gesellix.docker.client.EngineResponseContent;
+import de.gesellix.docker.client.filters.Filters;
 import de.gesellix.docker.client.tasks.ManageTask;
 import de.gesellix.docker.remote.api.EngineApiClient;
 import de.gesellix.docker.remote.api.Node;
@@ -22,11 +23,13 @@ public class ManageNodeClient implements ManageNode {
   private final EngineApiClient client;
   private final ManageTask manageTask;
   private final NodeUtil nodeUtil;
+  private final QueryParameterEncoder queryParameterEncoder;
 
   public ManageNodeClient(EngineApiClient client, ManageTask manageTask, NodeUtil nodeUtil) {
     this.client = client;
     this.manageTask = manageTask;
     this.nodeUtil = nodeUtil;
+    this.queryParameterEncoder = new QueryParameterEncoder();
   }
 
   /**
@@ -40,7 +43,7 @@ public class ManageNodeClient implements ManageNode {
     if (query != null) {
       actualQuery.putAll(query);
     }
-    new QueryParameterEncoder().jsonEncodeQueryParameter(actualQuery, "filters");
+    queryParameterEncoder.jsonEncodeQueryParameter(actualQuery, "filters");
     return nodes((String) actualQuery.get("filters"));
   }
 
@@ -112,12 +115,18 @@ public class ManageNodeClient implements ManageNode {
     if (query != null) {
       actualQuery.putAll(query);
     }
+    if (actualQuery.get("filters") instanceof Filters) {
+      Filters filters = ((Filters) actualQuery.get("filters")).toBuilder()
+          .set("node", String.valueOf(nodeUtil.resolveNodeId(node)))
+          .build();
+      return manageTask.tasks(filters.toJson());
+    }
     if (!actualQuery.containsKey("filters")) {
       actualQuery.put("filters", new HashMap<String, Object>());
     }
     Map<String, Object> filters = (Map<String, Object>) actualQuery.get("filters");
     filters.put("node", nodeUtil.resolveNodeId(node));
-    new QueryParameterEncoder().jsonEncodeQueryParameter(actualQuery, "filters");
+    queryParameterEncoder.jsonEncodeQueryParameter(actualQuery, "filters");
     return manageTask.tasks((String) actualQuery.get("filters"));
   }
 
@@ -1,18 +1,29 @@
 package de.gesellix.docker.client.node
 
+import de.gesellix.docker.client.system.DaemonCapabilities
 import de.gesellix.docker.client.system.ManageSystem
 
+import java.time.Duration
+
 class NodeUtil {
 
-  ManageSystem manageSystem
+  DaemonCapabilities daemonCapabilities
 
+  /**
+   * Resolves <code>self</code> via <code>docker info</code> on every call,
+   * because nothing invalidates the node id when the daemon joins or leaves a swarm.
+   */
   NodeUtil(ManageSystem manageSystem) {
-    this.manageSystem = manageSystem
+    this(new DaemonCapabilities(manageSystem, Duration.ZERO))
+  }
+
+  NodeUtil(DaemonCapabilities daemonCapabilities) {
+    this.daemonCapabilities = daemonCapabilities
   }
 
   def resolveNodeId(nodeFilter) {
     Closure<String> ownNodeId = {
-      manageSystem.info().content.swarm.nodeID
+      daemonCapabilities.swarmNodeId
     }
     Closure<String> resolve = { String ref ->
       (ref == "self") ? ownNodeId() : ref
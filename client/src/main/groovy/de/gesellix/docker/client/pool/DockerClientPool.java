@@ -0,0 +1,283 @@
+package de.gesellix.docker.client.pool;
+
+import de.gesellix.docker.client.DockerClient;
+import de.gesellix.docker.client.DockerClientImpl;
+import de.gesellix.docker.engine.DockerClientConfig;
+import de.gesellix.docker.remote.api.core.ServerException;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Distributes operations across several Docker daemons.
+ * <p>
+ * Each operation is routed to one of the available members by a {@link RoutingPolicy}:
+ * <pre>
+ * DockerClientPool pool = new DockerClientPool(configs, RoutingPolicy.sticky(RoutingPolicy.leastInFlight()));
+ * String id = pool.executeAndBind(Function.identity(), client -&gt; client.createContainer(request).getContent().getId());
+ * pool.run(id, client -&gt; client.startContainer(id));
+ * pool.runAndUnbind(id, client -&gt; client.rm(id));
+ * </pre>
+ * Members are periodically checked via <code>ping()</code>. Members whose ping fails or
+ * exceeds the configured threshold are ejected, and readmitted after the next fast ping.
+ * Members are also ejected after several consecutive operations failed due to connection
+ * problems or server errors. Client errors, e.g. a missing container, don't count as failures.
+ * Without periodic health checks, ejected members are readmitted on the next selection after
+ * {@link DockerClientPoolConfig#getEjectionDuration()}.
+ */
+public class DockerClientPool implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(DockerClientPool.class);
+
+  private final List<PoolMember> members;
+  private final RoutingPolicy routingPolicy;
+  private final DockerClientPoolConfig config;
+  private final ExecutorService healthCheckExecutor;
+  private final ScheduledExecutorService scheduler;
+
+  public DockerClientPool(Collection<DockerClientConfig> endpoints, RoutingPolicy routingPolicy) {
+    this(endpoints, routingPolicy, new DockerClientPoolConfig());
+  }
+
+  public DockerClientPool(Collection<DockerClientConfig> endpoints, RoutingPolicy routingPolicy, DockerClientPoolConfig config) {
+    this(endpoints, routingPolicy, config, DockerClientImpl::new);
+  }
+
+  public DockerClientPool(Collection<DockerClientConfig> endpoints, RoutingPolicy routingPolicy, DockerClientPoolConfig config,
+                          Function<DockerClientConfig, DockerClient> clientFactory) {
+    if (endpoints == null || endpoints.isEmpty()) {
+      throw new IllegalArgumentException("at least one endpoint is required");
+    }
+    List<PoolMember> created = new ArrayList<>(endpoints.size());
+    for (DockerClientConfig endpoint : endpoints) {
+      created.add(new PoolMember(endpoint, clientFactory.apply(endpoint)));
+    }
+    this.members = Collections.unmodifiableList(created);
+    this.routingPolicy = routingPolicy;
+    this.config = config;
+    this.healthCheckExecutor = DefaultExecutors.newTaskExecutor("docker-client-pool-ping");
+
+    Duration interval = config.getHealthCheckInterval();
+    if (interval != null && !interval.isZero() && !interval.isNegative()) {
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(DefaultExecutors.daemonThreadFactory("docker-client-pool-health"));
+      this.scheduler.scheduleWithFixedDelay(this::checkHealthSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      this.scheduler = null;
+    }
+  }
+
+  public List<PoolMember> getMembers() {
+    return members;
+  }
+
+  public List<PoolMember> getAvailableMembers() {
+    return members.stream().filter(PoolMember::isAvailable).collect(Collectors.toList());
+  }
+
+  public RoutingPolicy getRoutingPolicy() {
+    return routingPolicy;
+  }
+
+  public DockerClientPoolConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @param routingKey optional key like a container id, used by e.g. the {@link StickyPolicy}
+   * @return the member which would handle an operation with the given key
+   */
+  public PoolMember select(String routingKey) {
+    if (scheduler == null) {
+      readmitExpiredEjections();
+    }
+    List<PoolMember> available = getAvailableMembers();
+    if (available.isEmpty()) {
+      throw new IllegalStateException("no Docker daemon available, members: " + members);
+    }
+    return routingPolicy.select(available, routingKey);
+  }
+
+  public <T> T execute(Function<DockerClient, T> operation) {
+    return execute(null, operation);
+  }
+
+  public <T> T execute(String routingKey, Function<DockerClient, T> operation) {
+    return executeOn(select(routingKey), operation);
+  }
+
+  /**
+   * Runs an operation which creates a resource, e.g. a container, and binds the routing key derived
+   * from its result to the member which ran it, so that later operations with that key reach the same daemon.
+   *
+   * @param routingKeyOf e.g. {@link Function#identity()} for operations returning a container id
+   * @throws IllegalStateException when the pool doesn't route via a {@link StickyPolicy}
+   */
+  public <T> T executeAndBind(Function<T, String> routingKeyOf, Function<DockerClient, T> operation) {
+    if (!(routingPolicy instanceof StickyPolicy)) {
+      throw new IllegalStateException("binding routing keys requires a StickyPolicy, but the pool uses " + routingPolicy.getClass().getSimpleName());
+    }
+    PoolMember member = select(null);
+    T result = executeOn(member, operation);
+    String routingKey = routingKeyOf.apply(result);
+    if (routingKey != null) {
+      ((StickyPolicy) routingPolicy).bind(routingKey, member);
+    }
+    return result;
+  }
+
+  private <T> T executeOn(PoolMember member, Function<DockerClient, T> operation) {
+    member.started();
+    T result;
+    try {
+      result = operation.apply(member.getClient());
+    } catch (Throwable e) {
+      // Groovy clients may throw undeclared checked exceptions, which must finish the operation, too
+      if (isDaemonFailure(e)) {
+        int failures = member.failed();
+        if (failures >= config.getMaxConsecutiveFailures()) {
+          eject(member, failures + " consecutive failures, last: " + e);
+        }
+      } else {
+        member.finished();
+      }
+      throw e;
+    }
+    member.succeeded();
+    return result;
+  }
+
+  /**
+   * Runs an operation which removes a resource, e.g. a container, and removes the routing key's binding
+   * after the operation succeeded.
+   */
+  public void runAndUnbind(String routingKey, Consumer<DockerClient> operation) {
+    run(routingKey, operation);
+    if (routingPolicy instanceof StickyPolicy) {
+      ((StickyPolicy) routingPolicy).unbind(routingKey);
+    }
+  }
+
+  public void run(String routingKey, Consumer<DockerClient> operation) {
+    execute(routingKey, (DockerClient client) -> {
+      operation.accept(client);
+      return null;
+    });
+  }
+
+  /**
+   * Pings all members concurrently and updates their availability.
+   * Runs periodically when a health check interval is configured.
+   */
+  public void checkHealth() {
+    Map<PoolMember, InterruptibleFuture<Long>> pings = new LinkedHashMap<>();
+    for (PoolMember member : members) {
+      InterruptibleFuture<Long> ping = new InterruptibleFuture<>(() -> {
+        long start = System.nanoTime();
+        member.getClient().ping();
+        return System.nanoTime() - start;
+      });
+      pings.put(member, ping);
+      try {
+        healthCheckExecutor.execute(ping);
+      } catch (RejectedExecutionException e) {
+        ping.completeExceptionally(e);
+      }
+    }
+
+    long deadline = System.nanoTime() + config.getHealthCheckTimeout().toNanos();
+    pings.forEach((PoolMember member, InterruptibleFuture<Long> ping) -> {
+      try {
+        long nanos = ping.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        member.pinged(nanos);
+        if (nanos > config.getSlowPingThreshold().toNanos()) {
+          eject(member, "slow ping: " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+        } else if (member.readmit()) {
+          log.info("readmitted {} after {}ms ping", member.getDockerHost(), TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+      } catch (TimeoutException e) {
+        ping.abort(e);
+        eject(member, "ping timed out after " + config.getHealthCheckTimeout());
+      } catch (ExecutionException e) {
+        eject(member, "ping failed: " + e.getCause());
+      } catch (InterruptedException e) {
+        ping.cancel(true);
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  private void checkHealthSafely() {
+    try {
+      checkHealth();
+    } catch (Exception e) {
+      // an exception would cancel the scheduled health checks
+      log.warn("health check failed", e);
+    }
+  }
+
+  private void readmitExpiredEjections() {
+    long ejectionNanos = config.getEjectionDuration().toNanos();
+    long now = System.nanoTime();
+    for (PoolMember member : members) {
+      if (!member.isAvailable() && now - member.getEjectedAtNanos() >= ejectionNanos && member.readmit()) {
+        log.info("readmitted {} after {}ms without health checks", member.getDockerHost(), TimeUnit.NANOSECONDS.toMillis(ejectionNanos));
+      }
+    }
+  }
+
+  private void eject(PoolMember member, String reason) {
+    if (member.eject(reason)) {
+      log.warn("ejected {} from pool: {}", member.getDockerHost(), reason);
+    }
+  }
+
+  /**
+   * Only connection problems and server errors indicate an unhealthy daemon.
+   */
+  private boolean isDaemonFailure(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof IOException || t instanceof ServerException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    healthCheckExecutor.shutdownNow();
+    for (PoolMember member : members) {
+      if (member.getClient() instanceof Closeable) {
+        try {
+          ((Closeable) member.getClient()).close();
+        } catch (IOException e) {
+          log.warn("failed to close client for {}", member.getDockerHost(), e);
+        }
+      }
+    }
+  }
+}
@@ -20,9 +20,11 @@ public class ManageSecretClient implements ManageSecret {
 
   private final Logger log = LoggerFactory.getLogger(ManageSecretClient.class);
   private final EngineApiClient client;
+  private final QueryParameterEncoder queryParameterEncoder;
 
   public ManageSecretClient(EngineApiClient client) {
     this.client = client;
+    this.queryParameterEncoder = new QueryParameterEncoder();
   }
 
   @Override
@@ -58,7 +60,7 @@ public class ManageSecretClient implements ManageSecret {
       actualQuery.putAll(query);
     }
 
-    new QueryParameterEncoder().jsonEncodeQueryParameter(actualQuery, "filters");
+    queryParameterEncoder.jsonEncodeQueryParameter(actualQuery, "filters");
     return secrets((String) actualQuery.get("filters"));
   }
 
@@ -1,6 +1,7 @@
 package de.gesellix.docker.client.service
 
 import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.client.filters.Filters
 import de.gesellix.docker.client.node.NodeUtil
 import de.gesellix.docker.client.tasks.ManageTask
 import de.gesellix.docker.remote.api.EngineApiClient
@@ -125,6 +126,15 @@ class ManageServiceClient implements ManageService {
   EngineResponseContent<List<Task>> tasksOfService(String service, Map<String, Object> query = new HashMap<>()) {
     log.info("docker service ps")
     Map<String, Object> actualQuery = query ?: new HashMap<>()
+    if (actualQuery.get("filters") instanceof Filters) {
+      Filters.Builder filters = ((Filters) actualQuery.get("filters")).toBuilder()
+      filters.set("service", service)
+      List<String> nodes = ((Filters) actualQuery.get("filters")).get("node")
+      if (nodes) {
+        filters.set("node", nodeUtil.resolveNodeId(nodes) as Collection<String>)
+      }
+      return manageTask.tasks(filters.build().toJson())
+    }
     if (!actualQuery.containsKey("filters")) {
       actualQuery.put("filters", new HashMap<>())
     }
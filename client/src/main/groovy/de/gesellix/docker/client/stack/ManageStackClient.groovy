@@ -9,6 +9,7 @@ import de.gesellix.docker.client.secret.ManageSecret
 import de.gesellix.docker.client.service.ManageService
 import de.gesellix.docker.client.stack.types.StackConfig
 import de.gesellix.docker.client.stack.types.StackSecret
+import de.gesellix.docker.client.system.DaemonCapabilities
 import de.gesellix.docker.client.system.ManageSystem
 import de.gesellix.docker.client.tasks.ManageTask
 import de.gesellix.docker.remote.api.Config
@@ -32,6 +33,8 @@ import de.gesellix.docker.remote.api.TaskState
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.time.Duration
+
 class ManageStackClient implements ManageStack {
 
   private final Logger log = LoggerFactory.getLogger(ManageStackClient)
@@ -44,6 +47,7 @@ class ManageStackClient implements ManageStack {
   private ManageConfig manageConfig
   private ManageSystem manageSystem
   private ManageAuthentication manageAuthentication
+  private DaemonCapabilities daemonCapabilities
 
   ManageStackClient(
       ManageService manageService,
@@ -54,6 +58,21 @@ class ManageStackClient implements ManageStack {
       ManageConfig manageConfig,
       ManageSystem manageSystem,
       ManageAuthentication manageAuthentication) {
+    // without a way to invalidate on swarm changes, the swarm state is read for every deployment
+    this(manageService, manageTask, manageNode, manageNetwork, manageSecret, manageConfig, manageSystem, manageAuthentication,
+        new DaemonCapabilities(manageSystem, Duration.ZERO))
+  }
+
+  ManageStackClient(
+      ManageService manageService,
+      ManageTask manageTask,
+      ManageNode manageNode,
+      ManageNetwork manageNetwork,
+      ManageSecret manageSecret,
+      ManageConfig manageConfig,
+      ManageSystem manageSystem,
+      ManageAuthentication manageAuthentication,
+      DaemonCapabilities daemonCapabilities) {
     this.manageService = manageService
     this.manageTask = manageTask
     this.manageNode = manageNode
@@ -62,6 +81,7 @@ class ManageStackClient implements ManageStack {
     this.manageConfig = manageConfig
     this.manageSystem = manageSystem
     this.manageAuthentication = manageAuthentication
+    this.daemonCapabilities = daemonCapabilities
   }
 
   @Override
@@ -310,12 +330,12 @@ class ManageStackClient implements ManageStack {
     }
   }
 
-  // checkDaemonIsSwarmManager does an Info API call to verify that the daemon is
+  // checkDaemonIsSwarmManager uses the (cached) Info API call to verify that the daemon is
   // a swarm manager. This is necessary because we must create networks before we
   // create services, but the API call for creating a network does not return a
   // proper status code when it can't create a network in the "global" scope.
   void checkDaemonIsSwarmManager() {
-    if (!manageSystem.info()?.content?.swarm?.controlAvailable) {
+    if (!daemonCapabilities.swarmManager) {
       throw new IllegalStateException("This node is not a swarm manager. Use \"docker swarm init\" or \"docker swarm join\" to connect this node to swarm and try again.")
     }
   }
@@ -0,0 +1,43 @@
+package de.gesellix.docker.client.stats
+
+import de.gesellix.docker.client.container.DockerResponseHandler
+import de.gesellix.docker.engine.EngineClient
+import de.gesellix.docker.engine.EngineResponse
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+
+/**
+ * Provides the raw stats responses for a {@link StatsMonitor}, which decodes only the fields it needs.
+ */
+class StreamingStats implements StatsSource {
+
+  private final Logger log = LoggerFactory.getLogger(StreamingStats)
+
+  private final EngineClient engineClient
+  private final DockerResponseHandler responseHandler = new DockerResponseHandler()
+
+  StreamingStats(EngineClient engineClient) {
+    this.engineClient = engineClient
+  }
+
+  @Override
+  InputStream open(String container, boolean stream) throws IOException {
+    log.debug("docker stats ${container} (streaming: ${stream})")
+    // one-shot skips waiting for a second sample, the monitor computes rates from its own previous sample
+    Map<String, Object> query = stream ? [stream: true] : [stream: false, "one-shot": true]
+    // async keeps the response body open instead of parsing it as a whole
+    EngineResponse response = engineClient.get([
+        path : "/containers/${container}/stats".toString(),
+        query: query,
+        async: true])
+    if (response?.stream == null || !response.status?.success) {
+      response?.stream?.close()
+      if (response?.status?.code == 404) {
+        throw new FileNotFoundException("no such container: ${container}")
+      }
+      responseHandler.ensureSuccessfulResponse(response, new IllegalStateException("docker stats ${container} failed"))
+      throw new IllegalStateException("docker stats ${container} returned no content")
+    }
+    return response.stream as InputStream
+  }
+}
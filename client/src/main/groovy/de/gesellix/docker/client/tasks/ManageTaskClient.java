@@ -16,9 +16,11 @@ public class ManageTaskClient implements ManageTask {
 
   private final Logger log = LoggerFactory.getLogger(ManageTaskClient.class);
   private final EngineApiClient client;
+  private final QueryParameterEncoder queryParameterEncoder;
 
   public ManageTaskClient(EngineApiClient client) {
     this.client = client;
+    this.queryParameterEncoder = new QueryParameterEncoder();
   }
 
   /**
@@ -32,7 +34,7 @@ public class ManageTaskClient implements ManageTask {
     if (query != null) {
       actualQuery.putAll(query);
     }
-    new QueryParameterEncoder().jsonEncodeQueryParameter(actualQuery, "filters");
+    queryParameterEncoder.jsonEncodeQueryParameter(actualQuery, "filters");
     return tasks((String) actualQuery.get("filters"));
   }
 
@@ -0,0 +1,110 @@
+package de.gesellix.docker.client.transport;
+
+import de.gesellix.docker.client.metrics.DockerClientMetrics;
+import de.gesellix.docker.client.metrics.MeteringInterceptor;
+import de.gesellix.util.InterruptibleFuture;
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the OkHttp calls created by the action of an {@link InterruptibleFuture}, so that cancelling the future
+ * can cancel them.
+ * <p>
+ * Interrupting a platform thread doesn't abort a blocking socket read, but cancelling its call closes the socket.
+ * Calls are registered under the future's {@link InterruptibleFuture#currentToken() token} only while its action runs,
+ * calls created outside a future's action aren't tracked.
+ * <p>
+ * Request and response body sizes are reported to the {@link DockerClientMetrics} as bytes sent and received
+ * of the {@link MeteringInterceptor#currentOperation() operation} which created the call,
+ * including streamed responses which are consumed after the operation has returned.
+ */
+public class CallRegistry implements EventListener.Factory, InterruptibleFuture.Canceller {
+
+  private final ConcurrentMap<Object, Set<Call>> calls = new ConcurrentHashMap<>();
+  private volatile DockerClientMetrics metrics = DockerClientMetrics.NOOP;
+
+  public void setMetrics(DockerClientMetrics metrics) {
+    this.metrics = metrics == null ? DockerClientMetrics.NOOP : metrics;
+  }
+
+  @Override
+  public EventListener create(Call call) {
+    Object token = InterruptibleFuture.currentToken();
+    String operation = MeteringInterceptor.currentOperation();
+    if (token != null) {
+      calls.compute(token, (Object t, Set<Call> current) -> {
+        Set<Call> tokenCalls = current == null ? ConcurrentHashMap.newKeySet() : current;
+        tokenCalls.add(call);
+        return tokenCalls;
+      });
+    }
+    return new EventListener() {
+      @Override
+      public void requestBodyEnd(Call call, long byteCount) {
+        if (operation != null) {
+          metrics.bytesSent(operation, byteCount);
+        }
+      }
+
+      @Override
+      public void responseBodyEnd(Call call, long byteCount) {
+        if (operation != null) {
+          metrics.bytesReceived(operation, byteCount);
+        }
+      }
+
+      @Override
+      public void callEnd(Call call) {
+        forget(token, call);
+      }
+
+      @Override
+      public void callFailed(Call call, IOException ioe) {
+        forget(token, call);
+      }
+
+      @Override
+      public void canceled(Call call) {
+        forget(token, call);
+      }
+    };
+  }
+
+  /**
+   * Cancels the unfinished calls created by the action of the future with the given token.
+   */
+  @Override
+  public void cancel(Object token) {
+    Set<Call> tokenCalls = calls.remove(token);
+    if (tokenCalls != null) {
+      tokenCalls.forEach(Call::cancel);
+    }
+  }
+
+  /**
+   * Forgets the calls of a finished action, e.g. streamed responses which are consumed later on.
+   */
+  @Override
+  public void release(Object token) {
+    calls.remove(token);
+  }
+
+  int size() {
+    return calls.values().stream().mapToInt(Set::size).sum();
+  }
+
+  private void forget(Object token, Call call) {
+    if (token == null) {
+      return;
+    }
+    calls.computeIfPresent(token, (Object t, Set<Call> tokenCalls) -> {
+      tokenCalls.remove(call);
+      return tokenCalls.isEmpty() ? null : tokenCalls;
+    });
+  }
+}
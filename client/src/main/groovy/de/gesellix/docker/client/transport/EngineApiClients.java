@@ -0,0 +1,21 @@
+package de.gesellix.docker.client.transport;
+
+import de.gesellix.docker.engine.DockerClientConfig;
+import de.gesellix.docker.remote.api.EngineApiClient;
+import de.gesellix.docker.remote.api.EngineApiClientImpl;
+
+import java.net.Proxy;
+
+/**
+ * Creates the typed {@link EngineApiClient} on top of an {@link EngineTransport},
+ * so that typed calls and the legacy {@link PooledOkDockerClient} reuse the same keep-alive connections.
+ */
+public final class EngineApiClients {
+
+  private EngineApiClients() {
+  }
+
+  public static EngineApiClient create(EngineTransport transport, DockerClientConfig dockerClientConfig, Proxy proxy) {
+    return new EngineApiClientImpl(dockerClientConfig, proxy, transport.getClient());
+  }
+}
@@ -0,0 +1,111 @@
+package de.gesellix.docker.client.transport;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the OkHttp {@link ConnectionPool} and {@link Dispatcher} which are shared
+ * by every {@link OkHttpClient} created for the same Docker daemon.
+ * OkHttp clients are cheap as long as they share these resources,
+ * so callers should configure their builders via {@link #configure(OkHttpClient.Builder)}
+ * instead of building isolated clients.
+ */
+public class EngineTransport implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(EngineTransport.class);
+
+  private final EngineTransportConfig config;
+  private final ConnectionPool connectionPool;
+  private final Dispatcher dispatcher;
+  private final ExecutorService dispatcherExecutor;
+  private final CallRegistry calls = new CallRegistry();
+  private final OkHttpClient client;
+
+  public EngineTransport() {
+    this(new EngineTransportConfig());
+  }
+
+  public EngineTransport(EngineTransportConfig config) {
+    this.config = config;
+    this.connectionPool = new ConnectionPool(
+        config.getMaxIdleConnections(),
+        config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    this.dispatcherExecutor = new ThreadPoolExecutor(
+        0, Integer.MAX_VALUE,
+        config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+        new SynchronousQueue<>(),
+        new DispatcherThreadFactory());
+    this.dispatcher = new Dispatcher(dispatcherExecutor);
+    this.dispatcher.setMaxRequests(config.getMaxRequests());
+    this.dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+    this.client = configure(new OkHttpClient.Builder()).build();
+  }
+
+  public OkHttpClient.Builder configure(OkHttpClient.Builder builder) {
+    return builder
+        .connectionPool(connectionPool)
+        .dispatcher(dispatcher)
+        .eventListenerFactory(calls);
+  }
+
+  /**
+   * @return a client using the shared pool and dispatcher, for consumers which derive their clients via {@link OkHttpClient#newBuilder()}
+   */
+  public OkHttpClient getClient() {
+    return client;
+  }
+
+  /**
+   * @return the unfinished calls of every client created via this transport, by the running {@link de.gesellix.util.InterruptibleFuture}
+   */
+  public CallRegistry getCalls() {
+    return calls;
+  }
+
+  public EngineTransportConfig getConfig() {
+    return config;
+  }
+
+  public ConnectionPool getConnectionPool() {
+    return connectionPool;
+  }
+
+  public Dispatcher getDispatcher() {
+    return dispatcher;
+  }
+
+  /**
+   * Cancels pending calls, closes idle connections and stops the dispatcher threads.
+   * Clients using this transport must not be used afterwards.
+   */
+  @Override
+  public void close() {
+    log.debug("closing transport with {} connections ({} idle)", connectionPool.connectionCount(), connectionPool.idleConnectionCount());
+    dispatcher.cancelAll();
+    connectionPool.evictAll();
+    dispatcherExecutor.shutdown();
+  }
+
+  private static class DispatcherThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "docker-client-dispatcher-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package de.gesellix.docker.client.transport;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Size and lifetime settings of the {@link EngineTransport} which is shared
+ * by all HTTP clients of a single {@link de.gesellix.docker.client.DockerClientImpl}.
+ * <p>
+ * Each setting can be overridden by a Java system property, e.g. <code>-Ddocker.client.maxIdleConnections=10</code>.
+ */
+public class EngineTransportConfig {
+
+  public static final String MAX_IDLE_CONNECTIONS_PROPERTY = "docker.client.maxIdleConnections";
+  public static final String KEEP_ALIVE_PROPERTY = "docker.client.keepAliveMillis";
+  public static final String MAX_REQUESTS_PROPERTY = "docker.client.maxRequests";
+  public static final String MAX_REQUESTS_PER_HOST_PROPERTY = "docker.client.maxRequestsPerHost";
+
+  private int maxIdleConnections;
+  private Duration keepAlive;
+  private int maxRequests;
+  private int maxRequestsPerHost;
+
+  public EngineTransportConfig() {
+    this(Integer.getInteger(MAX_IDLE_CONNECTIONS_PROPERTY, 5),
+         Duration.ofMillis(Long.getLong(KEEP_ALIVE_PROPERTY, Duration.ofMinutes(5).toMillis())),
+         Integer.getInteger(MAX_REQUESTS_PROPERTY, 64),
+         // all requests go to the same daemon, so the per-host limit equals the overall limit by default
+         Integer.getInteger(MAX_REQUESTS_PER_HOST_PROPERTY, 64));
+  }
+
+  public EngineTransportConfig(int maxIdleConnections, Duration keepAlive, int maxRequests, int maxRequestsPerHost) {
+    this.maxIdleConnections = maxIdleConnections;
+    this.keepAlive = keepAlive;
+    this.maxRequests = maxRequests;
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  public void setMaxIdleConnections(int maxIdleConnections) {
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  public Duration getKeepAlive() {
+    return keepAlive;
+  }
+
+  public void setKeepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  public int getMaxRequests() {
+    return maxRequests;
+  }
+
+  public void setMaxRequests(int maxRequests) {
+    this.maxRequests = maxRequests;
+  }
+
+  public int getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {return true;}
+    if (o == null || getClass() != o.getClass()) {return false;}
+    EngineTransportConfig that = (EngineTransportConfig) o;
+    return maxIdleConnections == that.maxIdleConnections
+           && maxRequests == that.maxRequests
+           && maxRequestsPerHost == that.maxRequestsPerHost
+           && Objects.equals(keepAlive, that.keepAlive);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxIdleConnections, keepAlive, maxRequests, maxRequestsPerHost);
+  }
+
+  @Override
+  public String toString() {
+    return "EngineTransportConfig{" +
+           "maxIdleConnections=" + maxIdleConnections +
+           ", keepAlive=" + keepAlive +
+           ", maxRequests=" + maxRequests +
+           ", maxRequestsPerHost=" + maxRequestsPerHost +
+           '}';
+  }
+}
@@ -0,0 +1,27 @@
+package de.gesellix.docker.client.transport
+
+import de.gesellix.docker.engine.DockerClientConfig
+import de.gesellix.docker.engine.OkDockerClient
+import okhttp3.OkHttpClient
+
+import static java.net.Proxy.NO_PROXY
+
+/**
+ * An {@link OkDockerClient} whose per-request OkHttp clients share the
+ * connection pool and dispatcher of an {@link EngineTransport},
+ * so that attach, exec and websocket calls reuse warm keep-alive connections.
+ */
+class PooledOkDockerClient extends OkDockerClient {
+
+  final EngineTransport transport
+
+  PooledOkDockerClient(EngineTransport transport, DockerClientConfig dockerClientConfig, Proxy proxy = NO_PROXY) {
+    super(dockerClientConfig, proxy)
+    this.transport = transport
+  }
+
+  @Override
+  OkHttpClient newClient(OkHttpClient.Builder clientBuilder) {
+    return transport.configure(clientBuilder).build()
+  }
+}
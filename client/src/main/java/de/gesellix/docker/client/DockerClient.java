@@ -13,10 +13,13 @@ import de.gesellix.docker.client.secret.ManageSecret;
 import de.gesellix.docker.client.service.ManageService;
 import de.gesellix.docker.client.stack.ManageStack;
 import de.gesellix.docker.client.swarm.ManageSwarm;
+import de.gesellix.docker.client.system.DaemonCapabilities;
 import de.gesellix.docker.client.system.ManageSystem;
 import de.gesellix.docker.client.tasks.ManageTask;
 import de.gesellix.docker.client.volume.ManageVolume;
 
+import java.time.Duration;
+
 public interface DockerClient
     extends ManageAuthentication,
             ManageCheckpoint,
@@ -36,4 +39,19 @@ public interface DockerClient
             ManageVolume {
 
   String getSwarmMangerAddress();
+
+  /**
+   * The swarm checks of stacks, services and nodes, e.g. whether the daemon is a swarm manager,
+   * read their values via these capabilities. With the default TTL of one minute,
+   * they can see a swarm membership which changed up to a minute ago,
+   * unless the swarm was changed via this client or events are followed as described in {@link DaemonCapabilities}.
+   * Set <code>-Ddocker.client.capabilitiesTtlMillis=0</code> to query the daemon on every check, as before.
+   * <p>
+   * The default implementation doesn't cache, so that existing implementations of this interface keep working.
+   *
+   * @return cached properties of the daemon, e.g. its platform or swarm membership
+   */
+  default DaemonCapabilities getDaemonCapabilities() {
+    return new DaemonCapabilities(this, Duration.ZERO);
+  }
 }
@@ -0,0 +1,1609 @@
+package de.gesellix.docker.client;
+
+import de.gesellix.docker.authentication.AuthConfig;
+import de.gesellix.docker.client.archive.TarOptions;
+import de.gesellix.docker.client.archive.TransferOptions;
+import de.gesellix.docker.client.archive.TransferResult;
+import de.gesellix.docker.client.authentication.ManageAuthentication;
+import de.gesellix.docker.client.config.ManageConfig;
+import de.gesellix.docker.client.container.CopyOptions;
+import de.gesellix.docker.client.container.ExtractOptions;
+import de.gesellix.docker.client.container.ExtractResult;
+import de.gesellix.docker.client.container.ManageContainer;
+import de.gesellix.docker.client.distribution.ManageDistribution;
+import de.gesellix.docker.client.image.ManageImage;
+import de.gesellix.docker.client.network.ManageNetwork;
+import de.gesellix.docker.client.node.ManageNode;
+import de.gesellix.docker.client.secret.ManageSecret;
+import de.gesellix.docker.client.service.ManageService;
+import de.gesellix.docker.client.stack.DeployStackConfig;
+import de.gesellix.docker.client.stack.DeployStackOptions;
+import de.gesellix.docker.client.stack.ManageStack;
+import de.gesellix.docker.client.stack.Stack;
+import de.gesellix.docker.client.swarm.ManageSwarm;
+import de.gesellix.docker.client.system.ManageSystem;
+import de.gesellix.docker.client.system.SystemEventsRequest;
+import de.gesellix.docker.client.tasks.ManageTask;
+import de.gesellix.docker.client.volume.ManageVolume;
+import de.gesellix.docker.engine.AttachConfig;
+import de.gesellix.docker.engine.EngineResponse;
+import de.gesellix.docker.remote.api.BuildInfo;
+import de.gesellix.docker.remote.api.Config;
+import de.gesellix.docker.remote.api.ConfigSpec;
+import de.gesellix.docker.remote.api.ContainerCreateRequest;
+import de.gesellix.docker.remote.api.ContainerCreateResponse;
+import de.gesellix.docker.remote.api.ContainerInspectResponse;
+import de.gesellix.docker.remote.api.ContainerPruneResponse;
+import de.gesellix.docker.remote.api.ContainerTopResponse;
+import de.gesellix.docker.remote.api.ContainerUpdateRequest;
+import de.gesellix.docker.remote.api.ContainerUpdateResponse;
+import de.gesellix.docker.remote.api.ContainerWaitResponse;
+import de.gesellix.docker.remote.api.CreateImageInfo;
+import de.gesellix.docker.remote.api.DistributionInspect;
+import de.gesellix.docker.remote.api.EventMessage;
+import de.gesellix.docker.remote.api.ExecConfig;
+import de.gesellix.docker.remote.api.ExecInspectResponse;
+import de.gesellix.docker.remote.api.ExecStartConfig;
+import de.gesellix.docker.remote.api.FilesystemChange;
+import de.gesellix.docker.remote.api.HistoryResponseItem;
+import de.gesellix.docker.remote.api.IdResponse;
+import de.gesellix.docker.remote.api.ImageDeleteResponseItem;
+import de.gesellix.docker.remote.api.ImageInspect;
+import de.gesellix.docker.remote.api.ImagePruneResponse;
+import de.gesellix.docker.remote.api.ImageSearchResponseItem;
+import de.gesellix.docker.remote.api.ImageSummary;
+import de.gesellix.docker.remote.api.Network;
+import de.gesellix.docker.remote.api.NetworkCreateRequest;
+import de.gesellix.docker.remote.api.NetworkCreateResponse;
+import de.gesellix.docker.remote.api.NetworkPruneResponse;
+import de.gesellix.docker.remote.api.Node;
+import de.gesellix.docker.remote.api.NodeSpec;
+import de.gesellix.docker.remote.api.PushImageInfo;
+import de.gesellix.docker.remote.api.Secret;
+import de.gesellix.docker.remote.api.SecretSpec;
+import de.gesellix.docker.remote.api.Service;
+import de.gesellix.docker.remote.api.ServiceCreateRequest;
+import de.gesellix.docker.remote.api.ServiceCreateResponse;
+import de.gesellix.docker.remote.api.ServiceUpdateRequest;
+import de.gesellix.docker.remote.api.ServiceUpdateResponse;
+import de.gesellix.docker.remote.api.Swarm;
+import de.gesellix.docker.remote.api.SwarmInitRequest;
+import de.gesellix.docker.remote.api.SwarmJoinRequest;
+import de.gesellix.docker.remote.api.SwarmSpec;
+import de.gesellix.docker.remote.api.SystemAuthResponse;
+import de.gesellix.docker.remote.api.SystemDataUsageResponse;
+import de.gesellix.docker.remote.api.SystemInfo;
+import de.gesellix.docker.remote.api.SystemVersion;
+import de.gesellix.docker.remote.api.Task;
+import de.gesellix.docker.remote.api.Volume;
+import de.gesellix.docker.remote.api.VolumeCreateOptions;
+import de.gesellix.docker.remote.api.VolumeListResponse;
+import de.gesellix.docker.remote.api.VolumePruneResponse;
+import de.gesellix.docker.remote.api.client.ContainerApi;
+import de.gesellix.docker.remote.api.core.Frame;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.Interceptor;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Wraps the <code>Manage*</code> clients in plain delegating classes, so that every method call
+ * runs through an {@link Interceptor}, e.g. for metrics or to coalesce identical calls.
+ * <p>
+ * Unlike a {@link java.lang.reflect.Proxy}, the wrappers pass checked exceptions which the Groovy clients
+ * throw without declaring them on unchanged, instead of wrapping them in an {@link java.lang.reflect.UndeclaredThrowableException}.
+ * Every method of an interface, including its default methods, has to be overridden, so that the delegate's implementation is used.
+ */
+public final class InterceptingClients {
+
+  private static final Map<Class<?>, BiFunction<Object, Interceptor, Object>> WRAPPERS = new LinkedHashMap<>();
+
+  static {
+    register(ManageAuthentication.class, InterceptingManageAuthentication::new);
+    register(ManageConfig.class, InterceptingManageConfig::new);
+    register(ManageContainer.class, InterceptingManageContainer::new);
+    register(ManageDistribution.class, InterceptingManageDistribution::new);
+    register(ManageImage.class, InterceptingManageImage::new);
+    register(ManageNetwork.class, InterceptingManageNetwork::new);
+    register(ManageNode.class, InterceptingManageNode::new);
+    register(ManageSecret.class, InterceptingManageSecret::new);
+    register(ManageService.class, InterceptingManageService::new);
+    register(ManageStack.class, InterceptingManageStack::new);
+    register(ManageSwarm.class, InterceptingManageSwarm::new);
+    register(ManageSystem.class, InterceptingManageSystem::new);
+    register(ManageTask.class, InterceptingManageTask::new);
+    register(ManageVolume.class, InterceptingManageVolume::new);
+  }
+
+  private InterceptingClients() {
+  }
+
+  /**
+   * @param interceptor <code>null</code> to return the delegate as it is
+   * @throws IllegalArgumentException when the type is not one of the <code>Manage*</code> interfaces
+   */
+  public static <T> T wrap(Class<T> type, T delegate, Interceptor interceptor) {
+    BiFunction<Object, Interceptor, Object> wrapper = WRAPPERS.get(type);
+    if (wrapper == null) {
+      throw new IllegalArgumentException("can't intercept " + type.getName());
+    }
+    if (delegate == null || interceptor == null) {
+      return delegate;
+    }
+    return type.cast(wrapper.apply(delegate, interceptor));
+  }
+
+  /**
+   * @return the delegate of a wrapper created by {@link #wrap(Class, Object, Interceptor)}, otherwise the given instance
+   */
+  public static Object unwrap(Object instance) {
+    return instance instanceof Intercepted ? ((Intercepted<?>) instance).delegate : instance;
+  }
+
+  static Set<Class<?>> getTypes() {
+    return Collections.unmodifiableSet(WRAPPERS.keySet());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void register(Class<T> type, BiFunction<T, Interceptor, ? extends T> wrapper) {
+    WRAPPERS.put(type, (Object delegate, Interceptor interceptor) -> wrapper.apply((T) delegate, interceptor));
+  }
+
+  abstract static class Intercepted<T> {
+
+    static final Object[] NO_ARGS = new Object[0];
+
+    final T delegate;
+    private final Interceptor interceptor;
+
+    Intercepted(T delegate, Interceptor interceptor) {
+      this.delegate = delegate;
+      this.interceptor = interceptor;
+    }
+
+    <R, E extends Throwable> R intercept(String operation, Object[] args, Interceptor.Invocation<R, E> invocation) throws E {
+      return interceptor.intercept(operation, args, invocation);
+    }
+  }
+
+  static final class InterceptingManageAuthentication extends Intercepted<ManageAuthentication> implements ManageAuthentication {
+
+    InterceptingManageAuthentication(ManageAuthentication delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public Map<String, AuthConfig> getAllAuthConfigs() {
+      return intercept("getAllAuthConfigs", NO_ARGS, () -> delegate.getAllAuthConfigs());
+    }
+
+    @Override
+    public Map<String, AuthConfig> getAllAuthConfigs(File dockerCfgOrNull) {
+      return intercept("getAllAuthConfigs", new Object[]{dockerCfgOrNull}, () -> delegate.getAllAuthConfigs(dockerCfgOrNull));
+    }
+
+    @Override
+    public AuthConfig readDefaultAuthConfig() {
+      return intercept("readDefaultAuthConfig", NO_ARGS, () -> delegate.readDefaultAuthConfig());
+    }
+
+    @Override
+    public AuthConfig readAuthConfig(String hostnameOrNull, File dockerCfgOrNull) {
+      return intercept("readAuthConfig", new Object[]{hostnameOrNull, dockerCfgOrNull}, () -> delegate.readAuthConfig(hostnameOrNull, dockerCfgOrNull));
+    }
+
+    @Override
+    public AuthConfig resolveAuthConfigForImage(String image) {
+      return intercept("resolveAuthConfigForImage", new Object[]{image}, () -> delegate.resolveAuthConfigForImage(image));
+    }
+
+    @Override
+    public String retrieveEncodedAuthTokenForImage(String image) {
+      return intercept("retrieveEncodedAuthTokenForImage", new Object[]{image}, () -> delegate.retrieveEncodedAuthTokenForImage(image));
+    }
+
+    @Override
+    public String encodeAuthConfig(AuthConfig authConfig) {
+      return intercept("encodeAuthConfig", new Object[]{authConfig}, () -> delegate.encodeAuthConfig(authConfig));
+    }
+
+    @Override
+    public String encodeAuthConfigs(Map<String, AuthConfig> authConfigs) {
+      return intercept("encodeAuthConfigs", new Object[]{authConfigs}, () -> delegate.encodeAuthConfigs(authConfigs));
+    }
+
+    @Override
+    public EngineResponseContent<SystemAuthResponse> auth(de.gesellix.docker.remote.api.AuthConfig authDetails) {
+      return intercept("auth", new Object[]{authDetails}, () -> delegate.auth(authDetails));
+    }
+  }
+
+  static final class InterceptingManageConfig extends Intercepted<ManageConfig> implements ManageConfig {
+
+    InterceptingManageConfig(ManageConfig delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> createConfig(String name, byte[] configData) {
+      return intercept("createConfig", new Object[]{name, configData}, () -> delegate.createConfig(name, configData));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> createConfig(String name, byte[] configData, Map<String, String> labels) {
+      return intercept("createConfig", new Object[]{name, configData, labels}, () -> delegate.createConfig(name, configData, labels));
+    }
+
+    @Override
+    public EngineResponseContent<Config> inspectConfig(String configId) {
+      return intercept("inspectConfig", new Object[]{configId}, () -> delegate.inspectConfig(configId));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<Config>> configs(Map<String, Object> query) {
+      return intercept("configs", new Object[]{query}, () -> delegate.configs(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Config>> configs() {
+      return intercept("configs", NO_ARGS, () -> delegate.configs());
+    }
+
+    @Override
+    public EngineResponseContent<List<Config>> configs(String filters) {
+      return intercept("configs", new Object[]{filters}, () -> delegate.configs(filters));
+    }
+
+    @Override
+    public void rmConfig(String configId) {
+      intercept("rmConfig", new Object[]{configId}, () -> {
+        delegate.rmConfig(configId);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateConfig(String configId, long version, ConfigSpec configSpec) {
+      intercept("updateConfig", new Object[]{configId, version, configSpec}, () -> {
+        delegate.updateConfig(configId, version, configSpec);
+        return null;
+      });
+    }
+  }
+
+  static final class InterceptingManageContainer extends Intercepted<ManageContainer> implements ManageContainer {
+
+    InterceptingManageContainer(ManageContainer delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponse attach(String container, Map<String, Object> query) {
+      return intercept("attach", new Object[]{container, query}, () -> delegate.attach(container, query));
+    }
+
+    @Override
+    public EngineResponse attach(String container, Map<String, Object> query, AttachConfig callback) {
+      return intercept("attach", new Object[]{container, query, callback}, () -> delegate.attach(container, query, callback));
+    }
+
+    @Override
+    public EngineResponse attach(String container, Map<String, Object> query, AttachConfig callback, boolean tty) {
+      return intercept("attach", new Object[]{container, query, callback, tty}, () -> delegate.attach(container, query, callback, tty));
+    }
+
+    @Override
+    public void attach(String containerId, String detachKeys, Boolean logs, Boolean stream, Boolean stdin, Boolean stdout, Boolean stderr, StreamCallback<Frame> callback, Duration timeout) {
+      intercept("attach", new Object[]{containerId, detachKeys, logs, stream, stdin, stdout, stderr, callback, timeout}, () -> {
+        delegate.attach(containerId, detachKeys, logs, stream, stdin, stdout, stderr, callback, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public long attach(String container, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+      return intercept("attach", new Object[]{container, query, stdout, stderr}, () -> delegate.attach(container, query, stdout, stderr));
+    }
+
+    @Override
+    public long attach(String container, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+      return intercept("attach", new Object[]{container, query, stdout, stderr}, () -> delegate.attach(container, query, stdout, stderr));
+    }
+
+    @Override
+    public void resizeTTY(String container, Integer height, Integer width) {
+      intercept("resizeTTY", new Object[]{container, height, width}, () -> {
+        delegate.resizeTTY(container, height, width);
+        return null;
+      });
+    }
+
+    @Override
+    public WebSocket attachWebsocket(String container, Map<String, Object> query, WebSocketListener listener) {
+      return intercept("attachWebsocket", new Object[]{container, query, listener}, () -> delegate.attachWebsocket(container, query, listener));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> commit(String container, Map query) {
+      return intercept("commit", new Object[]{container, query}, () -> delegate.commit(container, query));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> commit(String container, Map query, Map config) {
+      return intercept("commit", new Object[]{container, query, config}, () -> delegate.commit(container, query, config));
+    }
+
+    @Override
+    public EngineResponseContent<Map<String, Object>> getArchiveStats(String container, String path) {
+      return intercept("getArchiveStats", new Object[]{container, path}, () -> delegate.getArchiveStats(container, path));
+    }
+
+    @Override
+    public byte[] extractFile(String container, String filename) {
+      return intercept("extractFile", new Object[]{container, filename}, () -> delegate.extractFile(container, filename));
+    }
+
+    @Override
+    public long extractFile(String container, String filename, Path target) throws IOException {
+      return intercept("extractFile", new Object[]{container, filename, target}, () -> delegate.extractFile(container, filename, target));
+    }
+
+    @Override
+    public long extractFile(String container, String filename, WritableByteChannel target) throws IOException {
+      return intercept("extractFile", new Object[]{container, filename, target}, () -> delegate.extractFile(container, filename, target));
+    }
+
+    @Override
+    public ExtractResult extractArchive(String container, String path, Path targetDirectory, ExtractOptions options) throws IOException {
+      return intercept("extractArchive", new Object[]{container, path, targetDirectory, options}, () -> delegate.extractArchive(container, path, targetDirectory, options));
+    }
+
+    @Override
+    public EngineResponseContent<InputStream> getArchive(String container, String path) {
+      return intercept("getArchive", new Object[]{container, path}, () -> delegate.getArchive(container, path));
+    }
+
+    @Override
+    public void putArchive(String container, String path, InputStream archive) {
+      intercept("putArchive", new Object[]{container, path, archive}, () -> {
+        delegate.putArchive(container, path, archive);
+        return null;
+      });
+    }
+
+    @Override
+    public void putArchive(String container, String path, Path source, TarOptions options) throws IOException {
+      intercept("putArchive", new Object[]{container, path, source, options}, () -> {
+        delegate.putArchive(container, path, source, options);
+        return null;
+      });
+    }
+
+    @Override
+    public void copyBetweenContainers(String source, String sourcePath, String target, String targetPath) {
+      intercept("copyBetweenContainers", new Object[]{source, sourcePath, target, targetPath}, () -> {
+        delegate.copyBetweenContainers(source, sourcePath, target, targetPath);
+        return null;
+      });
+    }
+
+    @Override
+    public void copyBetweenContainers(String source, String sourcePath, String target, String targetPath, CopyOptions options) {
+      intercept("copyBetweenContainers", new Object[]{source, sourcePath, target, targetPath, options}, () -> {
+        delegate.copyBetweenContainers(source, sourcePath, target, targetPath, options);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest) {
+      return intercept("createContainer", new Object[]{containerCreateRequest}, () -> delegate.createContainer(containerCreateRequest));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest, String name) {
+      return intercept("createContainer", new Object[]{containerCreateRequest, name}, () -> delegate.createContainer(containerCreateRequest, name));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest, String name, String authBase64Encoded) {
+      return intercept("createContainer", new Object[]{containerCreateRequest, name, authBase64Encoded}, () -> delegate.createContainer(containerCreateRequest, name, authBase64Encoded));
+    }
+
+    @Override
+    public EngineResponseContent<List<FilesystemChange>> diff(String container) {
+      return intercept("diff", new Object[]{container}, () -> delegate.diff(container));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> createExec(String container, ExecConfig execConfig) {
+      return intercept("createExec", new Object[]{container, execConfig}, () -> delegate.createExec(container, execConfig));
+    }
+
+    @Override
+    public void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig) {
+      intercept("startExec", new Object[]{execId, execStartConfig, attachConfig}, () -> {
+        delegate.startExec(execId, execStartConfig, attachConfig);
+        return null;
+      });
+    }
+
+    @Override
+    public void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig, boolean tty) {
+      intercept("startExec", new Object[]{execId, execStartConfig, attachConfig, tty}, () -> {
+        delegate.startExec(execId, execStartConfig, attachConfig, tty);
+        return null;
+      });
+    }
+
+    @Override
+    public void startExec(String execId, ExecStartConfig execStartConfig, StreamCallback<Frame> callback, Duration timeout) {
+      intercept("startExec", new Object[]{execId, execStartConfig, callback, timeout}, () -> {
+        delegate.startExec(execId, execStartConfig, callback, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ExecInspectResponse> inspectExec(String execId) {
+      return intercept("inspectExec", new Object[]{execId}, () -> delegate.inspectExec(execId));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> exec(String container, List<String> command, StreamCallback<Frame> callback, Duration timeout) {
+      return intercept("exec", new Object[]{container, command, callback, timeout}, () -> delegate.exec(container, command, callback, timeout));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> exec(String container, List<String> command, StreamCallback<Frame> callback, Duration timeout, Map<String, Object> execConfig) {
+      return intercept("exec", new Object[]{container, command, callback, timeout, execConfig}, () -> delegate.exec(container, command, callback, timeout, execConfig));
+    }
+
+    @Override
+    public void resizeExec(String exec, Integer height, Integer width) {
+      intercept("resizeExec", new Object[]{exec, height, width}, () -> {
+        delegate.resizeExec(exec, height, width);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<InputStream> export(String container) {
+      return intercept("export", new Object[]{container}, () -> delegate.export(container));
+    }
+
+    @Override
+    public TransferResult exportTo(String container, Path target, TransferOptions options) throws IOException {
+      return intercept("exportTo", new Object[]{container, target, options}, () -> delegate.exportTo(container, target, options));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerInspectResponse> inspectContainer(String container) {
+      return intercept("inspectContainer", new Object[]{container}, () -> delegate.inspectContainer(container));
+    }
+
+    @Override
+    public void kill(String container) {
+      intercept("kill", new Object[]{container}, () -> {
+        delegate.kill(container);
+        return null;
+      });
+    }
+
+    @Override
+    public void logs(String container, Map<String, Object> query, StreamCallback<Frame> callback, Duration timeout) {
+      intercept("logs", new Object[]{container, query, callback, timeout}, () -> {
+        delegate.logs(container, query, callback, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public long logs(String container, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+      return intercept("logs", new Object[]{container, query, stdout, stderr}, () -> delegate.logs(container, query, stdout, stderr));
+    }
+
+    @Override
+    public long logs(String container, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+      return intercept("logs", new Object[]{container, query, stdout, stderr}, () -> delegate.logs(container, query, stdout, stderr));
+    }
+
+    @Override
+    public void waitForLogEvent(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+      intercept("waitForLogEvent", new Object[]{container, query, matcher, timeout}, () -> {
+        delegate.waitForLogEvent(container, query, matcher, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public CompletableFuture<Frame> watchLogs(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+      return intercept("watchLogs", new Object[]{container, query, matcher, timeout}, () -> delegate.watchLogs(container, query, matcher, timeout));
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps(Map<String, Object> query) {
+      return intercept("ps", new Object[]{query}, () -> delegate.ps(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps() {
+      return intercept("ps", NO_ARGS, () -> delegate.ps());
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps(Boolean all) {
+      return intercept("ps", new Object[]{all}, () -> delegate.ps(all));
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps(Boolean all, Integer limit) {
+      return intercept("ps", new Object[]{all, limit}, () -> delegate.ps(all, limit));
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps(Boolean all, Integer limit, Boolean size) {
+      return intercept("ps", new Object[]{all, limit, size}, () -> delegate.ps(all, limit, size));
+    }
+
+    @Override
+    public EngineResponseContent<List<Map<String, Object>>> ps(Boolean all, Integer limit, Boolean size, String filters) {
+      return intercept("ps", new Object[]{all, limit, size, filters}, () -> delegate.ps(all, limit, size, filters));
+    }
+
+    @Override
+    public void pause(String container) {
+      intercept("pause", new Object[]{container}, () -> {
+        delegate.pause(container);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ContainerPruneResponse> pruneContainers() {
+      return intercept("pruneContainers", NO_ARGS, () -> delegate.pruneContainers());
+    }
+
+    @Override
+    public EngineResponseContent<ContainerPruneResponse> pruneContainers(String filters) {
+      return intercept("pruneContainers", new Object[]{filters}, () -> delegate.pruneContainers(filters));
+    }
+
+    @Override
+    public void rename(String container, String newName) {
+      intercept("rename", new Object[]{container, newName}, () -> {
+        delegate.rename(container, newName);
+        return null;
+      });
+    }
+
+    @Override
+    public void restart(String containerIdOrName) {
+      intercept("restart", new Object[]{containerIdOrName}, () -> {
+        delegate.restart(containerIdOrName);
+        return null;
+      });
+    }
+
+    @Override
+    public void rm(String containerIdOrName) {
+      intercept("rm", new Object[]{containerIdOrName}, () -> {
+        delegate.rm(containerIdOrName);
+        return null;
+      });
+    }
+
+    @Override
+    public void rm(String containerIdOrName, Map<String, Object> query) {
+      intercept("rm", new Object[]{containerIdOrName, query}, () -> {
+        delegate.rm(containerIdOrName, query);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> run(ContainerCreateRequest containerCreateRequest) {
+      return intercept("run", new Object[]{containerCreateRequest}, () -> delegate.run(containerCreateRequest));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> run(ContainerCreateRequest containerCreateRequest, String name) {
+      return intercept("run", new Object[]{containerCreateRequest, name}, () -> delegate.run(containerCreateRequest, name));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerCreateResponse> run(ContainerCreateRequest containerCreateRequest, String name, String authBase64Encoded) {
+      return intercept("run", new Object[]{containerCreateRequest, name, authBase64Encoded}, () -> delegate.run(containerCreateRequest, name, authBase64Encoded));
+    }
+
+    @Override
+    public void startContainer(String container) {
+      intercept("startContainer", new Object[]{container}, () -> {
+        delegate.startContainer(container);
+        return null;
+      });
+    }
+
+    @Override
+    public void stats(String container, Boolean stream, StreamCallback<Object> callback, Duration timeout) {
+      intercept("stats", new Object[]{container, stream, callback, timeout}, () -> {
+        delegate.stats(container, stream, callback, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public void stop(String containerIdOrName) {
+      intercept("stop", new Object[]{containerIdOrName}, () -> {
+        delegate.stop(containerIdOrName);
+        return null;
+      });
+    }
+
+    @Override
+    public void stop(String containerIdOrName, Integer timeoutSeconds) {
+      intercept("stop", new Object[]{containerIdOrName, timeoutSeconds}, () -> {
+        delegate.stop(containerIdOrName, timeoutSeconds);
+        return null;
+      });
+    }
+
+    @Override
+    public void stop(String containerIdOrName, Duration timeout) {
+      intercept("stop", new Object[]{containerIdOrName, timeout}, () -> {
+        delegate.stop(containerIdOrName, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ContainerTopResponse> top(String containerIdOrName) {
+      return intercept("top", new Object[]{containerIdOrName}, () -> delegate.top(containerIdOrName));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerTopResponse> top(String containerIdOrName, String psArgs) {
+      return intercept("top", new Object[]{containerIdOrName, psArgs}, () -> delegate.top(containerIdOrName, psArgs));
+    }
+
+    @Override
+    public void unpause(String container) {
+      intercept("unpause", new Object[]{container}, () -> {
+        delegate.unpause(container);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ContainerUpdateResponse> updateContainer(String container, ContainerUpdateRequest containerUpdateRequest) {
+      return intercept("updateContainer", new Object[]{container, containerUpdateRequest}, () -> delegate.updateContainer(container, containerUpdateRequest));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerWaitResponse> wait(String containerIdOrName) {
+      return intercept("wait", new Object[]{containerIdOrName}, () -> delegate.wait(containerIdOrName));
+    }
+
+    @Override
+    public EngineResponseContent<ContainerWaitResponse> wait(String containerIdOrName, ContainerApi.ConditionContainerWait condition) {
+      return intercept("wait", new Object[]{containerIdOrName, condition}, () -> delegate.wait(containerIdOrName, condition));
+    }
+  }
+
+  static final class InterceptingManageDistribution extends Intercepted<ManageDistribution> implements ManageDistribution {
+
+    InterceptingManageDistribution(ManageDistribution delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<DistributionInspect> descriptor(String image) {
+      return intercept("descriptor", new Object[]{image}, () -> delegate.descriptor(image));
+    }
+  }
+
+  static final class InterceptingManageImage extends Intercepted<ManageImage> implements ManageImage {
+
+    InterceptingManageImage(ManageImage delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<List<ImageSearchResponseItem>> search(String term) {
+      return intercept("search", new Object[]{term}, () -> delegate.search(term));
+    }
+
+    @Override
+    public EngineResponseContent<List<ImageSearchResponseItem>> search(String term, Integer limit) {
+      return intercept("search", new Object[]{term, limit}, () -> delegate.search(term, limit));
+    }
+
+    @Override
+    public void build(InputStream buildContext) {
+      intercept("build", new Object[]{buildContext}, () -> {
+        delegate.build(buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(StreamCallback<BuildInfo> callback, Duration timeout, InputStream buildContext) {
+      intercept("build", new Object[]{callback, timeout, buildContext}, () -> {
+        delegate.build(callback, timeout, buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(StreamCallback<BuildInfo> callback, Duration timeout, String tag, InputStream buildContext) {
+      intercept("build", new Object[]{callback, timeout, tag, buildContext}, () -> {
+        delegate.build(callback, timeout, tag, buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(String tag, InputStream buildContext) {
+      intercept("build", new Object[]{tag, buildContext}, () -> {
+        delegate.build(tag, buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(String dockerfile, String tag, Boolean quiet, Boolean nocache, String pull, Boolean rm, String buildargs, String labels, String encodedRegistryConfig, String contentType, InputStream buildContext) {
+      intercept("build", new Object[]{dockerfile, tag, quiet, nocache, pull, rm, buildargs, labels, encodedRegistryConfig, contentType, buildContext}, () -> {
+        delegate.build(dockerfile, tag, quiet, nocache, pull, rm, buildargs, labels, encodedRegistryConfig, contentType, buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(StreamCallback<BuildInfo> callback, Duration timeout, String dockerfile, String tag, Boolean quiet, Boolean nocache, String pull, Boolean rm, String buildargs, String labels, String encodedRegistryConfig, String contentType, InputStream buildContext) {
+      intercept("build", new Object[]{callback, timeout, dockerfile, tag, quiet, nocache, pull, rm, buildargs, labels, encodedRegistryConfig, contentType, buildContext}, () -> {
+        delegate.build(callback, timeout, dockerfile, tag, quiet, nocache, pull, rm, buildargs, labels, encodedRegistryConfig, contentType, buildContext);
+        return null;
+      });
+    }
+
+    @Override
+    public void build(StreamCallback<BuildInfo> callback, Duration timeout, String dockerfile, String tag, Path buildContext, TarOptions options) throws IOException {
+      intercept("build", new Object[]{callback, timeout, dockerfile, tag, buildContext, options}, () -> {
+        delegate.build(callback, timeout, dockerfile, tag, buildContext, options);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<List<HistoryResponseItem>> history(String image) {
+      return intercept("history", new Object[]{image}, () -> delegate.history(image));
+    }
+
+    @Override
+    public EngineResponseContent<ImageInspect> inspectImage(String image) {
+      return intercept("inspectImage", new Object[]{image}, () -> delegate.inspectImage(image));
+    }
+
+    @Override
+    public void load(InputStream imagesTarball) {
+      intercept("load", new Object[]{imagesTarball}, () -> {
+        delegate.load(imagesTarball);
+        return null;
+      });
+    }
+
+    @Override
+    public void loadFrom(Path imagesTarball) throws IOException {
+      intercept("loadFrom", new Object[]{imagesTarball}, () -> {
+        delegate.loadFrom(imagesTarball);
+        return null;
+      });
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<ImageSummary>> images(Map<String, Object> query) {
+      return intercept("images", new Object[]{query}, () -> delegate.images(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<ImageSummary>> images() {
+      return intercept("images", NO_ARGS, () -> delegate.images());
+    }
+
+    @Override
+    public EngineResponseContent<List<ImageSummary>> images(Boolean all, String filters, Boolean digests) {
+      return intercept("images", new Object[]{all, filters, digests}, () -> delegate.images(all, filters, digests));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<ImagePruneResponse> pruneImages(Map<String, Object> query) {
+      return intercept("pruneImages", new Object[]{query}, () -> delegate.pruneImages(query));
+    }
+
+    @Override
+    public EngineResponseContent<ImagePruneResponse> pruneImages() {
+      return intercept("pruneImages", NO_ARGS, () -> delegate.pruneImages());
+    }
+
+    @Override
+    public EngineResponseContent<ImagePruneResponse> pruneImages(String filters) {
+      return intercept("pruneImages", new Object[]{filters}, () -> delegate.pruneImages(filters));
+    }
+
+    @Override
+    public void pull(StreamCallback<CreateImageInfo> callback, Duration timeout, String imageName) {
+      intercept("pull", new Object[]{callback, timeout, imageName}, () -> {
+        delegate.pull(callback, timeout, imageName);
+        return null;
+      });
+    }
+
+    @Override
+    public void pull(StreamCallback<CreateImageInfo> callback, Duration timeout, String imageName, String tag) {
+      intercept("pull", new Object[]{callback, timeout, imageName, tag}, () -> {
+        delegate.pull(callback, timeout, imageName, tag);
+        return null;
+      });
+    }
+
+    @Override
+    public void pull(StreamCallback<CreateImageInfo> callback, Duration timeout, String imageName, String tag, String authBase64Encoded) {
+      intercept("pull", new Object[]{callback, timeout, imageName, tag, authBase64Encoded}, () -> {
+        delegate.pull(callback, timeout, imageName, tag, authBase64Encoded);
+        return null;
+      });
+    }
+
+    @Override
+    public void importUrl(StreamCallback<CreateImageInfo> callback, Duration timeout, String url) {
+      intercept("importUrl", new Object[]{callback, timeout, url}, () -> {
+        delegate.importUrl(callback, timeout, url);
+        return null;
+      });
+    }
+
+    @Override
+    public void importUrl(StreamCallback<CreateImageInfo> callback, Duration timeout, String url, String repository) {
+      intercept("importUrl", new Object[]{callback, timeout, url, repository}, () -> {
+        delegate.importUrl(callback, timeout, url, repository);
+        return null;
+      });
+    }
+
+    @Override
+    public void importUrl(StreamCallback<CreateImageInfo> callback, Duration timeout, String url, String repository, String tag) {
+      intercept("importUrl", new Object[]{callback, timeout, url, repository, tag}, () -> {
+        delegate.importUrl(callback, timeout, url, repository, tag);
+        return null;
+      });
+    }
+
+    @Override
+    public void importStream(StreamCallback<CreateImageInfo> callback, Duration timeout, InputStream stream) {
+      intercept("importStream", new Object[]{callback, timeout, stream}, () -> {
+        delegate.importStream(callback, timeout, stream);
+        return null;
+      });
+    }
+
+    @Override
+    public void importStream(StreamCallback<CreateImageInfo> callback, Duration timeout, InputStream stream, String repository) {
+      intercept("importStream", new Object[]{callback, timeout, stream, repository}, () -> {
+        delegate.importStream(callback, timeout, stream, repository);
+        return null;
+      });
+    }
+
+    @Override
+    public void importStream(StreamCallback<CreateImageInfo> callback, Duration timeout, InputStream stream, String repository, String tag) {
+      intercept("importStream", new Object[]{callback, timeout, stream, repository, tag}, () -> {
+        delegate.importStream(callback, timeout, stream, repository, tag);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(String image) {
+      intercept("push", new Object[]{image}, () -> {
+        delegate.push(image);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(StreamCallback<PushImageInfo> callback, Duration timeout, String image) {
+      intercept("push", new Object[]{callback, timeout, image}, () -> {
+        delegate.push(callback, timeout, image);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(String image, String authBase64Encoded) {
+      intercept("push", new Object[]{image, authBase64Encoded}, () -> {
+        delegate.push(image, authBase64Encoded);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(StreamCallback<PushImageInfo> callback, Duration timeout, String image, String authBase64Encoded) {
+      intercept("push", new Object[]{callback, timeout, image, authBase64Encoded}, () -> {
+        delegate.push(callback, timeout, image, authBase64Encoded);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(String image, String authBase64Encoded, String registry) {
+      intercept("push", new Object[]{image, authBase64Encoded, registry}, () -> {
+        delegate.push(image, authBase64Encoded, registry);
+        return null;
+      });
+    }
+
+    @Override
+    public void push(StreamCallback<PushImageInfo> callback, Duration timeout, String image, String authBase64Encoded, String registry) {
+      intercept("push", new Object[]{callback, timeout, image, authBase64Encoded, registry}, () -> {
+        delegate.push(callback, timeout, image, authBase64Encoded, registry);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<List<ImageDeleteResponseItem>> rmi(String image) {
+      return intercept("rmi", new Object[]{image}, () -> delegate.rmi(image));
+    }
+
+    @Override
+    public EngineResponseContent<InputStream> save(List<String> images) {
+      return intercept("save", new Object[]{images}, () -> delegate.save(images));
+    }
+
+    @Override
+    public TransferResult saveTo(List<String> images, Path target, TransferOptions options) throws IOException {
+      return intercept("saveTo", new Object[]{images, target, options}, () -> delegate.saveTo(images, target, options));
+    }
+
+    @Override
+    public void tag(String image, String repository) {
+      intercept("tag", new Object[]{image, repository}, () -> {
+        delegate.tag(image, repository);
+        return null;
+      });
+    }
+
+    @Override
+    public String findImageId(String imageName) {
+      return intercept("findImageId", new Object[]{imageName}, () -> delegate.findImageId(imageName));
+    }
+
+    @Override
+    public String findImageId(String imageName, String tag) {
+      return intercept("findImageId", new Object[]{imageName, tag}, () -> delegate.findImageId(imageName, tag));
+    }
+  }
+
+  static final class InterceptingManageNetwork extends Intercepted<ManageNetwork> implements ManageNetwork {
+
+    InterceptingManageNetwork(ManageNetwork delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public void connectNetwork(String network, String container) {
+      intercept("connectNetwork", new Object[]{network, container}, () -> {
+        delegate.connectNetwork(network, container);
+        return null;
+      });
+    }
+
+    @Override
+    public void disconnectNetwork(String network, String container) {
+      intercept("disconnectNetwork", new Object[]{network, container}, () -> {
+        delegate.disconnectNetwork(network, container);
+        return null;
+      });
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<NetworkCreateResponse> createNetwork(String name, Map<String, Object> config) {
+      return intercept("createNetwork", new Object[]{name, config}, () -> delegate.createNetwork(name, config));
+    }
+
+    @Override
+    public EngineResponseContent<NetworkCreateResponse> createNetwork(String name) {
+      return intercept("createNetwork", new Object[]{name}, () -> delegate.createNetwork(name));
+    }
+
+    @Override
+    public EngineResponseContent<NetworkCreateResponse> createNetwork(NetworkCreateRequest networkCreateRequest) {
+      return intercept("createNetwork", new Object[]{networkCreateRequest}, () -> delegate.createNetwork(networkCreateRequest));
+    }
+
+    @Override
+    public EngineResponseContent<Network> inspectNetwork(String name) {
+      return intercept("inspectNetwork", new Object[]{name}, () -> delegate.inspectNetwork(name));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<Network>> networks(Map<String, Object> query) {
+      return intercept("networks", new Object[]{query}, () -> delegate.networks(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Network>> networks() {
+      return intercept("networks", NO_ARGS, () -> delegate.networks());
+    }
+
+    @Override
+    public EngineResponseContent<List<Network>> networks(String filters) {
+      return intercept("networks", new Object[]{filters}, () -> delegate.networks(filters));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<NetworkPruneResponse> pruneNetworks(Map<String, Object> query) {
+      return intercept("pruneNetworks", new Object[]{query}, () -> delegate.pruneNetworks(query));
+    }
+
+    @Override
+    public EngineResponseContent<NetworkPruneResponse> pruneNetworks() {
+      return intercept("pruneNetworks", NO_ARGS, () -> delegate.pruneNetworks());
+    }
+
+    @Override
+    public EngineResponseContent<NetworkPruneResponse> pruneNetworks(String filters) {
+      return intercept("pruneNetworks", new Object[]{filters}, () -> delegate.pruneNetworks(filters));
+    }
+
+    @Override
+    public void rmNetwork(String name) {
+      intercept("rmNetwork", new Object[]{name}, () -> {
+        delegate.rmNetwork(name);
+        return null;
+      });
+    }
+  }
+
+  static final class InterceptingManageNode extends Intercepted<ManageNode> implements ManageNode {
+
+    InterceptingManageNode(ManageNode delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<Node> inspectNode(String name) {
+      return intercept("inspectNode", new Object[]{name}, () -> delegate.inspectNode(name));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<Node>> nodes(Map<String, Object> query) {
+      return intercept("nodes", new Object[]{query}, () -> delegate.nodes(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Node>> nodes() {
+      return intercept("nodes", NO_ARGS, () -> delegate.nodes());
+    }
+
+    @Override
+    public EngineResponseContent<List<Node>> nodes(String filters) {
+      return intercept("nodes", new Object[]{filters}, () -> delegate.nodes(filters));
+    }
+
+    @Override
+    public void promoteNodes(String[] node) {
+      intercept("promoteNodes", new Object[]{node}, () -> {
+        delegate.promoteNodes(node);
+        return null;
+      });
+    }
+
+    @Override
+    public void demoteNodes(String[] node) {
+      intercept("demoteNodes", new Object[]{node}, () -> {
+        delegate.demoteNodes(node);
+        return null;
+      });
+    }
+
+    @Override
+    public void rmNode(String name) {
+      intercept("rmNode", new Object[]{name}, () -> {
+        delegate.rmNode(name);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateNode(String name, long version, NodeSpec nodeSpec) {
+      intercept("updateNode", new Object[]{name, version, nodeSpec}, () -> {
+        delegate.updateNode(name, version, nodeSpec);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasksOnNode(String node) {
+      return intercept("tasksOnNode", new Object[]{node}, () -> delegate.tasksOnNode(node));
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasksOnNode(String node, Map<String, Object> query) {
+      return intercept("tasksOnNode", new Object[]{node, query}, () -> delegate.tasksOnNode(node, query));
+    }
+  }
+
+  static final class InterceptingManageSecret extends Intercepted<ManageSecret> implements ManageSecret {
+
+    InterceptingManageSecret(ManageSecret delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> createSecret(String name, byte[] secretData) {
+      return intercept("createSecret", new Object[]{name, secretData}, () -> delegate.createSecret(name, secretData));
+    }
+
+    @Override
+    public EngineResponseContent<IdResponse> createSecret(String name, byte[] secretData, Map<String, String> labels) {
+      return intercept("createSecret", new Object[]{name, secretData, labels}, () -> delegate.createSecret(name, secretData, labels));
+    }
+
+    @Override
+    public EngineResponseContent<Secret> inspectSecret(String secretId) {
+      return intercept("inspectSecret", new Object[]{secretId}, () -> delegate.inspectSecret(secretId));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<Secret>> secrets(Map<String, Object> query) {
+      return intercept("secrets", new Object[]{query}, () -> delegate.secrets(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Secret>> secrets() {
+      return intercept("secrets", NO_ARGS, () -> delegate.secrets());
+    }
+
+    @Override
+    public EngineResponseContent<List<Secret>> secrets(String filters) {
+      return intercept("secrets", new Object[]{filters}, () -> delegate.secrets(filters));
+    }
+
+    @Override
+    public void rmSecret(String secretId) {
+      intercept("rmSecret", new Object[]{secretId}, () -> {
+        delegate.rmSecret(secretId);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateSecret(String secretId, long version, SecretSpec secretSpec) {
+      intercept("updateSecret", new Object[]{secretId, version, secretSpec}, () -> {
+        delegate.updateSecret(secretId, version, secretSpec);
+        return null;
+      });
+    }
+  }
+
+  static final class InterceptingManageService extends Intercepted<ManageService> implements ManageService {
+
+    InterceptingManageService(ManageService delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<ServiceCreateResponse> createService(ServiceCreateRequest serviceSpec) {
+      return intercept("createService", new Object[]{serviceSpec}, () -> delegate.createService(serviceSpec));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceCreateResponse> createService(ServiceCreateRequest serviceSpec, String encodedRegistryAuth) {
+      return intercept("createService", new Object[]{serviceSpec, encodedRegistryAuth}, () -> delegate.createService(serviceSpec, encodedRegistryAuth));
+    }
+
+    @Override
+    public EngineResponseContent<Service> inspectService(String name) {
+      return intercept("inspectService", new Object[]{name}, () -> delegate.inspectService(name));
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> services(Map<String, Object> query) {
+      return intercept("services", new Object[]{query}, () -> delegate.services(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> services() {
+      return intercept("services", NO_ARGS, () -> delegate.services());
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> services(String filters) {
+      return intercept("services", new Object[]{filters}, () -> delegate.services(filters));
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> services(String filters, Boolean status) {
+      return intercept("services", new Object[]{filters, status}, () -> delegate.services(filters, status));
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasksOfService(String service) {
+      return intercept("tasksOfService", new Object[]{service}, () -> delegate.tasksOfService(service));
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasksOfService(String service, Map<String, Object> query) {
+      return intercept("tasksOfService", new Object[]{service, query}, () -> delegate.tasksOfService(service, query));
+    }
+
+    @Override
+    public void rmService(String name) {
+      intercept("rmService", new Object[]{name}, () -> {
+        delegate.rmService(name);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> scaleService(String name, int replicas) {
+      return intercept("scaleService", new Object[]{name, replicas}, () -> delegate.scaleService(name, replicas));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, String rollback) {
+      return intercept("updateService", new Object[]{name, version, rollback}, () -> delegate.updateService(name, version, rollback));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, String rollback, String registryAuthFrom) {
+      return intercept("updateService", new Object[]{name, version, rollback, registryAuthFrom}, () -> delegate.updateService(name, version, rollback, registryAuthFrom));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, String rollback, String registryAuthFrom, String encodedRegistryAuth) {
+      return intercept("updateService", new Object[]{name, version, rollback, registryAuthFrom, encodedRegistryAuth}, () -> delegate.updateService(name, version, rollback, registryAuthFrom, encodedRegistryAuth));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, ServiceUpdateRequest serviceSpec) {
+      return intercept("updateService", new Object[]{name, version, serviceSpec}, () -> delegate.updateService(name, version, serviceSpec));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, ServiceUpdateRequest serviceSpec, String registryAuthFrom) {
+      return intercept("updateService", new Object[]{name, version, serviceSpec, registryAuthFrom}, () -> delegate.updateService(name, version, serviceSpec, registryAuthFrom));
+    }
+
+    @Override
+    public EngineResponseContent<ServiceUpdateResponse> updateService(String name, int version, ServiceUpdateRequest serviceSpec, String registryAuthFrom, String encodedRegistryAuth) {
+      return intercept("updateService", new Object[]{name, version, serviceSpec, registryAuthFrom, encodedRegistryAuth}, () -> delegate.updateService(name, version, serviceSpec, registryAuthFrom, encodedRegistryAuth));
+    }
+  }
+
+  static final class InterceptingManageStack extends Intercepted<ManageStack> implements ManageStack {
+
+    InterceptingManageStack(ManageStack delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public void stackDeploy(String namespace, DeployStackConfig deployConfig, DeployStackOptions options) {
+      intercept("stackDeploy", new Object[]{namespace, deployConfig, options}, () -> {
+        delegate.stackDeploy(namespace, deployConfig, options);
+        return null;
+      });
+    }
+
+    @Override
+    public Collection<Stack> lsStacks() {
+      return intercept("lsStacks", NO_ARGS, () -> delegate.lsStacks());
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> stackPs(String namespace) {
+      return intercept("stackPs", new Object[]{namespace}, () -> delegate.stackPs(namespace));
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> stackPs(String namespace, Map filters) {
+      return intercept("stackPs", new Object[]{namespace, filters}, () -> delegate.stackPs(namespace, filters));
+    }
+
+    @Override
+    public void stackRm(String namespace) {
+      intercept("stackRm", new Object[]{namespace}, () -> {
+        delegate.stackRm(namespace);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> stackServices(String namespace) {
+      return intercept("stackServices", new Object[]{namespace}, () -> delegate.stackServices(namespace));
+    }
+
+    @Override
+    public EngineResponseContent<List<Service>> stackServices(String namespace, Map filters) {
+      return intercept("stackServices", new Object[]{namespace, filters}, () -> delegate.stackServices(namespace, filters));
+    }
+  }
+
+  static final class InterceptingManageSwarm extends Intercepted<ManageSwarm> implements ManageSwarm {
+
+    InterceptingManageSwarm(ManageSwarm delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public SwarmInitRequest newSwarmInitRequest() {
+      return intercept("newSwarmInitRequest", NO_ARGS, () -> delegate.newSwarmInitRequest());
+    }
+
+    @Override
+    public EngineResponseContent<String> initSwarm() {
+      return intercept("initSwarm", NO_ARGS, () -> delegate.initSwarm());
+    }
+
+    @Override
+    public EngineResponseContent<String> initSwarm(SwarmInitRequest swarmInitRequest) {
+      return intercept("initSwarm", new Object[]{swarmInitRequest}, () -> delegate.initSwarm(swarmInitRequest));
+    }
+
+    @Override
+    public void joinSwarm(SwarmJoinRequest swarmJoinRequest) {
+      intercept("joinSwarm", new Object[]{swarmJoinRequest}, () -> {
+        delegate.joinSwarm(swarmJoinRequest);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<Swarm> inspectSwarm() {
+      return intercept("inspectSwarm", NO_ARGS, () -> delegate.inspectSwarm());
+    }
+
+    @Override
+    public String getSwarmWorkerToken() {
+      return intercept("getSwarmWorkerToken", NO_ARGS, () -> delegate.getSwarmWorkerToken());
+    }
+
+    @Override
+    public String rotateSwarmWorkerToken() {
+      return intercept("rotateSwarmWorkerToken", NO_ARGS, () -> delegate.rotateSwarmWorkerToken());
+    }
+
+    @Override
+    public String getSwarmManagerToken() {
+      return intercept("getSwarmManagerToken", NO_ARGS, () -> delegate.getSwarmManagerToken());
+    }
+
+    @Override
+    public String rotateSwarmManagerToken() {
+      return intercept("rotateSwarmManagerToken", NO_ARGS, () -> delegate.rotateSwarmManagerToken());
+    }
+
+    @Override
+    public void leaveSwarm() {
+      intercept("leaveSwarm", NO_ARGS, () -> {
+        delegate.leaveSwarm();
+        return null;
+      });
+    }
+
+    @Override
+    public void leaveSwarm(Boolean force) {
+      intercept("leaveSwarm", new Object[]{force}, () -> {
+        delegate.leaveSwarm(force);
+        return null;
+      });
+    }
+
+    @Override
+    public void unlockSwarm(String unlockKey) {
+      intercept("unlockSwarm", new Object[]{unlockKey}, () -> {
+        delegate.unlockSwarm(unlockKey);
+        return null;
+      });
+    }
+
+    @Override
+    public String getSwarmManagerUnlockKey() {
+      return intercept("getSwarmManagerUnlockKey", NO_ARGS, () -> delegate.getSwarmManagerUnlockKey());
+    }
+
+    @Override
+    public String rotateSwarmManagerUnlockKey() {
+      return intercept("rotateSwarmManagerUnlockKey", NO_ARGS, () -> delegate.rotateSwarmManagerUnlockKey());
+    }
+
+    @Override
+    public void updateSwarm(long version, SwarmSpec spec) {
+      intercept("updateSwarm", new Object[]{version, spec}, () -> {
+        delegate.updateSwarm(version, spec);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateSwarm(long version, SwarmSpec spec, Boolean rotateWorkerToken) {
+      intercept("updateSwarm", new Object[]{version, spec, rotateWorkerToken}, () -> {
+        delegate.updateSwarm(version, spec, rotateWorkerToken);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateSwarm(long version, SwarmSpec spec, Boolean rotateWorkerToken, Boolean rotateManagerToken) {
+      intercept("updateSwarm", new Object[]{version, spec, rotateWorkerToken, rotateManagerToken}, () -> {
+        delegate.updateSwarm(version, spec, rotateWorkerToken, rotateManagerToken);
+        return null;
+      });
+    }
+
+    @Override
+    public void updateSwarm(long version, SwarmSpec spec, Boolean rotateWorkerToken, Boolean rotateManagerToken, Boolean rotateManagerUnlockKey) {
+      intercept("updateSwarm", new Object[]{version, spec, rotateWorkerToken, rotateManagerToken, rotateManagerUnlockKey}, () -> {
+        delegate.updateSwarm(version, spec, rotateWorkerToken, rotateManagerToken, rotateManagerUnlockKey);
+        return null;
+      });
+    }
+  }
+
+  static final class InterceptingManageSystem extends Intercepted<ManageSystem> implements ManageSystem {
+
+    InterceptingManageSystem(ManageSystem delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Override
+    public EngineResponseContent<SystemDataUsageResponse> systemDf() {
+      return intercept("systemDf", NO_ARGS, () -> delegate.systemDf());
+    }
+
+    @Override
+    public void events(SystemEventsRequest request, StreamCallback<EventMessage> callback, Duration timeout) {
+      intercept("events", new Object[]{request, callback, timeout}, () -> {
+        delegate.events(request, callback, timeout);
+        return null;
+      });
+    }
+
+    @Override
+    public EngineResponseContent<String> ping() {
+      return intercept("ping", NO_ARGS, () -> delegate.ping());
+    }
+
+    @Override
+    public EngineResponseContent<SystemVersion> version() {
+      return intercept("version", NO_ARGS, () -> delegate.version());
+    }
+
+    @Override
+    public EngineResponseContent<SystemInfo> info() {
+      return intercept("info", NO_ARGS, () -> delegate.info());
+    }
+  }
+
+  static final class InterceptingManageTask extends Intercepted<ManageTask> implements ManageTask {
+
+    InterceptingManageTask(ManageTask delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<List<Task>> tasks(Map<String, Object> query) {
+      return intercept("tasks", new Object[]{query}, () -> delegate.tasks(query));
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasks() {
+      return intercept("tasks", NO_ARGS, () -> delegate.tasks());
+    }
+
+    @Override
+    public EngineResponseContent<List<Task>> tasks(String filters) {
+      return intercept("tasks", new Object[]{filters}, () -> delegate.tasks(filters));
+    }
+
+    @Override
+    public EngineResponseContent<Task> inspectTask(String name) {
+      return intercept("inspectTask", new Object[]{name}, () -> delegate.inspectTask(name));
+    }
+  }
+
+  static final class InterceptingManageVolume extends Intercepted<ManageVolume> implements ManageVolume {
+
+    InterceptingManageVolume(ManageVolume delegate, Interceptor interceptor) {
+      super(delegate, interceptor);
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<Volume> createVolume(Map<String, Object> config) {
+      return intercept("createVolume", new Object[]{config}, () -> delegate.createVolume(config));
+    }
+
+    @Override
+    public EngineResponseContent<Volume> createVolume() {
+      return intercept("createVolume", NO_ARGS, () -> delegate.createVolume());
+    }
+
+    @Override
+    public EngineResponseContent<Volume> createVolume(VolumeCreateOptions volumeCreateOptions) {
+      return intercept("createVolume", new Object[]{volumeCreateOptions}, () -> delegate.createVolume(volumeCreateOptions));
+    }
+
+    @Override
+    public EngineResponseContent<Volume> inspectVolume(String name) {
+      return intercept("inspectVolume", new Object[]{name}, () -> delegate.inspectVolume(name));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<VolumeListResponse> volumes(Map<String, Object> query) {
+      return intercept("volumes", new Object[]{query}, () -> delegate.volumes(query));
+    }
+
+    @Override
+    public EngineResponseContent<VolumeListResponse> volumes() {
+      return intercept("volumes", NO_ARGS, () -> delegate.volumes());
+    }
+
+    @Override
+    public EngineResponseContent<VolumeListResponse> volumes(String filters) {
+      return intercept("volumes", new Object[]{filters}, () -> delegate.volumes(filters));
+    }
+
+    @Deprecated
+    @Override
+    public EngineResponseContent<VolumePruneResponse> pruneVolumes(Map<String, Object> query) {
+      return intercept("pruneVolumes", new Object[]{query}, () -> delegate.pruneVolumes(query));
+    }
+
+    @Override
+    public EngineResponseContent<VolumePruneResponse> pruneVolumes() {
+      return intercept("pruneVolumes", NO_ARGS, () -> delegate.pruneVolumes());
+    }
+
+    @Override
+    public EngineResponseContent<VolumePruneResponse> pruneVolumes(String filters) {
+      return intercept("pruneVolumes", new Object[]{filters}, () -> delegate.pruneVolumes(filters));
+    }
+
+    @Override
+    public void rmVolume(String name) {
+      intercept("rmVolume", new Object[]{name}, () -> {
+        delegate.rmVolume(name);
+        return null;
+      });
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package de.gesellix.docker.client.archive;
+
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Pipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs an archive producer on another thread and returns the reading end of a bounded pipe,
+ * so that the producer never gets ahead of the reader by more than the pipe's buffer size.
+ */
+public final class ArchivePipe {
+
+  private static final Logger log = LoggerFactory.getLogger(ArchivePipe.class);
+
+  @FunctionalInterface
+  public interface Producer {
+
+    /**
+     * @param target is closed after the producer has returned
+     */
+    void writeTo(OutputStream target) throws IOException;
+  }
+
+  private ArchivePipe() {
+  }
+
+  /**
+   * Reading fails with an {@link IOException} when the producer fails,
+   * so that a partial archive can't be mistaken for a complete one.
+   * Closing the stream before reaching its end stops the producer.
+   *
+   * @param executor runs the blocking producer
+   */
+  public static InputStream open(Executor executor, long bufferSize, Producer producer) {
+    Pipe pipe = new Pipe(bufferSize);
+    PipeInputStream stream = new PipeInputStream(pipe);
+    try {
+      executor.execute(() -> {
+        BufferedSink sink = Okio.buffer(pipe.sink());
+        try {
+          producer.writeTo(sink.outputStream());
+          sink.close();
+        } catch (IOException | RuntimeException e) {
+          stream.fail(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      stream.fail(e);
+    }
+    return stream;
+  }
+
+  /**
+   * Reports a failed producer instead of the end of the stream.
+   */
+  private static class PipeInputStream extends FilterInputStream {
+
+    private final Pipe pipe;
+    private volatile Exception failure;
+    private volatile boolean closed;
+
+    private PipeInputStream(Pipe pipe) {
+      super(Okio.buffer(pipe.source()).inputStream());
+      this.pipe = pipe;
+    }
+
+    private void fail(Exception e) {
+      if (closed) {
+        log.debug("archive producer stopped", e);
+        return;
+      }
+      failure = e;
+      // unblocks the reader
+      pipe.cancel();
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        return checkFailure(super.read());
+      } catch (IOException e) {
+        throw failed(e);
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      try {
+        return checkFailure(super.read(b, off, len));
+      } catch (IOException e) {
+        throw failed(e);
+      }
+    }
+
+    private int checkFailure(int result) throws IOException {
+      if (result < 0 && failure != null) {
+        throw failed(null);
+      }
+      return result;
+    }
+
+    private IOException failed(IOException e) {
+      Exception cause = failure;
+      return cause == null ? e : new IOException("producing the archive failed", cause);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      // stops a blocked producer
+      pipe.cancel();
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package de.gesellix.docker.client.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes a digest of the content a {@link TarProducer} would write for a build context,
+ * i.e. of entry names, permissions, link targets and file contents, but not of modification times.
+ * <p>
+ * File digests are kept in a cache file, keyed by path, size and modification time,
+ * so that only changed files are read again. Like git's index, files modified shortly
+ * before the cache has been written are always read again, because a later modification
+ * within the file system's timestamp granularity wouldn't be noticed.
+ */
+public class ContextDigest {
+
+  private final Logger log = LoggerFactory.getLogger(ContextDigest.class);
+
+  public static final String ALGORITHM = "SHA-256";
+
+  private static final String CACHE_HEADER = "# context digest cache v1 ";
+  private static final long RACY_MILLIS = 2000;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Path cacheFile;
+
+  /**
+   * @param cacheFile file digests of previous runs, <code>null</code> to read every file
+   */
+  public ContextDigest(Path cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * @param options <code>null</code> for the defaults, only the options selecting entries are relevant
+   * @return e.g. <code>sha256:4711...</code>
+   */
+  public String digest(Path source, TarOptions options) throws IOException {
+    TarOptions actualOptions = options == null ? new TarOptions() : options;
+    Map<String, CachedFile> previous = readCache();
+    Map<String, CachedFile> current = new LinkedHashMap<>();
+    MessageDigest context = newDigest();
+    MessageDigest file = newDigest();
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    int[] hashed = new int[1];
+
+    ContextWalker.walk(source, actualOptions, (Path path, String name, BasicFileAttributes attributes) -> {
+      int mode = attributes instanceof PosixFileAttributes ? ContextWalker.mode(((PosixFileAttributes) attributes).permissions()) : 0;
+      String line;
+      if (attributes.isDirectory()) {
+        line = "D " + mode + " " + name;
+      } else if (attributes.isSymbolicLink()) {
+        line = "L " + name + " " + Files.readSymbolicLink(path).toString().replace('\\', '/');
+      } else {
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        CachedFile cached = previous.get(name);
+        if (cached == null || cached.size != size || cached.modified != modified || cached.racy) {
+          cached = new CachedFile(size, modified, hash(path, file, buffer), false);
+          hashed[0]++;
+        }
+        current.put(name, cached);
+        line = "F " + mode + " " + size + " " + cached.digest + " " + name;
+      }
+      context.update(line.getBytes(StandardCharsets.UTF_8));
+      context.update((byte) '\n');
+    });
+
+    log.debug("hashed {} of {} files in '{}'", hashed[0], current.size(), source);
+    if (hashed[0] > 0 || current.size() != previous.size()) {
+      writeCache(current);
+    }
+    return "sha256:" + hex(context.digest());
+  }
+
+  private String hash(Path path, MessageDigest digest, ByteBuffer buffer) throws IOException {
+    digest.reset();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer.clear();
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  private Map<String, CachedFile> readCache() {
+    Map<String, CachedFile> cache = new HashMap<>();
+    if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+      return cache;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      String header = reader.readLine();
+      if (header == null || !header.startsWith(CACHE_HEADER)) {
+        return cache;
+      }
+      long written = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(header.substring(CACHE_HEADER.length())) - RACY_MILLIS);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        // size, modification time, digest, name
+        String[] fields = line.split(" ", 4);
+        if (fields.length == 4) {
+          long modified = Long.parseLong(fields[1]);
+          cache.put(fields[3], new CachedFile(Long.parseLong(fields[0]), modified, fields[2], modified >= written));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("ignoring unreadable digest cache '{}'", cacheFile, e);
+      cache.clear();
+    }
+    return cache;
+  }
+
+  private void writeCache(Map<String, CachedFile> files) {
+    if (cacheFile == null) {
+      return;
+    }
+    try {
+      Path directory = cacheFile.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      // concurrent digests of the same context must not see a partially written cache
+      Path temp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        writer.write(CACHE_HEADER + System.currentTimeMillis());
+        writer.newLine();
+        for (Map.Entry<String, CachedFile> entry : files.entrySet()) {
+          CachedFile file = entry.getValue();
+          writer.write(file.size + " " + file.modified + " " + file.digest + " " + entry.getKey());
+          writer.newLine();
+        }
+      }
+      Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("failed to write digest cache '{}'", cacheFile, e);
+    }
+  }
+
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static String hex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+      chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+    }
+    return new String(chars);
+  }
+
+  private static final class CachedFile {
+
+    private final long size;
+    private final long modified;
+    private final String digest;
+    private final boolean racy;
+
+    private CachedFile(long size, long modified, String digest, boolean racy) {
+      this.size = size;
+      this.modified = modified;
+      this.digest = digest;
+      this.racy = racy;
+    }
+  }
+}
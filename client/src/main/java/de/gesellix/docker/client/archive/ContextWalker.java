@@ -0,0 +1,113 @@
+package de.gesellix.docker.client.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Visits the entries of a build context or upload in name order, applying the <code>.dockerignore</code> rules,
+ * so that archives and digests of the same source contain the same entries.
+ */
+final class ContextWalker {
+
+  private static final Logger log = LoggerFactory.getLogger(ContextWalker.class);
+
+  private static final PosixFilePermission[] PERMISSIONS = {
+      PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE,
+      PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+      PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE};
+
+  interface Visitor {
+
+    /**
+     * @param name       slash separated path relative to the source directory, or the source's file name
+     * @param attributes {@link PosixFileAttributes} where supported, describing a directory, regular file or symbolic link
+     */
+    void visit(Path path, String name, BasicFileAttributes attributes) throws IOException;
+  }
+
+  private final DockerIgnore ignore;
+  private final Set<String> kept;
+  private final boolean posix;
+  private final Visitor visitor;
+
+  private ContextWalker(DockerIgnore ignore, Set<String> kept, boolean posix, Visitor visitor) {
+    this.ignore = ignore;
+    this.kept = kept;
+    this.posix = posix;
+    this.visitor = visitor;
+  }
+
+  static void walk(Path source, TarOptions options, Visitor visitor) throws IOException {
+    boolean posix = source.getFileSystem().supportedFileAttributeViews().contains("posix");
+    if (Files.isDirectory(source)) {
+      DockerIgnore ignore = options.isUseDockerIgnore() ? DockerIgnore.load(source) : DockerIgnore.none();
+      ignore = ignore.with(options.getExcludes());
+      Set<String> kept = new HashSet<>();
+      kept.add(DockerIgnore.FILENAME);
+      kept.add(DockerIgnore.clean(options.getDockerfile()));
+      new ContextWalker(ignore, kept, posix, visitor).directory(source, "");
+    } else {
+      new ContextWalker(DockerIgnore.none(), new HashSet<>(), posix, visitor).entry(source, source.getFileName().toString());
+    }
+  }
+
+  /**
+   * @return the permission bits, e.g. <code>0755</code>
+   */
+  static int mode(Set<PosixFilePermission> permissions) {
+    int mode = 0;
+    for (int i = 0; i < PERMISSIONS.length; i++) {
+      if (permissions.contains(PERMISSIONS[i])) {
+        mode |= 1 << (PERMISSIONS.length - 1 - i);
+      }
+    }
+    return mode;
+  }
+
+  private void directory(Path directory, String name) throws IOException {
+    List<Path> children = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      stream.forEach(children::add);
+    }
+    children.sort(null);
+    for (Path child : children) {
+      String childName = name.isEmpty() ? child.getFileName().toString() : name + "/" + child.getFileName();
+      if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+        if (ignore.canSkipDirectory(childName)) {
+          continue;
+        }
+        if (!ignore.isExcluded(childName)) {
+          entry(child, childName);
+        }
+        // exceptions might re-include paths below an excluded directory
+        directory(child, childName);
+      } else if (!ignore.isExcluded(childName) || kept.contains(childName)) {
+        entry(child, childName);
+      }
+    }
+  }
+
+  private void entry(Path path, String name) throws IOException {
+    BasicFileAttributes attributes = posix
+                                     ? Files.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+                                     : Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    if (attributes.isDirectory() || attributes.isRegularFile() || attributes.isSymbolicLink()) {
+      visitor.visit(path, name, attributes);
+    } else {
+      log.debug("skipping special file '{}'", path);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+package de.gesellix.docker.client.archive;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Exclusion patterns following the <code>.dockerignore</code> syntax.
+ * <p>
+ * Patterns are matched against slash separated paths relative to the context root.
+ * <code>*</code> and <code>?</code> don't match a <code>/</code>, <code>**</code> matches any number of directories.
+ * A pattern also matches everything below a matching directory. Patterns starting with <code>!</code>
+ * re-include matching paths, the last matching pattern wins.
+ */
+public class DockerIgnore {
+
+  public static final String FILENAME = ".dockerignore";
+
+  private static final DockerIgnore NONE = new DockerIgnore(Collections.emptyList());
+
+  private final List<Rule> rules;
+  private final boolean hasExceptions;
+
+  public DockerIgnore(Collection<String> patterns) {
+    List<Rule> parsed = new ArrayList<>();
+    for (String line : patterns) {
+      Rule rule = Rule.parse(line);
+      if (rule != null) {
+        parsed.add(rule);
+      }
+    }
+    this.rules = parsed;
+    this.hasExceptions = parsed.stream().anyMatch((Rule rule) -> rule.exception);
+  }
+
+  public static DockerIgnore none() {
+    return NONE;
+  }
+
+  public static DockerIgnore parse(String content) throws IOException {
+    return parse(new StringReader(content));
+  }
+
+  public static DockerIgnore parse(Reader content) throws IOException {
+    List<String> lines = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(content);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lines.add(line);
+    }
+    return new DockerIgnore(lines);
+  }
+
+  /**
+   * @return the patterns of the directory's <code>.dockerignore</code> file, or no patterns when there is none
+   */
+  public static DockerIgnore load(Path contextDirectory) throws IOException {
+    Path file = contextDirectory.resolve(FILENAME);
+    if (!Files.isRegularFile(file)) {
+      return none();
+    }
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return parse(reader);
+    }
+  }
+
+  /**
+   * @return a copy with additional patterns applied after the existing ones
+   */
+  public DockerIgnore with(Collection<String> patterns) {
+    List<String> all = new ArrayList<>();
+    rules.forEach((Rule rule) -> all.add(rule.pattern));
+    all.addAll(patterns);
+    return new DockerIgnore(all);
+  }
+
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * @param path relative path with <code>/</code> as separator
+   */
+  public boolean isExcluded(String path) {
+    boolean excluded = false;
+    for (Rule rule : rules) {
+      if (excluded != rule.exception) {
+        // the rule can't change the result
+        continue;
+      }
+      if (rule.matchesOrParentMatches(path)) {
+        excluded = !rule.exception;
+      }
+    }
+    return excluded;
+  }
+
+  /**
+   * @return whether an excluded directory can be skipped as a whole, i.e. no exception might re-include a path below it
+   */
+  public boolean canSkipDirectory(String directory) {
+    if (!isExcluded(directory)) {
+      return false;
+    }
+    if (!hasExceptions) {
+      return true;
+    }
+    String[] components = directory.split("/");
+    return rules.stream().noneMatch((Rule rule) -> rule.exception && rule.mightMatchBelow(components));
+  }
+
+  private static final class Rule {
+
+    private final String pattern;
+    private final boolean exception;
+    private final String[] components;
+    private final Pattern regex;
+
+    private Rule(String pattern, boolean exception, String cleaned) {
+      this.pattern = pattern;
+      this.exception = exception;
+      this.components = cleaned.split("/");
+      this.regex = Pattern.compile(toRegex(cleaned));
+    }
+
+    private static Rule parse(String line) {
+      String pattern = line.trim();
+      if (pattern.isEmpty() || pattern.startsWith("#")) {
+        return null;
+      }
+      boolean exception = pattern.startsWith("!");
+      String cleaned = clean(exception ? pattern.substring(1).trim() : pattern);
+      if (cleaned.isEmpty() || ".".equals(cleaned)) {
+        return null;
+      }
+      return new Rule(pattern, exception, cleaned);
+    }
+
+    private boolean matchesOrParentMatches(String path) {
+      if (regex.matcher(path).matches()) {
+        return true;
+      }
+      for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+        if (regex.matcher(path.substring(0, slash)).matches()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean mightMatchBelow(String[] directory) {
+      for (int i = 0; i < components.length; i++) {
+        if (components[i].contains("**")) {
+          return true;
+        }
+        if (i >= directory.length) {
+          return true;
+        }
+        if (!Pattern.matches(toRegex(components[i]), directory[i])) {
+          return false;
+        }
+      }
+      // the pattern matches the directory itself or one of its parents
+      return true;
+    }
+  }
+
+  /**
+   * Normalizes like Go's <code>filepath.Clean</code>, without a leading slash.
+   */
+  static String clean(String pattern) {
+    List<String> components = new ArrayList<>();
+    for (String component : pattern.split("/")) {
+      if (component.isEmpty() || ".".equals(component)) {
+        continue;
+      }
+      if ("..".equals(component) && !components.isEmpty() && !"..".equals(components.get(components.size() - 1))) {
+        components.remove(components.size() - 1);
+      } else {
+        components.add(component);
+      }
+    }
+    return String.join("/", components);
+  }
+
+  static String toRegex(String pattern) {
+    StringBuilder regex = new StringBuilder();
+    int length = pattern.length();
+    for (int i = 0; i < length; i++) {
+      char c = pattern.charAt(i);
+      switch (c) {
+        case '*':
+          if (i + 1 < length && pattern.charAt(i + 1) == '*') {
+            i++;
+            if (i + 1 < length && pattern.charAt(i + 1) == '/') {
+              // "**/" also matches no directory at all
+              i++;
+              regex.append("(.*/)?");
+            } else {
+              regex.append(".*");
+            }
+          } else {
+            regex.append("[^/]*");
+          }
+          break;
+        case '?':
+          regex.append("[^/]");
+          break;
+        case '[':
+          int end = pattern.indexOf(']', i + 2);
+          if (end < 0) {
+            regex.append("\\[");
+          } else {
+            String range = pattern.substring(i + 1, end);
+            if (range.startsWith("!") || range.startsWith("^")) {
+              range = "^" + range.substring(1);
+            }
+            regex.append('[').append(range.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+            i = end;
+          }
+          break;
+        case '\\':
+          if (i + 1 < length) {
+            i++;
+            regex.append(Pattern.quote(String.valueOf(pattern.charAt(i))));
+          }
+          break;
+        default:
+          regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return regex.toString();
+  }
+}
@@ -0,0 +1,241 @@
+package de.gesellix.docker.client.archive;
+
+import de.gesellix.util.DefaultExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes large streams, e.g. of {@link de.gesellix.docker.client.container.ManageContainer#export(String)}
+ * or {@link de.gesellix.docker.client.image.ManageImage#save(java.util.List)}, into files.
+ * <p>
+ * The source is read in large chunks, which are written with a single {@link FileChannel} call each,
+ * and the SHA-256 digest of the file is computed while writing.
+ * With gzip enabled, blocks of the source are compressed concurrently, like <code>pigz</code> does,
+ * and written as a series of gzip members, which <code>gunzip</code> and <code>docker load</code> read as one stream.
+ * The file is written next to the target and moved into place when complete,
+ * so that a failed transfer never leaves a truncated file behind.
+ */
+public class FileTransfer implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(FileTransfer.class);
+
+  // no file name or modification time, "unknown" operating system
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public FileTransfer() {
+    this(DefaultExecutors.newTaskExecutor("docker-client-gzip"), true);
+  }
+
+  /**
+   * @param executor compresses the blocks of gzip compressed transfers
+   */
+  public FileTransfer(Executor executor) {
+    this(executor, false);
+  }
+
+  private FileTransfer(Executor executor, boolean ownsExecutor) {
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * Reads the source until its end, but doesn't close it.
+   *
+   * @param options <code>null</code> for the defaults
+   */
+  public TransferResult write(InputStream source, Path target, TransferOptions options) throws IOException {
+    TransferOptions actualOptions = options == null ? new TransferOptions() : options;
+    long startedNanos = System.nanoTime();
+    Path file = target.toAbsolutePath();
+    Files.createDirectories(file.getParent());
+    // unlike Files.createTempFile, which restricts the permissions to the owner, this creates the file with the default
+    // permissions, which are kept when it's moved into place
+    Path temp = file.resolveSibling(file.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+    FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+    Output output;
+    long bytesRead;
+    try {
+      try (FileChannel channel = tempChannel) {
+        output = new Output(channel);
+        bytesRead = actualOptions.isGzip() ? compress(source, output, actualOptions) : copy(source, output, actualOptions);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    String sha256 = ContextDigest.hex(output.digest.digest());
+    if (actualOptions.isChecksumFile()) {
+      Files.write(file.resolveSibling(file.getFileName() + ".sha256"),
+                  (sha256 + "  " + file.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+    TransferResult result = new TransferResult(file, bytesRead, output.written, sha256, Duration.ofNanos(System.nanoTime() - startedNanos));
+    log.info("wrote {} bytes to '{}' in {} ({} MiB/s)",
+             result.getBytesWritten(), file, result.getDuration(), String.format(Locale.ROOT, "%.1f", result.getThroughput() / (1024 * 1024)));
+    return result;
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  private long copy(InputStream source, Output output, TransferOptions options) throws IOException {
+    byte[] buffer = new byte[options.getBufferSize()];
+    long bytesRead = 0;
+    int count;
+    while ((count = readFully(source, buffer)) > 0) {
+      output.write(buffer, count);
+      bytesRead += count;
+    }
+    return bytesRead;
+  }
+
+  private long compress(InputStream source, Output output, TransferOptions options) throws IOException {
+    // limits memory usage to about two blocks per thread
+    Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    long bytesRead = 0;
+    try {
+      while (true) {
+        byte[] block = new byte[options.getBlockSize()];
+        int count = readFully(source, block);
+        if (count == 0 && bytesRead > 0) {
+          break;
+        }
+        bytesRead += count;
+        FutureTask<byte[]> member = new FutureTask<>(() -> gzipMember(block, count, options.getCompressionLevel()));
+        pending.add(member);
+        try {
+          executor.execute(member);
+        } catch (RejectedExecutionException e) {
+          throw new IOException("compression has been rejected", e);
+        }
+        if (pending.size() >= options.getParallelism()) {
+          byte[] compressed = await(pending.poll());
+          output.write(compressed, compressed.length);
+        }
+        if (count < block.length) {
+          break;
+        }
+      }
+      while (!pending.isEmpty()) {
+        byte[] compressed = await(pending.poll());
+        output.write(compressed, compressed.length);
+      }
+      return bytesRead;
+    } finally {
+      pending.forEach((Future<byte[]> member) -> member.cancel(true));
+    }
+  }
+
+  private static byte[] await(Future<byte[]> member) throws IOException {
+    try {
+      return member.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while compressing");
+    } catch (ExecutionException e) {
+      throw new IOException("compression failed", e.getCause());
+    }
+  }
+
+  /**
+   * @return a complete gzip member, see RFC 1952
+   */
+  static byte[] gzipMember(byte[] data, int length, int level) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      deflater.setInput(data, 0, length);
+      deflater.finish();
+      ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + 64);
+      member.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+      byte[] buffer = new byte[64 * 1024];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        member.write(buffer, 0, count);
+      }
+      CRC32 crc = new CRC32();
+      crc.update(data, 0, length);
+      writeIntLittleEndian(member, (int) crc.getValue());
+      writeIntLittleEndian(member, length);
+      return member.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static void writeIntLittleEndian(ByteArrayOutputStream output, int value) {
+    output.write(value & 0xff);
+    output.write((value >> 8) & 0xff);
+    output.write((value >> 16) & 0xff);
+    output.write((value >> 24) & 0xff);
+  }
+
+  /**
+   * @return number of bytes read, less than the buffer's length only at the end of the stream
+   */
+  private static int readFully(InputStream source, byte[] buffer) throws IOException {
+    int total = 0;
+    while (total < buffer.length) {
+      int count = source.read(buffer, total, buffer.length - total);
+      if (count < 0) {
+        break;
+      }
+      total += count;
+    }
+    return total;
+  }
+
+  private static final class Output {
+
+    private final FileChannel channel;
+    private final MessageDigest digest = ContextDigest.newDigest();
+    private long written;
+
+    private Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+      digest.update(bytes, 0, length);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      written += length;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package de.gesellix.docker.client.archive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Settings for a {@link TarProducer}.
+ */
+public class TarOptions {
+
+  public static final int DEFAULT_PIPE_BUFFER_SIZE = 1024 * 1024;
+
+  private boolean gzip = false;
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+  private boolean useDockerIgnore = true;
+  private final List<String> excludes = new ArrayList<>();
+  private String dockerfile = "Dockerfile";
+  private String prefix = "";
+  private int pipeBufferSize = DEFAULT_PIPE_BUFFER_SIZE;
+
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  public TarOptions setGzip(boolean gzip) {
+    this.gzip = gzip;
+    return this;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * @param compressionLevel 1 (fastest) to 9 (smallest), see {@link Deflater}
+   */
+  public TarOptions setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+    return this;
+  }
+
+  /**
+   * @return whether the <code>.dockerignore</code> file of a source directory is applied
+   */
+  public boolean isUseDockerIgnore() {
+    return useDockerIgnore;
+  }
+
+  public TarOptions setUseDockerIgnore(boolean useDockerIgnore) {
+    this.useDockerIgnore = useDockerIgnore;
+    return this;
+  }
+
+  public List<String> getExcludes() {
+    return Collections.unmodifiableList(excludes);
+  }
+
+  /**
+   * @param patterns additional patterns in <code>.dockerignore</code> syntax, applied after the file's patterns
+   */
+  public TarOptions exclude(String... patterns) {
+    excludes.addAll(Arrays.asList(patterns));
+    return this;
+  }
+
+  /**
+   * @return path of the Dockerfile relative to the source directory, which is never excluded, like the <code>.dockerignore</code> file itself
+   */
+  public String getDockerfile() {
+    return dockerfile;
+  }
+
+  public TarOptions setDockerfile(String dockerfile) {
+    this.dockerfile = dockerfile;
+    return this;
+  }
+
+  /**
+   * @return directory prepended to every entry name, e.g. to upload a directory's content as a new directory
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public TarOptions setPrefix(String prefix) {
+    this.prefix = prefix == null ? "" : prefix;
+    return this;
+  }
+
+  /**
+   * @return maximum number of bytes buffered between the producer and the reader, see {@link TarProducer#open(java.nio.file.Path, TarOptions)}
+   */
+  public int getPipeBufferSize() {
+    return pipeBufferSize;
+  }
+
+  public TarOptions setPipeBufferSize(int pipeBufferSize) {
+    if (pipeBufferSize < 1) {
+      throw new IllegalArgumentException("pipeBufferSize must be positive, but was " + pipeBufferSize);
+    }
+    this.pipeBufferSize = pipeBufferSize;
+    return this;
+  }
+}
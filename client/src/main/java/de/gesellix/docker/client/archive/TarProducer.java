@@ -0,0 +1,153 @@
+package de.gesellix.docker.client.archive;
+
+import de.gesellix.util.DefaultExecutors;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Date;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Writes a file or directory tree as tar archive, e.g. as build context or for
+ * {@link de.gesellix.docker.client.container.ManageContainer#putArchive(String, String, InputStream)},
+ * without staging the archive on disk or in memory.
+ * <p>
+ * {@link #open(Path, TarOptions)} produces the archive on another thread and returns the reading end of an {@link ArchivePipe},
+ * so that the producer never gets ahead of the upload by more than {@link TarOptions#getPipeBufferSize()} bytes.
+ * Directories are walked in name order, so that unchanged sources result in the same entries.
+ * A source directory's <code>.dockerignore</code> is applied like the docker CLI does.
+ */
+public class TarProducer implements Closeable {
+
+  private static final int SYMLINK_MODE = 0120777;
+
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public TarProducer() {
+    this(DefaultExecutors.newTaskExecutor("docker-client-tar"), true);
+  }
+
+  /**
+   * @param executor runs one blocking task per {@link #open(Path, TarOptions) opened} archive
+   */
+  public TarProducer(Executor executor) {
+    this(executor, false);
+  }
+
+  private TarProducer(Executor executor, boolean ownsExecutor) {
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * Reading fails with an {@link IOException} when producing the archive fails,
+   * so that a partial archive can't be mistaken for a complete one.
+   * Closing the stream before reaching its end stops the producer.
+   *
+   * @param options <code>null</code> for the defaults
+   */
+  public InputStream open(Path source, TarOptions options) {
+    TarOptions actualOptions = options == null ? new TarOptions() : options;
+    return ArchivePipe.open(executor, actualOptions.getPipeBufferSize(), (OutputStream target) -> write(source, target, actualOptions));
+  }
+
+  /**
+   * Writes the archive into the target stream, which is flushed, but not closed.
+   *
+   * @param options <code>null</code> for the defaults
+   * @return number of bytes written
+   */
+  public long write(Path source, OutputStream target, TarOptions options) throws IOException {
+    TarOptions actualOptions = options == null ? new TarOptions() : options;
+    CountingOutputStream counting = new CountingOutputStream(target);
+    GzipCompressorOutputStream gzip = null;
+    OutputStream output = counting;
+    if (actualOptions.isGzip()) {
+      GzipParameters parameters = new GzipParameters();
+      parameters.setCompressionLevel(actualOptions.getCompressionLevel());
+      gzip = new GzipCompressorOutputStream(counting, parameters);
+      output = gzip;
+    }
+
+    TarArchiveOutputStream tar = new TarArchiveOutputStream(output);
+    tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+    tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+    String prefix = DockerIgnore.clean(actualOptions.getPrefix());
+    String entryPrefix = prefix.isEmpty() ? "" : prefix + "/";
+    ContextWalker.walk(source, actualOptions,
+                       (Path path, String name, BasicFileAttributes attributes) -> entry(tar, path, entryPrefix + name, attributes));
+
+    tar.finish();
+    if (gzip != null) {
+      gzip.finish();
+    }
+    output.flush();
+    return counting.count;
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  private static void entry(TarArchiveOutputStream tar, Path path, String name, BasicFileAttributes attributes) throws IOException {
+    TarArchiveEntry entry;
+    if (attributes.isDirectory()) {
+      entry = new TarArchiveEntry(name + "/");
+    } else if (attributes.isSymbolicLink()) {
+      entry = new TarArchiveEntry(name, TarConstants.LF_SYMLINK);
+      entry.setLinkName(Files.readSymbolicLink(path).toString().replace('\\', '/'));
+      entry.setMode(SYMLINK_MODE);
+    } else {
+      entry = new TarArchiveEntry(name);
+      entry.setSize(attributes.size());
+    }
+    if (attributes instanceof PosixFileAttributes && !attributes.isSymbolicLink()) {
+      entry.setMode((entry.getMode() & ~0777) | ContextWalker.mode(((PosixFileAttributes) attributes).permissions()));
+    }
+    entry.setModTime(new Date(attributes.lastModifiedTime().toMillis()));
+
+    tar.putArchiveEntry(entry);
+    if (attributes.isRegularFile()) {
+      Files.copy(path, tar);
+    }
+    tar.closeArchiveEntry();
+  }
+
+  private static class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    private CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package de.gesellix.docker.client.archive;
+
+import java.util.zip.Deflater;
+
+/**
+ * Settings for a {@link FileTransfer}.
+ */
+public class TransferOptions {
+
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+  private boolean gzip = false;
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private int blockSize = DEFAULT_BLOCK_SIZE;
+  private boolean checksumFile = false;
+
+  /**
+   * @return bytes read from the source before they are written to the file
+   */
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public TransferOptions setBufferSize(int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize must be positive, but was " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  /**
+   * @param gzip whether the file is compressed, in blocks of {@link #getBlockSize()} bytes on up to {@link #getParallelism()} threads
+   */
+  public TransferOptions setGzip(boolean gzip) {
+    this.gzip = gzip;
+    return this;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * @param compressionLevel 1 (fastest) to 9 (smallest), see {@link Deflater}
+   */
+  public TransferOptions setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+    return this;
+  }
+
+  /**
+   * @return maximum number of blocks being compressed at the same time, defaults to the number of processors
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public TransferOptions setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1, but was " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public TransferOptions setBlockSize(int blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("blockSize must be positive, but was " + blockSize);
+    }
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  /**
+   * @return whether a <code>.sha256</code> file in <code>sha256sum</code> format is written next to the target file
+   */
+  public boolean isChecksumFile() {
+    return checksumFile;
+  }
+
+  public TransferOptions setChecksumFile(boolean checksumFile) {
+    this.checksumFile = checksumFile;
+    return this;
+  }
+}
@@ -0,0 +1,74 @@
+package de.gesellix.docker.client.archive;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link FileTransfer}.
+ */
+public class TransferResult {
+
+  private final Path target;
+  private final long bytesRead;
+  private final long bytesWritten;
+  private final String sha256;
+  private final Duration duration;
+
+  public TransferResult(Path target, long bytesRead, long bytesWritten, String sha256, Duration duration) {
+    this.target = target;
+    this.bytesRead = bytesRead;
+    this.bytesWritten = bytesWritten;
+    this.sha256 = sha256;
+    this.duration = duration;
+  }
+
+  public Path getTarget() {
+    return target;
+  }
+
+  /**
+   * @return bytes read from the source, i.e. the uncompressed size
+   */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * @return size of the target file
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * @return hex encoded SHA-256 digest of the target file, as printed by <code>sha256sum</code>
+   */
+  public String getSha256() {
+    return sha256;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  /**
+   * @return bytes read from the source per second
+   */
+  public double getThroughput() {
+    long nanos = duration.toNanos();
+    return nanos == 0 ? 0 : bytesRead * 1_000_000_000.0 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return "TransferResult{" +
+           "target=" + target +
+           ", bytesRead=" + bytesRead +
+           ", bytesWritten=" + bytesWritten +
+           ", sha256=" + sha256 +
+           ", duration=" + duration +
+           String.format(Locale.ROOT, ", throughput=%.1f MiB/s", getThroughput() / (1024 * 1024)) +
+           '}';
+  }
+}
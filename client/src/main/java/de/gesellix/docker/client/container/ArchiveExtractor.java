@@ -0,0 +1,213 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.util.ByteBufferPool;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Streams the tar archives returned by {@link ManageContainer#getArchive(String, String)}
+ * into files or channels, so that the extracted content never needs to fit into memory.
+ * <p>
+ * Files are written via {@link FileChannel#transferFrom(ReadableByteChannel, long, long)},
+ * other channels are written with a pooled buffer.
+ * The archive stream is read but not closed.
+ */
+public class ArchiveExtractor {
+
+  private final Logger log = LoggerFactory.getLogger(ArchiveExtractor.class);
+
+  private static final PosixFilePermission[] PERMISSIONS = {
+      PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE,
+      PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+      PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE};
+
+  private final ByteBufferPool buffers;
+
+  public ArchiveExtractor() {
+    this(new ByteBufferPool());
+  }
+
+  public ArchiveExtractor(ByteBufferPool buffers) {
+    this.buffers = buffers;
+  }
+
+  /**
+   * Copies the first regular file of the archive. Directory entries are skipped,
+   * so that the archive of a directory yields its first file.
+   *
+   * @param filename the requested file, only used to warn about a different entry name
+   * @return number of bytes copied
+   * @throws NoSuchFileException when the archive doesn't contain a regular file
+   */
+  public long copyFile(InputStream tar, String filename, WritableByteChannel target) throws IOException {
+    TarArchiveInputStream stream = new TarArchiveInputStream(new BufferedInputStream(tar));
+    TarArchiveEntry entry;
+    while ((entry = stream.getNextEntry()) != null) {
+      if (!entry.isFile()) {
+        log.debug("skipping entry '{}'", entry.getName());
+        continue;
+      }
+      if (filename != null && !filename.endsWith(entry.getName())) {
+        log.warn("entry name '{}' doesn't match expected filename '{}'", entry.getName(), filename);
+      } else {
+        log.debug("entry name: '{}'", entry.getName());
+      }
+      return copy(stream, entry.getSize(), target);
+    }
+    throw new NoSuchFileException(filename, null, "archive contains no regular file");
+  }
+
+  /**
+   * Creates or replaces the target file, see {@link #copyFile(InputStream, String, WritableByteChannel)}.
+   */
+  public long copyFile(InputStream tar, String filename, Path target) throws IOException {
+    try (FileChannel channel = FileChannel.open(target,
+                                                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      return copyFile(tar, filename, channel);
+    }
+  }
+
+  /**
+   * Extracts every matching file and directory below the target directory, which is created when missing.
+   * Links and other special files are skipped, as are entries which would end up outside the target directory.
+   *
+   * @param options <code>null</code> for the defaults
+   */
+  public ExtractResult extract(InputStream tar, Path targetDirectory, ExtractOptions options) throws IOException {
+    ExtractOptions actualOptions = options == null ? new ExtractOptions() : options;
+    Path root = targetDirectory.toAbsolutePath().normalize();
+    Files.createDirectories(root);
+    EntryFilter filter = new EntryFilter(root.getFileSystem(), actualOptions.getIncludes(), actualOptions.getExcludes());
+    boolean posix = root.getFileSystem().supportedFileAttributeViews().contains("posix");
+
+    long files = 0;
+    long directories = 0;
+    long skipped = 0;
+    long bytes = 0;
+    TarArchiveInputStream stream = new TarArchiveInputStream(new BufferedInputStream(tar));
+    TarArchiveEntry entry;
+    while ((entry = stream.getNextEntry()) != null) {
+      String name = stripComponents(entry.getName(), actualOptions.getStripComponents());
+      if (name.isEmpty() || !filter.matches(name)) {
+        skipped++;
+        continue;
+      }
+      Path path = root.resolve(name).normalize();
+      if (!path.startsWith(root) || path.equals(root)) {
+        log.warn("skipping entry '{}' outside of '{}'", entry.getName(), root);
+        skipped++;
+        continue;
+      }
+
+      if (entry.isDirectory()) {
+        Files.createDirectories(path);
+        directories++;
+      } else if (entry.isFile()) {
+        if (!actualOptions.isOverwrite() && Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+          skipped++;
+          continue;
+        }
+        Files.createDirectories(path.getParent());
+        // don't write through an existing link, which might point outside of the target directory
+        try (FileChannel channel = FileChannel.open(path,
+                                                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING,
+                                                    LinkOption.NOFOLLOW_LINKS)) {
+          bytes += copy(stream, entry.getSize(), channel);
+        }
+        if (actualOptions.isPreserveAttributes()) {
+          Files.setLastModifiedTime(path, FileTime.from(entry.getLastModifiedDate().toInstant()));
+          if (posix) {
+            Files.setPosixFilePermissions(path, permissions(entry.getMode()));
+          }
+        }
+        files++;
+      } else {
+        log.debug("skipping entry '{}'", entry.getName());
+        skipped++;
+      }
+    }
+    return new ExtractResult(files, directories, skipped, bytes);
+  }
+
+  private long copy(InputStream entryContent, long size, WritableByteChannel target) throws IOException {
+    ReadableByteChannel source = Channels.newChannel(entryContent);
+    if (target instanceof FileChannel) {
+      FileChannel file = (FileChannel) target;
+      long start = file.position();
+      long copied = 0;
+      while (copied < size) {
+        long count = file.transferFrom(source, start + copied, size - copied);
+        if (count <= 0) {
+          throw new EOFException("archive ended within an entry, " + (size - copied) + " bytes missing");
+        }
+        copied += count;
+      }
+      // transferFrom doesn't update the channel's position
+      file.position(start + copied);
+      return copied;
+    }
+
+    ByteBuffer buffer = buffers.acquire();
+    long copied = 0;
+    try {
+      int count;
+      while ((count = source.read(buffer)) >= 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          target.write(buffer);
+        }
+        buffer.clear();
+        copied += count;
+      }
+      if (copied < size) {
+        throw new EOFException("archive ended within an entry, " + (size - copied) + " bytes missing");
+      }
+      return copied;
+    } finally {
+      buffers.release(buffer);
+    }
+  }
+
+  static String stripComponents(String entryName, int count) {
+    String name = entryName;
+    while (name.startsWith("/") || name.startsWith("./")) {
+      name = name.substring(name.startsWith("/") ? 1 : 2);
+    }
+    for (int i = 0; i < count && !name.isEmpty(); i++) {
+      int slash = name.indexOf('/');
+      name = slash < 0 ? "" : name.substring(slash + 1);
+    }
+    return name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+  }
+
+  private static Set<PosixFilePermission> permissions(int mode) {
+    Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+    for (int i = 0; i < PERMISSIONS.length; i++) {
+      if ((mode & (1 << (PERMISSIONS.length - 1 - i))) != 0) {
+        permissions.add(PERMISSIONS[i]);
+      }
+    }
+    return permissions;
+  }
+}
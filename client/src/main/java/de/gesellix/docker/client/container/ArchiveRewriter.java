@@ -0,0 +1,155 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.client.archive.ArchivePipe;
+import de.gesellix.util.DefaultExecutors;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Rewrites the entry names of a tar archive while streaming it, e.g. from {@link ManageContainer#getArchive(String, String)}
+ * into {@link ManageContainer#putArchive(String, String, InputStream)}, so that memory usage doesn't depend on the archive's size.
+ * <p>
+ * Only the current entry's header is kept in memory, entry contents are copied with a fixed-size buffer.
+ * Modes, owners, modification times and other attributes of the entries are kept as they are.
+ */
+public class ArchiveRewriter implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(ArchiveRewriter.class);
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public ArchiveRewriter() {
+    this(DefaultExecutors.newTaskExecutor("docker-client-archive"), true);
+  }
+
+  /**
+   * @param executor runs one blocking task per {@link #open(InputStream, CopyOptions) opened} archive
+   */
+  public ArchiveRewriter(Executor executor) {
+    this(executor, false);
+  }
+
+  private ArchiveRewriter(Executor executor, boolean ownsExecutor) {
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * Rewrites the source archive on another thread, see {@link ArchivePipe}.
+   * The source stream is read, but not closed.
+   *
+   * @param options <code>null</code> to copy every entry as it is
+   */
+  public InputStream open(InputStream source, CopyOptions options) {
+    CopyOptions actualOptions = options == null ? new CopyOptions() : options;
+    return ArchivePipe.open(executor, actualOptions.getPipeBufferSize(), (OutputStream target) -> rewrite(source, target, actualOptions));
+  }
+
+  /**
+   * Writes the rewritten archive into the target stream, which is flushed, but not closed.
+   * The source stream is read, but not closed.
+   *
+   * @param options <code>null</code> to copy every entry as it is
+   * @return number of entries written
+   */
+  public long rewrite(InputStream source, OutputStream target, CopyOptions options) throws IOException {
+    Names names = new Names(options == null ? new CopyOptions() : options);
+    TarArchiveInputStream input = new TarArchiveInputStream(new BufferedInputStream(source, BUFFER_SIZE));
+    TarArchiveOutputStream output = new TarArchiveOutputStream(target);
+    output.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+    output.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+    byte[] buffer = new byte[BUFFER_SIZE];
+
+    long written = 0;
+    long skipped = 0;
+    TarArchiveEntry entry;
+    while ((entry = input.getNextEntry()) != null) {
+      String name = names.rewrite(entry.getName());
+      String linkName = entry.isLink() ? names.rewrite(entry.getLinkName()) : entry.getLinkName();
+      if (name == null || linkName == null) {
+        skipped++;
+        continue;
+      }
+      entry.setName(entry.isDirectory() ? name + "/" : name);
+      entry.setLinkName(linkName);
+      output.putArchiveEntry(entry);
+      long copied = 0;
+      int count;
+      while ((count = input.read(buffer)) >= 0) {
+        output.write(buffer, 0, count);
+        copied += count;
+      }
+      if (copied < entry.getSize()) {
+        throw new EOFException("archive ended within entry '" + entry.getName() + "', " + (entry.getSize() - copied) + " bytes missing");
+      }
+      output.closeArchiveEntry();
+      written++;
+    }
+    output.finish();
+    output.flush();
+    log.debug("rewrote {} entries, skipped {}", written, skipped);
+    return written;
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  static final class Names {
+
+    private final CopyOptions options;
+    private final EntryFilter filter;
+
+    Names(CopyOptions options) {
+      this.options = options;
+      this.filter = new EntryFilter(FileSystems.getDefault(), options.getIncludes(), options.getExcludes());
+    }
+
+    /**
+     * @return the new name without a trailing slash, or <code>null</code> when the entry is skipped
+     */
+    String rewrite(String entryName) {
+      String name = ArchiveExtractor.stripComponents(entryName, options.getStripComponents());
+      if (name.isEmpty() || !filter.matches(name)) {
+        return null;
+      }
+      for (Map.Entry<String, String> rename : options.getRenames().entrySet()) {
+        String from = rename.getKey();
+        if (name.equals(from) || name.startsWith(from + "/")) {
+          name = join(rename.getValue(), name.substring(from.length()));
+          break;
+        }
+      }
+      name = join(options.getPrefix(), name);
+      return name.isEmpty() ? null : name;
+    }
+
+    private static String join(String parent, String child) {
+      String relative = child.startsWith("/") ? child.substring(1) : child;
+      if (parent.isEmpty() || relative.isEmpty()) {
+        return parent + relative;
+      }
+      return parent + "/" + relative;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package de.gesellix.docker.client.container;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Per-container outcome of a bulk operation.
+ * Both maps keep the order in which the containers have been passed to the operation.
+ *
+ * @param <T> result type of a single operation, {@link Void} for operations without a result
+ */
+public class BulkResult<T> {
+
+  private final Map<String, T> results;
+  private final Map<String, Exception> failures;
+
+  public BulkResult(Map<String, T> results, Map<String, Exception> failures) {
+    this.results = Collections.unmodifiableMap(results);
+    this.failures = Collections.unmodifiableMap(failures);
+  }
+
+  /**
+   * @return results by container id or name; values are <code>null</code> for operations without a result
+   */
+  public Map<String, T> getResults() {
+    return results;
+  }
+
+  /**
+   * @return failures by container id or name, including a {@link java.util.concurrent.TimeoutException}
+   * for operations exceeding the per-item timeout
+   */
+  public Map<String, Exception> getFailures() {
+    return failures;
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "BulkResult{" +
+           "results=" + results.keySet() +
+           ", failures=" + failures +
+           '}';
+  }
+}
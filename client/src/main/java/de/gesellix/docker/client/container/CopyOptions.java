@@ -0,0 +1,104 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.client.archive.TarOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for {@link ArchiveRewriter} and {@link ManageContainer#copyBetweenContainers(String, String, String, String, CopyOptions)}.
+ * <p>
+ * Entry names are rewritten in this order: leading components are stripped, entries are filtered
+ * by include and exclude globs like {@link ExtractOptions}, renamed, and finally prefixed.
+ */
+public class CopyOptions {
+
+  private final List<String> includes = new ArrayList<>();
+  private final List<String> excludes = new ArrayList<>();
+  private int stripComponents = 0;
+  private final Map<String, String> renames = new LinkedHashMap<>();
+  private String prefix = "";
+  private int pipeBufferSize = TarOptions.DEFAULT_PIPE_BUFFER_SIZE;
+
+  public List<String> getIncludes() {
+    return Collections.unmodifiableList(includes);
+  }
+
+  public CopyOptions include(String... patterns) {
+    includes.addAll(Arrays.asList(patterns));
+    return this;
+  }
+
+  public List<String> getExcludes() {
+    return Collections.unmodifiableList(excludes);
+  }
+
+  public CopyOptions exclude(String... patterns) {
+    excludes.addAll(Arrays.asList(patterns));
+    return this;
+  }
+
+  public int getStripComponents() {
+    return stripComponents;
+  }
+
+  public CopyOptions setStripComponents(int stripComponents) {
+    if (stripComponents < 0) {
+      throw new IllegalArgumentException("stripComponents must not be negative, but was " + stripComponents);
+    }
+    this.stripComponents = stripComponents;
+    return this;
+  }
+
+  public Map<String, String> getRenames() {
+    return Collections.unmodifiableMap(renames);
+  }
+
+  /**
+   * Replaces the leading path <code>from</code> of matching entries, e.g. <code>rename("data", "backup")</code>
+   * copies <code>data/db.sqlite</code> as <code>backup/db.sqlite</code>, but keeps <code>database/</code>.
+   * The first matching rename wins.
+   */
+  public CopyOptions rename(String from, String to) {
+    renames.put(ArchiveExtractor.stripComponents(from, 0), ArchiveExtractor.stripComponents(to, 0));
+    return this;
+  }
+
+  /**
+   * @return directory prepended to every entry name
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public CopyOptions setPrefix(String prefix) {
+    this.prefix = prefix == null ? "" : ArchiveExtractor.stripComponents(prefix, 0);
+    return this;
+  }
+
+  /**
+   * @return maximum number of bytes buffered between reading the source archive and uploading the rewritten one
+   */
+  public int getPipeBufferSize() {
+    return pipeBufferSize;
+  }
+
+  public CopyOptions setPipeBufferSize(int pipeBufferSize) {
+    if (pipeBufferSize < 1) {
+      throw new IllegalArgumentException("pipeBufferSize must be positive, but was " + pipeBufferSize);
+    }
+    this.pipeBufferSize = pipeBufferSize;
+    return this;
+  }
+
+  /**
+   * @return whether entries are copied as they are
+   */
+  public boolean isIdentity() {
+    return includes.isEmpty() && excludes.isEmpty() && stripComponents == 0 && renames.isEmpty() && prefix.isEmpty();
+  }
+}
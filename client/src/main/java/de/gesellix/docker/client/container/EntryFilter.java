@@ -0,0 +1,39 @@
+package de.gesellix.docker.client.container;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Matches archive entry names against include and exclude globs, see {@link ExtractOptions}.
+ */
+final class EntryFilter {
+
+  private final FileSystem fileSystem;
+  private final List<PathMatcher> includes = new ArrayList<>();
+  private final List<PathMatcher> excludes = new ArrayList<>();
+
+  EntryFilter(FileSystem fileSystem, Collection<String> includes, Collection<String> excludes) {
+    this.fileSystem = fileSystem;
+    includes.forEach((String pattern) -> this.includes.add(fileSystem.getPathMatcher("glob:" + pattern)));
+    excludes.forEach((String pattern) -> this.excludes.add(fileSystem.getPathMatcher("glob:" + pattern)));
+  }
+
+  boolean matches(String name) {
+    Path path = fileSystem.getPath(name);
+    if (!includes.isEmpty() && includes.stream().noneMatch((PathMatcher include) -> include.matches(path))) {
+      return false;
+    }
+    // an excluded directory excludes its content
+    for (Path current = path; current != null; current = current.getParent()) {
+      Path candidate = current;
+      if (excludes.stream().anyMatch((PathMatcher exclude) -> exclude.matches(candidate))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,97 @@
+package de.gesellix.docker.client.container;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for a single {@link ExecRunner} command.
+ */
+public class ExecOptions {
+
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(1);
+  public static final int DEFAULT_MAX_OUTPUT_BYTES = 64 * 1024;
+
+  private Duration timeout = DEFAULT_TIMEOUT;
+  private int maxOutputBytes = DEFAULT_MAX_OUTPUT_BYTES;
+  private boolean inspectExitCode = true;
+  private boolean tty = false;
+  private String user;
+  private String workingDir;
+  private List<String> env;
+
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  public ExecOptions setTimeout(Duration timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * @return only the last bytes of stdout and stderr each are kept
+   */
+  public int getMaxOutputBytes() {
+    return maxOutputBytes;
+  }
+
+  public ExecOptions setMaxOutputBytes(int maxOutputBytes) {
+    this.maxOutputBytes = maxOutputBytes;
+    return this;
+  }
+
+  /**
+   * @return whether to inspect the finished exec for its exit code.
+   * Disable when only the output is needed, saving a request per exec.
+   */
+  public boolean isInspectExitCode() {
+    return inspectExitCode;
+  }
+
+  public ExecOptions setInspectExitCode(boolean inspectExitCode) {
+    this.inspectExitCode = inspectExitCode;
+    return this;
+  }
+
+  /**
+   * @return whether to allocate a TTY, which merges stderr into stdout
+   */
+  public boolean isTty() {
+    return tty;
+  }
+
+  public ExecOptions setTty(boolean tty) {
+    this.tty = tty;
+    return this;
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  public ExecOptions setUser(String user) {
+    this.user = user;
+    return this;
+  }
+
+  public String getWorkingDir() {
+    return workingDir;
+  }
+
+  public ExecOptions setWorkingDir(String workingDir) {
+    this.workingDir = workingDir;
+    return this;
+  }
+
+  /**
+   * @return environment variables in the form <code>KEY=value</code>
+   */
+  public List<String> getEnv() {
+    return env;
+  }
+
+  public ExecOptions setEnv(List<String> env) {
+    this.env = env;
+    return this;
+  }
+}
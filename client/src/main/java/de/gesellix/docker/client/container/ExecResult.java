@@ -0,0 +1,77 @@
+package de.gesellix.docker.client.container;
+
+import java.time.Duration;
+import java.util.List;
+
+public class ExecResult {
+
+  private final String container;
+  private final String execId;
+  private final List<String> command;
+  private final Integer exitCode;
+  private final OutputRingBuffer stdout;
+  private final OutputRingBuffer stderr;
+  private final Duration elapsed;
+
+  public ExecResult(String container, String execId, List<String> command, Integer exitCode,
+                    OutputRingBuffer stdout, OutputRingBuffer stderr, Duration elapsed) {
+    this.container = container;
+    this.execId = execId;
+    this.command = command;
+    this.exitCode = exitCode;
+    this.stdout = stdout;
+    this.stderr = stderr;
+    this.elapsed = elapsed;
+  }
+
+  public String getContainer() {
+    return container;
+  }
+
+  public String getExecId() {
+    return execId;
+  }
+
+  public List<String> getCommand() {
+    return command;
+  }
+
+  /**
+   * @return <code>null</code> if the exec hasn't been inspected, see {@link ExecOptions#setInspectExitCode(boolean)}
+   */
+  public Integer getExitCode() {
+    return exitCode;
+  }
+
+  public boolean isSuccessful() {
+    return exitCode != null && exitCode == 0;
+  }
+
+  /**
+   * @return the tail of stdout, or the whole output when the exec has been created with a TTY
+   */
+  public OutputRingBuffer getStdout() {
+    return stdout;
+  }
+
+  public OutputRingBuffer getStderr() {
+    return stderr;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  @Override
+  public String toString() {
+    return "ExecResult{" +
+           "container='" + container + '\'' +
+           ", execId='" + execId + '\'' +
+           ", command=" + command +
+           ", exitCode=" + exitCode +
+           ", stdoutBytes=" + stdout.getTotalBytes() +
+           ", stderrBytes=" + stderr.getTotalBytes() +
+           ", elapsed=" + elapsed +
+           '}';
+  }
+}
@@ -0,0 +1,302 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.remote.api.ExecConfig;
+import de.gesellix.docker.remote.api.ExecInspectResponse;
+import de.gesellix.docker.remote.api.ExecStartConfig;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.Frame;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs commands via <code>docker exec</code> and captures their output.
+ * <p>
+ * Output is collected into {@link OutputRingBuffer}s, so that only the tail of
+ * chatty commands is kept in memory, see {@link ExecOptions#setMaxOutputBytes(int)}.
+ * At most <code>concurrency</code> execs run at the same time, across all containers and callers.
+ * The exit code requires an additional inspect request per exec, which can be skipped
+ * via {@link ExecOptions#setInspectExitCode(boolean)} when only the output is needed.
+ */
+public class ExecRunner implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(ExecRunner.class);
+
+  public static final int DEFAULT_CONCURRENCY = 32;
+
+  private final ManageContainer manageContainer;
+  private final int concurrency;
+  private final Semaphore permits;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public ExecRunner(ManageContainer manageContainer) {
+    this(manageContainer, DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Without virtual threads, {@link #runAsync(String, List, ExecOptions) asynchronous} execs run on at most
+   * <code>concurrency</code> threads, so that execs waiting for a permit don't pin a platform thread each.
+   */
+  public ExecRunner(ManageContainer manageContainer, int concurrency) {
+    this(manageContainer, concurrency, DefaultExecutors.newBoundedTaskExecutor("docker-client-exec", validConcurrency(concurrency)), true);
+  }
+
+  public ExecRunner(ManageContainer manageContainer, int concurrency, Executor executor) {
+    this(manageContainer, concurrency, executor, false);
+  }
+
+  private ExecRunner(ManageContainer manageContainer, int concurrency, Executor executor, boolean ownsExecutor) {
+    this.manageContainer = manageContainer;
+    this.concurrency = validConcurrency(concurrency);
+    this.permits = new Semaphore(concurrency, true);
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  private static int validConcurrency(int concurrency) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be at least 1, but was " + concurrency);
+    }
+    return concurrency;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  /**
+   * @return the number of execs currently running
+   */
+  public int getRunning() {
+    return concurrency - permits.availablePermits();
+  }
+
+  public ExecResult run(String container, List<String> command) {
+    return run(container, command, new ExecOptions());
+  }
+
+  /**
+   * Runs the command and blocks until its output has been consumed.
+   *
+   * @throws IllegalStateException with a {@link TimeoutException} as cause when the command didn't finish in time
+   * @throws CancellationException when the current thread has been interrupted
+   */
+  public ExecResult run(String container, List<String> command, ExecOptions options) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("exec in '" + container + "' has been interrupted");
+    }
+    try {
+      return execute(container, command, options);
+    } finally {
+      permits.release();
+    }
+  }
+
+  public CompletableFuture<ExecResult> runAsync(String container, List<String> command) {
+    return runAsync(container, command, new ExecOptions());
+  }
+
+  /**
+   * Cancelling the returned future interrupts a running exec.
+   */
+  public CompletableFuture<ExecResult> runAsync(String container, List<String> command, ExecOptions options) {
+    InterruptibleFuture<ExecResult> future = new InterruptibleFuture<>(() -> run(container, command, options));
+    try {
+      executor.execute(future);
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  public BulkResult<ExecResult> runAll(Collection<String> containers, List<String> command) {
+    return runAll(containers, command, new ExecOptions());
+  }
+
+  /**
+   * Runs the same command in every container.
+   * Failures, e.g. timeouts or missing containers, are collected per container.
+   * A non-zero exit code isn't a failure, see {@link ExecResult#isSuccessful()}.
+   */
+  public BulkResult<ExecResult> runAll(Collection<String> containers, List<String> command, ExecOptions options) {
+    log.info("docker exec '{}' in {} containers", command, containers.size());
+    Map<String, CompletableFuture<ExecResult>> futures = new LinkedHashMap<>();
+    for (String container : new LinkedHashSet<>(containers)) {
+      futures.put(container, runAsync(container, command, options));
+    }
+
+    Map<String, ExecResult> results = new LinkedHashMap<>();
+    Map<String, Exception> failures = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<String, CompletableFuture<ExecResult>> entry : futures.entrySet()) {
+        try {
+          results.put(entry.getKey(), entry.getValue().get());
+        } catch (ExecutionException | CompletionException e) {
+          failures.put(entry.getKey(), unwrap(e));
+        } catch (CancellationException e) {
+          failures.put(entry.getKey(), e);
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.values().forEach((CompletableFuture<ExecResult> future) -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new CancellationException("exec in " + futures.size() + " containers has been interrupted");
+    }
+    if (!failures.isEmpty()) {
+      log.warn("{} of {} execs failed: {}", failures.size(), futures.size(), failures.keySet());
+    }
+    return new BulkResult<>(results, failures);
+  }
+
+  private ExecResult execute(String container, List<String> command, ExecOptions options) {
+    long started = System.nanoTime();
+    ExecConfig execConfig = new ExecConfig(
+        false,
+        true,
+        true,
+        null,
+        null,
+        options.isTty(),
+        options.getEnv(),
+        command,
+        null,
+        options.getUser(),
+        options.getWorkingDir());
+    String execId = manageContainer.createExec(container, execConfig).getContent().getId();
+
+    OutputRingBuffer stdout = new OutputRingBuffer(options.getMaxOutputBytes());
+    OutputRingBuffer stderr = options.isTty() ? new OutputRingBuffer(0) : new OutputRingBuffer(options.getMaxOutputBytes());
+    CapturingCallback callback = new CapturingCallback(stdout, stderr);
+    Duration timeout = options.getTimeout();
+    manageContainer.startExec(execId, new ExecStartConfig(false, options.isTty(), null), callback, timeout);
+    callback.await(container, execId, timeout);
+
+    Integer exitCode = null;
+    if (options.isInspectExitCode()) {
+      ExecInspectResponse execInspect = manageContainer.inspectExec(execId).getContent();
+      exitCode = execInspect.getExitCode();
+    }
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+    log.debug("exec '{}' in '{}' finished after {} with exit code {}", execId, container, elapsed, exitCode);
+    return new ExecResult(container, execId, Collections.unmodifiableList(new ArrayList<>(command)), exitCode, stdout, stderr, elapsed);
+  }
+
+  private Exception unwrap(Exception e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Exception) {
+      return (Exception) cause;
+    }
+    return e;
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  static class CapturingCallback implements StreamCallback<Frame> {
+
+    private final OutputRingBuffer stdout;
+    private final OutputRingBuffer stderr;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Cancellable cancellable;
+    private volatile Exception failure;
+
+    CapturingCallback(OutputRingBuffer stdout, OutputRingBuffer stderr) {
+      this.stdout = stdout;
+      this.stderr = stderr;
+    }
+
+    @Override
+    public void onStarting(Cancellable cancellable) {
+      this.cancellable = cancellable;
+    }
+
+    @Override
+    public void onNext(Frame frame) {
+      byte[] payload = frame.getPayload();
+      if (payload == null) {
+        return;
+      }
+      if (frame.getStreamType() == Frame.StreamType.STDERR) {
+        stderr.write(payload);
+      } else {
+        stdout.write(payload);
+      }
+    }
+
+    @Override
+    public void onFailed(Exception e) {
+      failure = e;
+      done.countDown();
+    }
+
+    @Override
+    public void onFinished() {
+      done.countDown();
+    }
+
+    void await(String container, String execId, Duration timeout) {
+      try {
+        boolean finished;
+        if (timeout == null) {
+          done.await();
+          finished = true;
+        } else {
+          finished = done.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!finished) {
+          cancel();
+          throw new IllegalStateException("exec '" + execId + "' in '" + container + "' failed",
+                                          new TimeoutException("no result after " + timeout));
+        }
+      } catch (InterruptedException e) {
+        cancel();
+        Thread.currentThread().interrupt();
+        throw new CancellationException("exec '" + execId + "' in '" + container + "' has been interrupted");
+      }
+      if (failure != null) {
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new IllegalStateException("exec '" + execId + "' in '" + container + "' failed", failure);
+      }
+    }
+
+    private void cancel() {
+      Cancellable current = cancellable;
+      if (current != null) {
+        current.cancel();
+      }
+    }
+  }
+}
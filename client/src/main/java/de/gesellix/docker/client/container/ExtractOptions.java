@@ -0,0 +1,83 @@
+package de.gesellix.docker.client.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Settings for {@link ArchiveExtractor#extract(java.io.InputStream, java.nio.file.Path, ExtractOptions)}.
+ * <p>
+ * Include and exclude patterns are globs, see {@link java.nio.file.FileSystem#getPathMatcher(String)},
+ * matched against the entry names after stripping leading components, e.g. <code>lib/*.jar</code>
+ * or <code>**&#47;*.class</code>. Excluding a directory excludes everything below it.
+ */
+public class ExtractOptions {
+
+  private final List<String> includes = new ArrayList<>();
+  private final List<String> excludes = new ArrayList<>();
+  private int stripComponents = 0;
+  private boolean overwrite = true;
+  private boolean preserveAttributes = true;
+
+  public List<String> getIncludes() {
+    return Collections.unmodifiableList(includes);
+  }
+
+  /**
+   * Only entries matching at least one include pattern are extracted. Without includes, every entry is extracted.
+   */
+  public ExtractOptions include(String... patterns) {
+    includes.addAll(Arrays.asList(patterns));
+    return this;
+  }
+
+  public List<String> getExcludes() {
+    return Collections.unmodifiableList(excludes);
+  }
+
+  public ExtractOptions exclude(String... patterns) {
+    excludes.addAll(Arrays.asList(patterns));
+    return this;
+  }
+
+  /**
+   * @return number of leading path components removed from entry names,
+   * e.g. <code>1</code> to extract the content of a copied directory instead of the directory itself
+   */
+  public int getStripComponents() {
+    return stripComponents;
+  }
+
+  public ExtractOptions setStripComponents(int stripComponents) {
+    if (stripComponents < 0) {
+      throw new IllegalArgumentException("stripComponents must not be negative, but was " + stripComponents);
+    }
+    this.stripComponents = stripComponents;
+    return this;
+  }
+
+  /**
+   * @return whether existing files are replaced, otherwise they are skipped
+   */
+  public boolean isOverwrite() {
+    return overwrite;
+  }
+
+  public ExtractOptions setOverwrite(boolean overwrite) {
+    this.overwrite = overwrite;
+    return this;
+  }
+
+  /**
+   * @return whether modification times and, on POSIX file systems, permissions are taken from the entries
+   */
+  public boolean isPreserveAttributes() {
+    return preserveAttributes;
+  }
+
+  public ExtractOptions setPreserveAttributes(boolean preserveAttributes) {
+    this.preserveAttributes = preserveAttributes;
+    return this;
+  }
+}
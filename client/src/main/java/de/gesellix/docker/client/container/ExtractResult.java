@@ -0,0 +1,43 @@
+package de.gesellix.docker.client.container;
+
+public class ExtractResult {
+
+  private final long files;
+  private final long directories;
+  private final long skipped;
+  private final long bytes;
+
+  public ExtractResult(long files, long directories, long skipped, long bytes) {
+    this.files = files;
+    this.directories = directories;
+    this.skipped = skipped;
+    this.bytes = bytes;
+  }
+
+  public long getFiles() {
+    return files;
+  }
+
+  public long getDirectories() {
+    return directories;
+  }
+
+  /**
+   * @return number of entries not being extracted, i.e. filtered entries, existing files, links and other special files
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * @return number of bytes written to files
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public String toString() {
+    return "ExtractResult{files=" + files + ", directories=" + directories + ", skipped=" + skipped + ", bytes=" + bytes + "}";
+  }
+}
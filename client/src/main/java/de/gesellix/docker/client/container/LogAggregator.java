@@ -0,0 +1,358 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.client.filters.Filters;
+import de.gesellix.docker.client.tasks.ManageTask;
+import de.gesellix.docker.remote.api.Task;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.Frame;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the logs of many containers and merges them into a single stream, ordered by timestamp.
+ * <p>
+ * Logs are requested with <code>timestamps=true</code>. Each source has a bounded queue:
+ * when a queue is full, reading that source's stream blocks until the merge has caught up,
+ * so that memory usage doesn't depend on how fast a container logs.
+ * The merge keeps at most one message per source in a priority queue and emits the oldest one
+ * as soon as every active source has a message pending. A source without new messages delays other messages
+ * for at most <code>maxDelay</code> after they have been received, so messages arriving later than that might be emitted out of order.
+ * <pre>
+ * try (LogAggregator aggregator = new LogAggregator(dockerClient)) {
+ *   aggregator.aggregate(LogAggregator.serviceContainers(dockerClient, "web"), null, callback, Duration.ofMinutes(10));
+ * }
+ * </pre>
+ */
+public class LogAggregator implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(LogAggregator.class);
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+  public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(500);
+
+  private static final Comparator<Head> OLDEST_FIRST = Comparator
+      .comparing((Head head) -> head.line.getTimestamp(), Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparingInt((Head head) -> head.source.index)
+      .thenComparingLong((Head head) -> head.sequence);
+
+  private final ManageContainer manageContainer;
+  private final int queueCapacity;
+  private final Duration maxDelay;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  public LogAggregator(ManageContainer manageContainer) {
+    this(manageContainer, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_DELAY);
+  }
+
+  public LogAggregator(ManageContainer manageContainer, int queueCapacity, Duration maxDelay) {
+    this(manageContainer, queueCapacity, maxDelay, DefaultExecutors.newTaskExecutor("docker-client-logs"), true);
+  }
+
+  /**
+   * @param executor runs one blocking task per source
+   */
+  public LogAggregator(ManageContainer manageContainer, int queueCapacity, Duration maxDelay, Executor executor) {
+    this(manageContainer, queueCapacity, maxDelay, executor, false);
+  }
+
+  private LogAggregator(ManageContainer manageContainer, int queueCapacity, Duration maxDelay, Executor executor, boolean ownsExecutor) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("queueCapacity must be at least 1, but was " + queueCapacity);
+    }
+    this.manageContainer = manageContainer;
+    this.queueCapacity = queueCapacity;
+    this.maxDelay = maxDelay;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * Only containers on the current node can be followed, i.e. tasks running on other swarm nodes are ignored by the daemon.
+   *
+   * @return ids of the containers of the service's running tasks
+   */
+  public static List<String> serviceContainers(ManageTask manageTask, String service) {
+    String filters = Filters.builder().service(service).desiredState("running").build().toJson();
+    List<String> containers = new ArrayList<>();
+    for (Task task : manageTask.tasks(filters).getContent()) {
+      if (task.getStatus() != null && task.getStatus().getContainerStatus() != null
+          && task.getStatus().getContainerStatus().getContainerID() != null) {
+        containers.add(task.getStatus().getContainerStatus().getContainerID());
+      }
+    }
+    return containers;
+  }
+
+  /**
+   * Blocks until all streams have ended, the timeout has been reached,
+   * or the {@link Cancellable} passed to {@link StreamCallback#onStarting(Cancellable)} has been cancelled.
+   * <p>
+   * The callback is only called from the current thread.
+   * Sources failing with an error are logged and don't abort the other sources.
+   *
+   * @param query log query parameters, see {@link ManageContainer#logs(String, Map, StreamCallback, Duration)}.
+   *              <code>timestamps</code> is always enabled, <code>follow</code> defaults to <code>true</code>.
+   * @param timeout per source stream
+   */
+  public void aggregate(Collection<String> containers, Map<String, Object> query, StreamCallback<LogLine> callback, Duration timeout) {
+    Map<String, Object> actualQuery = new LinkedHashMap<>();
+    actualQuery.put("follow", true);
+    if (query != null) {
+      actualQuery.putAll(query);
+    }
+    actualQuery.put("timestamps", true);
+
+    Semaphore signals = new Semaphore(0);
+    List<Source> sources = new ArrayList<>();
+    for (String container : new LinkedHashSet<>(containers)) {
+      sources.add(new Source(sources.size(), container, queueCapacity, signals));
+    }
+    Merge merge = new Merge(sources, signals);
+    callback.onStarting(merge::cancel);
+
+    for (Source source : sources) {
+      source.stream = new InterruptibleFuture<>(() -> {
+        try {
+          manageContainer.logs(source.container, actualQuery, source, timeout);
+        } finally {
+          source.finish();
+        }
+        return null;
+      });
+      try {
+        executor.execute(source.stream);
+      } catch (RejectedExecutionException e) {
+        source.onFailed(e);
+      }
+    }
+
+    try {
+      merge.run(callback);
+      callback.onFinished();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      callback.onFailed(e);
+    } catch (RuntimeException e) {
+      callback.onFailed(e);
+    } finally {
+      merge.cancel();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  /**
+   * Splits the RFC 3339 timestamp prefix, e.g. <code>2025-01-18T20:57:00.123456789Z message</code>.
+   */
+  static LogLine parse(String source, Frame frame, Instant previous) {
+    byte[] payload = frame.getPayload() == null ? new byte[0] : frame.getPayload();
+    int space = -1;
+    // timestamps are ASCII and at most 35 characters long
+    for (int i = 0; i < Math.min(payload.length, 40); i++) {
+      if (payload[i] == ' ') {
+        space = i;
+        break;
+      }
+    }
+    if (space > 0) {
+      try {
+        Instant timestamp = Instant.parse(new String(payload, 0, space, StandardCharsets.US_ASCII));
+        return new LogLine(source, frame.getStreamType(), timestamp, Arrays.copyOfRange(payload, space + 1, payload.length));
+      } catch (DateTimeParseException ignored) {
+        // e.g. the continuation of a long message
+      }
+    }
+    return new LogLine(source, frame.getStreamType(), previous, payload);
+  }
+
+  private class Source implements StreamCallback<Frame> {
+
+    private final int index;
+    private final String container;
+    private final BlockingQueue<Head> queue;
+    private final Semaphore signals;
+    private volatile boolean finished;
+    private volatile boolean cancelled;
+    private volatile Cancellable cancellable;
+    private volatile InterruptibleFuture<Void> stream;
+    private Instant previous;
+    private long sequence;
+
+    private Source(int index, String container, int capacity, Semaphore signals) {
+      this.index = index;
+      this.container = container;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.signals = signals;
+    }
+
+    @Override
+    public void onStarting(Cancellable cancellable) {
+      this.cancellable = cancellable;
+      if (cancelled) {
+        cancellable.cancel();
+      }
+    }
+
+    @Override
+    public void onNext(Frame frame) {
+      if (cancelled) {
+        return;
+      }
+      LogLine line = parse(container, frame, previous);
+      previous = line.getTimestamp();
+      // the max delay starts on arrival, not when the merge takes the line from the queue
+      Head head = new Head(this, line, sequence++, System.nanoTime());
+      try {
+        // blocks the stream while the queue is full
+        queue.put(head);
+        signals.release();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+      }
+    }
+
+    @Override
+    public void onFailed(Exception e) {
+      if (!cancelled) {
+        log.warn("logs of '{}' failed", container, e);
+      }
+      finish();
+    }
+
+    @Override
+    public void onFinished() {
+      finish();
+    }
+
+    private void finish() {
+      finished = true;
+      signals.release();
+    }
+
+    private void cancel() {
+      cancelled = true;
+      Cancellable current = cancellable;
+      if (current != null) {
+        try {
+          current.cancel();
+        } catch (RuntimeException e) {
+          log.debug("cancelling the logs of '{}' failed", container, e);
+        }
+      }
+      InterruptibleFuture<Void> runningStream = stream;
+      if (runningStream != null) {
+        runningStream.cancel(true);
+      }
+    }
+  }
+
+  private static class Head {
+
+    private final Source source;
+    private final LogLine line;
+    private final long sequence;
+    private final long receivedNanos;
+
+    private Head(Source source, LogLine line, long sequence, long receivedNanos) {
+      this.source = source;
+      this.line = line;
+      this.sequence = sequence;
+      this.receivedNanos = receivedNanos;
+    }
+  }
+
+  private class Merge {
+
+    private final List<Source> sources;
+    private final Semaphore signals;
+    private final PriorityQueue<Head> heads;
+    private final boolean[] pending;
+    private volatile boolean cancelled;
+
+    private Merge(List<Source> sources, Semaphore signals) {
+      this.sources = sources;
+      this.signals = signals;
+      this.heads = new PriorityQueue<>(Math.max(1, sources.size()), OLDEST_FIRST);
+      this.pending = new boolean[sources.size()];
+    }
+
+    private void run(StreamCallback<LogLine> callback) throws InterruptedException {
+      long maxDelayNanos = maxDelay == null ? 0 : maxDelay.toNanos();
+      while (!cancelled) {
+        boolean complete = true;
+        boolean active = false;
+        for (Source source : sources) {
+          if (!pending[source.index]) {
+            // read the flag before polling, so that a finished source's last message isn't missed
+            boolean finished = source.finished;
+            Head head = source.queue.poll();
+            if (head != null) {
+              heads.add(head);
+              pending[source.index] = true;
+            } else if (!finished) {
+              complete = false;
+            }
+          }
+          active |= pending[source.index] || !source.finished;
+        }
+        if (!active) {
+          return;
+        }
+
+        Head oldest = heads.peek();
+        if (oldest == null) {
+          // wait for the next message or the end of a stream
+          signals.acquire();
+        } else {
+          long age = System.nanoTime() - oldest.receivedNanos;
+          if (complete || age >= maxDelayNanos) {
+            heads.poll();
+            pending[oldest.source.index] = false;
+            callback.onNext(oldest.line);
+            continue;
+          }
+          signals.tryAcquire(maxDelayNanos - age, TimeUnit.NANOSECONDS);
+        }
+        signals.drainPermits();
+      }
+    }
+
+    private void cancel() {
+      cancelled = true;
+      sources.forEach(Source::cancel);
+      signals.release();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.remote.api.core.Frame;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * A single log message of a {@link LogAggregator} source.
+ */
+public class LogLine {
+
+  private final String source;
+  private final Frame.StreamType streamType;
+  private final Instant timestamp;
+  private final byte[] payload;
+
+  public LogLine(String source, Frame.StreamType streamType, Instant timestamp, byte[] payload) {
+    this.source = source;
+    this.streamType = streamType;
+    this.timestamp = timestamp;
+    this.payload = payload;
+  }
+
+  /**
+   * @return the container id or name the message has been logged by
+   */
+  public String getSource() {
+    return source;
+  }
+
+  public Frame.StreamType getStreamType() {
+    return streamType;
+  }
+
+  /**
+   * @return the timestamp added by the daemon, or <code>null</code> if the message had none
+   */
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return the message without the daemon's timestamp prefix
+   */
+  public byte[] getPayload() {
+    return payload;
+  }
+
+  public String getPayloadAsString() {
+    return new String(payload, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return source + " " + timestamp + " " + streamType + ": " + getPayloadAsString().trim();
+  }
+}
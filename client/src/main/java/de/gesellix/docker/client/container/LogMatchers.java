@@ -0,0 +1,86 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.remote.api.core.Frame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Predicates for {@link LogWatcher} and {@link ManageContainer#waitForLogEvent(String, java.util.Map, Predicate, java.time.Duration)}.
+ * <p>
+ * Patterns are compiled once and applied to each frame's payload separately,
+ * i.e. a match spanning two frames won't be found.
+ */
+public final class LogMatchers {
+
+  private LogMatchers() {
+  }
+
+  /**
+   * Searches the raw payload bytes for the UTF-8 encoded text, without decoding the payload.
+   */
+  public static Predicate<Frame> contains(String text) {
+    if (text == null || text.isEmpty()) {
+      throw new IllegalArgumentException("text must not be empty");
+    }
+    BytePattern pattern = new BytePattern(text.getBytes(StandardCharsets.UTF_8));
+    return (Frame frame) -> frame != null && pattern.foundIn(frame.getPayload());
+  }
+
+  /**
+   * Applies the pattern to the UTF-8 decoded payload.
+   * Prefer {@link #contains(String)} for plain text, which doesn't need to decode every frame.
+   */
+  public static Predicate<Frame> find(Pattern pattern) {
+    return (Frame frame) -> frame != null && frame.getPayload() != null
+                            && pattern.matcher(new String(frame.getPayload(), StandardCharsets.UTF_8)).find();
+  }
+
+  public static Predicate<Frame> streamType(Frame.StreamType streamType) {
+    return (Frame frame) -> frame != null && frame.getStreamType() == streamType;
+  }
+
+  /**
+   * Knuth-Morris-Pratt search with a precomputed failure table.
+   */
+  static final class BytePattern {
+
+    private final byte[] needle;
+    private final int[] failure;
+
+    BytePattern(byte[] needle) {
+      this.needle = needle;
+      this.failure = new int[needle.length];
+      int k = 0;
+      for (int i = 1; i < needle.length; i++) {
+        while (k > 0 && needle[i] != needle[k]) {
+          k = failure[k - 1];
+        }
+        if (needle[i] == needle[k]) {
+          k++;
+        }
+        failure[i] = k;
+      }
+    }
+
+    boolean foundIn(byte[] haystack) {
+      if (haystack == null || haystack.length < needle.length) {
+        return false;
+      }
+      int k = 0;
+      for (byte b : haystack) {
+        while (k > 0 && b != needle[k]) {
+          k = failure[k - 1];
+        }
+        if (b == needle[k]) {
+          k++;
+          if (k == needle.length) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.Frame;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Waits for log messages of many containers concurrently.
+ * <p>
+ * Each watch follows the container's logs until the first frame matching the predicate, see {@link LogMatchers}.
+ * The log stream is cancelled as soon as the watch completes, i.e. on a match, on timeout,
+ * or when the returned future gets cancelled.
+ * Streams are consumed on the given executor, by default on virtual threads where available,
+ * otherwise on at most {@link #DEFAULT_MAX_THREADS} platform threads.
+ * Watches waiting for a thread time out nonetheless, because the timeout starts when the watch is requested.
+ * All timeouts share a single scheduler thread, which ends when no watch has been active for a minute.
+ */
+public class LogWatcher implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(LogWatcher.class);
+
+  public static final int DEFAULT_MAX_THREADS = 64;
+
+  private final ManageContainer manageContainer;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final ScheduledExecutorService timeouts;
+  private final AtomicInteger active = new AtomicInteger();
+
+  public LogWatcher(ManageContainer manageContainer) {
+    this(manageContainer, DEFAULT_MAX_THREADS);
+  }
+
+  /**
+   * @param maxThreads limits the number of concurrently followed streams on runtimes without virtual threads
+   */
+  public LogWatcher(ManageContainer manageContainer, int maxThreads) {
+    this(manageContainer, DefaultExecutors.newBoundedTaskExecutor("docker-client-logwatch", maxThreads), true);
+  }
+
+  /**
+   * @param executor a bounded executor limits the number of concurrently followed streams,
+   *                 further watches wait for a thread but time out nonetheless
+   */
+  public LogWatcher(ManageContainer manageContainer, Executor executor) {
+    this(manageContainer, executor, false);
+  }
+
+  private LogWatcher(ManageContainer manageContainer, Executor executor, boolean ownsExecutor) {
+    this.manageContainer = manageContainer;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, DefaultExecutors.daemonThreadFactory("docker-client-logwatch-timeout"));
+    timeouts.setKeepAliveTime(1, TimeUnit.MINUTES);
+    timeouts.allowCoreThreadTimeOut(true);
+    timeouts.setRemoveOnCancelPolicy(true);
+    this.timeouts = timeouts;
+  }
+
+  /**
+   * @return number of watches which haven't completed, yet
+   */
+  public int getActive() {
+    return active.get();
+  }
+
+  /**
+   * @param query log query parameters, see {@link ManageContainer#logs(String, Map, StreamCallback, Duration)}.
+   *              The map isn't modified. Unless given, <code>follow=true</code> and <code>tail=1</code> are used.
+   * @return a future completing with the first matching frame, or exceptionally with a {@link TimeoutException},
+   * or a {@link NoSuchElementException} when the stream ended without a match
+   */
+  public CompletableFuture<Frame> watch(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+    Map<String, Object> actualQuery = new LinkedHashMap<>();
+    actualQuery.put("follow", true);
+    actualQuery.put("tail", 1);
+    if (query != null) {
+      actualQuery.putAll(query);
+    }
+
+    Watch watch = new Watch(container, matcher);
+    InterruptibleFuture<Void> stream = new InterruptibleFuture<>(() -> {
+      manageContainer.logs(container, actualQuery, watch, timeout);
+      // the stream might end without calling onFinished, e.g. when it has been cancelled
+      watch.onFinished();
+      return null;
+    });
+    active.incrementAndGet();
+    watch.result.whenComplete((Frame frame, Throwable failure) -> {
+      active.decrementAndGet();
+      watch.cancelStream();
+      stream.cancel(true);
+    });
+    stream.whenComplete((Void ignored, Throwable failure) -> {
+      if (failure != null) {
+        watch.result.completeExceptionally(failure);
+      }
+    });
+
+    if (timeout != null && !timeout.isZero() && !timeout.isNegative()) {
+      ScheduledFuture<?> scheduledTimeout = timeouts.schedule(
+          () -> watch.result.completeExceptionally(new TimeoutException("no matching log message of '" + container + "' within " + timeout)),
+          timeout.toMillis(), TimeUnit.MILLISECONDS);
+      watch.result.whenComplete((Frame frame, Throwable failure) -> scheduledTimeout.cancel(false));
+    }
+    try {
+      executor.execute(stream);
+    } catch (RejectedExecutionException e) {
+      watch.result.completeExceptionally(e);
+    }
+    return watch.result;
+  }
+
+  @Override
+  public void close() {
+    timeouts.shutdownNow();
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  private class Watch implements StreamCallback<Frame> {
+
+    private final String container;
+    private final Predicate<Frame> matcher;
+    private final CompletableFuture<Frame> result = new CompletableFuture<>();
+    private volatile Cancellable cancellable;
+
+    private Watch(String container, Predicate<Frame> matcher) {
+      this.container = container;
+      this.matcher = matcher;
+    }
+
+    @Override
+    public void onStarting(Cancellable cancellable) {
+      this.cancellable = cancellable;
+      if (result.isDone()) {
+        // completed before the stream has been established
+        cancelStream();
+      }
+    }
+
+    @Override
+    public void onNext(Frame frame) {
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        if (matcher.test(frame)) {
+          result.complete(frame);
+        }
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void onFailed(Exception e) {
+      if (!result.isDone()) {
+        log.debug("logs of '{}' failed", container, e);
+        result.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void onFinished() {
+      result.completeExceptionally(new NoSuchElementException("logs of '" + container + "' ended without a matching message"));
+    }
+
+    private void cancelStream() {
+      Cancellable current = cancellable;
+      if (current != null) {
+        try {
+          current.cancel();
+        } catch (RuntimeException e) {
+          log.debug("cancelling the logs of '{}' failed", container, e);
+        }
+      }
+    }
+  }
+}
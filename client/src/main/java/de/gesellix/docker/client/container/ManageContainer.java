@@ -1,6 +1,9 @@
 package de.gesellix.docker.client.container;
 
 import de.gesellix.docker.client.EngineResponseContent;
+import de.gesellix.docker.client.archive.TarOptions;
+import de.gesellix.docker.client.archive.TransferOptions;
+import de.gesellix.docker.client.archive.TransferResult;
 import de.gesellix.docker.engine.AttachConfig;
 import de.gesellix.docker.engine.EngineResponse;
 import de.gesellix.docker.remote.api.ContainerCreateRequest;
@@ -22,10 +25,17 @@ import de.gesellix.docker.remote.api.core.StreamCallback;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 public interface ManageContainer {
@@ -34,12 +44,38 @@ public interface ManageContainer {
 
   EngineResponse attach(String container, Map<String, Object> query, AttachConfig callback);
 
+  /**
+   * Attaches without looking up whether the container has been created with a TTY.
+   *
+   * @param tty whether the container has been created with a TTY, i.e. whether the stream is not multiplexed
+   */
+  default EngineResponse attach(String container, Map<String, Object> query, AttachConfig callback, boolean tty) {
+    return attach(container, query, callback);
+  }
+
   void attach(String containerId,
               String detachKeys,
               Boolean logs, Boolean stream,
               Boolean stdin, Boolean stdout, Boolean stderr,
               StreamCallback<Frame> callback, Duration timeout);
 
+  /**
+   * Attaches and copies the container's output into the given sinks until the stream ends,
+   * without creating a {@link Frame} per chunk, see {@link StreamDemultiplexer}.
+   * The query should contain <code>stream=true</code> and at least one of <code>stdout</code> or <code>stderr</code>.
+   *
+   * @param stdout receives stdout, or the raw stream of containers with a TTY; must not be <code>null</code>
+   * @param stderr <code>null</code> to discard stderr
+   * @return number of bytes copied
+   */
+  default long attach(String container, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+    throw new UnsupportedOperationException("attach to sinks is not supported by " + getClass().getName());
+  }
+
+  default long attach(String container, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+    return attach(container, query, Channels.newOutputStream(stdout), stderr == null ? null : Channels.newOutputStream(stderr));
+  }
+
   void resizeTTY(String container, Integer height, Integer width);
 
   WebSocket attachWebsocket(String container, Map<String, Object> query, WebSocketListener listener);
@@ -50,12 +86,67 @@ public interface ManageContainer {
 
   EngineResponseContent<Map<String, Object>> getArchiveStats(String container, String path);
 
+  /**
+   * Reads the whole file into memory, see {@link #extractFile(String, String, Path)} for large files.
+   */
   byte[] extractFile(String container, String filename);
 
+  /**
+   * Streams a single file out of the container, creating or replacing the target file.
+   *
+   * @return number of bytes copied
+   */
+  default long extractFile(String container, String filename, Path target) throws IOException {
+    byte[] content = extractFile(container, filename);
+    Files.write(target, content);
+    return content.length;
+  }
+
+  default long extractFile(String container, String filename, WritableByteChannel target) throws IOException {
+    byte[] content = extractFile(container, filename);
+    Channels.newOutputStream(target).write(content);
+    return content.length;
+  }
+
+  /**
+   * Streams a file or directory tree out of the container into the target directory.
+   * The archive of a directory contains the directory itself, see {@link ExtractOptions#setStripComponents(int)}.
+   *
+   * @param options <code>null</code> to extract every file and directory
+   */
+  default ExtractResult extractArchive(String container, String path, Path targetDirectory, ExtractOptions options) throws IOException {
+    throw new UnsupportedOperationException("extractArchive is not supported by " + getClass().getName());
+  }
+
   EngineResponseContent<InputStream> getArchive(String container, String path);
 
   void putArchive(String container, String path, InputStream archive);
 
+  /**
+   * Streams a local file or directory as tar archive into the container, without staging the archive.
+   *
+   * @param path    target directory in the container
+   * @param options <code>null</code> to upload the source without applying a <code>.dockerignore</code> file
+   */
+  default void putArchive(String container, String path, Path source, TarOptions options) throws IOException {
+    throw new UnsupportedOperationException("putArchive from a path is not supported by " + getClass().getName());
+  }
+
+  /**
+   * Streams a file or directory from one container into a directory of another container.
+   * The archive is uploaded while it is being downloaded, without staging it on the client's disk or heap.
+   */
+  default void copyBetweenContainers(String source, String sourcePath, String target, String targetPath) {
+    copyBetweenContainers(source, sourcePath, target, targetPath, null);
+  }
+
+  /**
+   * @param options <code>null</code> to copy the archive as it is, otherwise entries are rewritten on the fly with a bounded buffer
+   */
+  default void copyBetweenContainers(String source, String sourcePath, String target, String targetPath, CopyOptions options) {
+    throw new UnsupportedOperationException("copyBetweenContainers is not supported by " + getClass().getName());
+  }
+
   EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest);
 
   EngineResponseContent<ContainerCreateResponse> createContainer(ContainerCreateRequest containerCreateRequest, String name);
@@ -68,6 +159,15 @@ public interface ManageContainer {
 
   void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig);
 
+  /**
+   * Starts the exec without looking up whether it has been created with a TTY.
+   *
+   * @param tty whether the exec has been created with a TTY, i.e. whether the stream is not multiplexed
+   */
+  default void startExec(String execId, ExecStartConfig execStartConfig, AttachConfig attachConfig, boolean tty) {
+    startExec(execId, execStartConfig, attachConfig);
+  }
+
   void startExec(String execId, ExecStartConfig execStartConfig, StreamCallback<Frame> callback, Duration timeout);
 
   EngineResponseContent<ExecInspectResponse> inspectExec(String execId);
@@ -80,14 +180,55 @@ public interface ManageContainer {
 
   EngineResponseContent<InputStream> export(String container);
 
+  /**
+   * Streams the container's filesystem into a tar file, computing its SHA-256 digest while writing.
+   *
+   * @param options <code>null</code> for an uncompressed file, see {@link TransferOptions#setGzip(boolean)}
+   */
+  default TransferResult exportTo(String container, Path target, TransferOptions options) throws IOException {
+    throw new UnsupportedOperationException("exportTo is not supported by " + getClass().getName());
+  }
+
   EngineResponseContent<ContainerInspectResponse> inspectContainer(String container);
 
   void kill(String container);
 
   void logs(String container, Map<String, Object> query, StreamCallback<Frame> callback, Duration timeout);
 
+  /**
+   * Copies the logs into the given sinks until the stream ends,
+   * without creating a {@link Frame} per line, see {@link StreamDemultiplexer}.
+   * Supports the same query parameters as {@link #logs(String, Map, StreamCallback, Duration)}.
+   * Followed logs end when the container stops, or when a sink fails, e.g. because it has been closed.
+   *
+   * @param stdout receives stdout, or the raw stream of containers with a TTY; must not be <code>null</code>
+   * @param stderr <code>null</code> to discard stderr
+   * @return number of bytes copied
+   */
+  default long logs(String container, Map<String, Object> query, OutputStream stdout, OutputStream stderr) throws IOException {
+    throw new UnsupportedOperationException("logs to sinks are not supported by " + getClass().getName());
+  }
+
+  default long logs(String container, Map<String, Object> query, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+    return logs(container, query, Channels.newOutputStream(stdout), stderr == null ? null : Channels.newOutputStream(stderr));
+  }
+
+  /**
+   * Blocks until a log frame matches or the timeout has been reached, see {@link #watchLogs(String, Map, Predicate, Duration)}.
+   */
   void waitForLogEvent(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout);
 
+  /**
+   * Follows the logs until the first frame matching the predicate, see {@link LogMatchers}.
+   * The stream is closed as soon as the returned future completes, so that many containers can be watched concurrently.
+   *
+   * @param query not modified, defaults to <code>follow=true</code> and <code>tail=1</code>
+   * @see LogWatcher
+   */
+  default CompletableFuture<Frame> watchLogs(String container, Map<String, Object> query, Predicate<Frame> matcher, Duration timeout) {
+    throw new UnsupportedOperationException("watchLogs is not supported by " + getClass().getName());
+  }
+
   EngineResponseContent<List<Map<String, Object>>> ps(Map<String, Object> query);
 
   EngineResponseContent<List<Map<String, Object>>> ps();
@@ -0,0 +1,92 @@
+package de.gesellix.docker.client.container;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the last <code>capacity</code> bytes written, e.g. the tail of a command's output.
+ * Older bytes are overwritten, so memory usage doesn't depend on the amount of output.
+ */
+public class OutputRingBuffer {
+
+  private final byte[] buffer;
+  private int position;
+  private long totalBytes;
+
+  public OutputRingBuffer(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative, but was " + capacity);
+    }
+    this.buffer = new byte[capacity];
+  }
+
+  public synchronized void write(byte[] bytes) {
+    if (bytes != null) {
+      write(bytes, 0, bytes.length);
+    }
+  }
+
+  public synchronized void write(byte[] bytes, int offset, int length) {
+    totalBytes += length;
+    int capacity = buffer.length;
+    if (capacity == 0) {
+      return;
+    }
+    if (length >= capacity) {
+      // only the tail survives
+      System.arraycopy(bytes, offset + length - capacity, buffer, 0, capacity);
+      position = 0;
+      return;
+    }
+    int first = Math.min(length, capacity - position);
+    System.arraycopy(bytes, offset, buffer, position, first);
+    System.arraycopy(bytes, offset + first, buffer, 0, length - first);
+    position = (position + length) % capacity;
+  }
+
+  /**
+   * @return the retained bytes in the order they have been written
+   */
+  public synchronized byte[] toByteArray() {
+    int size = (int) Math.min(totalBytes, buffer.length);
+    byte[] copy = new byte[size];
+    if (size < buffer.length) {
+      System.arraycopy(buffer, 0, copy, 0, size);
+    } else {
+      int tail = buffer.length - position;
+      System.arraycopy(buffer, position, copy, 0, tail);
+      System.arraycopy(buffer, 0, copy, tail, position);
+    }
+    return copy;
+  }
+
+  public String toString(Charset charset) {
+    return new String(toByteArray(), charset);
+  }
+
+  /**
+   * @return the retained output as UTF-8. The first character might be garbled when the buffer has overflowed.
+   */
+  @Override
+  public String toString() {
+    return toString(StandardCharsets.UTF_8);
+  }
+
+  public int getCapacity() {
+    return buffer.length;
+  }
+
+  /**
+   * @return number of bytes written, including the overwritten ones
+   */
+  public synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /**
+   * @return <code>true</code> if older output has been dropped
+   */
+  public synchronized boolean isTruncated() {
+    return totalBytes > buffer.length;
+  }
+}
@@ -0,0 +1,215 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.util.ByteBufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copies the multiplexed stdout/stderr stream of <code>logs</code>, <code>attach</code> or
+ * <code>exec</code> into separate sinks, without creating an object per frame.
+ * <p>
+ * Each frame consists of an 8 byte header, containing the stream type and the payload size,
+ * followed by the payload. Payloads are copied via pooled buffers, so that the allocation rate
+ * doesn't depend on the amount of output. Containers with a TTY produce a raw stream instead,
+ * see {@link #copy(InputStream, OutputStream)}.
+ * <p>
+ * Instances are thread-safe and are meant to be shared.
+ */
+public class StreamDemultiplexer {
+
+  private static final int HEADER_SIZE = 8;
+
+  private static final int MAX_MESSAGE_SIZE = 64 * 1024;
+
+  private static final int STREAM_STDIN = 0;
+  private static final int STREAM_STDOUT = 1;
+  private static final int STREAM_STDERR = 2;
+  private static final int STREAM_SYSTEMERR = 3;
+
+  private final ByteBufferPool buffers;
+
+  public StreamDemultiplexer() {
+    this(new ByteBufferPool());
+  }
+
+  public StreamDemultiplexer(ByteBufferPool buffers) {
+    this.buffers = buffers;
+  }
+
+  /**
+   * Output streams are flushed whenever the input has no more buffered bytes,
+   * so that followed logs don't get stuck in buffered sinks.
+   *
+   * @param stdout receives stdout and stdin frames, <code>null</code> to discard them
+   * @param stderr receives stderr frames, <code>null</code> to discard them
+   * @return number of payload bytes read
+   * @throws IOException when the daemon reports an error via the stream, or on a truncated frame
+   */
+  public long demultiplex(InputStream in, OutputStream stdout, OutputStream stderr) throws IOException {
+    return demultiplex(in, sink(stdout), sink(stderr));
+  }
+
+  public long demultiplex(InputStream in, WritableByteChannel stdout, WritableByteChannel stderr) throws IOException {
+    return demultiplex(in, sink(stdout), sink(stderr));
+  }
+
+  /**
+   * Copies a raw stream, i.e. the output of a container or exec with a TTY.
+   *
+   * @return number of bytes read
+   */
+  public long copy(InputStream in, OutputStream out) throws IOException {
+    return copy(in, sink(out));
+  }
+
+  public long copy(InputStream in, WritableByteChannel out) throws IOException {
+    return copy(in, sink(out));
+  }
+
+  private long demultiplex(InputStream in, Sink stdout, Sink stderr) throws IOException {
+    byte[] header = new byte[HEADER_SIZE];
+    ByteBuffer buffer = buffers.acquire();
+    byte[] array = buffer.array();
+    long total = 0;
+    try {
+      while (readHeader(in, header)) {
+        int streamType = header[0] & 0xff;
+        long remaining = ((header[4] & 0xffL) << 24)
+                         | ((header[5] & 0xffL) << 16)
+                         | ((header[6] & 0xffL) << 8)
+                         | (header[7] & 0xffL);
+        Sink sink;
+        switch (streamType) {
+          case STREAM_STDIN:
+          case STREAM_STDOUT:
+            sink = stdout;
+            break;
+          case STREAM_STDERR:
+            sink = stderr;
+            break;
+          case STREAM_SYSTEMERR:
+            throw new IOException("daemon reported an error: " + readMessage(in, remaining));
+          default:
+            throw new IOException("unexpected stream type " + streamType);
+        }
+        while (remaining > 0) {
+          int count = in.read(array, 0, (int) Math.min(array.length, remaining));
+          if (count < 0) {
+            throw new EOFException("stream ended within a frame, " + remaining + " bytes missing");
+          }
+          sink.write(buffer, count);
+          remaining -= count;
+          total += count;
+        }
+        if (in.available() == 0) {
+          stdout.flush();
+          stderr.flush();
+        }
+      }
+      stdout.flush();
+      stderr.flush();
+      return total;
+    } finally {
+      buffers.release(buffer);
+    }
+  }
+
+  private long copy(InputStream in, Sink out) throws IOException {
+    ByteBuffer buffer = buffers.acquire();
+    byte[] array = buffer.array();
+    long total = 0;
+    try {
+      int count;
+      while ((count = in.read(array, 0, array.length)) >= 0) {
+        out.write(buffer, count);
+        total += count;
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+      out.flush();
+      return total;
+    } finally {
+      buffers.release(buffer);
+    }
+  }
+
+  /**
+   * @return <code>false</code> if the stream ended before the next frame
+   */
+  private boolean readHeader(InputStream in, byte[] header) throws IOException {
+    int offset = 0;
+    while (offset < header.length) {
+      int count = in.read(header, offset, header.length - offset);
+      if (count < 0) {
+        if (offset == 0) {
+          return false;
+        }
+        throw new EOFException("stream ended within a frame header");
+      }
+      offset += count;
+    }
+    return true;
+  }
+
+  private String readMessage(InputStream in, long size) throws IOException {
+    byte[] array = new byte[(int) Math.min(MAX_MESSAGE_SIZE, size)];
+    int length = array.length;
+    int offset = 0;
+    while (offset < length) {
+      int count = in.read(array, offset, length - offset);
+      if (count < 0) {
+        break;
+      }
+      offset += count;
+    }
+    return new String(array, 0, offset, StandardCharsets.UTF_8).trim();
+  }
+
+  private static Sink sink(OutputStream out) {
+    if (out == null) {
+      return Sink.DISCARD;
+    }
+    return new Sink() {
+      @Override
+      public void write(ByteBuffer buffer, int length) throws IOException {
+        out.write(buffer.array(), 0, length);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        out.flush();
+      }
+    };
+  }
+
+  private static Sink sink(WritableByteChannel channel) {
+    if (channel == null) {
+      return Sink.DISCARD;
+    }
+    return (ByteBuffer buffer, int length) -> {
+      buffer.clear();
+      buffer.limit(length);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    };
+  }
+
+  private interface Sink {
+
+    Sink DISCARD = (ByteBuffer buffer, int length) -> {
+    };
+
+    void write(ByteBuffer buffer, int length) throws IOException;
+
+    default void flush() throws IOException {
+    }
+  }
+}
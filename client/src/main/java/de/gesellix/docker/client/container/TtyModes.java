@@ -0,0 +1,193 @@
+package de.gesellix.docker.client.container;
+
+import de.gesellix.docker.client.filters.Filters;
+import de.gesellix.docker.client.system.SystemEventsRequest;
+import de.gesellix.docker.remote.api.EventMessage;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers whether containers and execs have been created with a TTY,
+ * so that attaching to them doesn't need an inspect request to find out whether the stream is multiplexed.
+ * <p>
+ * Modes are taken from the create requests or from the first inspect. They are only remembered by full container id,
+ * because names and short ids can be reused by another container with a different TTY setting.
+ * Names are remembered as aliases of their container id, so that removing a container by name
+ * evicts its id as well. Entries are evicted when the container is removed via this client or when the daemon reports a
+ * <code>destroy</code> event, see {@link #getEventsRequest()} and {@link #getEventCallback()}.
+ * Following the events is opt-in, nothing subscribes them implicitly.
+ * All maps are bounded, least recently used entries are evicted first.
+ */
+public class TtyModes {
+
+  private final Logger log = LoggerFactory.getLogger(TtyModes.class);
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  private static final Pattern CONTAINER_ID = Pattern.compile("[0-9a-f]{64}");
+
+  private final Map<String, Boolean> containers;
+  // name or short id -> full container id, only used to evict the full id
+  private final Map<String, String> aliases;
+  private final Map<String, Boolean> execs;
+
+  public TtyModes() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  public TtyModes(int maxEntries) {
+    this.containers = boundedMap(maxEntries);
+    this.aliases = boundedMap(maxEntries);
+    this.execs = boundedMap(maxEntries);
+  }
+
+  /**
+   * @return <code>null</code> if the mode is unknown or the container isn't addressed by its full id
+   */
+  public Boolean getContainerTty(String containerId) {
+    return isContainerId(containerId) ? containers.get(containerId) : null;
+  }
+
+  /**
+   * Ignores anything but full container ids, see {@link #rememberAlias(String, String)} for names.
+   */
+  public void rememberContainer(String containerId, Boolean tty) {
+    if (isContainerId(containerId) && tty != null) {
+      containers.put(containerId, tty);
+    }
+  }
+
+  /**
+   * @param nameOrShortId e.g. the name given to the create request
+   */
+  public void rememberAlias(String nameOrShortId, String containerId) {
+    if (nameOrShortId != null && !nameOrShortId.isEmpty() && isContainerId(containerId)) {
+      String alias = normalizeName(nameOrShortId);
+      if (!alias.equals(containerId)) {
+        aliases.put(alias, containerId);
+      }
+    }
+  }
+
+  /**
+   * Evicts the container and all of its aliases.
+   */
+  public void forgetContainer(String containerIdOrName) {
+    if (containerIdOrName == null) {
+      return;
+    }
+    String key = normalizeName(containerIdOrName);
+    String aliased = aliases.remove(key);
+    String containerId = aliased != null ? aliased : key;
+    containers.remove(containerId);
+    aliases.values().removeIf(containerId::equals);
+  }
+
+  /**
+   * @return <code>null</code> if the mode is unknown
+   */
+  public Boolean getExecTty(String execId) {
+    return execId == null ? null : execs.get(execId);
+  }
+
+  public void rememberExec(String execId, Boolean tty) {
+    if (execId != null && tty != null) {
+      execs.put(execId, tty);
+    }
+  }
+
+  public void forgetExec(String execId) {
+    if (execId != null) {
+      execs.remove(execId);
+    }
+  }
+
+  public void clear() {
+    containers.clear();
+    aliases.clear();
+    execs.clear();
+  }
+
+  /**
+   * Container <code>destroy</code> events evict the container by id and name,
+   * <code>exec_die</code> events evict the exec, which can't be started anymore.
+   */
+  public void onEvent(EventMessage event) {
+    if (event == null || event.getType() == null || event.getActor() == null
+        || !"container".equals(event.getType().getValue()) || event.getAction() == null) {
+      return;
+    }
+    Map<String, String> attributes = event.getActor().getAttributes();
+    if ("destroy".equals(event.getAction())) {
+      forgetContainer(event.getActor().getID());
+      if (attributes != null) {
+        forgetContainer(attributes.get("name"));
+      }
+    } else if (event.getAction().startsWith("exec_die") && attributes != null) {
+      forgetExec(attributes.get("execID"));
+    }
+  }
+
+  /**
+   * @return a request for only those events which evict entries
+   */
+  public SystemEventsRequest getEventsRequest() {
+    return new SystemEventsRequest(null, null, Filters.builder().type("container").add("event", "destroy", "exec_die").build().toJson());
+  }
+
+  /**
+   * @return a callback for {@link de.gesellix.docker.client.system.ManageSystem#events(SystemEventsRequest, StreamCallback, java.time.Duration)}
+   * which evicts removed containers
+   */
+  public StreamCallback<EventMessage> getEventCallback() {
+    return new StreamCallback<EventMessage>() {
+
+      @Override
+      public void onStarting(Cancellable cancellable) {
+        // containers might have been replaced while not being subscribed
+        clear();
+      }
+
+      @Override
+      public void onNext(EventMessage element) {
+        onEvent(element);
+      }
+
+      @Override
+      public void onFailed(Exception e) {
+        log.debug("events stream failed, forgetting tty modes", e);
+        clear();
+      }
+
+      @Override
+      public void onFinished() {
+        clear();
+      }
+    };
+  }
+
+  private static boolean isContainerId(String containerId) {
+    return containerId != null && CONTAINER_ID.matcher(containerId).matches();
+  }
+
+  private static String normalizeName(String containerIdOrName) {
+    return containerIdOrName.startsWith("/") ? containerIdOrName.substring(1) : containerIdOrName;
+  }
+
+  private static <V> Map<String, V> boundedMap(int maxEntries) {
+    return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+}
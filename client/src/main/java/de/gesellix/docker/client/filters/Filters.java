@@ -0,0 +1,270 @@
+package de.gesellix.docker.client.filters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable filters for the list endpoints, e.g. <code>ps</code>, <code>services</code> or <code>tasks</code>.
+ * <p>
+ * The JSON representation expected by the Docker engine is computed once,
+ * so that an instance can be reused for every request of a polling loop:
+ * <pre>
+ * Filters running = Filters.builder().label("com.example.team=backend").status("running").build();
+ * dockerClient.ps(true, null, false, running.toJson());
+ * </pre>
+ * Instances can also be passed as <code>filters</code> entry to the Map based methods.
+ */
+public final class Filters {
+
+  private static final Filters EMPTY = new Builder().build();
+
+  private final Map<String, List<String>> values;
+  private final String json;
+
+  private Filters(Map<String, Set<String>> values) {
+    Map<String, List<String>> copy = new LinkedHashMap<>();
+    values.forEach((String key, Set<String> keyValues) -> copy.put(key, Collections.unmodifiableList(new ArrayList<>(keyValues))));
+    this.values = Collections.unmodifiableMap(copy);
+    this.json = FiltersJsonWriter.write(this.values);
+  }
+
+  public static Filters empty() {
+    return EMPTY;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return a builder initialized with the current filters, e.g. to add a single filter to a shared base
+   */
+  public Builder toBuilder() {
+    Builder builder = new Builder();
+    values.forEach(builder::add);
+    return builder;
+  }
+
+  /**
+   * @return the filter values by filter name, e.g. <code>label</code> or <code>status</code>
+   */
+  public Map<String, List<String>> getValues() {
+    return values;
+  }
+
+  public List<String> get(String name) {
+    List<String> found = values.get(name);
+    return found == null ? Collections.emptyList() : found;
+  }
+
+  public boolean isEmpty() {
+    return values.isEmpty();
+  }
+
+  /**
+   * @return the precomputed JSON, e.g. <code>{"label":{"a=b":true},"status":{"running":true}}</code>
+   */
+  public String toJson() {
+    return json;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {return true;}
+    if (o == null || getClass() != o.getClass()) {return false;}
+    Filters filters = (Filters) o;
+    return json.equals(filters.json);
+  }
+
+  @Override
+  public int hashCode() {
+    return json.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return json;
+  }
+
+  public static final class Builder {
+
+    private final Map<String, Set<String>> values = new LinkedHashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Adds values for an arbitrary filter name. Values of the same name are combined.
+     */
+    public Builder add(String name, String... values) {
+      for (String value : values) {
+        addValue(name, value);
+      }
+      return this;
+    }
+
+    public Builder add(String name, Collection<String> values) {
+      for (String value : values) {
+        addValue(name, value);
+      }
+      return this;
+    }
+
+    /**
+     * Replaces all values of the given filter name.
+     */
+    public Builder set(String name, String... values) {
+      this.values.remove(name);
+      return add(name, values);
+    }
+
+    public Builder set(String name, Collection<String> values) {
+      this.values.remove(name);
+      return add(name, values);
+    }
+
+    public Builder remove(String name) {
+      values.remove(name);
+      return this;
+    }
+
+    private void addValue(String name, String value) {
+      if (name == null || value == null) {
+        throw new IllegalArgumentException("filter name and value must not be null, but got " + name + "=" + value);
+      }
+      values.computeIfAbsent(name, (String key) -> new LinkedHashSet<>()).add(value);
+    }
+
+    /**
+     * @param labels either <code>key</code> or <code>key=value</code>
+     */
+    public Builder label(String... labels) {
+      return add("label", labels);
+    }
+
+    public Builder id(String... ids) {
+      return add("id", ids);
+    }
+
+    public Builder name(String... names) {
+      return add("name", names);
+    }
+
+    /**
+     * @param statuses container status, e.g. <code>running</code> or <code>exited</code>
+     */
+    public Builder status(String... statuses) {
+      return add("status", statuses);
+    }
+
+    public Builder exited(int exitCode) {
+      return add("exited", Integer.toString(exitCode));
+    }
+
+    public Builder health(String... health) {
+      return add("health", health);
+    }
+
+    public Builder ancestor(String... images) {
+      return add("ancestor", images);
+    }
+
+    public Builder before(String reference) {
+      return add("before", reference);
+    }
+
+    public Builder since(String reference) {
+      return add("since", reference);
+    }
+
+    public Builder volume(String... volumes) {
+      return add("volume", volumes);
+    }
+
+    public Builder network(String... networks) {
+      return add("network", networks);
+    }
+
+    public Builder publish(String... ports) {
+      return add("publish", ports);
+    }
+
+    public Builder expose(String... ports) {
+      return add("expose", ports);
+    }
+
+    public Builder isTask(boolean isTask) {
+      return add("is-task", Boolean.toString(isTask));
+    }
+
+    public Builder dangling(boolean dangling) {
+      return add("dangling", Boolean.toString(dangling));
+    }
+
+    public Builder reference(String... references) {
+      return add("reference", references);
+    }
+
+    public Builder driver(String... drivers) {
+      return add("driver", drivers);
+    }
+
+    public Builder scope(String... scopes) {
+      return add("scope", scopes);
+    }
+
+    public Builder type(String... types) {
+      return add("type", types);
+    }
+
+    /**
+     * @param modes service mode, <code>replicated</code> or <code>global</code>
+     */
+    public Builder mode(String... modes) {
+      return add("mode", modes);
+    }
+
+    /**
+     * @param services service names or ids, e.g. for <code>tasks</code>
+     */
+    public Builder service(String... services) {
+      return add("service", services);
+    }
+
+    /**
+     * @param nodes node names or ids, or <code>self</code>
+     */
+    public Builder node(String... nodes) {
+      return add("node", nodes);
+    }
+
+    public Builder desiredState(String... states) {
+      return add("desired-state", states);
+    }
+
+    /**
+     * @param roles node role, <code>manager</code> or <code>worker</code>
+     */
+    public Builder role(String... roles) {
+      return add("role", roles);
+    }
+
+    public Builder membership(String... memberships) {
+      return add("membership", memberships);
+    }
+
+    public Builder until(String timestamp) {
+      return add("until", timestamp);
+    }
+
+    public Filters build() {
+      return new Filters(values);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package de.gesellix.docker.client.filters;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes filters in the format of the engine's <code>filters.Args</code>,
+ * e.g. <code>{"label":{"a=b":true}}</code>, which is understood by all API versions.
+ */
+final class FiltersJsonWriter {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private FiltersJsonWriter() {
+  }
+
+  static String write(Map<String, List<String>> filters) {
+    StringBuilder json = new StringBuilder(16 + filters.size() * 32);
+    json.append('{');
+    boolean firstName = true;
+    for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+      if (!firstName) {
+        json.append(',');
+      }
+      firstName = false;
+      writeString(json, filter.getKey());
+      json.append(":{");
+      boolean firstValue = true;
+      for (String value : filter.getValue()) {
+        if (!firstValue) {
+          json.append(',');
+        }
+        firstValue = false;
+        writeString(json, value);
+        json.append(":true");
+      }
+      json.append('}');
+    }
+    json.append('}');
+    return json.toString();
+  }
+
+  static void writeString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          // line and paragraph separators are valid JSON, but break JavaScript parsers
+          if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+            json.append("\\u").append(HEX[c >> 12 & 0xf]).append(HEX[c >> 8 & 0xf]).append(HEX[c >> 4 & 0xf]).append(HEX[c & 0xf]);
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+}
@@ -0,0 +1,300 @@
+package de.gesellix.docker.client.image;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import de.gesellix.docker.client.archive.ContextDigest;
+import de.gesellix.docker.client.archive.TarOptions;
+import de.gesellix.docker.client.archive.TarProducer;
+import de.gesellix.docker.remote.api.BuildInfo;
+import de.gesellix.docker.remote.api.ImageID;
+import de.gesellix.docker.remote.api.client.BuildInfoExtensionsKt;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.ClientException;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skips image builds whose inputs haven't changed since a previous successful build.
+ * <p>
+ * A build is identified by the {@link ContextDigest digest} of its context, the Dockerfile path, the tag, the build args
+ * and the ids of base images which have been built before, e.g. by a {@link BuildOrchestrator}.
+ * When a previous build with the same inputs produced an image which still exists locally,
+ * the image is tagged again and neither the context is uploaded nor the image built.
+ * File digests and image ids are kept in the cache directory, so that they survive restarts.
+ * Without a cache directory, every image is built:
+ * <pre>
+ * try (BuildCache cache = new BuildCache(dockerClient, Paths.get(".docker-build-cache"))) {
+ *   CachedBuild build = cache.build(Paths.get("services/web"), "Dockerfile", "web:latest", buildArgs, null, callback, Duration.ofMinutes(10));
+ * }
+ * </pre>
+ */
+public class BuildCache implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(BuildCache.class);
+
+  private static final String BUILDS_FILE = "builds.properties";
+  private static final JsonAdapter<Map<String, String>> BUILD_ARGS =
+      new Moshi.Builder().build().adapter(Types.newParameterizedType(Map.class, String.class, String.class));
+
+  private final ManageImage manageImage;
+  private final Path cacheDirectory;
+  private final TarProducer tarProducer;
+  private final boolean ownsTarProducer;
+
+  /**
+   * @param cacheDirectory <code>null</code> to always build
+   */
+  public BuildCache(ManageImage manageImage, Path cacheDirectory) {
+    this(manageImage, cacheDirectory, new TarProducer(), true);
+  }
+
+  public BuildCache(ManageImage manageImage, Path cacheDirectory, TarProducer tarProducer) {
+    this(manageImage, cacheDirectory, tarProducer, false);
+  }
+
+  private BuildCache(ManageImage manageImage, Path cacheDirectory, TarProducer tarProducer, boolean ownsTarProducer) {
+    this.manageImage = manageImage;
+    this.cacheDirectory = cacheDirectory;
+    this.tarProducer = tarProducer;
+    this.ownsTarProducer = ownsTarProducer;
+  }
+
+  /**
+   * Builds the image, unless a previous build with the same inputs can be reused.
+   * The callback isn't called for skipped builds.
+   *
+   * @param dockerfile path relative to the context, <code>null</code> for <code>Dockerfile</code>
+   * @param buildArgs  <code>null</code> for no build args
+   * @param options    <code>null</code> for the defaults
+   * @throws IllegalStateException when the build fails
+   */
+  public CachedBuild build(Path context, String dockerfile, String tag, Map<String, String> buildArgs,
+                           TarOptions options, StreamCallback<BuildInfo> callback, Duration timeout) throws IOException {
+    return build(context, dockerfile, tag, buildArgs, null, options, callback, timeout);
+  }
+
+  /**
+   * Like {@link #build(Path, String, String, Map, TarOptions, StreamCallback, Duration)}, but reuses a previous build
+   * only when the given base images haven't changed, too.
+   *
+   * @param baseImageIds image ids by the references the Dockerfile uses, <code>null</code> for none
+   */
+  public CachedBuild build(Path context, String dockerfile, String tag, Map<String, String> buildArgs, Map<String, String> baseImageIds,
+                           TarOptions options, StreamCallback<BuildInfo> callback, Duration timeout) throws IOException {
+    String actualDockerfile = dockerfile == null ? "Dockerfile" : dockerfile;
+    TarOptions actualOptions = options == null ? new TarOptions().setDockerfile(actualDockerfile) : options;
+    Map<String, String> sortedBuildArgs = buildArgs == null ? new TreeMap<>() : new TreeMap<>(buildArgs);
+    Map<String, String> sortedBaseImageIds = baseImageIds == null ? new TreeMap<>() : new TreeMap<>(baseImageIds);
+
+    String contextDigest = null;
+    String key = null;
+    if (cacheDirectory != null) {
+      contextDigest = new ContextDigest(digestCacheFile(context)).digest(context, actualOptions);
+      key = buildKey(contextDigest, actualDockerfile, tag, sortedBuildArgs, sortedBaseImageIds);
+    }
+
+    String previousImageId = key == null ? null : previousBuilds().getProperty(key);
+    if (previousImageId != null && imageExists(previousImageId)) {
+      log.info("reusing image {} for unchanged context '{}'", previousImageId, context);
+      if (tag != null) {
+        manageImage.tag(previousImageId, tag);
+      }
+      return new CachedBuild(previousImageId, contextDigest, true);
+    }
+
+    BuildResultCallback result = new BuildResultCallback(callback);
+    String imageId;
+    // the build runs asynchronously, so the archive must stay open until it has finished
+    try (InputStream archive = tarProducer.open(context, actualOptions)) {
+      manageImage.build(result, timeout,
+                        dockerfile, tag, null, null, null, null,
+                        sortedBuildArgs.isEmpty() ? null : BUILD_ARGS.toJson(sortedBuildArgs), null, null, null,
+                        archive);
+      imageId = result.await(timeout);
+    }
+    if (imageId == null && tag != null) {
+      imageId = manageImage.inspectImage(tag).getContent().getId();
+    }
+    if (imageId == null) {
+      throw new IllegalStateException("build of '" + context + "' didn't report an image id");
+    }
+    if (key != null) {
+      rememberBuild(key, imageId);
+    }
+    return new CachedBuild(imageId, contextDigest, false);
+  }
+
+  @Override
+  public void close() {
+    if (ownsTarProducer) {
+      tarProducer.close();
+    }
+  }
+
+  private boolean imageExists(String imageId) {
+    try {
+      manageImage.inspectImage(imageId);
+      return true;
+    } catch (ClientException e) {
+      if (e.getStatusCode() == 404) {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  private Path digestCacheFile(Path context) {
+    String contextKey = sha256(context.toAbsolutePath().normalize().toString());
+    return cacheDirectory.resolve("contexts").resolve(contextKey + ".files");
+  }
+
+  static String buildKey(String contextDigest, String dockerfile, String tag, Map<String, String> sortedBuildArgs,
+                         Map<String, String> sortedBaseImageIds) {
+    StringBuilder inputs = new StringBuilder()
+        .append("context ").append(contextDigest).append('\n')
+        .append("dockerfile ").append(dockerfile).append('\n')
+        .append("tag ").append(tag).append('\n');
+    sortedBuildArgs.forEach((String name, String value) -> inputs.append("arg ").append(name).append('=').append(value).append('\n'));
+    sortedBaseImageIds.forEach((String image, String id) -> inputs.append("base ").append(image).append('=').append(id).append('\n'));
+    return sha256(inputs.toString());
+  }
+
+  private static String sha256(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance(ContextDigest.ALGORITHM).digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private synchronized Properties previousBuilds() throws IOException {
+    Properties builds = new Properties();
+    Path file = cacheDirectory.resolve(BUILDS_FILE);
+    if (Files.isRegularFile(file)) {
+      try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        builds.load(reader);
+      }
+    }
+    return builds;
+  }
+
+  private synchronized void rememberBuild(String key, String imageId) throws IOException {
+    Properties builds = previousBuilds();
+    builds.setProperty(key, imageId);
+    Files.createDirectories(cacheDirectory);
+    Path temp = Files.createTempFile(cacheDirectory, BUILDS_FILE, ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      builds.store(writer, null);
+    }
+    Files.move(temp, cacheDirectory.resolve(BUILDS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Forwards to the caller's callback, remembering the image id and errors.
+   */
+  private static class BuildResultCallback implements StreamCallback<BuildInfo> {
+
+    private final StreamCallback<BuildInfo> delegate;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile String imageId;
+    private volatile String error;
+    private volatile Exception failure;
+    private volatile Cancellable cancellable;
+
+    private BuildResultCallback(StreamCallback<BuildInfo> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void onStarting(Cancellable cancellable) {
+      this.cancellable = cancellable;
+      if (delegate != null) {
+        delegate.onStarting(cancellable);
+      }
+    }
+
+    @Override
+    public void onNext(BuildInfo element) {
+      if (element != null) {
+        if (element.getError() != null) {
+          error = element.getError();
+        }
+        ImageID id = BuildInfoExtensionsKt.getImageId(Collections.singletonList(element));
+        if (id != null && id.getID() != null) {
+          imageId = id.getID();
+        }
+      }
+      if (delegate != null) {
+        delegate.onNext(element);
+      }
+    }
+
+    @Override
+    public void onFailed(Exception e) {
+      failure = e;
+      done.countDown();
+      if (delegate != null) {
+        delegate.onFailed(e);
+      }
+    }
+
+    @Override
+    public void onFinished() {
+      done.countDown();
+      if (delegate != null) {
+        delegate.onFinished();
+      }
+    }
+
+    private String await(Duration timeout) {
+      try {
+        if (!done.await(timeout == null ? Long.MAX_VALUE : timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+          if (cancellable != null) {
+            cancellable.cancel();
+          }
+          throw new IllegalStateException("build didn't finish within " + timeout);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (cancellable != null) {
+          cancellable.cancel();
+        }
+        throw new IllegalStateException("interrupted while waiting for the build", e);
+      }
+      if (failure != null) {
+        throw new IllegalStateException("build failed", failure);
+      }
+      if (error != null) {
+        throw new IllegalStateException("build failed: " + error);
+      }
+      return imageId;
+    }
+  }
+}
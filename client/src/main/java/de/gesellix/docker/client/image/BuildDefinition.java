@@ -0,0 +1,77 @@
+package de.gesellix.docker.client.image;
+
+import de.gesellix.docker.client.archive.TarOptions;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An image to be built by a {@link BuildOrchestrator}.
+ */
+public class BuildDefinition {
+
+  private final String tag;
+  private final Path context;
+  private String dockerfile = "Dockerfile";
+  private final Map<String, String> buildArgs = new LinkedHashMap<>();
+  private TarOptions options;
+
+  /**
+   * @param tag identifies the image, also when other images are built <code>FROM</code> it
+   */
+  public BuildDefinition(String tag, Path context) {
+    if (tag == null || tag.isEmpty()) {
+      throw new IllegalArgumentException("tag must not be empty");
+    }
+    this.tag = tag;
+    this.context = context;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+
+  public Path getContext() {
+    return context;
+  }
+
+  public String getDockerfile() {
+    return dockerfile;
+  }
+
+  /**
+   * @param dockerfile path relative to the context
+   */
+  public BuildDefinition setDockerfile(String dockerfile) {
+    this.dockerfile = dockerfile == null ? "Dockerfile" : dockerfile;
+    return this;
+  }
+
+  public Map<String, String> getBuildArgs() {
+    return Collections.unmodifiableMap(buildArgs);
+  }
+
+  public BuildDefinition buildArg(String name, String value) {
+    buildArgs.put(name, value);
+    return this;
+  }
+
+  public TarOptions getOptions() {
+    return options;
+  }
+
+  /**
+   * @param options <code>null</code> for the defaults
+   */
+  public BuildDefinition setOptions(TarOptions options) {
+    this.options = options;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "BuildDefinition{tag='" + tag + "', context=" + context + ", dockerfile='" + dockerfile + "'}";
+  }
+}
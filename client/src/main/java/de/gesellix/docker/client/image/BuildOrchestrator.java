@@ -0,0 +1,481 @@
+package de.gesellix.docker.client.image;
+
+import de.gesellix.docker.remote.api.BuildInfo;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.DefaultExecutors;
+import de.gesellix.util.InterruptibleFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Builds many images concurrently, building base images before the images depending on them.
+ * <p>
+ * Dependencies are derived from the Dockerfiles: an image depends on another definition
+ * when one of its stages is built <code>FROM</code>, or copies <code>--from</code>, that definition's tag.
+ * At most <code>concurrency</code> builds run at the same time.
+ * When a build fails, the images depending on it aren't built, while independent builds continue.
+ * The {@link BuildCache} reuses an image only when the base images it depends on have the same ids as before.
+ * <pre>
+ * try (BuildOrchestrator orchestrator = new BuildOrchestrator(new BuildCache(dockerClient, cacheDirectory), 4)) {
+ *   BuildReport report = orchestrator.buildAll(definitions, callback, Duration.ofMinutes(10));
+ * }
+ * </pre>
+ */
+public class BuildOrchestrator implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(BuildOrchestrator.class);
+
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  private final BuildCache buildCache;
+  private final boolean ownsBuildCache;
+  private final int concurrency;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  /**
+   * Builds every image, without a persistent {@link BuildCache}.
+   */
+  public BuildOrchestrator(ManageImage manageImage) {
+    this(new BuildCache(manageImage, null), true, DEFAULT_CONCURRENCY, DefaultExecutors.newTaskExecutor("docker-client-build"), true);
+  }
+
+  public BuildOrchestrator(BuildCache buildCache, int concurrency) {
+    this(buildCache, false, concurrency, DefaultExecutors.newTaskExecutor("docker-client-build"), true);
+  }
+
+  /**
+   * @param executor runs one blocking task per running build
+   */
+  public BuildOrchestrator(BuildCache buildCache, int concurrency, Executor executor) {
+    this(buildCache, false, concurrency, executor, false);
+  }
+
+  private BuildOrchestrator(BuildCache buildCache, boolean ownsBuildCache, int concurrency, Executor executor, boolean ownsExecutor) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be at least 1, but was " + concurrency);
+    }
+    this.buildCache = buildCache;
+    this.ownsBuildCache = ownsBuildCache;
+    this.concurrency = concurrency;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  /**
+   * Blocks until all builds have finished, or the {@link Cancellable} passed to {@link StreamCallback#onStarting(Cancellable)}
+   * has been cancelled. Failed builds don't abort the run, but are reported by the {@link BuildReport}.
+   * <p>
+   * The callback is only called from the current thread.
+   *
+   * @param callback <code>null</code> to ignore the progress
+   * @param timeout  per build
+   * @throws IllegalArgumentException for duplicate tags or cyclic dependencies
+   * @throws IOException              when a Dockerfile can't be read
+   */
+  public BuildReport buildAll(Collection<BuildDefinition> definitions, StreamCallback<BuildProgress> callback, Duration timeout) throws IOException {
+    Map<String, Node> nodes = plan(definitions);
+    log.info("building {} images with up to {} concurrent builds", nodes.size(), concurrency);
+    BuildReport report = new Run(nodes.values(), callback, timeout).execute();
+    log.info("built {} of {} images in {}, {} when built one after another",
+             report.getResults().size(), nodes.size(), report.getWallClockTime(), report.getSerialTime());
+    return report;
+  }
+
+  /**
+   * @return tags of the base images by tag, for those base images which are built from the definitions, too
+   * @throws IllegalArgumentException for duplicate tags or cyclic dependencies
+   */
+  public static Map<String, List<String>> dependencies(Collection<BuildDefinition> definitions) throws IOException {
+    Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    for (Node node : plan(definitions).values()) {
+      List<String> tags = new ArrayList<>();
+      node.dependencies.forEach((Node dependency) -> tags.add(dependency.tag()));
+      dependencies.put(node.tag(), tags);
+    }
+    return dependencies;
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+    if (ownsBuildCache) {
+      buildCache.close();
+    }
+  }
+
+  private static Map<String, Node> plan(Collection<BuildDefinition> definitions) throws IOException {
+    Map<String, Node> nodes = new LinkedHashMap<>();
+    for (BuildDefinition definition : definitions) {
+      if (nodes.put(normalize(definition.getTag()), new Node(definition)) != null) {
+        throw new IllegalArgumentException("duplicate tag '" + definition.getTag() + "'");
+      }
+    }
+    for (Node node : nodes.values()) {
+      Path dockerfile = node.definition.getContext().resolve(node.definition.getDockerfile());
+      List<String> baseImages;
+      try (Reader reader = Files.newBufferedReader(dockerfile, StandardCharsets.UTF_8)) {
+        baseImages = baseImages(reader);
+      }
+      for (String baseImage : baseImages) {
+        Node dependency = nodes.get(normalize(baseImage));
+        if (dependency != null && dependency != node && node.dependencies.add(dependency)) {
+          dependency.dependents.add(node);
+        }
+      }
+    }
+
+    // Kahn's algorithm leaves the nodes of cycles unvisited
+    Map<Node, Integer> pending = new LinkedHashMap<>();
+    Deque<Node> ready = new ArrayDeque<>();
+    for (Node node : nodes.values()) {
+      pending.put(node, node.dependencies.size());
+      if (node.dependencies.isEmpty()) {
+        ready.add(node);
+      }
+    }
+    while (!ready.isEmpty()) {
+      Node node = ready.poll();
+      pending.remove(node);
+      for (Node dependent : node.dependents) {
+        if (pending.merge(dependent, -1, Integer::sum) == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+    if (!pending.isEmpty()) {
+      List<String> tags = new ArrayList<>();
+      pending.keySet().forEach((Node node) -> tags.add(node.tag()));
+      throw new IllegalArgumentException("cyclic dependencies between " + tags);
+    }
+    return nodes;
+  }
+
+  /**
+   * @return image references of <code>FROM</code> and <code>COPY --from</code> instructions, without references to earlier stages
+   */
+  static List<String> baseImages(Reader dockerfile) throws IOException {
+    List<String> baseImages = new ArrayList<>();
+    Set<String> stages = new HashSet<>();
+    BufferedReader reader = new BufferedReader(dockerfile);
+    StringBuilder instruction = new StringBuilder();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      String trimmed = line.trim();
+      if (trimmed.startsWith("#")) {
+        // comments are removed before line continuations are joined
+        continue;
+      }
+      if (trimmed.endsWith("\\")) {
+        instruction.append(trimmed, 0, trimmed.length() - 1).append(' ');
+        continue;
+      }
+      instruction.append(trimmed);
+      baseImage(instruction.toString(), stages, baseImages);
+      instruction.setLength(0);
+    }
+    baseImage(instruction.toString(), stages, baseImages);
+    return baseImages;
+  }
+
+  private static void baseImage(String instruction, Set<String> stages, List<String> baseImages) {
+    String[] words = instruction.trim().split("\\s+");
+    if (words.length < 2) {
+      return;
+    }
+    if ("FROM".equalsIgnoreCase(words[0])) {
+      int image = 1;
+      while (image < words.length && words[image].startsWith("--")) {
+        image++;
+      }
+      if (image < words.length) {
+        addBaseImage(words[image], stages, baseImages);
+        if (image + 2 < words.length && "AS".equalsIgnoreCase(words[image + 1])) {
+          stages.add(words[image + 2].toLowerCase(Locale.ROOT));
+        }
+      }
+    } else if ("COPY".equalsIgnoreCase(words[0])) {
+      for (int i = 1; i < words.length && words[i].startsWith("--"); i++) {
+        if (words[i].startsWith("--from=")) {
+          String source = words[i].substring("--from=".length());
+          // stages can also be referenced by their index
+          if (!source.chars().allMatch(Character::isDigit)) {
+            addBaseImage(source, stages, baseImages);
+          }
+        }
+      }
+    }
+  }
+
+  private static void addBaseImage(String image, Set<String> stages, List<String> baseImages) {
+    if (!stages.contains(image.toLowerCase(Locale.ROOT)) && !"scratch".equals(image)) {
+      baseImages.add(image);
+    }
+  }
+
+  /**
+   * @return the reference with the default registry and tag, so that e.g. <code>docker.io/library/alpine</code> matches <code>alpine:latest</code>
+   */
+  static String normalize(String image) {
+    String name = image;
+    if (name.startsWith("docker.io/")) {
+      name = name.substring("docker.io/".length());
+    }
+    if (name.startsWith("library/")) {
+      name = name.substring("library/".length());
+    }
+    if (name.indexOf('@') < 0 && name.lastIndexOf(':') <= name.lastIndexOf('/')) {
+      name += ":latest";
+    }
+    return name;
+  }
+
+  private static final class Node {
+
+    private final BuildDefinition definition;
+    private final Set<Node> dependencies = new LinkedHashSet<>();
+    private final List<Node> dependents = new ArrayList<>();
+    private int pendingDependencies;
+    private boolean started;
+    private boolean done;
+    private long startedNanos;
+    private volatile InterruptibleFuture<CachedBuild> future;
+    private CachedBuild result;
+    private Exception failure;
+    private Duration duration;
+
+    private Node(BuildDefinition definition) {
+      this.definition = definition;
+    }
+
+    private String tag() {
+      return definition.getTag();
+    }
+  }
+
+  /**
+   * Schedules the builds on the calling thread, which also receives the progress of all builds via a queue.
+   */
+  private class Run {
+
+    private final Collection<Node> nodes;
+    private final StreamCallback<BuildProgress> callback;
+    private final Duration timeout;
+    // unbounded, because a build thread must never block the cancelling thread
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+    private volatile boolean cancelled;
+
+    private Run(Collection<Node> nodes, StreamCallback<BuildProgress> callback, Duration timeout) {
+      this.nodes = nodes;
+      this.callback = callback;
+      this.timeout = timeout;
+    }
+
+    private BuildReport execute() {
+      long startedNanos = System.nanoTime();
+      if (callback != null) {
+        callback.onStarting(this::cancel);
+      }
+      Deque<Node> ready = new ArrayDeque<>();
+      for (Node node : nodes) {
+        node.pendingDependencies = node.dependencies.size();
+        if (node.pendingDependencies == 0) {
+          ready.add(node);
+        }
+      }
+
+      int running = 0;
+      int done = 0;
+      try {
+        while (done < nodes.size()) {
+          if (cancelled) {
+            for (Node node : nodes) {
+              if (!node.started && !node.done) {
+                done += skip(node, new CancellationException("build has been cancelled"));
+              }
+            }
+            ready.clear();
+          }
+          while (running < concurrency && !ready.isEmpty()) {
+            start(ready.poll());
+            running++;
+          }
+          if (done == nodes.size()) {
+            break;
+          }
+
+          Object event = events.take();
+          if (event instanceof BuildProgress) {
+            if (callback != null) {
+              callback.onNext((BuildProgress) event);
+            }
+          } else if (event instanceof Node) {
+            Node node = (Node) event;
+            running--;
+            done += finish(node, ready);
+          }
+        }
+      } catch (InterruptedException e) {
+        cancel();
+        Thread.currentThread().interrupt();
+        throw new CancellationException("builds have been interrupted");
+      }
+      if (callback != null) {
+        callback.onFinished();
+      }
+
+      Map<String, CachedBuild> results = new LinkedHashMap<>();
+      Map<String, Exception> failures = new LinkedHashMap<>();
+      Map<String, Duration> durations = new LinkedHashMap<>();
+      for (Node node : nodes) {
+        if (node.failure != null) {
+          failures.put(node.tag(), node.failure);
+        } else {
+          results.put(node.tag(), node.result);
+        }
+        if (node.duration != null) {
+          durations.put(node.tag(), node.duration);
+        }
+      }
+      return new BuildReport(results, failures, durations, Duration.ofNanos(System.nanoTime() - startedNanos));
+    }
+
+    private void start(Node node) {
+      BuildDefinition definition = node.definition;
+      log.debug("building {}", definition);
+      node.started = true;
+      node.startedNanos = System.nanoTime();
+      // dependencies have been built successfully before their dependents are started
+      Map<String, String> baseImageIds = new LinkedHashMap<>();
+      for (Node dependency : node.dependencies) {
+        baseImageIds.put(dependency.tag(), dependency.result.getImageId());
+      }
+      InterruptibleFuture<CachedBuild> future = new InterruptibleFuture<>(() -> buildCache.build(
+          definition.getContext(), definition.getDockerfile(), definition.getTag(), definition.getBuildArgs(), baseImageIds,
+          definition.getOptions(), new ProgressCallback(definition.getTag()), timeout));
+      node.future = future;
+      future.whenComplete((CachedBuild result, Throwable failure) -> events.add(node));
+      try {
+        executor.execute(future);
+      } catch (RejectedExecutionException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    /**
+     * @return number of nodes which are done, i.e. the node itself and the skipped dependents of a failed build
+     */
+    private int finish(Node node, Deque<Node> ready) {
+      node.done = true;
+      node.duration = Duration.ofNanos(System.nanoTime() - node.startedNanos);
+      try {
+        node.result = node.future.join();
+      } catch (CompletionException e) {
+        node.failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+      } catch (CancellationException e) {
+        node.failure = e;
+      }
+
+      if (node.failure != null) {
+        log.warn("build of {} failed", node.tag(), node.failure);
+        int skipped = 0;
+        for (Node dependent : node.dependents) {
+          skipped += skip(dependent, new CancellationException("base image " + node.tag() + " failed"));
+        }
+        return 1 + skipped;
+      }
+      for (Node dependent : node.dependents) {
+        if (--dependent.pendingDependencies == 0 && !dependent.done) {
+          ready.add(dependent);
+        }
+      }
+      return 1;
+    }
+
+    private int skip(Node node, CancellationException reason) {
+      if (node.started || node.done) {
+        return 0;
+      }
+      node.done = true;
+      node.failure = reason;
+      int skipped = 1;
+      for (Node dependent : node.dependents) {
+        skipped += skip(dependent, reason);
+      }
+      return skipped;
+    }
+
+    private void cancel() {
+      cancelled = true;
+      for (Node node : nodes) {
+        InterruptibleFuture<CachedBuild> future = node.future;
+        if (future != null) {
+          future.cancel(true);
+        }
+      }
+      // wakes up the scheduling thread
+      events.add(this);
+    }
+
+    private class ProgressCallback implements StreamCallback<BuildInfo> {
+
+      private final String tag;
+
+      private ProgressCallback(String tag) {
+        this.tag = tag;
+      }
+
+      @Override
+      public void onStarting(Cancellable cancellable) {
+      }
+
+      @Override
+      public void onNext(BuildInfo element) {
+        events.add(new BuildProgress(tag, element));
+      }
+
+      @Override
+      public void onFailed(Exception e) {
+        // reported by the build's result
+      }
+
+      @Override
+      public void onFinished() {
+      }
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package de.gesellix.docker.client.image;
+
+import de.gesellix.docker.remote.api.BuildInfo;
+
+/**
+ * A single progress message of one of the builds of a {@link BuildOrchestrator}.
+ */
+public class BuildProgress {
+
+  private final String tag;
+  private final BuildInfo info;
+
+  public BuildProgress(String tag, BuildInfo info) {
+    this.tag = tag;
+    this.info = info;
+  }
+
+  /**
+   * @return the {@link BuildDefinition#getTag() tag} of the image being built
+   */
+  public String getTag() {
+    return tag;
+  }
+
+  public BuildInfo getInfo() {
+    return info;
+  }
+
+  @Override
+  public String toString() {
+    return "BuildProgress{tag='" + tag + "', info=" + info + "}";
+  }
+}
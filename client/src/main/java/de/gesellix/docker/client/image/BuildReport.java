@@ -0,0 +1,79 @@
+package de.gesellix.docker.client.image;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link BuildOrchestrator} run.
+ * All maps keep the order in which the definitions have been passed to the orchestrator.
+ */
+public class BuildReport {
+
+  private final Map<String, CachedBuild> results;
+  private final Map<String, Exception> failures;
+  private final Map<String, Duration> durations;
+  private final Duration wallClockTime;
+
+  public BuildReport(Map<String, CachedBuild> results, Map<String, Exception> failures, Map<String, Duration> durations, Duration wallClockTime) {
+    this.results = Collections.unmodifiableMap(results);
+    this.failures = Collections.unmodifiableMap(failures);
+    this.durations = Collections.unmodifiableMap(durations);
+    this.wallClockTime = wallClockTime;
+  }
+
+  /**
+   * @return successful builds by tag
+   */
+  public Map<String, CachedBuild> getResults() {
+    return results;
+  }
+
+  /**
+   * @return failures by tag, including a {@link java.util.concurrent.CancellationException}
+   * for images which haven't been built because a base image failed or the run has been cancelled
+   */
+  public Map<String, Exception> getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return durations of the started builds by tag
+   */
+  public Map<String, Duration> getDurations() {
+    return durations;
+  }
+
+  public Duration getWallClockTime() {
+    return wallClockTime;
+  }
+
+  /**
+   * @return sum of all build durations, i.e. the wall-clock time of building the same images one after another
+   */
+  public Duration getSerialTime() {
+    return durations.values().stream().reduce(Duration.ZERO, Duration::plus);
+  }
+
+  /**
+   * @return serial time divided by wall-clock time
+   */
+  public double getSpeedup() {
+    long wallClockNanos = wallClockTime.toNanos();
+    return wallClockNanos == 0 ? 1.0 : (double) getSerialTime().toNanos() / wallClockNanos;
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "BuildReport{" +
+           "results=" + results.keySet() +
+           ", failures=" + failures +
+           ", wallClockTime=" + wallClockTime +
+           ", serialTime=" + getSerialTime() +
+           '}';
+  }
+}
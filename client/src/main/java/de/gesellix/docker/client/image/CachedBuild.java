@@ -0,0 +1,38 @@
+package de.gesellix.docker.client.image;
+
+public class CachedBuild {
+
+  private final String imageId;
+  private final String contextDigest;
+  private final boolean skipped;
+
+  public CachedBuild(String imageId, String contextDigest, boolean skipped) {
+    this.imageId = imageId;
+    this.contextDigest = contextDigest;
+    this.skipped = skipped;
+  }
+
+  public String getImageId() {
+    return imageId;
+  }
+
+  /**
+   * @return <code>null</code> when the {@link BuildCache} has no cache directory
+   * @see de.gesellix.docker.client.archive.ContextDigest
+   */
+  public String getContextDigest() {
+    return contextDigest;
+  }
+
+  /**
+   * @return whether the image of a previous build has been reused, i.e. neither the context has been uploaded nor the image built
+   */
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  @Override
+  public String toString() {
+    return "CachedBuild{imageId='" + imageId + "', contextDigest='" + contextDigest + "', skipped=" + skipped + "}";
+  }
+}
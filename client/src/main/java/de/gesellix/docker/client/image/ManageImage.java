@@ -1,6 +1,9 @@
 package de.gesellix.docker.client.image;
 
 import de.gesellix.docker.client.EngineResponseContent;
+import de.gesellix.docker.client.archive.TarOptions;
+import de.gesellix.docker.client.archive.TransferOptions;
+import de.gesellix.docker.client.archive.TransferResult;
 import de.gesellix.docker.remote.api.BuildInfo;
 import de.gesellix.docker.remote.api.CreateImageInfo;
 import de.gesellix.docker.remote.api.HistoryResponseItem;
@@ -12,7 +15,10 @@ import de.gesellix.docker.remote.api.ImageSummary;
 import de.gesellix.docker.remote.api.PushImageInfo;
 import de.gesellix.docker.remote.api.core.StreamCallback;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
@@ -44,12 +50,35 @@ public interface ManageImage {
              String buildargs, String labels, String encodedRegistryConfig, String contentType,
              InputStream buildContext);
 
+  /**
+   * Streams the build context from a local directory, applying its <code>.dockerignore</code> file,
+   * without staging the tar archive on disk or in memory.
+   *
+   * @param dockerfile path of the Dockerfile relative to the build context, <code>null</code> for <code>Dockerfile</code>
+   * @param options    <code>null</code> for the defaults, see {@link TarOptions#setGzip(boolean)}
+   */
+  default void build(StreamCallback<BuildInfo> callback, Duration timeout,
+                     String dockerfile, String tag,
+                     Path buildContext, TarOptions options) throws IOException {
+    throw new UnsupportedOperationException("build from a path is not supported by " + getClass().getName());
+  }
+
   EngineResponseContent<List<HistoryResponseItem>> history(String image);
 
   EngineResponseContent<ImageInspect> inspectImage(String image);
 
   void load(InputStream imagesTarball);
 
+  /**
+   * Streams a file written by {@link #saveTo(List, Path, TransferOptions)} or <code>docker save</code>, which may be gzip compressed,
+   * without reading it into memory.
+   */
+  default void loadFrom(Path imagesTarball) throws IOException {
+    try (InputStream tarball = Files.newInputStream(imagesTarball)) {
+      load(tarball);
+    }
+  }
+
   /**
    * @see #images(Boolean, String, Boolean)
    * @deprecated use {@link #images(Boolean, String, Boolean)}
@@ -115,6 +144,15 @@ public interface ManageImage {
 
   EngineResponseContent<InputStream> save(List<String> images);
 
+  /**
+   * Streams the images into a tar file, computing its SHA-256 digest while writing.
+   *
+   * @param options <code>null</code> for an uncompressed file, see {@link TransferOptions#setGzip(boolean)}
+   */
+  default TransferResult saveTo(List<String> images, Path target, TransferOptions options) throws IOException {
+    throw new UnsupportedOperationException("saveTo is not supported by " + getClass().getName());
+  }
+
   void tag(String image, String repository);
 
   String findImageId(String imageName);
@@ -0,0 +1,501 @@
+package de.gesellix.docker.client.inventory;
+
+import de.gesellix.docker.client.DockerClient;
+import de.gesellix.docker.client.filters.Filters;
+import de.gesellix.docker.client.system.SystemEventsRequest;
+import de.gesellix.docker.remote.api.EventMessage;
+import de.gesellix.docker.remote.api.ImageSummary;
+import de.gesellix.docker.remote.api.Network;
+import de.gesellix.docker.remote.api.Volume;
+import de.gesellix.docker.remote.api.VolumeListResponse;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import de.gesellix.util.DefaultExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An in-memory mirror of the daemon's containers, images, networks and volumes.
+ * <p>
+ * The mirror is loaded once from the list endpoints and then kept current from the daemon's events:
+ * only containers, networks and volumes mentioned by an event are listed again, filtered by their id or name.
+ * Images can't be filtered by id, so image events trigger a single reload of the (usually short) image list.
+ * Events are applied asynchronously, so that a burst of events for the same object results in a single request.
+ * <p>
+ * {@link #start()} follows the events in a background thread and reconnects after failures.
+ * Events might have been missed while being disconnected, so the whole mirror is reloaded after every reconnect.
+ * Callers which already follow the events can use {@link #getEventsRequest()} and {@link #getEventCallback()} instead.
+ */
+public class DockerInventory implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(DockerInventory.class);
+
+  public static final String BY_NAME = "name";
+  public static final String BY_LABEL = "label";
+  public static final String BY_STATUS = "status";
+  public static final String BY_IMAGE = "image";
+
+  // container actions which don't change the output of `docker ps`
+  private static final Set<String> IGNORED_CONTAINER_ACTIONS = new HashSet<>(Arrays.asList(
+      "attach", "detach", "resize", "top", "archive-path", "extract-to-dir", "export", "commit", "copy"));
+
+  private final DockerClient client;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+
+  private final InventoryIndex<Map<String, Object>> containers;
+  private final InventoryIndex<ImageSummary> images;
+  private final InventoryIndex<Network> networks;
+  private final InventoryIndex<Volume> volumes;
+
+  private final Set<String> changedContainers = ConcurrentHashMap.newKeySet();
+  private final Set<String> changedNetworks = ConcurrentHashMap.newKeySet();
+  private final Set<String> changedVolumes = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean imagesChanged = new AtomicBoolean();
+  private final AtomicBoolean reloadRequested = new AtomicBoolean();
+  private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+  private Duration reconnectDelay = Duration.ofSeconds(1);
+  private Duration subscriptionTimeout = Duration.ofHours(1);
+  private volatile Instant lastReload;
+  private volatile boolean closed;
+  private volatile Thread follower;
+  private volatile Cancellable subscription;
+
+  public DockerInventory(DockerClient client) {
+    this(client, Executors.newSingleThreadExecutor(DefaultExecutors.daemonThreadFactory("docker-client-inventory")), true);
+  }
+
+  /**
+   * @param executor applies the events, should run at most one task at a time
+   */
+  public DockerInventory(DockerClient client, Executor executor) {
+    this(client, executor, false);
+  }
+
+  private DockerInventory(DockerClient client, Executor executor, boolean ownsExecutor) {
+    this.client = client;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+
+    Map<String, Function<Map<String, Object>, Collection<String>>> containerIndexes = new LinkedHashMap<>();
+    containerIndexes.put(BY_NAME, DockerInventory::containerNames);
+    containerIndexes.put(BY_LABEL, (Map<String, Object> container) -> labelKeys(stringMap(container.get("Labels"))));
+    containerIndexes.put(BY_STATUS, (Map<String, Object> container) -> keys((String) container.get("State")));
+    containerIndexes.put(BY_IMAGE, (Map<String, Object> container) -> keys((String) container.get("Image"), (String) container.get("ImageID")));
+    this.containers = new InventoryIndex<>((Map<String, Object> container) -> (String) container.get("Id"), containerIndexes);
+
+    Map<String, Function<ImageSummary, Collection<String>>> imageIndexes = new LinkedHashMap<>();
+    imageIndexes.put(BY_NAME, (ImageSummary image) -> image.getRepoTags() == null ? Collections.emptyList() : image.getRepoTags());
+    imageIndexes.put(BY_LABEL, (ImageSummary image) -> labelKeys(image.getLabels()));
+    this.images = new InventoryIndex<>(ImageSummary::getId, imageIndexes);
+
+    Map<String, Function<Network, Collection<String>>> networkIndexes = new LinkedHashMap<>();
+    networkIndexes.put(BY_NAME, (Network network) -> keys(network.getName()));
+    networkIndexes.put(BY_LABEL, (Network network) -> labelKeys(network.getLabels()));
+    this.networks = new InventoryIndex<>(Network::getId, networkIndexes);
+
+    Map<String, Function<Volume, Collection<String>>> volumeIndexes = new LinkedHashMap<>();
+    volumeIndexes.put(BY_LABEL, (Volume volume) -> labelKeys(volume.getLabels()));
+    this.volumes = new InventoryIndex<>(Volume::getName, volumeIndexes);
+  }
+
+  public Duration getReconnectDelay() {
+    return reconnectDelay;
+  }
+
+  public void setReconnectDelay(Duration reconnectDelay) {
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  /**
+   * @return the events stream is re-established after this duration, including a full reload
+   */
+  public Duration getSubscriptionTimeout() {
+    return subscriptionTimeout;
+  }
+
+  public void setSubscriptionTimeout(Duration subscriptionTimeout) {
+    this.subscriptionTimeout = subscriptionTimeout;
+  }
+
+  /**
+   * @return time of the latest full reload, or <code>null</code> if the inventory hasn't been loaded yet
+   */
+  public Instant getLastReload() {
+    return lastReload;
+  }
+
+  /**
+   * Follows the daemon's events in a background thread, reloading the whole inventory on every (re)connect.
+   */
+  public synchronized void start() {
+    if (closed) {
+      throw new IllegalStateException("inventory has been closed");
+    }
+    if (follower != null) {
+      return;
+    }
+    follower = DefaultExecutors.daemonThreadFactory("docker-client-inventory-events").newThread(this::followEvents);
+    follower.start();
+  }
+
+  private void followEvents() {
+    while (!closed) {
+      try {
+        client.events(getEventsRequest(), getEventCallback(), subscriptionTimeout);
+      } catch (Exception e) {
+        if (closed) {
+          return;
+        }
+        log.warn("events stream failed, reconnecting in {}", reconnectDelay, e);
+      }
+      try {
+        if (!closed) {
+          Thread.sleep(reconnectDelay.toMillis());
+        }
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Loads all containers, images, networks and volumes, replacing the current state.
+   */
+  public void reload() {
+    log.debug("reloading docker inventory");
+    // changes which have been collected so far are covered by the reload
+    changedContainers.clear();
+    changedNetworks.clear();
+    changedVolumes.clear();
+    imagesChanged.set(false);
+
+    containers.replaceAll(client.ps(true, null, false, null).getContent());
+    images.replaceAll(client.images(false, null, null).getContent());
+    networks.replaceAll(client.networks((String) null).getContent());
+    VolumeListResponse volumeList = client.volumes((String) null).getContent();
+    volumes.replaceAll(volumeList.getVolumes() == null ? Collections.emptyList() : volumeList.getVolumes());
+    lastReload = Instant.now();
+    log.info("docker inventory: {} containers, {} images, {} networks, {} volumes",
+             containers.size(), images.size(), networks.size(), volumes.size());
+  }
+
+  /**
+   * @return a request for only those events which affect the inventory
+   */
+  public SystemEventsRequest getEventsRequest() {
+    return new SystemEventsRequest(null, null, Filters.builder().type("container", "image", "network", "volume").build().toJson());
+  }
+
+  /**
+   * @return a callback for {@link de.gesellix.docker.client.system.ManageSystem#events(SystemEventsRequest, StreamCallback, Duration)}
+   * which keeps the inventory up to date
+   */
+  public StreamCallback<EventMessage> getEventCallback() {
+    return new StreamCallback<EventMessage>() {
+
+      @Override
+      public void onStarting(Cancellable cancellable) {
+        subscription = cancellable;
+        // events might have been missed while not being subscribed
+        requestReload();
+      }
+
+      @Override
+      public void onNext(EventMessage element) {
+        onEvent(element);
+      }
+
+      @Override
+      public void onFailed(Exception e) {
+        log.debug("events stream failed", e);
+      }
+
+      @Override
+      public void onFinished() {
+        subscription = null;
+      }
+    };
+  }
+
+  /**
+   * Marks the object of the event as changed and schedules an update.
+   */
+  public void onEvent(EventMessage event) {
+    if (event == null || event.getType() == null || event.getActor() == null) {
+      return;
+    }
+    String id = event.getActor().getID();
+    String action = event.getAction() == null ? "" : event.getAction();
+    switch (event.getType().getValue()) {
+      case "container":
+        if (id != null && !action.startsWith("exec_") && !IGNORED_CONTAINER_ACTIONS.contains(action)) {
+          changedContainers.add(id);
+        }
+        break;
+      case "image":
+        imagesChanged.set(true);
+        break;
+      case "network":
+        if (id != null) {
+          changedNetworks.add(id);
+        }
+        // connect and disconnect change the container's network settings
+        String container = event.getActor().getAttributes() == null ? null : event.getActor().getAttributes().get("container");
+        if (container != null) {
+          changedContainers.add(container);
+        }
+        break;
+      case "volume":
+        if (id != null && !"mount".equals(action) && !"unmount".equals(action)) {
+          changedVolumes.add(id);
+        }
+        break;
+      default:
+        return;
+    }
+    scheduleUpdate();
+  }
+
+  private void requestReload() {
+    reloadRequested.set(true);
+    scheduleUpdate();
+  }
+
+  private void scheduleUpdate() {
+    if (closed || !updateScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::update);
+    } catch (RejectedExecutionException e) {
+      updateScheduled.set(false);
+      log.debug("inventory update rejected", e);
+    }
+  }
+
+  private void update() {
+    // changes arriving from now on schedule another update
+    updateScheduled.set(false);
+    try {
+      if (reloadRequested.getAndSet(false)) {
+        reload();
+        return;
+      }
+      drain(changedContainers, this::updateContainer);
+      drain(changedNetworks, this::updateNetwork);
+      drain(changedVolumes, this::updateVolume);
+      if (imagesChanged.getAndSet(false)) {
+        images.replaceAll(client.images(false, null, null).getContent());
+      }
+    } catch (Exception e) {
+      // the daemon might not be reachable, don't trust the current state
+      log.warn("failed to update the docker inventory, reloading on the next event", e);
+      reloadRequested.set(true);
+    }
+  }
+
+  private void drain(Set<String> changed, Consumer<String> update) {
+    Iterator<String> iterator = changed.iterator();
+    while (iterator.hasNext()) {
+      String id = iterator.next();
+      iterator.remove();
+      update.accept(id);
+    }
+  }
+
+  private void updateContainer(String id) {
+    List<Map<String, Object>> found = client.ps(true, null, false, Filters.builder().id(id).build().toJson()).getContent();
+    // the id filter matches prefixes
+    Optional<Map<String, Object>> container = found.stream().filter((Map<String, Object> c) -> id.equals(c.get("Id"))).findFirst();
+    if (container.isPresent()) {
+      containers.put(container.get());
+    } else {
+      containers.remove(id);
+    }
+  }
+
+  private void updateNetwork(String id) {
+    List<Network> found = client.networks(Filters.builder().id(id).build().toJson()).getContent();
+    Optional<Network> network = found.stream().filter((Network n) -> id.equals(n.getId())).findFirst();
+    if (network.isPresent()) {
+      networks.put(network.get());
+    } else {
+      networks.remove(id);
+    }
+  }
+
+  private void updateVolume(String name) {
+    List<Volume> found = client.volumes(Filters.builder().name(name).build().toJson()).getContent().getVolumes();
+    // the name filter matches substrings
+    Optional<Volume> volume = found == null ? Optional.empty() : found.stream().filter((Volume v) -> name.equals(v.getName())).findFirst();
+    if (volume.isPresent()) {
+      volumes.put(volume.get());
+    } else {
+      volumes.remove(name);
+    }
+  }
+
+  /**
+   * @param idOrName the full id or a name, with or without the leading <code>/</code>
+   */
+  public Optional<Map<String, Object>> getContainer(String idOrName) {
+    Map<String, Object> container = containers.get(idOrName);
+    if (container == null) {
+      container = containers.findFirst(BY_NAME, idOrName.startsWith("/") ? idOrName.substring(1) : idOrName);
+    }
+    return Optional.ofNullable(container);
+  }
+
+  /**
+   * @return all containers in the same format as {@link DockerClient#ps()}
+   */
+  public List<Map<String, Object>> getContainers() {
+    return containers.values();
+  }
+
+  /**
+   * @param label either <code>key</code> or <code>key=value</code>
+   */
+  public List<Map<String, Object>> getContainersByLabel(String label) {
+    return containers.find(BY_LABEL, label);
+  }
+
+  /**
+   * @param state e.g. <code>running</code> or <code>exited</code>
+   */
+  public List<Map<String, Object>> getContainersByStatus(String state) {
+    return containers.find(BY_STATUS, state);
+  }
+
+  /**
+   * @param image the image as given on container creation, or the image id
+   */
+  public List<Map<String, Object>> getContainersByImage(String image) {
+    return containers.find(BY_IMAGE, image);
+  }
+
+  /**
+   * @param idOrTag the full id or a repo tag like <code>alpine:3.13</code>
+   */
+  public Optional<ImageSummary> getImage(String idOrTag) {
+    ImageSummary image = images.get(idOrTag);
+    return Optional.ofNullable(image != null ? image : images.findFirst(BY_NAME, idOrTag));
+  }
+
+  public List<ImageSummary> getImages() {
+    return images.values();
+  }
+
+  public List<ImageSummary> getImagesByLabel(String label) {
+    return images.find(BY_LABEL, label);
+  }
+
+  public Optional<Network> getNetwork(String idOrName) {
+    Network network = networks.get(idOrName);
+    return Optional.ofNullable(network != null ? network : networks.findFirst(BY_NAME, idOrName));
+  }
+
+  public List<Network> getNetworks() {
+    return networks.values();
+  }
+
+  public List<Network> getNetworksByLabel(String label) {
+    return networks.find(BY_LABEL, label);
+  }
+
+  public Optional<Volume> getVolume(String name) {
+    return Optional.ofNullable(volumes.get(name));
+  }
+
+  public List<Volume> getVolumes() {
+    return volumes.values();
+  }
+
+  public List<Volume> getVolumesByLabel(String label) {
+    return volumes.find(BY_LABEL, label);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    Cancellable current = subscription;
+    if (current != null) {
+      current.cancel();
+    }
+    Thread currentFollower = follower;
+    if (currentFollower != null) {
+      currentFollower.interrupt();
+    }
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<String> containerNames(Map<String, Object> container) {
+    Object names = container.get("Names");
+    if (!(names instanceof Collection)) {
+      return Collections.emptyList();
+    }
+    List<String> keys = new ArrayList<>();
+    for (String name : (Collection<String>) names) {
+      keys.add(name.startsWith("/") ? name.substring(1) : name);
+    }
+    return keys;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> stringMap(Object labels) {
+    return labels instanceof Map ? (Map<String, String>) labels : null;
+  }
+
+  /**
+   * Labels are indexed by <code>key</code> and by <code>key=value</code>, like the <code>label</code> filter.
+   */
+  private static Collection<String> labelKeys(Map<String, String> labels) {
+    if (labels == null || labels.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<String> keys = new ArrayList<>(labels.size() * 2);
+    labels.forEach((String key, String value) -> {
+      keys.add(key);
+      keys.add(key + "=" + value);
+    });
+    return keys;
+  }
+
+  private static Collection<String> keys(String... values) {
+    List<String> keys = new ArrayList<>(values.length);
+    for (String value : values) {
+      if (value != null) {
+        keys.add(value);
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,157 @@
+package de.gesellix.docker.client.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Items by id with secondary indexes, e.g. by name or label.
+ * Lookups return copies, so that callers may iterate while the index is being updated.
+ */
+class InventoryIndex<T> {
+
+  private final Function<T, String> idOf;
+  private final Map<String, Function<T, Collection<String>>> keyExtractors;
+
+  private final Map<String, T> byId = new LinkedHashMap<>();
+  private final Map<String, Map<String, Set<String>>> indexes = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  InventoryIndex(Function<T, String> idOf, Map<String, Function<T, Collection<String>>> keyExtractors) {
+    this.idOf = idOf;
+    this.keyExtractors = keyExtractors;
+    keyExtractors.keySet().forEach((String index) -> indexes.put(index, new HashMap<>()));
+  }
+
+  void put(T item) {
+    String id = idOf.apply(item);
+    if (id == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      T previous = byId.put(id, item);
+      if (previous != null) {
+        unindex(id, previous);
+      }
+      index(id, item);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  T remove(String id) {
+    lock.writeLock().lock();
+    try {
+      T removed = byId.remove(id);
+      if (removed != null) {
+        unindex(id, removed);
+      }
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void replaceAll(Collection<T> items) {
+    lock.writeLock().lock();
+    try {
+      byId.clear();
+      indexes.values().forEach(Map::clear);
+      for (T item : items) {
+        String id = idOf.apply(item);
+        if (id != null) {
+          byId.put(id, item);
+          index(id, item);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  T get(String id) {
+    lock.readLock().lock();
+    try {
+      return byId.get(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  List<T> find(String index, String key) {
+    lock.readLock().lock();
+    try {
+      Set<String> ids = indexes.get(index).get(key);
+      if (ids == null) {
+        return Collections.emptyList();
+      }
+      List<T> found = new ArrayList<>(ids.size());
+      ids.forEach((String id) -> found.add(byId.get(id)));
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  T findFirst(String index, String key) {
+    lock.readLock().lock();
+    try {
+      Set<String> ids = indexes.get(index).get(key);
+      return ids == null || ids.isEmpty() ? null : byId.get(ids.iterator().next());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  List<T> values() {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<>(byId.values());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return byId.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void index(String id, T item) {
+    keyExtractors.forEach((String index, Function<T, Collection<String>> keysOf) -> {
+      Map<String, Set<String>> keys = indexes.get(index);
+      for (String key : keysOf.apply(item)) {
+        keys.computeIfAbsent(key, (String k) -> new LinkedHashSet<>()).add(id);
+      }
+    });
+  }
+
+  private void unindex(String id, T item) {
+    keyExtractors.forEach((String index, Function<T, Collection<String>> keysOf) -> {
+      Map<String, Set<String>> keys = indexes.get(index);
+      for (String key : keysOf.apply(item)) {
+        Set<String> ids = keys.get(key);
+        if (ids != null) {
+          ids.remove(id);
+          if (ids.isEmpty()) {
+            keys.remove(key);
+          }
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,57 @@
+package de.gesellix.docker.client.metrics;
+
+/**
+ * Receives measurements for every operation of a {@link de.gesellix.docker.client.DockerClient}.
+ * <p>
+ * Operations are named after the invoked client method, e.g. <code>createContainer</code>,
+ * <code>pull</code> or <code>updateService</code>.
+ * Implementations are called concurrently and must not block.
+ *
+ * @see InMemoryDockerClientMetrics
+ */
+public interface DockerClientMetrics {
+
+  DockerClientMetrics NOOP = new DockerClientMetrics() {
+
+    @Override
+    public void requestStarted(String operation) {
+    }
+
+    @Override
+    public void requestFinished(String operation, long durationNanos, Throwable failure) {
+    }
+
+    @Override
+    public void bytesSent(String operation, long bytes) {
+    }
+
+    @Override
+    public void bytesReceived(String operation, long bytes) {
+    }
+  };
+
+  void requestStarted(String operation);
+
+  /**
+   * @param failure the exception thrown by the operation, or <code>null</code> on success
+   */
+  void requestFinished(String operation, long durationNanos, Throwable failure);
+
+  /**
+   * Called with the request body size of every HTTP call made by the operation.
+   */
+  void bytesSent(String operation, long bytes);
+
+  /**
+   * Called with the response body size of every HTTP call made by the operation,
+   * for streamed responses when the stream has been consumed.
+   */
+  void bytesReceived(String operation, long bytes);
+
+  /**
+   * Called when an operation joined an identical in-flight request instead of sending its own,
+   * see {@link de.gesellix.util.SingleFlight}. The operation is reported as started and finished as well.
+   */
+  default void requestCoalesced(String operation) {
+  }
+}
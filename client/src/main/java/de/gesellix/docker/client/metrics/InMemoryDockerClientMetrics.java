@@ -0,0 +1,96 @@
+package de.gesellix.docker.client.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps per-operation counters and latency histograms in memory.
+ * All updates are lock-free, {@link #snapshot()} can be scraped at any time.
+ */
+public class InMemoryDockerClientMetrics implements DockerClientMetrics {
+
+  private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+  @Override
+  public void requestStarted(String operation) {
+    metrics(operation).inFlight.increment();
+  }
+
+  @Override
+  public void requestFinished(String operation, long durationNanos, Throwable failure) {
+    OperationMetrics metrics = metrics(operation);
+    metrics.inFlight.decrement();
+    metrics.count.increment();
+    if (failure != null) {
+      metrics.errors.increment();
+    }
+    metrics.latency.record(durationNanos);
+  }
+
+  @Override
+  public void bytesSent(String operation, long bytes) {
+    metrics(operation).bytesOut.add(bytes);
+  }
+
+  @Override
+  public void bytesReceived(String operation, long bytes) {
+    metrics(operation).bytesIn.add(bytes);
+  }
+
+  @Override
+  public void requestCoalesced(String operation) {
+    metrics(operation).coalesced.increment();
+  }
+
+  /**
+   * @return a consistent-enough view of all operations seen so far, sorted by operation name
+   */
+  public SortedMap<String, OperationSnapshot> snapshot() {
+    SortedMap<String, OperationSnapshot> snapshot = new TreeMap<>();
+    for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    }
+    return snapshot;
+  }
+
+  public OperationSnapshot snapshot(String operation) {
+    OperationMetrics metrics = operations.get(operation);
+    return metrics == null ? null : metrics.snapshot(operation);
+  }
+
+  public void reset() {
+    operations.clear();
+  }
+
+  private OperationMetrics metrics(String operation) {
+    OperationMetrics metrics = operations.get(operation);
+    if (metrics == null) {
+      metrics = operations.computeIfAbsent(operation, (String key) -> new OperationMetrics());
+    }
+    return metrics;
+  }
+
+  private static class OperationMetrics {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationSnapshot snapshot(String operation) {
+      return new OperationSnapshot(
+          operation,
+          count.sum(), errors.sum(), inFlight.sum(),
+          bytesIn.sum(), bytesOut.sum(),
+          coalesced.sum(),
+          latency.snapshot());
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package de.gesellix.docker.client.metrics;
+
+import de.gesellix.util.Interceptor;
+
+/**
+ * Reports every intercepted operation to a {@link DockerClientMetrics}, see {@link de.gesellix.docker.client.InterceptingClients}.
+ * <p>
+ * The latency ends when the method returns, so that consuming a streamed result isn't included.
+ * Transferred bytes are counted by the HTTP transport, which attributes its calls
+ * to the {@link #currentOperation() operation} running on the calling thread.
+ */
+public class MeteringInterceptor implements Interceptor {
+
+  private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
+
+  private final DockerClientMetrics metrics;
+
+  public MeteringInterceptor(DockerClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return the innermost metered operation running on the current thread, or <code>null</code>
+   */
+  public static String currentOperation() {
+    return CURRENT_OPERATION.get();
+  }
+
+  @Override
+  public <T, E extends Throwable> T intercept(String operation, Object[] args, Invocation<T, E> invocation) throws E {
+    String outerOperation = CURRENT_OPERATION.get();
+    CURRENT_OPERATION.set(operation);
+    metrics.requestStarted(operation);
+    long start = System.nanoTime();
+    Throwable failure = null;
+    try {
+      return invocation.proceed();
+    } catch (Throwable t) {
+      failure = t;
+      throw t;
+    } finally {
+      metrics.requestFinished(operation, System.nanoTime() - start, failure);
+      if (outerOperation == null) {
+        CURRENT_OPERATION.remove();
+      } else {
+        CURRENT_OPERATION.set(outerOperation);
+      }
+    }
+  }
+}
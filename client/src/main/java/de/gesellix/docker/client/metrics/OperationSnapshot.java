@@ -0,0 +1,88 @@
+package de.gesellix.docker.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class OperationSnapshot {
+
+  private final String operation;
+  private final long count;
+  private final long errors;
+  private final long inFlight;
+  private final long bytesIn;
+  private final long bytesOut;
+  private final long coalesced;
+  private final LatencyHistogram.Snapshot latency;
+
+  public OperationSnapshot(String operation, long count, long errors, long inFlight, long bytesIn, long bytesOut, LatencyHistogram.Snapshot latency) {
+    this(operation, count, errors, inFlight, bytesIn, bytesOut, 0, latency);
+  }
+
+  public OperationSnapshot(String operation, long count, long errors, long inFlight, long bytesIn, long bytesOut, long coalesced, LatencyHistogram.Snapshot latency) {
+    this.operation = operation;
+    this.count = count;
+    this.errors = errors;
+    this.inFlight = inFlight;
+    this.bytesIn = bytesIn;
+    this.bytesOut = bytesOut;
+    this.coalesced = coalesced;
+    this.latency = latency;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  public long getInFlight() {
+    return inFlight;
+  }
+
+  public long getBytesIn() {
+    return bytesIn;
+  }
+
+  public long getBytesOut() {
+    return bytesOut;
+  }
+
+  /**
+   * @return number of requests which shared the response of an identical in-flight request
+   */
+  public long getCoalesced() {
+    return coalesced;
+  }
+
+  public double getCoalescingHitRate() {
+    return count == 0 ? 0.0 : (double) coalesced / count;
+  }
+
+  /**
+   * @return latencies in nanoseconds
+   */
+  public LatencyHistogram.Snapshot getLatency() {
+    return latency;
+  }
+
+  @Override
+  public String toString() {
+    return "OperationSnapshot{" +
+           "operation='" + operation + '\'' +
+           ", count=" + count +
+           ", errors=" + errors +
+           ", inFlight=" + inFlight +
+           ", bytesIn=" + bytesIn +
+           ", bytesOut=" + bytesOut +
+           ", coalesced=" + coalesced +
+           ", p50=" + TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(50)) + "us" +
+           ", p99=" + TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99)) + "us" +
+           ", max=" + TimeUnit.NANOSECONDS.toMicros(latency.getMax()) + "us" +
+           '}';
+  }
+}
@@ -0,0 +1,82 @@
+package de.gesellix.docker.client.pool;
+
+import java.time.Duration;
+
+/**
+ * Health check and ejection settings of a {@link DockerClientPool}.
+ */
+public class DockerClientPoolConfig {
+
+  private Duration healthCheckInterval = Duration.ofSeconds(5);
+  private Duration healthCheckTimeout = Duration.ofSeconds(2);
+  private Duration slowPingThreshold = Duration.ofSeconds(1);
+  private int maxConsecutiveFailures = 3;
+  private Duration ejectionDuration = Duration.ofSeconds(30);
+
+  /**
+   * @return interval between two <code>ping()</code> rounds, zero disables the periodic health checks
+   */
+  public Duration getHealthCheckInterval() {
+    return healthCheckInterval;
+  }
+
+  public void setHealthCheckInterval(Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+  }
+
+  /**
+   * @return members not answering a <code>ping()</code> within this timeout are ejected
+   */
+  public Duration getHealthCheckTimeout() {
+    return healthCheckTimeout;
+  }
+
+  public void setHealthCheckTimeout(Duration healthCheckTimeout) {
+    this.healthCheckTimeout = healthCheckTimeout;
+  }
+
+  /**
+   * @return members answering a <code>ping()</code> slower than this threshold are ejected
+   */
+  public Duration getSlowPingThreshold() {
+    return slowPingThreshold;
+  }
+
+  public void setSlowPingThreshold(Duration slowPingThreshold) {
+    this.slowPingThreshold = slowPingThreshold;
+  }
+
+  /**
+   * @return members are ejected after this number of consecutive operations failed
+   * due to connection problems or server errors
+   */
+  public int getMaxConsecutiveFailures() {
+    return maxConsecutiveFailures;
+  }
+
+  public void setMaxConsecutiveFailures(int maxConsecutiveFailures) {
+    this.maxConsecutiveFailures = maxConsecutiveFailures;
+  }
+
+  /**
+   * @return without periodic health checks, ejected members are readmitted on the next selection after this duration
+   */
+  public Duration getEjectionDuration() {
+    return ejectionDuration;
+  }
+
+  public void setEjectionDuration(Duration ejectionDuration) {
+    this.ejectionDuration = ejectionDuration;
+  }
+
+  @Override
+  public String toString() {
+    return "DockerClientPoolConfig{" +
+           "healthCheckInterval=" + healthCheckInterval +
+           ", healthCheckTimeout=" + healthCheckTimeout +
+           ", slowPingThreshold=" + slowPingThreshold +
+           ", maxConsecutiveFailures=" + maxConsecutiveFailures +
+           ", ejectionDuration=" + ejectionDuration +
+           '}';
+  }
+}
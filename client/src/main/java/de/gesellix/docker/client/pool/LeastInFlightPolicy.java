@@ -0,0 +1,27 @@
+package de.gesellix.docker.client.pool;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LeastInFlightPolicy implements RoutingPolicy {
+
+  // rotates the start of the search, so that idle members share the load
+  private final AtomicInteger offset = new AtomicInteger();
+
+  @Override
+  public PoolMember select(List<PoolMember> candidates, String routingKey) {
+    int size = candidates.size();
+    int start = Math.floorMod(offset.getAndIncrement(), size);
+    PoolMember selected = null;
+    int selectedInFlight = Integer.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      PoolMember candidate = candidates.get((start + i) % size);
+      int inFlight = candidate.getInFlight();
+      if (inFlight < selectedInFlight) {
+        selected = candidate;
+        selectedInFlight = inFlight;
+      }
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,151 @@
+package de.gesellix.docker.client.pool;
+
+import de.gesellix.docker.client.DockerClient;
+import de.gesellix.docker.engine.DockerClientConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single daemon of a {@link DockerClientPool}, together with its load and health state.
+ */
+public class PoolMember {
+
+  private final DockerClientConfig config;
+  private final DockerClient client;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  private volatile boolean available = true;
+  private volatile String unavailableReason;
+  private volatile long lastPingNanos = -1;
+  private volatile long ejectedAtNanos;
+
+  PoolMember(DockerClientConfig config, DockerClient client) {
+    this.config = config;
+    this.client = client;
+  }
+
+  public DockerClientConfig getConfig() {
+    return config;
+  }
+
+  public DockerClient getClient() {
+    return client;
+  }
+
+  public String getDockerHost() {
+    return config.getEnv().getDockerHost();
+  }
+
+  /**
+   * @return number of operations currently running against this daemon
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  public int getConsecutiveFailures() {
+    return consecutiveFailures.get();
+  }
+
+  /**
+   * @return <code>false</code> while the daemon is ejected from the pool
+   */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  public String getUnavailableReason() {
+    return unavailableReason;
+  }
+
+  /**
+   * @return latency of the latest successful health check, or <code>-1</code> if there was none
+   */
+  public long getLastPingNanos() {
+    return lastPingNanos;
+  }
+
+  /**
+   * @return {@link System#nanoTime()} of the latest ejection
+   */
+  long getEjectedAtNanos() {
+    return ejectedAtNanos;
+  }
+
+  void started() {
+    requests.increment();
+    inFlight.incrementAndGet();
+  }
+
+  void succeeded() {
+    inFlight.decrementAndGet();
+    consecutiveFailures.set(0);
+  }
+
+  /**
+   * @return the number of consecutive failures including this one
+   */
+  int failed() {
+    inFlight.decrementAndGet();
+    failures.increment();
+    return consecutiveFailures.incrementAndGet();
+  }
+
+  /**
+   * Finishes an operation whose failure doesn't indicate a problem with the daemon, e.g. a missing container.
+   */
+  void finished() {
+    inFlight.decrementAndGet();
+  }
+
+  void pinged(long nanos) {
+    lastPingNanos = nanos;
+  }
+
+  /**
+   * @return <code>true</code> if the member has been available before
+   */
+  boolean eject(String reason) {
+    unavailableReason = reason;
+    boolean wasAvailable = available;
+    if (wasAvailable) {
+      ejectedAtNanos = System.nanoTime();
+    }
+    available = false;
+    return wasAvailable;
+  }
+
+  /**
+   * @return <code>true</code> if the member has been ejected before
+   */
+  boolean readmit() {
+    consecutiveFailures.set(0);
+    unavailableReason = null;
+    boolean wasEjected = !available;
+    available = true;
+    return wasEjected;
+  }
+
+  @Override
+  public String toString() {
+    return "PoolMember{" +
+           "dockerHost=" + getDockerHost() +
+           ", available=" + available +
+           (available ? "" : ", reason=" + unavailableReason) +
+           ", inFlight=" + inFlight +
+           '}';
+  }
+}
@@ -0,0 +1,14 @@
+package de.gesellix.docker.client.pool;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoundRobinPolicy implements RoutingPolicy {
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  @Override
+  public PoolMember select(List<PoolMember> candidates, String routingKey) {
+    return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+  }
+}
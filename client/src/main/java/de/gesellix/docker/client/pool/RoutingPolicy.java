@@ -0,0 +1,34 @@
+package de.gesellix.docker.client.pool;
+
+import java.util.List;
+
+/**
+ * Chooses the daemon of a {@link DockerClientPool} for the next operation.
+ */
+public interface RoutingPolicy {
+
+  /**
+   * @param candidates currently available members, never empty
+   * @param routingKey optional key of the operation, e.g. a container id, may be <code>null</code>
+   */
+  PoolMember select(List<PoolMember> candidates, String routingKey);
+
+  /**
+   * Prefers the member with the fewest running operations.
+   */
+  static RoutingPolicy leastInFlight() {
+    return new LeastInFlightPolicy();
+  }
+
+  static RoutingPolicy roundRobin() {
+    return new RoundRobinPolicy();
+  }
+
+  /**
+   * Routes operations with the same key, e.g. a container id, to the same member
+   * as long as it is available. Keys without assignment are routed via the fallback.
+   */
+  static StickyPolicy sticky(RoutingPolicy fallback) {
+    return new StickyPolicy(fallback);
+  }
+}
@@ -0,0 +1,99 @@
+package de.gesellix.docker.client.pool;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the member per routing key, e.g. to send all operations for a container
+ * to the daemon which created it.
+ * <p>
+ * Keys of resources created via the pool should be bound to their member with
+ * {@link DockerClientPool#executeAndBind(java.util.function.Function, java.util.function.Function)} or {@link #bind(String, PoolMember)},
+ * otherwise the first operation with a new key is routed via the fallback, possibly to another daemon.
+ * Bound keys are never reassigned: while their member is unavailable, operations with that key fail,
+ * and they reach the member again once it has been readmitted.
+ * Keys which have only been assigned via the fallback are reassigned when their member becomes unavailable.
+ * <p>
+ * At most <code>maxEntries</code> assignments are kept, least recently used ones are evicted first.
+ * Assignments should be {@link #unbind(String) removed} when the resource is removed, e.g. after removing the container.
+ */
+public class StickyPolicy implements RoutingPolicy {
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  private final RoutingPolicy fallback;
+  private final Map<String, Assignment> assignments;
+
+  public StickyPolicy(RoutingPolicy fallback) {
+    this(fallback, DEFAULT_MAX_ENTRIES);
+  }
+
+  public StickyPolicy(RoutingPolicy fallback, int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be at least 1, but was " + maxEntries);
+    }
+    this.fallback = fallback;
+    this.assignments = new LinkedHashMap<String, Assignment>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Assignment> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @throws IllegalStateException when the key is bound to a member which is unavailable
+   */
+  @Override
+  public PoolMember select(List<PoolMember> candidates, String routingKey) {
+    if (routingKey == null) {
+      return fallback.select(candidates, null);
+    }
+    synchronized (assignments) {
+      Assignment assigned = assignments.get(routingKey);
+      if (assigned != null && candidates.contains(assigned.member)) {
+        return assigned.member;
+      }
+      if (assigned != null && assigned.bound) {
+        throw new IllegalStateException("'" + routingKey + "' is bound to " + assigned.member.getDockerHost() + ", which is unavailable");
+      }
+      PoolMember member = fallback.select(candidates, routingKey);
+      assignments.put(routingKey, new Assignment(member, false));
+      return member;
+    }
+  }
+
+  /**
+   * Assigns a key explicitly, e.g. for containers which have been created outside the pool.
+   */
+  public void bind(String routingKey, PoolMember member) {
+    synchronized (assignments) {
+      assignments.put(routingKey, new Assignment(member, true));
+    }
+  }
+
+  public void unbind(String routingKey) {
+    synchronized (assignments) {
+      assignments.remove(routingKey);
+    }
+  }
+
+  public int size() {
+    synchronized (assignments) {
+      return assignments.size();
+    }
+  }
+
+  private static final class Assignment {
+
+    private final PoolMember member;
+    private final boolean bound;
+
+    private Assignment(PoolMember member, boolean bound) {
+      this.member = member;
+      this.bound = bound;
+    }
+  }
+}
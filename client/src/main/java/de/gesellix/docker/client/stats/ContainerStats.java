@@ -0,0 +1,177 @@
+package de.gesellix.docker.client.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rolling window of a single container, stored in primitive ring buffers.
+ * <p>
+ * Samples are decoded into {@link #target()} by a single thread at a time and then {@link #record() recorded},
+ * which swaps the two sample instances, so that no objects are created per sample.
+ */
+final class ContainerStats {
+
+  final String container;
+  final AtomicBoolean inFlight = new AtomicBoolean();
+  volatile boolean active = true;
+  // the latest failure since the latest sample
+  volatile Exception failure;
+  private final CountDownLatch deactivated = new CountDownLatch(1);
+  private volatile Closeable stream;
+
+  private StatsSample latest = new StatsSample();
+  private StatsSample target = new StatsSample();
+  private long samples;
+
+  private final long[] readMillis;
+  private final double[] cpuPercent;
+  private final long[] memoryUsage;
+  private final double[] blockReadRate;
+  private final double[] blockWriteRate;
+  private final double[] networkRxRate;
+  private final double[] networkTxRate;
+  private int next;
+  private int size;
+
+  ContainerStats(String container, int windowSize) {
+    this.container = container;
+    this.readMillis = new long[windowSize];
+    this.cpuPercent = new double[windowSize];
+    this.memoryUsage = new long[windowSize];
+    this.blockReadRate = new double[windowSize];
+    this.blockWriteRate = new double[windowSize];
+    this.networkRxRate = new double[windowSize];
+    this.networkTxRate = new double[windowSize];
+  }
+
+  /**
+   * @return the sample to decode the next response into
+   */
+  StatsSample target() {
+    return target;
+  }
+
+  synchronized void record() {
+    StatsSample current = target;
+    current.receivedNanos = System.nanoTime();
+    boolean hasPrevious = samples > 0;
+    StatsSample previous = latest;
+
+    long elapsedNanos = 0;
+    if (hasPrevious) {
+      elapsedNanos = current.readNanos > 0 && previous.readNanos > 0
+                     ? current.readNanos - previous.readNanos
+                     : current.receivedNanos - previous.receivedNanos;
+    }
+    double seconds = elapsedNanos / 1e9;
+
+    long cpuDelta;
+    long systemDelta;
+    if (hasPrevious) {
+      cpuDelta = current.cpuTotal - previous.cpuTotal;
+      systemDelta = current.systemCpu - previous.systemCpu;
+    } else {
+      // the daemon includes the previous sample when streaming or when not using one-shot
+      cpuDelta = current.cpuTotal - current.preCpuTotal;
+      systemDelta = current.preSystemCpu > 0 ? current.systemCpu - current.preSystemCpu : 0;
+    }
+
+    int index = next;
+    readMillis[index] = TimeUnit.NANOSECONDS.toMillis(current.readNanos);
+    cpuPercent[index] = cpuDelta > 0 && systemDelta > 0 ? (double) cpuDelta / systemDelta * current.cpus() * 100.0 : 0;
+    memoryUsage[index] = current.memoryUsed();
+    blockReadRate[index] = hasPrevious ? rate(current.blockRead, previous.blockRead, seconds) : 0;
+    blockWriteRate[index] = hasPrevious ? rate(current.blockWrite, previous.blockWrite, seconds) : 0;
+    networkRxRate[index] = hasPrevious ? rate(current.networkRx, previous.networkRx, seconds) : 0;
+    networkTxRate[index] = hasPrevious ? rate(current.networkTx, previous.networkTx, seconds) : 0;
+    next = (index + 1) % cpuPercent.length;
+    size = Math.min(size + 1, cpuPercent.length);
+    samples++;
+    failure = null;
+
+    latest = current;
+    target = previous;
+  }
+
+  private static double rate(long current, long previous, double seconds) {
+    // counters are reset when a container restarts
+    return seconds > 0 && current >= previous ? (current - previous) / seconds : 0;
+  }
+
+  synchronized long getSamples() {
+    return samples;
+  }
+
+  synchronized StatsSnapshot snapshot() {
+    if (samples == 0) {
+      return null;
+    }
+    int index = (next - 1 + cpuPercent.length) % cpuPercent.length;
+    StatsSample sample = latest;
+    return new StatsSnapshot(container,
+                             sample.readNanos > 0 ? Instant.ofEpochSecond(0, sample.readNanos) : null,
+                             cpuPercent[index], memoryUsage[index], sample.memoryLimit,
+                             sample.blockRead, sample.blockWrite, blockReadRate[index], blockWriteRate[index],
+                             sample.networkRx, sample.networkTx, networkRxRate[index], networkTxRate[index],
+                             sample.pids);
+  }
+
+  synchronized StatsWindow window() {
+    int start = (next - size + cpuPercent.length) % cpuPercent.length;
+    return new StatsWindow(container,
+                           chronological(readMillis, start),
+                           chronological(cpuPercent, start),
+                           chronological(memoryUsage, start),
+                           chronological(blockReadRate, start),
+                           chronological(blockWriteRate, start),
+                           chronological(networkRxRate, start),
+                           chronological(networkTxRate, start));
+  }
+
+  private long[] chronological(long[] ring, int start) {
+    long[] copy = new long[size];
+    for (int i = 0; i < size; i++) {
+      copy[i] = ring[(start + i) % ring.length];
+    }
+    return copy;
+  }
+
+  private double[] chronological(double[] ring, int start) {
+    double[] copy = new double[size];
+    for (int i = 0; i < size; i++) {
+      copy[i] = ring[(start + i) % ring.length];
+    }
+    return copy;
+  }
+
+  void setStream(Closeable stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * Stops following the stats, closing a blocked stream.
+   */
+  void deactivate() {
+    active = false;
+    deactivated.countDown();
+    Closeable current = stream;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (IOException ignored) {
+        // the stream is abandoned anyway
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the stats have been deactivated within the given time
+   */
+  boolean awaitDeactivation(long millis) throws InterruptedException {
+    return deactivated.await(millis, TimeUnit.MILLISECONDS);
+  }
+}
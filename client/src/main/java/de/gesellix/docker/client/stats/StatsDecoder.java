@@ -0,0 +1,300 @@
+package de.gesellix.docker.client.stats;
+
+import com.squareup.moshi.JsonReader;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads only the fields needed by the {@link StatsMonitor} from a stats response, skipping everything else.
+ * Field names are matched via precomputed {@link JsonReader.Options}, so that no strings are created for them.
+ */
+final class StatsDecoder {
+
+  private static final JsonReader.Options TOP_LEVEL = JsonReader.Options.of(
+      "read", "cpu_stats", "precpu_stats", "memory_stats", "blkio_stats", "networks", "pids_stats");
+  private static final JsonReader.Options CPU_STATS = JsonReader.Options.of("cpu_usage", "system_cpu_usage", "online_cpus");
+  private static final JsonReader.Options CPU_USAGE = JsonReader.Options.of("total_usage", "percpu_usage");
+  private static final JsonReader.Options MEMORY_STATS = JsonReader.Options.of("usage", "limit", "stats");
+  private static final JsonReader.Options MEMORY_DETAILS = JsonReader.Options.of("inactive_file", "total_inactive_file", "cache");
+  private static final JsonReader.Options BLKIO_STATS = JsonReader.Options.of("io_service_bytes_recursive");
+  private static final JsonReader.Options BLKIO_ENTRY = JsonReader.Options.of("op", "value");
+  private static final JsonReader.Options BLKIO_OPS = JsonReader.Options.of("read", "Read", "write", "Write");
+  private static final JsonReader.Options NETWORK = JsonReader.Options.of("rx_bytes", "tx_bytes");
+  private static final JsonReader.Options PIDS_STATS = JsonReader.Options.of("current");
+
+  private StatsDecoder() {
+  }
+
+  /**
+   * Reads the next stats object. The reader should be lenient, so that a stream of objects can be read.
+   *
+   * @return <code>false</code> at the end of the stream
+   */
+  static boolean decode(JsonReader reader, StatsSample sample) throws IOException {
+    if (reader.peek() == JsonReader.Token.END_DOCUMENT) {
+      return false;
+    }
+    sample.reset();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(TOP_LEVEL)) {
+        case 0:
+          sample.readNanos = readTimestamp(reader);
+          break;
+        case 1:
+          readCpu(reader, sample, false);
+          break;
+        case 2:
+          readCpu(reader, sample, true);
+          break;
+        case 3:
+          readMemory(reader, sample);
+          break;
+        case 4:
+          readBlkio(reader, sample);
+          break;
+        case 5:
+          readNetworks(reader, sample);
+          break;
+        case 6:
+          if (beginObject(reader)) {
+            while (reader.hasNext()) {
+              if (reader.selectName(PIDS_STATS) == 0) {
+                sample.pids = readLong(reader);
+              } else {
+                skip(reader);
+              }
+            }
+            reader.endObject();
+          }
+          break;
+        default:
+          skip(reader);
+      }
+    }
+    reader.endObject();
+    return true;
+  }
+
+  private static void readCpu(JsonReader reader, StatsSample sample, boolean previous) throws IOException {
+    if (!beginObject(reader)) {
+      return;
+    }
+    while (reader.hasNext()) {
+      switch (reader.selectName(CPU_STATS)) {
+        case 0:
+          if (beginObject(reader)) {
+            while (reader.hasNext()) {
+              switch (reader.selectName(CPU_USAGE)) {
+                case 0:
+                  long total = readLong(reader);
+                  if (previous) {
+                    sample.preCpuTotal = total;
+                  } else {
+                    sample.cpuTotal = total;
+                  }
+                  break;
+                case 1:
+                  long count = countArray(reader);
+                  if (!previous) {
+                    sample.perCpuCount = count;
+                  }
+                  break;
+                default:
+                  skip(reader);
+              }
+            }
+            reader.endObject();
+          }
+          break;
+        case 1:
+          long system = readLong(reader);
+          if (previous) {
+            sample.preSystemCpu = system;
+          } else {
+            sample.systemCpu = system;
+          }
+          break;
+        case 2:
+          long online = readLong(reader);
+          if (!previous) {
+            sample.onlineCpus = online;
+          }
+          break;
+        default:
+          skip(reader);
+      }
+    }
+    reader.endObject();
+  }
+
+  private static void readMemory(JsonReader reader, StatsSample sample) throws IOException {
+    if (!beginObject(reader)) {
+      return;
+    }
+    while (reader.hasNext()) {
+      switch (reader.selectName(MEMORY_STATS)) {
+        case 0:
+          sample.memoryUsage = readLong(reader);
+          break;
+        case 1:
+          sample.memoryLimit = readLong(reader);
+          break;
+        case 2:
+          if (beginObject(reader)) {
+            while (reader.hasNext()) {
+              switch (reader.selectName(MEMORY_DETAILS)) {
+                case 0:
+                  sample.memoryInactiveFile = readLong(reader);
+                  break;
+                case 1:
+                  sample.memoryTotalInactiveFile = readLong(reader);
+                  break;
+                case 2:
+                  sample.memoryCache = readLong(reader);
+                  break;
+                default:
+                  skip(reader);
+              }
+            }
+            reader.endObject();
+          }
+          break;
+        default:
+          skip(reader);
+      }
+    }
+    reader.endObject();
+  }
+
+  private static void readBlkio(JsonReader reader, StatsSample sample) throws IOException {
+    if (!beginObject(reader)) {
+      return;
+    }
+    while (reader.hasNext()) {
+      if (reader.selectName(BLKIO_STATS) != 0) {
+        skip(reader);
+        continue;
+      }
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      reader.beginArray();
+      while (reader.hasNext()) {
+        int op = -1;
+        long value = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+          switch (reader.selectName(BLKIO_ENTRY)) {
+            case 0:
+              op = reader.peek() == JsonReader.Token.STRING ? reader.selectString(BLKIO_OPS) : -1;
+              if (op == -1) {
+                reader.skipValue();
+              }
+              break;
+            case 1:
+              value = readLong(reader);
+              break;
+            default:
+              skip(reader);
+          }
+        }
+        reader.endObject();
+        if (op == 0 || op == 1) {
+          sample.blockRead += value;
+        } else if (op == 2 || op == 3) {
+          sample.blockWrite += value;
+        }
+      }
+      reader.endArray();
+    }
+    reader.endObject();
+  }
+
+  private static void readNetworks(JsonReader reader, StatsSample sample) throws IOException {
+    if (!beginObject(reader)) {
+      return;
+    }
+    while (reader.hasNext()) {
+      // interface names
+      reader.skipName();
+      if (!beginObject(reader)) {
+        continue;
+      }
+      while (reader.hasNext()) {
+        switch (reader.selectName(NETWORK)) {
+          case 0:
+            sample.networkRx += readLong(reader);
+            break;
+          case 1:
+            sample.networkTx += readLong(reader);
+            break;
+          default:
+            skip(reader);
+        }
+      }
+      reader.endObject();
+    }
+    reader.endObject();
+  }
+
+  private static long readTimestamp(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonReader.Token.STRING) {
+      reader.skipValue();
+      return 0;
+    }
+    try {
+      Instant read = Instant.parse(reader.nextString());
+      // one-shot and stopped containers report "0001-01-01T00:00:00Z"
+      return read.getEpochSecond() <= 0 ? 0 : TimeUnit.SECONDS.toNanos(read.getEpochSecond()) + read.getNano();
+    } catch (DateTimeParseException e) {
+      return 0;
+    }
+  }
+
+  private static long readLong(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonReader.Token.NUMBER) {
+      reader.skipValue();
+      return 0;
+    }
+    return reader.nextLong();
+  }
+
+  private static long countArray(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+      reader.skipValue();
+      return 0;
+    }
+    long count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      reader.skipValue();
+      count++;
+    }
+    reader.endArray();
+    return count;
+  }
+
+  /**
+   * @return <code>false</code> if the value isn't an object, e.g. <code>null</code>, which has been skipped
+   */
+  private static boolean beginObject(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+      reader.skipValue();
+      return false;
+    }
+    reader.beginObject();
+    return true;
+  }
+
+  private static void skip(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NAME) {
+      reader.skipName();
+    }
+    reader.skipValue();
+  }
+}
@@ -0,0 +1,279 @@
+package de.gesellix.docker.client.stats;
+
+import com.squareup.moshi.JsonReader;
+import de.gesellix.util.DefaultExecutors;
+import okio.Okio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects CPU, memory, block IO and network usage of many containers.
+ * <p>
+ * Responses are decoded field by field into primitive values instead of generic maps,
+ * and each container keeps its most recent samples in primitive ring buffers,
+ * see {@link #getLatest(String)} and {@link #getWindow(String)}.
+ * <p>
+ * By default every container's stats are streamed, i.e. the daemon sends a sample per second and container.
+ * With a <code>samplingInterval</code>, single samples are requested at that interval instead,
+ * which reduces the load on the daemon for many containers:
+ * <pre>
+ * try (StatsMonitor monitor = new StatsMonitor(dockerClient.getStreamingStats(), Duration.ofSeconds(10), 30)) {
+ *   monitor.add(containerIds);
+ *   ...
+ *   monitor.getLatest().forEach((String container, StatsSnapshot stats) -&gt; ...);
+ * }
+ * </pre>
+ * Failed streams are reconnected after {@link #RECONNECT_DELAY}, doubled for every further failure
+ * up to {@link #MAX_RECONNECT_DELAY}. Containers which don't exist anymore aren't followed or sampled anymore.
+ * Their latest failure is available via {@link #getFailure(String)} until they are {@link #remove(String) removed}.
+ */
+public class StatsMonitor implements Closeable {
+
+  private final Logger log = LoggerFactory.getLogger(StatsMonitor.class);
+
+  public static final int DEFAULT_WINDOW_SIZE = 60;
+  public static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+  public static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(1);
+
+  private final StatsSource source;
+  private final Duration samplingInterval;
+  private final int windowSize;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, ContainerStats> containers = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  /**
+   * Streams the stats of every container.
+   */
+  public StatsMonitor(StatsSource source) {
+    this(source, null, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * @param samplingInterval <code>null</code> to stream the stats of every container
+   * @param windowSize       number of samples kept per container
+   */
+  public StatsMonitor(StatsSource source, Duration samplingInterval, int windowSize) {
+    this(source, samplingInterval, windowSize, DefaultExecutors.newTaskExecutor("docker-client-stats"), true);
+  }
+
+  public StatsMonitor(StatsSource source, Duration samplingInterval, int windowSize, Executor executor) {
+    this(source, samplingInterval, windowSize, executor, false);
+  }
+
+  private StatsMonitor(StatsSource source, Duration samplingInterval, int windowSize, Executor executor, boolean ownsExecutor) {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("windowSize must be at least 1, but was " + windowSize);
+    }
+    if (samplingInterval != null && (samplingInterval.isZero() || samplingInterval.isNegative())) {
+      throw new IllegalArgumentException("samplingInterval must be positive, but was " + samplingInterval);
+    }
+    this.source = source;
+    this.samplingInterval = samplingInterval;
+    this.windowSize = windowSize;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(DefaultExecutors.daemonThreadFactory("docker-client-stats-scheduler"));
+    if (samplingInterval != null) {
+      long millis = samplingInterval.toMillis();
+      scheduler.scheduleAtFixedRate(this::sampleAll, 0, millis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void add(String... containers) {
+    add(Arrays.asList(containers));
+  }
+
+  public void add(Collection<String> containers) {
+    if (closed) {
+      throw new IllegalStateException("stats monitor has been closed");
+    }
+    for (String container : containers) {
+      ContainerStats stats = new ContainerStats(container, windowSize);
+      if (this.containers.putIfAbsent(container, stats) == null && samplingInterval == null) {
+        follow(stats);
+      }
+    }
+  }
+
+  public void remove(String container) {
+    ContainerStats stats = containers.remove(container);
+    if (stats != null) {
+      stats.deactivate();
+    }
+  }
+
+  public Set<String> getContainers() {
+    return Collections.unmodifiableSet(containers.keySet());
+  }
+
+  /**
+   * @return <code>null</code> if the container isn't monitored or no sample has been received, yet
+   */
+  public StatsSnapshot getLatest(String container) {
+    ContainerStats stats = containers.get(container);
+    return stats == null ? null : stats.snapshot();
+  }
+
+  /**
+   * @return the latest snapshot of every container with at least one sample
+   */
+  public Map<String, StatsSnapshot> getLatest() {
+    Map<String, StatsSnapshot> latest = new LinkedHashMap<>();
+    containers.forEach((String container, ContainerStats stats) -> {
+      StatsSnapshot snapshot = stats.snapshot();
+      if (snapshot != null) {
+        latest.put(container, snapshot);
+      }
+    });
+    return latest;
+  }
+
+  /**
+   * @return <code>null</code> if the container isn't monitored
+   */
+  public StatsWindow getWindow(String container) {
+    ContainerStats stats = containers.get(container);
+    return stats == null ? null : stats.window();
+  }
+
+  /**
+   * @return the latest failure to read the container's stats, <code>null</code> if the container isn't monitored
+   * or a sample has been received since then. A {@link FileNotFoundException} means that the container doesn't exist anymore.
+   */
+  public Exception getFailure(String container) {
+    ContainerStats stats = containers.get(container);
+    return stats == null ? null : stats.failure;
+  }
+
+  private void follow(ContainerStats stats) {
+    execute(() -> followStream(stats));
+  }
+
+  private void followStream(ContainerStats stats) {
+    long delayMillis = RECONNECT_DELAY.toMillis();
+    while (stats.active && !closed) {
+      long samples = stats.getSamples();
+      try (InputStream stream = source.open(stats.container, true)) {
+        stats.setStream(stream);
+        JsonReader reader = JsonReader.of(Okio.buffer(Okio.source(stream)));
+        // the stream consists of one JSON object per sample
+        reader.setLenient(true);
+        while (stats.active && StatsDecoder.decode(reader, stats.target())) {
+          stats.record();
+        }
+      } catch (FileNotFoundException e) {
+        gone(stats, e);
+        return;
+      } catch (IOException | RuntimeException e) {
+        failed(stats, e);
+      } finally {
+        stats.setStream(null);
+      }
+      if (stats.getSamples() > samples) {
+        delayMillis = RECONNECT_DELAY.toMillis();
+      }
+      try {
+        if (stats.awaitDeactivation(delayMillis)) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      delayMillis = Math.min(delayMillis * 2, MAX_RECONNECT_DELAY.toMillis());
+    }
+  }
+
+  private void sampleAll() {
+    for (ContainerStats stats : containers.values()) {
+      // containers whose previous sample hasn't been received, yet, are skipped
+      if (stats.active && stats.inFlight.compareAndSet(false, true)) {
+        execute(() -> {
+          try {
+            sample(stats);
+          } finally {
+            stats.inFlight.set(false);
+          }
+        });
+      }
+    }
+  }
+
+  private void sample(ContainerStats stats) {
+    try (InputStream stream = source.open(stats.container, false)) {
+      stats.setStream(stream);
+      JsonReader reader = JsonReader.of(Okio.buffer(Okio.source(stream)));
+      if (stats.active && StatsDecoder.decode(reader, stats.target())) {
+        stats.record();
+      }
+    } catch (FileNotFoundException e) {
+      gone(stats, e);
+    } catch (IOException | RuntimeException e) {
+      failed(stats, e);
+    } finally {
+      stats.setStream(null);
+    }
+  }
+
+  private void gone(ContainerStats stats, FileNotFoundException e) {
+    if (stats.active && !closed) {
+      log.info("stopped reading the stats of '{}': {}", stats.container, e.getMessage());
+      stats.failure = e;
+      stats.deactivate();
+    }
+  }
+
+  private void failed(ContainerStats stats, Exception e) {
+    if (stats.active && !closed) {
+      if (stats.failure == null) {
+        log.warn("stats of '{}' failed", stats.container, e);
+      } else {
+        log.debug("stats of '{}' failed again", stats.container, e);
+      }
+      stats.failure = e;
+    }
+  }
+
+  private void execute(Runnable task) {
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      if (!closed) {
+        log.warn("stats task rejected", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    scheduler.shutdownNow();
+    containers.values().forEach(ContainerStats::deactivate);
+    containers.clear();
+    if (ownsExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdownNow();
+    }
+  }
+}
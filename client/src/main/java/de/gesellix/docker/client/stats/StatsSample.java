@@ -0,0 +1,68 @@
+package de.gesellix.docker.client.stats;
+
+/**
+ * The fields of a single stats response needed to compute rates.
+ * Instances are reused for subsequent samples of the same container.
+ */
+final class StatsSample {
+
+  long readNanos;
+  long receivedNanos;
+
+  long cpuTotal;
+  long systemCpu;
+  long onlineCpus;
+  long perCpuCount;
+  long preCpuTotal;
+  long preSystemCpu;
+
+  long memoryUsage;
+  long memoryLimit;
+  long memoryInactiveFile;
+  long memoryTotalInactiveFile;
+  long memoryCache;
+
+  long blockRead;
+  long blockWrite;
+
+  long networkRx;
+  long networkTx;
+
+  long pids;
+
+  void reset() {
+    readNanos = 0;
+    receivedNanos = 0;
+    cpuTotal = 0;
+    systemCpu = 0;
+    onlineCpus = 0;
+    perCpuCount = 0;
+    preCpuTotal = 0;
+    preSystemCpu = 0;
+    memoryUsage = 0;
+    memoryLimit = 0;
+    memoryInactiveFile = 0;
+    memoryTotalInactiveFile = 0;
+    memoryCache = 0;
+    blockRead = 0;
+    blockWrite = 0;
+    networkRx = 0;
+    networkTx = 0;
+    pids = 0;
+  }
+
+  /**
+   * Mirrors the Docker CLI, which doesn't count the page cache as used memory.
+   */
+  long memoryUsed() {
+    long cache = memoryInactiveFile > 0 ? memoryInactiveFile : memoryTotalInactiveFile > 0 ? memoryTotalInactiveFile : memoryCache;
+    return cache < memoryUsage ? memoryUsage - cache : memoryUsage;
+  }
+
+  long cpus() {
+    if (onlineCpus > 0) {
+      return onlineCpus;
+    }
+    return perCpuCount > 0 ? perCpuCount : 1;
+  }
+}
@@ -0,0 +1,142 @@
+package de.gesellix.docker.client.stats;
+
+import java.time.Instant;
+
+/**
+ * Usage and rates of a container, computed from two subsequent stats samples.
+ */
+public class StatsSnapshot {
+
+  private final String container;
+  private final Instant read;
+  private final double cpuPercent;
+  private final long memoryUsage;
+  private final long memoryLimit;
+  private final long blockRead;
+  private final long blockWrite;
+  private final double blockReadRate;
+  private final double blockWriteRate;
+  private final long networkRx;
+  private final long networkTx;
+  private final double networkRxRate;
+  private final double networkTxRate;
+  private final long pids;
+
+  public StatsSnapshot(String container, Instant read,
+                       double cpuPercent, long memoryUsage, long memoryLimit,
+                       long blockRead, long blockWrite, double blockReadRate, double blockWriteRate,
+                       long networkRx, long networkTx, double networkRxRate, double networkTxRate,
+                       long pids) {
+    this.container = container;
+    this.read = read;
+    this.cpuPercent = cpuPercent;
+    this.memoryUsage = memoryUsage;
+    this.memoryLimit = memoryLimit;
+    this.blockRead = blockRead;
+    this.blockWrite = blockWrite;
+    this.blockReadRate = blockReadRate;
+    this.blockWriteRate = blockWriteRate;
+    this.networkRx = networkRx;
+    this.networkTx = networkTx;
+    this.networkRxRate = networkRxRate;
+    this.networkTxRate = networkTxRate;
+    this.pids = pids;
+  }
+
+  public String getContainer() {
+    return container;
+  }
+
+  /**
+   * @return when the daemon has read the stats, <code>null</code> if unknown
+   */
+  public Instant getRead() {
+    return read;
+  }
+
+  /**
+   * @return CPU usage like <code>docker stats</code> reports it, i.e. up to 100% per CPU
+   */
+  public double getCpuPercent() {
+    return cpuPercent;
+  }
+
+  /**
+   * @return memory usage without the page cache, like <code>docker stats</code> reports it
+   */
+  public long getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  public long getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  public double getMemoryPercent() {
+    return memoryLimit > 0 ? memoryUsage * 100.0 / memoryLimit : 0;
+  }
+
+  /**
+   * @return bytes read from block devices since the container has been started
+   */
+  public long getBlockRead() {
+    return blockRead;
+  }
+
+  public long getBlockWrite() {
+    return blockWrite;
+  }
+
+  /**
+   * @return bytes per second
+   */
+  public double getBlockReadRate() {
+    return blockReadRate;
+  }
+
+  public double getBlockWriteRate() {
+    return blockWriteRate;
+  }
+
+  /**
+   * @return bytes received via all networks since the container has been started
+   */
+  public long getNetworkRx() {
+    return networkRx;
+  }
+
+  public long getNetworkTx() {
+    return networkTx;
+  }
+
+  /**
+   * @return bytes per second
+   */
+  public double getNetworkRxRate() {
+    return networkRxRate;
+  }
+
+  public double getNetworkTxRate() {
+    return networkTxRate;
+  }
+
+  public long getPids() {
+    return pids;
+  }
+
+  @Override
+  public String toString() {
+    return "StatsSnapshot{" +
+           "container='" + container + '\'' +
+           ", read=" + read +
+           ", cpuPercent=" + cpuPercent +
+           ", memoryUsage=" + memoryUsage +
+           ", memoryLimit=" + memoryLimit +
+           ", blockReadRate=" + blockReadRate +
+           ", blockWriteRate=" + blockWriteRate +
+           ", networkRxRate=" + networkRxRate +
+           ", networkTxRate=" + networkTxRate +
+           ", pids=" + pids +
+           '}';
+  }
+}
@@ -0,0 +1,18 @@
+package de.gesellix.docker.client.stats;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Provides the raw JSON of <code>GET /containers/{id}/stats</code>.
+ */
+public interface StatsSource {
+
+  /**
+   * @param stream <code>true</code> for a stream of JSON objects, one per second,
+   *               <code>false</code> for a single sample
+   * @return the response body, to be closed by the caller
+   * @throws java.io.FileNotFoundException when the container doesn't exist
+   */
+  InputStream open(String container, boolean stream) throws IOException;
+}
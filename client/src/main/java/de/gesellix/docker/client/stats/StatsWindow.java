@@ -0,0 +1,107 @@
+package de.gesellix.docker.client.stats;
+
+/**
+ * The most recent samples of a container, oldest first.
+ * Arrays are copies, so that they can be read without locking.
+ */
+public class StatsWindow {
+
+  private final String container;
+  private final long[] readMillis;
+  private final double[] cpuPercent;
+  private final long[] memoryUsage;
+  private final double[] blockReadRate;
+  private final double[] blockWriteRate;
+  private final double[] networkRxRate;
+  private final double[] networkTxRate;
+
+  StatsWindow(String container, long[] readMillis, double[] cpuPercent, long[] memoryUsage,
+              double[] blockReadRate, double[] blockWriteRate, double[] networkRxRate, double[] networkTxRate) {
+    this.container = container;
+    this.readMillis = readMillis;
+    this.cpuPercent = cpuPercent;
+    this.memoryUsage = memoryUsage;
+    this.blockReadRate = blockReadRate;
+    this.blockWriteRate = blockWriteRate;
+    this.networkRxRate = networkRxRate;
+    this.networkTxRate = networkTxRate;
+  }
+
+  public String getContainer() {
+    return container;
+  }
+
+  public int size() {
+    return cpuPercent.length;
+  }
+
+  /**
+   * @return epoch millis of each sample, <code>0</code> if unknown
+   */
+  public long[] getReadMillis() {
+    return readMillis;
+  }
+
+  public double[] getCpuPercent() {
+    return cpuPercent;
+  }
+
+  public long[] getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  public double[] getBlockReadRate() {
+    return blockReadRate;
+  }
+
+  public double[] getBlockWriteRate() {
+    return blockWriteRate;
+  }
+
+  public double[] getNetworkRxRate() {
+    return networkRxRate;
+  }
+
+  public double[] getNetworkTxRate() {
+    return networkTxRate;
+  }
+
+  public double getAverageCpuPercent() {
+    return average(cpuPercent);
+  }
+
+  public double getMaxCpuPercent() {
+    double max = 0;
+    for (double value : cpuPercent) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+
+  public long getMaxMemoryUsage() {
+    long max = 0;
+    for (long value : memoryUsage) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+
+  public double getAverageNetworkRxRate() {
+    return average(networkRxRate);
+  }
+
+  public double getAverageNetworkTxRate() {
+    return average(networkTxRate);
+  }
+
+  private static double average(double[] values) {
+    if (values.length == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (double value : values) {
+      sum += value;
+    }
+    return sum / values.length;
+  }
+}
@@ -0,0 +1,243 @@
+package de.gesellix.docker.client.system;
+
+import de.gesellix.docker.remote.api.EventMessage;
+import de.gesellix.docker.remote.api.SwarmInfo;
+import de.gesellix.docker.remote.api.SystemInfo;
+import de.gesellix.docker.remote.api.SystemVersion;
+import de.gesellix.docker.remote.api.core.Cancellable;
+import de.gesellix.docker.remote.api.core.StreamCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the rarely changing properties of a daemon, like its platform, API version,
+ * and swarm membership, so that callers don't need a <code>docker version</code>
+ * or <code>docker info</code> round trip per operation.
+ * <p>
+ * Both responses are cached independently for the configured time to live,
+ * which defaults to one minute and can be overridden via <code>-Ddocker.client.capabilitiesTtlMillis</code>.
+ * A zero or negative TTL disables caching.
+ * <p>
+ * Swarm membership can change at any time. Callers that follow the daemon's events,
+ * e.g. via {@link #getEventsRequest()} and {@link #getEventCallback()},
+ * get cached values invalidated on <code>daemon</code> and <code>node</code> events.
+ */
+public class DaemonCapabilities {
+
+  private static final Logger log = LoggerFactory.getLogger(DaemonCapabilities.class);
+
+  public static final String TTL_PROPERTY = "docker.client.capabilitiesTtlMillis";
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+  private final LongSupplier nanoClock;
+  private final Cached<SystemVersion> version;
+  private final Cached<SystemInfo> info;
+  private volatile Duration ttl;
+
+  public DaemonCapabilities(ManageSystem manageSystem) {
+    this(manageSystem, Duration.ofMillis(Long.getLong(TTL_PROPERTY, DEFAULT_TTL.toMillis())));
+  }
+
+  public DaemonCapabilities(ManageSystem manageSystem, Duration ttl) {
+    this(manageSystem, ttl, System::nanoTime);
+  }
+
+  DaemonCapabilities(ManageSystem manageSystem, Duration ttl, LongSupplier nanoClock) {
+    this.ttl = ttl;
+    this.nanoClock = nanoClock;
+    this.version = new Cached<>(() -> manageSystem.version().getContent());
+    this.info = new Cached<>(() -> manageSystem.info().getContent());
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * @return the (possibly cached) response of <code>docker version</code>
+   */
+  public SystemVersion getVersion() {
+    return version.get();
+  }
+
+  /**
+   * @return the (possibly cached) response of <code>docker info</code>
+   */
+  public SystemInfo getInfo() {
+    return info.get();
+  }
+
+  public String getOs() {
+    return getVersion().getOs();
+  }
+
+  public String getArch() {
+    return getVersion().getArch();
+  }
+
+  public String getApiVersion() {
+    return getVersion().getApiVersion();
+  }
+
+  public String getDaemonVersion() {
+    return getVersion().getVersion();
+  }
+
+  /**
+   * @return <code>true</code> for Windows daemons running native Windows containers
+   */
+  public boolean isNativeWindows() {
+    return "windows/amd64".equals(getOs() + "/" + getArch());
+  }
+
+  public String getOsType() {
+    return getInfo().getOsType();
+  }
+
+  public SystemInfo.Isolation getIsolation() {
+    return getInfo().getIsolation();
+  }
+
+  /**
+   * @return the swarm node id, empty when the daemon is not part of a swarm
+   */
+  public String getSwarmNodeId() {
+    SwarmInfo swarm = getSwarm();
+    return swarm == null ? null : swarm.getNodeID();
+  }
+
+  public boolean isSwarmManager() {
+    SwarmInfo swarm = getSwarm();
+    return swarm != null && Boolean.TRUE.equals(swarm.getControlAvailable());
+  }
+
+  private SwarmInfo getSwarm() {
+    SystemInfo systemInfo = getInfo();
+    return systemInfo == null ? null : systemInfo.getSwarm();
+  }
+
+  public void invalidate() {
+    version.invalidate();
+    info.invalidate();
+  }
+
+  /**
+   * Invalidates the cached <code>docker info</code> only, e.g. after joining or leaving a swarm.
+   */
+  public void invalidateInfo() {
+    info.invalidate();
+  }
+
+  /**
+   * Node events may change the swarm membership or manager status of the daemon,
+   * daemon events like <code>reload</code> may change anything.
+   */
+  public void onEvent(EventMessage event) {
+    if (event == null || event.getType() == null) {
+      return;
+    }
+    switch (event.getType().getValue()) {
+      case "daemon":
+        log.debug("invalidating daemon capabilities after daemon event '{}'", event.getAction());
+        invalidate();
+        break;
+      case "node":
+        log.debug("invalidating daemon info after node event '{}'", event.getAction());
+        invalidateInfo();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * @return a request for only those events which affect the cached values
+   */
+  public SystemEventsRequest getEventsRequest() {
+    return new SystemEventsRequest(null, null, "{\"type\":[\"daemon\",\"node\"]}");
+  }
+
+  /**
+   * @return a callback for {@link ManageSystem#events(SystemEventsRequest, StreamCallback, Duration)}
+   * which invalidates the cache on relevant events
+   */
+  public StreamCallback<EventMessage> getEventCallback() {
+    return new StreamCallback<EventMessage>() {
+
+      @Override
+      public void onStarting(Cancellable cancellable) {
+        // events might have been missed while not being subscribed
+        invalidate();
+      }
+
+      @Override
+      public void onNext(EventMessage element) {
+        onEvent(element);
+      }
+
+      @Override
+      public void onFailed(Exception e) {
+        log.debug("events stream failed, invalidating daemon capabilities", e);
+        invalidate();
+      }
+
+      @Override
+      public void onFinished() {
+        invalidate();
+      }
+    };
+  }
+
+  private class Cached<T> {
+
+    private final Supplier<T> loader;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile T value;
+    private volatile long loadedAt;
+
+    Cached(Supplier<T> loader) {
+      this.loader = loader;
+    }
+
+    T get() {
+      T current = value;
+      if (current != null && isFresh(loadedAt)) {
+        return current;
+      }
+      synchronized (this) {
+        // another thread might have loaded the value while we were waiting
+        if (value != null && isFresh(loadedAt)) {
+          return value;
+        }
+        long loadingGeneration = generation.get();
+        T loaded = loader.get();
+        // don't cache a response which might predate a concurrent invalidation
+        if (generation.get() == loadingGeneration) {
+          loadedAt = nanoClock.getAsLong();
+          value = loaded;
+        }
+        return loaded;
+      }
+    }
+
+    void invalidate() {
+      generation.incrementAndGet();
+      value = null;
+    }
+
+    private boolean isFresh(long loadedAt) {
+      Duration currentTtl = ttl;
+      return currentTtl != null && !currentTtl.isZero() && !currentTtl.isNegative()
+             && nanoClock.getAsLong() - loadedAt < currentTtl.toNanos();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package de.gesellix.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of equally sized heap buffers, e.g. for copying streams without allocating a buffer per call.
+ * <p>
+ * Buffers are backed by an accessible array, so that they can be used with both streams and channels.
+ * {@link #acquire()} allocates a new buffer when the pool is empty, {@link #release(ByteBuffer)}
+ * drops buffers exceeding the pool's capacity.
+ */
+public class ByteBufferPool {
+
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+  public static final int DEFAULT_MAX_POOLED = 16;
+
+  // unlike ConcurrentLinkedQueue, an ArrayBlockingQueue doesn't allocate a node per offer
+  private final BlockingQueue<ByteBuffer> buffers;
+  private final int bufferSize;
+
+  public ByteBufferPool() {
+    this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+  }
+
+  public ByteBufferPool(int bufferSize, int maxPooled) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize must be at least 1, but was " + bufferSize);
+    }
+    if (maxPooled < 1) {
+      throw new IllegalArgumentException("maxPooled must be at least 1, but was " + maxPooled);
+    }
+    this.bufferSize = bufferSize;
+    this.buffers = new ArrayBlockingQueue<>(maxPooled);
+  }
+
+  /**
+   * @return a cleared buffer
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocate(bufferSize);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  public void release(ByteBuffer buffer) {
+    if (buffer != null && buffer.capacity() == bufferSize && buffer.hasArray()) {
+      buffers.offer(buffer);
+    }
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return number of idle buffers
+   */
+  public int getPooled() {
+    return buffers.size();
+  }
+}
@@ -0,0 +1,59 @@
+package de.gesellix.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lets concurrent identical calls of the given operations share one in-flight request, see {@link SingleFlight}.
+ * <p>
+ * Calls are identical when the operation and all arguments are equal.
+ * Coalesced callers receive the same response instance, which must not be modified.
+ */
+public class CoalescingInterceptor implements Interceptor {
+
+  private final Set<String> coalesced;
+  private final SingleFlight<List<Object>, Object> singleFlight;
+
+  /**
+   * @param operations   names of the methods to coalesce, e.g. <code>inspectContainer</code>
+   * @param singleFlight keeps the in-flight calls and the hit rate, may be shared by several interceptors
+   */
+  public CoalescingInterceptor(Collection<String> operations, SingleFlight<List<Object>, Object> singleFlight) {
+    this.coalesced = new HashSet<>(operations);
+    this.singleFlight = singleFlight;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, E extends Throwable> T intercept(String operation, Object[] args, Invocation<T, E> invocation) throws E {
+    if (!coalesced.contains(operation)) {
+      return invocation.proceed();
+    }
+    // exceptions are passed on unchanged, their declared type is checked by the wrapper's method
+    Invocation<T, RuntimeException> unchecked = (Invocation<T, RuntimeException>) (Invocation<T, ?>) invocation;
+    try {
+      return (T) singleFlight.execute(key(operation, args), unchecked::proceed);
+    } catch (Exception e) {
+      throw CoalescingInterceptor.<RuntimeException>rethrow(e);
+    }
+  }
+
+  /**
+   * @return the operation followed by the arguments, so that operations can be told apart by <code>key.get(0)</code>
+   */
+  private static List<Object> key(String operation, Object[] args) {
+    List<Object> key = new ArrayList<>(1 + args.length);
+    key.add(operation);
+    key.addAll(Arrays.asList(args));
+    return key;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <X extends Throwable> X rethrow(Throwable failure) throws X {
+    throw (X) failure;
+  }
+}
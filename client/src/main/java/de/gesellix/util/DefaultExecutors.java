@@ -0,0 +1,93 @@
+package de.gesellix.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for asynchronous client operations.
+ * <p>
+ * The library targets Java 8, so virtual threads are looked up reflectively.
+ * On runtimes without virtual threads a pool of daemon threads is used instead.
+ */
+public final class DefaultExecutors {
+
+  private static final Logger log = LoggerFactory.getLogger(DefaultExecutors.class);
+
+  private DefaultExecutors() {
+  }
+
+  /**
+   * @param name used as thread name prefix when falling back to platform threads
+   * @return an executor which starts a new (virtual) thread per task
+   */
+  public static ExecutorService newTaskExecutor(String name) {
+    ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+    if (virtualThreads != null) {
+      return virtualThreads;
+    }
+    return Executors.newCachedThreadPool(daemonThreadFactory(name));
+  }
+
+  /**
+   * Like {@link #newTaskExecutor(String)}, but on runtimes without virtual threads at most <code>maxThreads</code>
+   * platform threads are used. Further tasks are queued until a thread becomes available.
+   *
+   * @param name used as thread name prefix when falling back to platform threads
+   */
+  public static ExecutorService newBoundedTaskExecutor(String name, int maxThreads) {
+    if (maxThreads < 1) {
+      throw new IllegalArgumentException("maxThreads must be at least 1, but was " + maxThreads);
+    }
+    ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+    if (virtualThreads != null) {
+      return virtualThreads;
+    }
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        maxThreads, maxThreads,
+        60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        daemonThreadFactory(name));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  public static boolean supportsVirtualThreads() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  public static ThreadFactory daemonThreadFactory(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // e.g. preview features not enabled on Java 19/20
+      log.debug("virtual threads not available, falling back to platform threads", e);
+      return null;
+    }
+  }
+}
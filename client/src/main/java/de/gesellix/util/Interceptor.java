@@ -0,0 +1,40 @@
+package de.gesellix.util;
+
+/**
+ * Runs code around the operations of a delegating wrapper, see {@link de.gesellix.docker.client.InterceptingClients}.
+ * <p>
+ * Exceptions of the invocation, including checked exceptions which Groovy implementations throw without declaring them,
+ * must be passed on unchanged.
+ */
+public interface Interceptor {
+
+  /**
+   * @param operation the name of the called method
+   * @param args      the arguments of the called method, must not be modified
+   */
+  <T, E extends Throwable> T intercept(String operation, Object[] args, Invocation<T, E> invocation) throws E;
+
+  /**
+   * @return an interceptor which runs <code>inner</code> inside of <code>outer</code>,
+   * or the other one when one of them is <code>null</code>
+   */
+  static Interceptor chain(Interceptor outer, Interceptor inner) {
+    if (outer == null) {
+      return inner;
+    }
+    if (inner == null) {
+      return outer;
+    }
+    return new Interceptor() {
+      @Override
+      public <T, E extends Throwable> T intercept(String operation, Object[] args, Invocation<T, E> invocation) throws E {
+        return outer.intercept(operation, args, () -> inner.intercept(operation, args, invocation));
+      }
+    };
+  }
+
+  interface Invocation<T, E extends Throwable> {
+
+    T proceed() throws E;
+  }
+}
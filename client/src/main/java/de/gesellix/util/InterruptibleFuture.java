@@ -0,0 +1,132 @@
+package de.gesellix.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CompletableFuture} which runs a blocking {@link Callable} and,
+ * unlike {@link CompletableFuture#supplyAsync(java.util.function.Supplier)},
+ * interrupts the running thread when being cancelled or aborted.
+ * <p>
+ * Interrupting a platform thread doesn't abort a blocking socket read,
+ * so callers running HTTP calls should pass a {@link Canceller} which cancels the calls
+ * registered under the running future's {@link #currentToken() token}.
+ */
+public class InterruptibleFuture<T> extends CompletableFuture<T> implements Runnable {
+
+  private static final ThreadLocal<Object> CURRENT = new ThreadLocal<>();
+
+  private final Callable<T> action;
+  private final Canceller canceller;
+  private final Object lock = new Object();
+  private Thread runner;
+  private boolean interruptedRunner;
+
+  public InterruptibleFuture(Callable<T> action) {
+    this(action, null);
+  }
+
+  /**
+   * @param canceller called with this future's token after interrupting the running action, <code>null</code> to only interrupt
+   */
+  public InterruptibleFuture(Callable<T> action, Canceller canceller) {
+    this.action = action;
+    this.canceller = canceller;
+  }
+
+  @Override
+  public void run() {
+    synchronized (lock) {
+      if (isDone()) {
+        return;
+      }
+      runner = Thread.currentThread();
+    }
+    Object previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      complete(action.call());
+    } catch (Throwable t) {
+      completeExceptionally(t);
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+      boolean clearInterrupt;
+      synchronized (lock) {
+        runner = null;
+        clearInterrupt = interruptedRunner;
+      }
+      if (canceller != null) {
+        canceller.release(this);
+      }
+      // don't leak our own interrupt into the next task of a pooled thread
+      if (clearInterrupt) {
+        Thread.interrupted();
+      }
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled) {
+      interruptRunner();
+    }
+    return cancelled;
+  }
+
+  /**
+   * Completes this future with the given cause, e.g. a {@link java.util.concurrent.TimeoutException},
+   * and interrupts the running action.
+   */
+  public boolean abort(Throwable cause) {
+    boolean aborted = completeExceptionally(cause);
+    if (aborted) {
+      interruptRunner();
+    }
+    return aborted;
+  }
+
+  /**
+   * The token of the future whose action runs on the current thread, <code>null</code> outside of an action.
+   * Work which should be cancelled along with the future, e.g. HTTP calls, is registered under this token.
+   */
+  public static Object currentToken() {
+    return CURRENT.get();
+  }
+
+  private void interruptRunner() {
+    // cancelling under the lock ensures that only work of this future's action is cancelled,
+    // not work of the next task on a pooled thread
+    synchronized (lock) {
+      if (runner != null) {
+        interruptedRunner = true;
+        runner.interrupt();
+        if (canceller != null) {
+          canceller.cancel(this);
+        }
+      }
+    }
+  }
+
+  /**
+   * Cancels the work registered under a future's {@link #currentToken() token}.
+   */
+  public interface Canceller {
+
+    /**
+     * Called while the future's action is still running.
+     */
+    void cancel(Object token);
+
+    /**
+     * Called after the future's action has returned. Work which outlives the action, e.g. a streamed response,
+     * is no longer cancelled along with the future, so its registration can be dropped.
+     */
+    default void release(Object token) {
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package de.gesellix.util;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import okio.Okio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the elements of a JSON array one by one, so that only the current element
+ * and the read buffer are kept in memory.
+ * <p>
+ * The underlying stream is closed after the last element or when {@link #close() closed} early,
+ * e.g. after finding the element of interest. Closing a response stream early aborts the request,
+ * so the rest of the response won't be transferred.
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+  private final InputStream source;
+  private final JsonReader reader;
+  private final JsonAdapter<T> adapter;
+  private boolean started;
+  private boolean closed;
+
+  public JsonArrayIterator(InputStream json, JsonAdapter<T> adapter) {
+    this.source = json;
+    this.reader = JsonReader.of(Okio.buffer(Okio.source(json)));
+    this.adapter = adapter;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed) {
+      return false;
+    }
+    try {
+      if (!started) {
+        started = true;
+        reader.beginArray();
+      }
+      if (reader.hasNext()) {
+        return true;
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      // e.g. a JsonDataException when the content isn't an array
+      close();
+      throw e;
+    }
+    close();
+    return false;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      return adapter.fromJson(reader);
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Passes each element to the action until the action returns <code>false</code>.
+   *
+   * @return the number of elements passed to the action
+   */
+  public int forEachWhile(Predicate<T> action) {
+    int count = 0;
+    try {
+      while (hasNext()) {
+        count++;
+        if (!action.test(next())) {
+          break;
+        }
+      }
+    } finally {
+      close();
+    }
+    return count;
+  }
+
+  /**
+   * @return a sequential stream, which should be closed when not being consumed completely,
+   * e.g. via try-with-resources
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      reader.close();
+    } catch (IOException ignored) {
+      // the source is closed below
+    }
+    try {
+      source.close();
+    } catch (IOException ignored) {
+      // nothing left to release
+    }
+  }
+}
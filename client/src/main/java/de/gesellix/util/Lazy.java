@@ -0,0 +1,53 @@
+package de.gesellix.util;
+
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe, resettable holder which creates its value on first access.
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+  private final Supplier<T> factory;
+  private volatile T value;
+
+  public Lazy(Supplier<T> factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public T get() {
+    T current = value;
+    if (current == null) {
+      synchronized (this) {
+        current = value;
+        if (current == null) {
+          current = factory.get();
+          value = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Replaces the value, e.g. with a preconfigured instance or a test double.
+   */
+  public synchronized void set(T value) {
+    this.value = value;
+  }
+
+  /**
+   * Forgets the value, so that the next access creates a new one.
+   *
+   * @return the previous value, or <code>null</code> if it has not been created yet
+   */
+  public synchronized T reset() {
+    T previous = value;
+    value = null;
+    return previous;
+  }
+
+  public boolean isInitialized() {
+    return value != null;
+  }
+}
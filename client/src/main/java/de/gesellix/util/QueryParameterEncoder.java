@@ -2,21 +2,30 @@ package de.gesellix.util;
 
 import java.util.Map;
 
+import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
+import de.gesellix.docker.client.filters.Filters;
 
 public class QueryParameterEncoder {
 
-  private final Moshi moshi = new Moshi.Builder().build();
+  // Moshi and its adapters are thread-safe, there's no need for an instance per encoder
+  private static final JsonAdapter<Map> mapAdapter = new Moshi.Builder().build().adapter(Map.class);
 
+  /**
+   * Replaces the parameter's value with its JSON representation.
+   * Supports plain Maps and {@link Filters}, whose encoded form is reused.
+   */
   public void jsonEncodeQueryParameter(Map<String, Object> query, String parameterName) {
-    query.forEach((k, v) -> {
-      if (v != null && parameterName.equals(k)) {
-        if (v instanceof Map) {
-          query.put(k, moshi.adapter(Map.class).toJson((Map<?, ?>) v));
-        } else {
-          throw new UnsupportedOperationException(String.format("Only Maps are supported, but a $2%s has been found for key $1%s", k, v));
-        }
-      }
-    });
+    Object value = query.get(parameterName);
+    if (value == null) {
+      return;
+    }
+    if (value instanceof Filters) {
+      query.put(parameterName, ((Filters) value).toJson());
+    } else if (value instanceof Map) {
+      query.put(parameterName, mapAdapter.toJson((Map<?, ?>) value));
+    } else {
+      throw new UnsupportedOperationException(String.format("Only Maps are supported, but a %2$s has been found for key %1$s", parameterName, value));
+    }
   }
 }
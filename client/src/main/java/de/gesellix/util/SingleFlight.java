@@ -0,0 +1,97 @@
+package de.gesellix.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Lets concurrent callers with the same key share a single in-flight call and its result.
+ * <p>
+ * Nothing is cached: as soon as the call has finished, the next caller triggers a new call.
+ * Failures are shared the same way as results.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final Consumer<K> onCoalesced;
+
+  public SingleFlight() {
+    this((K key) -> {
+    });
+  }
+
+  /**
+   * @param onCoalesced notified for every caller which joined an in-flight call
+   */
+  public SingleFlight(Consumer<K> onCoalesced) {
+    this.onCoalesced = onCoalesced;
+  }
+
+  public V execute(K key, Callable<V> call) throws Exception {
+    calls.increment();
+    CompletableFuture<V> own = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+    if (existing != null) {
+      coalesced.increment();
+      onCoalesced.accept(key);
+      return await(existing);
+    }
+
+    V result;
+    try {
+      result = call.call();
+    } catch (Exception | Error e) {
+      // callers arriving from now on start a new call
+      inFlight.remove(key, own);
+      own.completeExceptionally(e);
+      throw e;
+    }
+    inFlight.remove(key, own);
+    own.complete(result);
+    return result;
+  }
+
+  private V await(CompletableFuture<V> call) throws Exception {
+    try {
+      return call.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * @return number of calls currently shared by one or more callers
+   */
+  public int getInFlight() {
+    return inFlight.size();
+  }
+
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * @return number of callers which didn't trigger a call of their own
+   */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  public double getHitRate() {
+    long total = calls.sum();
+    return total == 0 ? 0.0 : (double) coalesced.sum() / total;
+  }
+}
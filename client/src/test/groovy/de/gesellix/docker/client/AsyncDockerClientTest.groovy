@@ -0,0 +1,159 @@
+package de.gesellix.docker.client
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.remote.api.ContainerInspectResponse
+import de.gesellix.docker.testutil.HttpTestServer
+import spock.lang.Specification
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsyncDockerClientTest extends Specification {
+
+  def "runs operations on the given executor"() {
+    given:
+    def dockerClient = Mock(DockerClient)
+    def executor = Executors.newSingleThreadExecutor()
+    def asyncClient = new AsyncDockerClient(dockerClient, executor)
+    def inspectResponse = new EngineResponseContent<ContainerInspectResponse>(Mock(ContainerInspectResponse))
+
+    when:
+    def result = asyncClient.inspectContainer("a-container").get(5, TimeUnit.SECONDS)
+
+    then:
+    1 * dockerClient.inspectContainer("a-container") >> inspectResponse
+    result == inspectResponse
+
+    cleanup:
+    executor.shutdown()
+  }
+
+  def "completes exceptionally when the operation fails"() {
+    given:
+    def dockerClient = Mock(DockerClient)
+    def asyncClient = new AsyncDockerClient(dockerClient)
+
+    when:
+    def future = asyncClient.startContainer("a-container")
+    future.join()
+
+    then:
+    1 * dockerClient.startContainer("a-container") >> { throw new IllegalStateException("failed") }
+    def exception = thrown(Exception)
+    exception.cause instanceof IllegalStateException
+
+    cleanup:
+    asyncClient.close()
+  }
+
+  def "cancellation interrupts the running call"() {
+    given:
+    def started = new CountDownLatch(1)
+    def interrupted = new CountDownLatch(1)
+    def dockerClient = Stub(DockerClient) {
+      ping() >> {
+        started.countDown()
+        try {
+          Thread.sleep(10000)
+        }
+        catch (InterruptedException ignored) {
+          interrupted.countDown()
+        }
+        return new EngineResponseContent<String>("OK")
+      }
+    }
+    def asyncClient = new AsyncDockerClient(dockerClient)
+
+    when:
+    def future = asyncClient.ping()
+    started.await(5, TimeUnit.SECONDS)
+    future.cancel(true)
+    future.join()
+
+    then:
+    thrown(CancellationException)
+    interrupted.await(5, TimeUnit.SECONDS)
+
+    cleanup:
+    asyncClient.close()
+  }
+
+  def "cancellation aborts a blocking http call"() {
+    given:
+    def requested = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def server = new HttpTestServer()
+    def serverAddress = server.start('/', { HttpExchange httpExchange ->
+      requested.countDown()
+      release.await(30, TimeUnit.SECONDS)
+      httpExchange.sendResponseHeaders(200, -1)
+      httpExchange.close()
+    } as HttpHandler)
+    def dockerClient = new DockerClientImpl("tcp://127.0.0.1:${serverAddress.port}")
+    def executor = Executors.newSingleThreadExecutor()
+    def asyncClient = new AsyncDockerClient(dockerClient, executor)
+
+    when:
+    def future = asyncClient.ping()
+    requested.await(5, TimeUnit.SECONDS)
+    future.cancel(true)
+
+    then:
+    // the single worker thread is only available again when the socket read has been aborted
+    CompletableFuture.runAsync({}, executor).get(5, TimeUnit.SECONDS) == null
+
+    cleanup:
+    release.countDown()
+    executor.shutdownNow()
+    dockerClient.close()
+    server.stop()
+  }
+
+  def "fans out many calls against a stand-in daemon"() {
+    given:
+    def handler = new PingHandler()
+    def server = new HttpTestServer()
+    def serverAddress = server.start('/', handler)
+    def dockerClient = new DockerClientImpl("tcp://127.0.0.1:${serverAddress.port}")
+    def asyncClient = new AsyncDockerClient(dockerClient)
+    int requests = 500
+
+    when:
+    List<CompletableFuture<EngineResponseContent<String>>> futures = (1..requests).collect { asyncClient.ping() }
+    CompletableFuture.allOf(futures as CompletableFuture[]).get(60, TimeUnit.SECONDS)
+
+    then:
+    futures.every { it.get().content == "OK" }
+    handler.count.get() == requests
+
+    cleanup:
+    asyncClient.close()
+    dockerClient.close()
+    server.stop()
+  }
+
+  static class PingHandler implements HttpHandler {
+
+    AtomicInteger count = new AtomicInteger()
+
+    @Override
+    void handle(HttpExchange httpExchange) {
+      if (httpExchange.requestURI.path.endsWith("/_ping")) {
+        count.incrementAndGet()
+        byte[] body = "OK".bytes
+        httpExchange.responseHeaders.set("Content-Type", "text/plain")
+        httpExchange.sendResponseHeaders(200, body.length)
+        httpExchange.responseBody.write(body)
+      }
+      else {
+        httpExchange.sendResponseHeaders(404, -1)
+      }
+      httpExchange.close()
+    }
+  }
+}
@@ -1,17 +1,29 @@
 package de.gesellix.docker.client
 
 import de.gesellix.docker.client.container.ManageContainer
+import de.gesellix.docker.client.container.ManageContainerClient
 import de.gesellix.docker.client.image.ManageImage
+import de.gesellix.docker.client.image.ManageImageClient
+import de.gesellix.docker.client.metrics.InMemoryDockerClientMetrics
 import de.gesellix.docker.client.node.ManageNode
 import de.gesellix.docker.client.system.ManageSystem
+import de.gesellix.docker.client.transport.PooledOkDockerClient
 import de.gesellix.docker.client.volume.ManageVolume
 import de.gesellix.docker.engine.DockerEnv
+import de.gesellix.docker.remote.api.ContainerInspectResponse
 import de.gesellix.docker.remote.api.ManagerStatus
 import de.gesellix.docker.remote.api.Node
 import de.gesellix.docker.remote.api.SwarmInfo
 import de.gesellix.docker.remote.api.SystemInfo
+import de.gesellix.docker.testutil.HttpTestServer
 import spock.lang.Specification
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
 class DockerClientImplSpec extends Specification {
 
   DockerClientImpl dockerClient = new DockerClientImpl()
@@ -38,6 +50,121 @@ class DockerClientImplSpec extends Specification {
     httpClient.proxy == proxy
   }
 
+  def "legacy http client uses the shared transport"() {
+    given:
+    def client = new DockerClientImpl("tcp://127.0.0.1:2375")
+
+    expect:
+    client.httpClient instanceof PooledOkDockerClient
+    (client.httpClient as PooledOkDockerClient).transport.is(client.transport)
+
+    cleanup:
+    client.close()
+  }
+
+  def "typed and legacy calls share one connection pool"() {
+    given:
+    def server = new HttpTestServer()
+    def serverAddress = server.start('/', new AsyncDockerClientTest.PingHandler())
+    def client = new DockerClientImpl("tcp://127.0.0.1:${serverAddress.port}")
+
+    when:
+    client.ping()
+    client.httpClient.get([path: "/_ping"])
+
+    then:
+    client.transport.connectionPool.connectionCount() == 1
+
+    cleanup:
+    client.close()
+    server.stop()
+  }
+
+  def "creates http clients and delegates on first use"() {
+    given:
+    def client = new DockerClientImpl("tcp://127.0.0.1:2375")
+
+    expect:
+    !client.engineApiClientRef.initialized
+    !client.httpClientRef.initialized
+    !client.manageAuthenticationRef.initialized
+
+    when:
+    def manageImage = client.manageImage
+
+    then:
+    manageImage.is(client.manageImage)
+    client.engineApiClientRef.initialized
+    !client.httpClientRef.initialized
+    !client.manageAuthenticationRef.initialized
+
+    cleanup:
+    client.close()
+  }
+
+  def "setting metrics keeps delegates and connections"() {
+    given:
+    def manageSystem = dockerClient.manageSystem
+    def transport = dockerClient.transport
+    def metrics = new InMemoryDockerClientMetrics()
+
+    when:
+    dockerClient.metrics = metrics
+    dockerClient.ping()
+
+    then:
+    1 * manageSystem.ping() >> new EngineResponseContent<String>("OK")
+    metrics.snapshot("ping").count == 1
+    dockerClient.transport.is(transport)
+
+    cleanup:
+    dockerClient.close()
+  }
+
+  def "closes the manage clients which own threads"() {
+    given:
+    def manageContainer = Mock(ManageContainerClient)
+    def manageImage = Mock(ManageImageClient)
+    dockerClient.manageContainer = manageContainer
+    dockerClient.manageImage = manageImage
+
+    when:
+    dockerClient.close()
+
+    then:
+    1 * manageContainer.close()
+    1 * manageImage.close()
+  }
+
+  def "concurrent inspects share one call when coalescing is enabled"() {
+    given:
+    def manageContainer = dockerClient.manageContainer
+    def calls = new AtomicInteger()
+    def release = new CountDownLatch(1)
+    def response = new EngineResponseContent<ContainerInspectResponse>(Mock(ContainerInspectResponse))
+    manageContainer.inspectContainer("a-container") >> {
+      calls.incrementAndGet()
+      release.await(5, TimeUnit.SECONDS)
+      return response
+    }
+
+    when:
+    dockerClient.coalesceInspects = true
+    def callers = (1..3).collect {
+      CompletableFuture.supplyAsync({ dockerClient.inspectContainer("a-container") } as Supplier)
+    }
+    def deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+    while (dockerClient.inspectCoalescing.coalesced < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10)
+    }
+    release.countDown()
+
+    then:
+    callers.every { it.get(5, TimeUnit.SECONDS).is(response) }
+    calls.get() == 1
+    dockerClient.inspectCoalescing.coalesced == 2
+  }
+
   def "get the swarm manager address"() {
     given:
     def swarmInfo = Mock(SwarmInfo)
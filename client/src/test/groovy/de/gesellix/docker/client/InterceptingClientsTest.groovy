@@ -0,0 +1,65 @@
+package de.gesellix.docker.client
+
+import de.gesellix.docker.client.container.ManageContainer
+import de.gesellix.docker.client.system.ManageSystem
+import de.gesellix.util.Interceptor
+import spock.lang.Specification
+
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+class InterceptingClientsTest extends Specification {
+
+  RecordingInterceptor recording = new RecordingInterceptor()
+
+  def "wrappers override every method of their interface"() {
+    expect:
+    InterceptingClients.types.each { Class<?> type ->
+      Class<?> wrapper = InterceptingClients.wrap(type, Mock(type), recording).getClass()
+      type.methods.findAll { Method method -> !Modifier.isStatic(method.modifiers) }.each { Method method ->
+        assert wrapper.getDeclaredMethod(method.name, method.parameterTypes) != null
+      }
+    }
+  }
+
+  def "calls run through the interceptor and reach the delegate"() {
+    given:
+    def manageContainer = Mock(ManageContainer)
+    ManageContainer wrapped = InterceptingClients.wrap(ManageContainer, manageContainer, recording)
+
+    when:
+    wrapped.attach("a-container", [stream: true], null, true)
+
+    then:
+    1 * manageContainer.attach("a-container", [stream: true], null, true)
+    recording.operations == ["attach"]
+    InterceptingClients.unwrap(wrapped).is(manageContainer)
+  }
+
+  def "doesn't wrap without interceptor"() {
+    given:
+    def manageSystem = Mock(ManageSystem)
+
+    expect:
+    InterceptingClients.wrap(ManageSystem, manageSystem, null).is(manageSystem)
+  }
+
+  def "rejects unknown types"() {
+    when:
+    InterceptingClients.wrap(Runnable, {} as Runnable, recording)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  static class RecordingInterceptor implements Interceptor {
+
+    List<String> operations = []
+
+    @Override
+    <T, E extends Throwable> T intercept(String operation, Object[] args, Interceptor.Invocation<T, E> invocation) throws E {
+      operations << operation
+      return invocation.proceed()
+    }
+  }
+}
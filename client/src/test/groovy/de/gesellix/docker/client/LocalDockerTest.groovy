@@ -0,0 +1,87 @@
+package de.gesellix.docker.client
+
+import de.gesellix.docker.client.system.DaemonCapabilities
+import de.gesellix.docker.engine.DockerEnv
+import de.gesellix.docker.remote.api.SystemVersion
+import spock.lang.Specification
+
+class LocalDockerTest extends Specification {
+
+  DockerClientImpl client = Mock(DockerClientImpl)
+  LocalDocker localDocker
+
+  def setup() {
+    def env = Mock(DockerEnv)
+    env.dockerHost >> "unix:///var/run/docker.sock"
+    client.env >> env
+    localDocker = new LocalDocker(client)
+  }
+
+  def "memoizes probe results until refresh"() {
+    when:
+    def results = (1..20).collect { localDocker.isAvailable() }
+
+    then:
+    1 * client.ping() >> new EngineResponseContent<String>("OK")
+    results.every { it }
+
+    when:
+    localDocker.refresh()
+    def afterRefresh = localDocker.isAvailable()
+
+    then:
+    1 * client.ping() >> { throw new IllegalStateException("not running") }
+    !afterRefresh
+  }
+
+  def "memoizes failures"() {
+    when:
+    localDocker.getVersion()
+
+    then:
+    1 * client.version() >> { throw new IllegalStateException("not running") }
+    thrown(IllegalStateException)
+
+    when:
+    localDocker.isSwarmModeSupported()
+
+    then:
+    0 * client.version()
+    thrown(IllegalStateException)
+  }
+
+  def "derives features from the daemon version"() {
+    given:
+    def systemVersion = Mock(SystemVersion)
+    systemVersion.version >> "27.5.0"
+
+    when:
+    def swarmMode = localDocker.isSwarmModeSupported()
+    def secrets = localDocker.isSecretsSupported()
+
+    then:
+    1 * client.version() >> new EngineResponseContent<SystemVersion>(systemVersion)
+    swarmMode
+    secrets
+  }
+
+  def "uses the client's daemon capabilities"() {
+    given:
+    def capabilities = Mock(DaemonCapabilities)
+    client.daemonCapabilities >> capabilities
+
+    when:
+    def nativeWindows = (1..3).collect { localDocker.isNativeWindowsDaemon() }
+
+    then:
+    1 * capabilities.isNativeWindows() >> true
+    nativeWindows.every { it }
+  }
+
+  def "derives the connection type from the docker host"() {
+    expect:
+    localDocker.isUnixSocketHost()
+    !localDocker.isTcpSocketHost()
+    !localDocker.isNamedPipeHost()
+  }
+}
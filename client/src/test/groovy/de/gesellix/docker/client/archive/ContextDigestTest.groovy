@@ -0,0 +1,101 @@
+package de.gesellix.docker.client.archive
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+
+class ContextDigestTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  def "digests content, but not modification times"() {
+    given:
+    def context = tempDir.resolve("context")
+    file(context, "Dockerfile", "FROM scratch")
+    def app = file(context, "src/app.txt", "app")
+    def digest = new ContextDigest(null)
+
+    when:
+    def initial = digest.digest(context, null)
+    Files.setLastModifiedTime(app, FileTime.from(Instant.now().minus(1, ChronoUnit.DAYS)))
+
+    then:
+    initial =~ "sha256:[0-9a-f]{64}"
+    digest.digest(context, null) == initial
+
+    when:
+    Files.write(app, "changed".bytes)
+
+    then:
+    digest.digest(context, null) != initial
+  }
+
+  def "ignores excluded files"() {
+    given:
+    def context = tempDir.resolve("context")
+    file(context, ".dockerignore", "*.log")
+    file(context, "Dockerfile", "FROM scratch")
+    def digest = new ContextDigest(null)
+    def initial = digest.digest(context, null)
+
+    when:
+    file(context, "build.log", "log")
+
+    then:
+    digest.digest(context, null) == initial
+    digest.digest(context, new TarOptions().setUseDockerIgnore(false)) != initial
+  }
+
+  def "reuses cached file digests of unchanged files"() {
+    given:
+    def context = tempDir.resolve("context")
+    def app = file(context, "app.txt", "app")
+    Files.setLastModifiedTime(app, FileTime.from(Instant.now().minus(1, ChronoUnit.DAYS)))
+    def cacheFile = tempDir.resolve("digests.cache")
+    def initial = new ContextDigest(cacheFile).digest(context, null)
+
+    when:
+    def cached = new String(Files.readAllBytes(cacheFile))
+    def fileDigest = cached.find(/[0-9a-f]{64}/)
+    Files.write(cacheFile, cached.replace(fileDigest, "0" * 64).bytes)
+
+    then: "the tampered digest has been used instead of reading the file again"
+    new ContextDigest(cacheFile).digest(context, null) != initial
+    new ContextDigest(null).digest(context, null) == initial
+
+    when:
+    Files.write(app, "changed".bytes)
+    Files.setLastModifiedTime(app, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)))
+
+    then:
+    new ContextDigest(cacheFile).digest(context, null) == new ContextDigest(null).digest(context, null)
+  }
+
+  def "reads recently modified files again"() {
+    given:
+    def context = tempDir.resolve("context")
+    file(context, "app.txt", "app")
+    def cacheFile = tempDir.resolve("digests.cache")
+    def initial = new ContextDigest(cacheFile).digest(context, null)
+
+    when:
+    def cached = new String(Files.readAllBytes(cacheFile))
+    Files.write(cacheFile, cached.replace(cached.find(/[0-9a-f]{64}/), "0" * 64).bytes)
+
+    then:
+    new ContextDigest(cacheFile).digest(context, null) == initial
+  }
+
+  Path file(Path context, String name, String content) {
+    def path = context.resolve(name)
+    Files.createDirectories(path.parent)
+    Files.write(path, content.bytes)
+    return path
+  }
+}
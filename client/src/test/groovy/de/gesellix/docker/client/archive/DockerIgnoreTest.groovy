@@ -0,0 +1,66 @@
+package de.gesellix.docker.client.archive
+
+import spock.lang.Specification
+
+class DockerIgnoreTest extends Specification {
+
+  def "matches #path against #patterns"() {
+    expect:
+    new DockerIgnore(patterns).isExcluded(path) == excluded
+
+    where:
+    patterns                         | path                      | excluded
+    ["*.md"]                         | "README.md"               | true
+    ["*.md"]                         | "docs/README.md"          | false
+    ["**/*.md"]                      | "docs/README.md"          | true
+    ["**/*.md"]                      | "README.md"               | true
+    ["/build"]                       | "build/libs/app.jar"      | true
+    ["./build/"]                     | "build"                   | true
+    ["node_modules"]                 | "web/node_modules"        | false
+    ["**/node_modules"]              | "web/node_modules/x/y.js" | true
+    ["temp?"]                        | "temp1"                   | true
+    ["temp?"]                        | "temp/1"                  | false
+    ["[a-c].txt"]                    | "b.txt"                   | true
+    ["[!a-c].txt"]                   | "b.txt"                   | false
+    ["*.md", "!README.md"]           | "README.md"               | false
+    ["*.md", "!README.md", "*.md"]   | "README.md"               | true
+    ["# comment", "", "  *.log  "]   | "app.log"                 | true
+    ["docs", "!docs/keep.md"]        | "docs/keep.md"            | false
+    ["docs", "!docs/keep.md"]        | "docs/other.md"           | true
+    ["a\\*b"]                        | "a*b"                     | true
+    ["a\\*b"]                        | "axb"                     | false
+  }
+
+  def "skips excluded directories unless an exception might match below"() {
+    expect:
+    new DockerIgnore(patterns).canSkipDirectory(directory) == skip
+
+    where:
+    patterns                           | directory           | skip
+    ["node_modules"]                   | "node_modules"      | true
+    ["node_modules"]                   | "src"               | false
+    ["docs", "!docs/keep.md"]          | "docs"              | false
+    ["docs", "!other/keep.md"]         | "docs"              | true
+    ["docs", "!**/keep.md"]            | "docs"              | false
+    ["docs", "!d*/api/*.md"]           | "docs/internal"     | true
+    ["docs", "!d*/api/*.md"]           | "docs/api"          | false
+  }
+
+  def "parses a file"() {
+    when:
+    def ignore = DockerIgnore.parse("""
+# build output
+build
+*.tmp
+!important.tmp
+""")
+
+    then:
+    ignore.isExcluded("build/x.class")
+    ignore.isExcluded("cache.tmp")
+    !ignore.isExcluded("important.tmp")
+    !ignore.isExcluded("src/Main.java")
+    and:
+    ignore.with(["src"]).isExcluded("src/Main.java")
+  }
+}
@@ -0,0 +1,128 @@
+package de.gesellix.docker.client.archive
+
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.Path
+import java.security.MessageDigest
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.zip.GZIPInputStream
+
+class FileTransferTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  FileTransfer transfer = new FileTransfer()
+
+  def cleanup() {
+    transfer.close()
+  }
+
+  def "writes a stream into a file"() {
+    given:
+    def content = ("0123456789abcdef" * 100_000).bytes
+    def target = tempDir.resolve("export/container.tar")
+
+    when:
+    def result = transfer.write(new ByteArrayInputStream(content), target, new TransferOptions().setBufferSize(64 * 1024))
+
+    then:
+    Files.readAllBytes(target) == content
+    result.bytesRead == content.length
+    result.bytesWritten == content.length
+    result.sha256 == sha256(content)
+    result.throughput > 0
+  }
+
+  @Requires({ FileSystems.default.supportedFileAttributeViews().contains("posix") })
+  def "creates files with the default permissions"() {
+    given:
+    def target = tempDir.resolve("export/container.tar")
+    def other = Files.createFile(Files.createDirectories(target.parent).resolve("other"))
+
+    when:
+    transfer.write(new ByteArrayInputStream("content".bytes), target, null)
+
+    then:
+    Files.getPosixFilePermissions(target) == Files.getPosixFilePermissions(other)
+    Files.list(target.parent).collect { it.fileName.toString() }.sort() == ["container.tar", "other"]
+  }
+
+  def "compresses blocks concurrently"() {
+    given:
+    def content = ("0123456789abcdef" * 100_000).bytes
+    def target = tempDir.resolve("images.tar.gz")
+
+    when:
+    def result = transfer.write(new ByteArrayInputStream(content), target, new TransferOptions()
+        .setGzip(true)
+        .setBlockSize(100_000)
+        .setParallelism(4)
+        .setChecksumFile(true))
+
+    then:
+    result.bytesRead == content.length
+    result.bytesWritten == Files.size(target)
+    result.bytesWritten < content.length
+    result.sha256 == sha256(Files.readAllBytes(target))
+    TarProducerTest.read(new GZIPInputStream(Files.newInputStream(target))) == content
+    new String(Files.readAllBytes(tempDir.resolve("images.tar.gz.sha256"))) == "${result.sha256}  images.tar.gz\n"
+  }
+
+  def "writes a valid gzip file for an empty stream"() {
+    given:
+    def target = tempDir.resolve("empty.tar.gz")
+
+    when:
+    transfer.write(new ByteArrayInputStream(new byte[0]), target, new TransferOptions().setGzip(true))
+
+    then:
+    new GZIPInputStream(Files.newInputStream(target)).read() == -1
+  }
+
+  def "keeps an existing file when the transfer fails"() {
+    given:
+    def target = tempDir.resolve("container.tar")
+    Files.write(target, "previous export".bytes)
+    def failing = new SequenceInputStream(new ByteArrayInputStream(new byte[10_000]), new InputStream() {
+
+      @Override
+      int read() throws IOException {
+        throw new IOException("connection reset")
+      }
+    })
+
+    when:
+    transfer.write(failing, target, options)
+
+    then:
+    thrown(IOException)
+    new String(Files.readAllBytes(target)) == "previous export"
+    Files.list(tempDir).count() == 1
+
+    where:
+    options << [null, new TransferOptions().setGzip(true).setBlockSize(1000)]
+  }
+
+  def "fails when compression is rejected"() {
+    given:
+    def rejecting = new FileTransfer({ Runnable task -> throw new RejectedExecutionException("shut down") } as Executor)
+
+    when:
+    rejecting.write(new ByteArrayInputStream("content".bytes), tempDir.resolve("file.gz"), new TransferOptions().setGzip(true))
+
+    then:
+    def exception = thrown(IOException)
+    exception.message == "compression has been rejected"
+    !Files.exists(tempDir.resolve("file.gz"))
+  }
+
+  static String sha256(byte[] content) {
+    return MessageDigest.getInstance("SHA-256").digest(content).encodeHex().toString()
+  }
+}
@@ -0,0 +1,158 @@
+package de.gesellix.docker.client.archive
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+
+class TarProducerTest extends Specification {
+
+  @TempDir
+  Path context
+
+  TarProducer producer = new TarProducer()
+
+  def cleanup() {
+    producer.close()
+  }
+
+  def "writes a directory tree in name order"() {
+    given:
+    file("Dockerfile", "FROM scratch")
+    file("src/b.txt", "b")
+    file("src/a.txt", "a")
+    Files.createDirectories(context.resolve("empty"))
+    def output = new ByteArrayOutputStream()
+
+    when:
+    def written = producer.write(context, output, null)
+
+    then:
+    written == output.size()
+    entries(new ByteArrayInputStream(output.toByteArray())) == [
+        "Dockerfile"  : "FROM scratch",
+        "empty/"      : null,
+        "src/"        : null,
+        "src/a.txt"   : "a",
+        "src/b.txt"   : "b"]
+  }
+
+  def "applies .dockerignore and additional excludes"() {
+    given:
+    file(".dockerignore", "*.log\nbuild\nDockerfile\n.dockerignore\n!build/keep.txt")
+    file("Dockerfile", "FROM scratch")
+    file("app.log", "log")
+    file("build/out.bin", "out")
+    file("build/keep.txt", "keep")
+    file("node_modules/x.js", "x")
+    file("src/main.go", "main")
+    def output = new ByteArrayOutputStream()
+
+    when:
+    producer.write(context, output, new TarOptions().exclude("node_modules"))
+
+    then:
+    entries(new ByteArrayInputStream(output.toByteArray())).keySet() as List == [
+        ".dockerignore", "Dockerfile", "build/keep.txt", "src/", "src/main.go"]
+  }
+
+  def "writes a single file with prefix and gzip"() {
+    given:
+    def source = file("app.jar", "jar content")
+    def output = new ByteArrayOutputStream()
+
+    when:
+    producer.write(source, output, new TarOptions().setGzip(true).setPrefix("/opt/app/"))
+
+    then:
+    entries(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) == ["opt/app/app.jar": "jar content"]
+  }
+
+  def "streams through a bounded pipe"() {
+    given:
+    def content = "0123456789abcdef" * 32 * 1024
+    Files.write(context.resolve("large.bin"), content.bytes)
+
+    when:
+    def archive = producer.open(context, new TarOptions().setPipeBufferSize(8 * 1024))
+    def entries = archive.withCloseable { entries(it) }
+
+    then:
+    entries.keySet() as List == ["large.bin"]
+    entries["large.bin"] == content
+  }
+
+  def "reports a failed producer to the reader"() {
+    when:
+    producer.open(context.resolve("missing"), null).withCloseable { InputStream archive ->
+      archive.bytes
+    }
+
+    then:
+    def e = thrown(IOException)
+    e.message == "producing the archive failed"
+  }
+
+  def "closing the reader stops the producer"() {
+    given:
+    def finished = new CountDownLatch(1)
+    def failure = null
+    Executor executor = { Runnable task ->
+      Thread.start {
+        try {
+          task.run()
+        } catch (Throwable t) {
+          failure = t
+        } finally {
+          finished.countDown()
+        }
+      }
+    }
+    def content = new byte[1024 * 1024]
+    Files.write(context.resolve("large.bin"), content)
+
+    when:
+    def archive = new TarProducer(executor).open(context, new TarOptions().setPipeBufferSize(1024))
+    archive.read(new byte[100])
+    archive.close()
+
+    then:
+    finished.await(5, TimeUnit.SECONDS)
+    failure == null
+  }
+
+  Path file(String name, String content) {
+    def path = context.resolve(name)
+    Files.createDirectories(path.parent)
+    Files.write(path, content.bytes)
+    return path
+  }
+
+  static Map<String, String> entries(InputStream archive) {
+    def entries = [:]
+    def tar = new TarArchiveInputStream(archive)
+    TarArchiveEntry entry
+    while ((entry = tar.nextEntry) != null) {
+      entries[entry.name] = entry.isDirectory() ? null : new String(read(tar))
+    }
+    return entries
+  }
+
+  // getBytes() would close the archive
+  static byte[] read(InputStream entry) {
+    def content = new ByteArrayOutputStream()
+    def buffer = new byte[8192]
+    int count
+    while ((count = entry.read(buffer)) > 0) {
+      content.write(buffer, 0, count)
+    }
+    return content.toByteArray()
+  }
+}
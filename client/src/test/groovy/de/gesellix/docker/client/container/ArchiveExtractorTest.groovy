@@ -0,0 +1,152 @@
+package de.gesellix.docker.client.container
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.channels.Channels
+import java.nio.file.Files
+import java.nio.file.NoSuchFileException
+import java.nio.file.Path
+
+class ArchiveExtractorTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  ArchiveExtractor extractor = new ArchiveExtractor()
+
+  def "copies the first file into a channel"() {
+    given:
+    def archive = tar([
+        "dir/"         : null,
+        "dir/file.txt" : "file content",
+        "dir/other.txt": "other content"])
+    def output = new ByteArrayOutputStream()
+
+    when:
+    def copied = extractor.copyFile(archive, "/dir/file.txt", Channels.newChannel(output))
+
+    then:
+    copied == "file content".length()
+    output.toString() == "file content"
+  }
+
+  def "copies a file into a target file"() {
+    given:
+    def content = new byte[200_000]
+    new Random(4711).nextBytes(content)
+    def target = tempDir.resolve("file.bin")
+    Files.write(target, "a longer existing content".bytes)
+
+    when:
+    def copied = extractor.copyFile(tar(["file.bin": content]), "file.bin", target)
+
+    then:
+    copied == content.length
+    Files.readAllBytes(target) == content
+  }
+
+  def "fails without a regular file"() {
+    when:
+    extractor.copyFile(tar(["dir/": null]), "dir", Channels.newChannel(new ByteArrayOutputStream()))
+
+    then:
+    thrown(NoSuchFileException)
+  }
+
+  def "extracts a directory tree"() {
+    given:
+    def archive = tar([
+        "app/"                 : null,
+        "app/bin/run.sh"       : "#!/bin/sh",
+        "app/lib/a.jar"        : "a",
+        "app/lib/b.jar"        : "bb",
+        "app/tmp/cache.bin"    : "cache",
+        "app/lib/notes.txt"    : "notes",
+        "app/../../escaped.txt": "escaped"])
+
+    when:
+    def result = extractor.extract(archive, tempDir.resolve("target"), new ExtractOptions()
+        .setStripComponents(1)
+        .exclude("tmp", "**/*.txt"))
+
+    then:
+    result.files == 3
+    result.bytes == "#!/bin/sh".length() + 3
+    result.skipped == 4
+    and:
+    new String(Files.readAllBytes(tempDir.resolve("target/bin/run.sh"))) == "#!/bin/sh"
+    new String(Files.readAllBytes(tempDir.resolve("target/lib/b.jar"))) == "bb"
+    !Files.exists(tempDir.resolve("target/tmp"))
+    !Files.exists(tempDir.resolve("target/lib/notes.txt"))
+    !Files.exists(tempDir.resolve("escaped.txt"))
+  }
+
+  def "extracts only included files"() {
+    given:
+    def archive = tar([
+        "lib/a.jar"    : "a",
+        "lib/b.txt"    : "b",
+        "lib/c/d.jar"  : "d",
+        "readme.md"    : "readme"])
+
+    when:
+    def result = extractor.extract(archive, tempDir, new ExtractOptions().include("lib/*.jar"))
+
+    then:
+    result.files == 1
+    Files.exists(tempDir.resolve("lib/a.jar"))
+    !Files.exists(tempDir.resolve("lib/c/d.jar"))
+    !Files.exists(tempDir.resolve("readme.md"))
+  }
+
+  def "keeps existing files unless overwriting"() {
+    given:
+    Files.write(tempDir.resolve("file.txt"), "existing".bytes)
+
+    when:
+    def result = extractor.extract(tar(["file.txt": "new"]), tempDir, new ExtractOptions().setOverwrite(false))
+
+    then:
+    result.skipped == 1
+    new String(Files.readAllBytes(tempDir.resolve("file.txt"))) == "existing"
+
+    when:
+    extractor.extract(tar(["file.txt": "new"]), tempDir, null)
+
+    then:
+    new String(Files.readAllBytes(tempDir.resolve("file.txt"))) == "new"
+  }
+
+  def "strips leading components"() {
+    expect:
+    ArchiveExtractor.stripComponents(name, count) == expected
+
+    where:
+    name            | count | expected
+    "dir/file.txt"  | 0     | "dir/file.txt"
+    "./dir/"        | 0     | "dir"
+    "/dir/file.txt" | 1     | "file.txt"
+    "dir/"          | 1     | ""
+    "dir/sub/file"  | 3     | ""
+  }
+
+  static InputStream tar(Map<String, Object> entries) {
+    def archive = new ByteArrayOutputStream()
+    new TarArchiveOutputStream(archive).withCloseable { TarArchiveOutputStream tar ->
+      entries.each { String name, Object content ->
+        def entry = new TarArchiveEntry(name)
+        byte[] bytes = content instanceof String ? content.bytes : content as byte[]
+        entry.size = bytes?.length ?: 0
+        tar.putArchiveEntry(entry)
+        if (bytes) {
+          tar.write(bytes)
+        }
+        tar.closeArchiveEntry()
+      }
+    }
+    return new ByteArrayInputStream(archive.toByteArray())
+  }
+}
@@ -0,0 +1,106 @@
+package de.gesellix.docker.client.container
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import org.apache.commons.compress.archivers.tar.TarConstants
+import spock.lang.Specification
+
+import static de.gesellix.docker.client.archive.TarProducerTest.entries
+import static de.gesellix.docker.client.container.ArchiveExtractorTest.tar
+
+class ArchiveRewriterTest extends Specification {
+
+  ArchiveRewriter rewriter = new ArchiveRewriter()
+
+  def cleanup() {
+    rewriter.close()
+  }
+
+  def "copies entries as they are"() {
+    given:
+    def output = new ByteArrayOutputStream()
+
+    when:
+    def written = rewriter.rewrite(tar(["data/": null, "data/db.sqlite": "db"]), output, null)
+
+    then:
+    written == 2
+    entries(new ByteArrayInputStream(output.toByteArray())) == ["data/": null, "data/db.sqlite": "db"]
+  }
+
+  def "rewrites entry names while streaming"() {
+    given:
+    def archive = tar([
+        "data/"              : null,
+        "data/db.sqlite"     : "db",
+        "data/tmp/cache.bin" : "cache",
+        "database/schema.sql": "schema"])
+
+    when:
+    def rewritten = rewriter.open(archive, new CopyOptions()
+        .exclude("data/tmp")
+        .rename("data", "backup")
+        .setPrefix("/srv/")
+        .setPipeBufferSize(16))
+
+    then:
+    entries(rewritten) == [
+        "srv/backup/"              : null,
+        "srv/backup/db.sqlite"     : "db",
+        "srv/database/schema.sql"  : "schema"]
+  }
+
+  def "strips leading components"() {
+    when:
+    def rewritten = rewriter.open(tar(["data/": null, "data/db.sqlite": "db"]), new CopyOptions().setStripComponents(1))
+
+    then:
+    entries(rewritten) == ["db.sqlite": "db"]
+  }
+
+  def "keeps attributes and rewrites hard links"() {
+    given:
+    def archive = new ByteArrayOutputStream()
+    new TarArchiveOutputStream(archive).withCloseable { TarArchiveOutputStream tar ->
+      def file = new TarArchiveEntry("data/db.sqlite")
+      file.mode = 0100600
+      file.userId = 999
+      file.size = 2
+      tar.putArchiveEntry(file)
+      tar.write("db".bytes)
+      tar.closeArchiveEntry()
+      def link = new TarArchiveEntry("data/current", TarConstants.LF_LINK)
+      link.linkName = "data/db.sqlite"
+      tar.putArchiveEntry(link)
+      tar.closeArchiveEntry()
+    }
+    def output = new ByteArrayOutputStream()
+
+    when:
+    rewriter.rewrite(new ByteArrayInputStream(archive.toByteArray()), output, new CopyOptions().rename("data", "backup"))
+
+    then:
+    def tar = new TarArchiveInputStream(new ByteArrayInputStream(output.toByteArray()))
+    def file = tar.nextEntry
+    file.name == "backup/db.sqlite"
+    file.mode == 0100600
+    file.userId == 999
+    def link = tar.nextEntry
+    link.link
+    link.linkName == "backup/db.sqlite"
+  }
+
+  def "fails on a truncated archive"() {
+    given:
+    def bytes = tar(["file.bin": new byte[4096]]).bytes
+    def truncated = new ByteArrayInputStream(bytes, 0, 2048)
+
+    when:
+    entries(rewriter.open(truncated, new CopyOptions().setPrefix("copy")))
+
+    then:
+    def exception = thrown(IOException)
+    exception.message == "producing the archive failed"
+  }
+}
@@ -0,0 +1,123 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.remote.api.ContainerInspectResponse
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+class BulkContainerOperationsTest extends Specification {
+
+  ManageContainer manageContainer = Mock(ManageContainer)
+  BulkContainerOperations bulk
+
+  def cleanup() {
+    bulk?.close()
+  }
+
+  def "stop all containers and collect failures"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 4, Duration.ofSeconds(10))
+    def failure = new IllegalStateException("no such container")
+
+    when:
+    def result = bulk.stopAll(["a", "b", "c"], Duration.ofSeconds(3))
+
+    then:
+    1 * manageContainer.stop("a", Duration.ofSeconds(3))
+    1 * manageContainer.stop("b", Duration.ofSeconds(3)) >> { throw failure }
+    1 * manageContainer.stop("c", Duration.ofSeconds(3))
+    and:
+    result.results.keySet() == ["a", "c"] as Set
+    result.failures == [b: failure]
+    !result.successful
+  }
+
+  def "rm all containers with query"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 2, Duration.ofSeconds(10))
+
+    when:
+    def result = bulk.rmAll(["a", "b"], [force: true])
+
+    then:
+    1 * manageContainer.rm("a", [force: true])
+    1 * manageContainer.rm("b", [force: true])
+    result.successful
+  }
+
+  def "inspect all containers"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 2, Duration.ofSeconds(10))
+    def inspectA = Mock(ContainerInspectResponse)
+    def inspectB = Mock(ContainerInspectResponse)
+
+    when:
+    def result = bulk.inspectAll(["a", "b"])
+
+    then:
+    1 * manageContainer.inspectContainer("a") >> new EngineResponseContent<ContainerInspectResponse>(inspectA)
+    1 * manageContainer.inspectContainer("b") >> new EngineResponseContent<ContainerInspectResponse>(inspectB)
+    result.results == [a: inspectA, b: inspectB]
+  }
+
+  def "respects the concurrency limit"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 3, Duration.ofSeconds(10))
+    def running = new AtomicInteger()
+    def maxRunning = new AtomicInteger()
+    manageContainer.kill(_) >> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math.&max)
+      Thread.sleep(20)
+      running.decrementAndGet()
+    }
+
+    when:
+    def result = bulk.killAll((1..20).collect { "container-$it".toString() })
+
+    then:
+    result.successful
+    result.results.size() == 20
+    maxRunning.get() <= 3
+  }
+
+  def "aborts operations exceeding the item timeout"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 2, Duration.ofMillis(100))
+    manageContainer.kill("slow") >> { Thread.sleep(5000) }
+
+    when:
+    def result = bulk.killAll(["slow", "fast"])
+
+    then:
+    result.results.keySet() == ["fast"] as Set
+    result.failures["slow"] instanceof TimeoutException
+  }
+
+  def "keeps the permits of timed out operations until they return"() {
+    given:
+    bulk = new BulkContainerOperations(manageContainer, 2, Duration.ofMillis(50))
+    def running = new AtomicInteger()
+    def maxRunning = new AtomicInteger()
+    manageContainer.kill(_) >> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math.&max)
+      // like a blocking socket read, which isn't aborted by the interrupt
+      long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200)
+      while (System.nanoTime() < until) {
+        Thread.yield()
+      }
+      running.decrementAndGet()
+    }
+
+    when:
+    def result = bulk.killAll((1..6).collect { "container-$it".toString() })
+
+    then:
+    result.failures.size() == 6
+    result.failures.values().every { it instanceof TimeoutException }
+    maxRunning.get() <= 2
+  }
+}
@@ -0,0 +1,120 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.remote.api.ExecInspectResponse
+import de.gesellix.docker.remote.api.IdResponse
+import de.gesellix.docker.remote.api.core.Frame
+import de.gesellix.docker.remote.api.core.StreamCallback
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+class ExecRunnerTest extends Specification {
+
+  ManageContainer manageContainer = Mock(ManageContainer)
+  ExecRunner runner
+
+  def cleanup() {
+    runner?.close()
+  }
+
+  def "captures stdout, stderr and exit code"() {
+    given:
+    runner = new ExecRunner(manageContainer, 2)
+    def execInspect = Mock(ExecInspectResponse)
+    execInspect.exitCode >> 3
+    def stdout = frame(Frame.StreamType.STDOUT, "out")
+    def stderr = frame(Frame.StreamType.STDERR, "err")
+
+    when:
+    def result = runner.run("a-container", ["sh", "-c", "probe"])
+
+    then:
+    1 * manageContainer.createExec("a-container", { it.cmd == ["sh", "-c", "probe"] && it.attachStdout && it.attachStderr }) >> new EngineResponseContent<>(new IdResponse("exec-id"))
+    1 * manageContainer.startExec("exec-id", _, _, ExecOptions.DEFAULT_TIMEOUT) >> { String execId, config, StreamCallback<Frame> callback, Duration timeout ->
+      callback.onNext(stdout)
+      callback.onNext(stderr)
+      callback.onFinished()
+    }
+    1 * manageContainer.inspectExec("exec-id") >> new EngineResponseContent<>(execInspect)
+    and:
+    result.execId == "exec-id"
+    result.stdout.toString() == "out"
+    result.stderr.toString() == "err"
+    result.exitCode == 3
+    !result.successful
+    result.elapsed != null
+  }
+
+  def "keeps only the tail of the output and skips the inspect"() {
+    given:
+    runner = new ExecRunner(manageContainer, 2)
+    def first = frame(Frame.StreamType.STDOUT, "0123")
+    def second = frame(Frame.StreamType.STDOUT, "4567")
+
+    when:
+    def result = runner.run("a-container", ["cat", "large"], new ExecOptions().setMaxOutputBytes(4).setInspectExitCode(false))
+
+    then:
+    1 * manageContainer.createExec("a-container", _) >> new EngineResponseContent<>(new IdResponse("exec-id"))
+    1 * manageContainer.startExec("exec-id", _, _, _) >> { String execId, config, StreamCallback<Frame> callback, Duration timeout ->
+      callback.onNext(first)
+      callback.onNext(second)
+      callback.onFinished()
+    }
+    0 * manageContainer.inspectExec(_)
+    and:
+    result.stdout.toString() == "4567"
+    result.stdout.truncated
+    result.exitCode == null
+  }
+
+  def "fails when the exec doesn't finish in time"() {
+    given:
+    runner = new ExecRunner(manageContainer, 2)
+
+    when:
+    runner.run("a-container", ["sleep", "10"], new ExecOptions().setTimeout(Duration.ofMillis(50)))
+
+    then:
+    1 * manageContainer.createExec("a-container", _) >> new EngineResponseContent<>(new IdResponse("exec-id"))
+    1 * manageContainer.startExec("exec-id", _, _, _)
+    def e = thrown(IllegalStateException)
+    e.cause instanceof TimeoutException
+  }
+
+  def "runs in all containers with limited concurrency"() {
+    given:
+    runner = new ExecRunner(manageContainer, 2)
+    def running = new AtomicInteger()
+    def maxRunning = new AtomicInteger()
+    def failure = new IllegalStateException("no such container")
+
+    when:
+    def result = runner.runAll(["a", "b", "c", "d"], ["true"], new ExecOptions().setInspectExitCode(false))
+
+    then:
+    1 * manageContainer.createExec("c", _) >> { throw failure }
+    3 * manageContainer.createExec(_, _) >> { String container, config -> new EngineResponseContent<>(new IdResponse("exec-" + container)) }
+    3 * manageContainer.startExec(_, _, _, _) >> { String execId, config, StreamCallback<Frame> callback, Duration timeout ->
+      maxRunning.accumulateAndGet(running.incrementAndGet(), { int a, int b -> Math.max(a, b) })
+      Thread.sleep(50)
+      running.decrementAndGet()
+      callback.onFinished()
+    }
+    and:
+    result.results.keySet() == ["a", "b", "d"] as Set
+    result.failures == [c: failure]
+    maxRunning.get() <= 2
+    runner.running == 0
+  }
+
+  Frame frame(Frame.StreamType streamType, String payload) {
+    Frame frame = Stub(Frame)
+    frame.streamType >> streamType
+    frame.payload >> payload.bytes
+    return frame
+  }
+}
@@ -0,0 +1,178 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.client.tasks.ManageTask
+import de.gesellix.docker.remote.api.Task
+import de.gesellix.docker.remote.api.core.Cancellable
+import de.gesellix.docker.remote.api.core.Frame
+import de.gesellix.docker.remote.api.core.StreamCallback
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+
+class LogAggregatorTest extends Specification {
+
+  ManageContainer manageContainer = Mock(ManageContainer)
+  LogAggregator aggregator
+
+  def cleanup() {
+    aggregator?.close()
+  }
+
+  def "merges sources in timestamp order with small queues"() {
+    given:
+    aggregator = new LogAggregator(manageContainer, 2, Duration.ofSeconds(5))
+    def base = Instant.parse("2025-01-18T20:57:00Z")
+    def lines = []
+    def callback = new CollectingCallback(lines)
+    def query = [tail: "all"]
+    // stubs are created upfront, the sources run on other threads
+    def frames = ["a", "b"].collectEntries { String container ->
+      [(container): (0..<50).collect { int i ->
+        int second = container == "a" ? i * 2 : i * 2 + 1
+        frame("${base.plusSeconds(second)} ${container} ${i}\n")
+      }]
+    }
+
+    when:
+    aggregator.aggregate(["a", "b"], query, callback, Duration.ofSeconds(10))
+
+    then:
+    2 * manageContainer.logs(_, [follow: true, tail: "all", timestamps: true], _, Duration.ofSeconds(10)) >> { String container, Map q, StreamCallback<Frame> source, Duration timeout ->
+      frames[container].each { Frame frame -> source.onNext(frame) }
+      source.onFinished()
+    }
+    and:
+    lines.size() == 100
+    lines.collect { it.timestamp } == (0..<100).collect { base.plusSeconds(it) }
+    lines.take(3).collect { it.source } == ["a", "b", "a"]
+    lines.first().payloadAsString == "a 0\n"
+    callback.finished
+    query == [tail: "all"]
+  }
+
+  def "emits pending lines of idle sources after the max delay"() {
+    given:
+    aggregator = new LogAggregator(manageContainer, 4, Duration.ofMillis(50))
+    def lines = []
+    def callback = new CollectingCallback(lines)
+    def first = frame("2025-01-18T20:57:00.000000001Z first\n")
+    def cancellable = Stub(Cancellable)
+    manageContainer.logs("busy", _, _, _) >> { String container, Map q, StreamCallback<Frame> source, Duration timeout ->
+      source.onNext(first)
+      source.onFinished()
+    }
+    manageContainer.logs("idle", _, _, _) >> { String container, Map q, StreamCallback<Frame> source, Duration timeout ->
+      source.onStarting(cancellable)
+      Thread.sleep(5000)
+    }
+
+    when:
+    callback.cancelAfter = 1
+    aggregator.aggregate(["busy", "idle"], null, callback, Duration.ofSeconds(10))
+
+    then:
+    lines*.payloadAsString == ["first\n"]
+    callback.finished
+  }
+
+  def "delays the lines of a busy source only once while another source is idle"() {
+    given:
+    def maxDelay = Duration.ofMillis(50)
+    aggregator = new LogAggregator(manageContainer, LogAggregator.DEFAULT_QUEUE_CAPACITY, maxDelay)
+    def lines = []
+    def callback = new CollectingCallback(lines)
+    def base = Instant.parse("2025-01-18T20:57:00Z")
+    def frames = (0..<300).collect { int i -> frame("${base.plusMillis(i)} line ${i}\n") }
+    def cancellable = Stub(Cancellable)
+    manageContainer.logs("busy", _, _, _) >> { String container, Map q, StreamCallback<Frame> source, Duration timeout ->
+      frames.each { Frame frame -> source.onNext(frame) }
+      source.onFinished()
+    }
+    manageContainer.logs("idle", _, _, _) >> { String container, Map q, StreamCallback<Frame> source, Duration timeout ->
+      source.onStarting(cancellable)
+      Thread.sleep(10000)
+    }
+
+    when:
+    callback.cancelAfter = 300
+    long start = System.nanoTime()
+    aggregator.aggregate(["busy", "idle"], null, callback, Duration.ofSeconds(20))
+    def elapsed = Duration.ofNanos(System.nanoTime() - start)
+
+    then:
+    lines.size() == 300
+    lines.collect { it.payloadAsString } == (0..<300).collect { "line ${it}\n".toString() }
+    // measuring the delay from the merge instead of the arrival took maxDelay per line, i.e. 15s
+    elapsed < maxDelay.multipliedBy(300).dividedBy(10)
+  }
+
+  def "parses timestamps and keeps the previous one for continuations"() {
+    given:
+    def previous = Instant.parse("2025-01-18T20:57:00Z")
+
+    expect:
+    LogAggregator.parse("a", frame("2025-01-18T20:57:01.123456789Z message"), previous).timestamp == Instant.parse("2025-01-18T20:57:01.123456789Z")
+    LogAggregator.parse("a", frame("2025-01-18T20:57:01.123456789Z message"), previous).payloadAsString == "message"
+    LogAggregator.parse("a", frame("continued message"), previous).timestamp == previous
+    LogAggregator.parse("a", frame("continued message"), previous).payloadAsString == "continued message"
+  }
+
+  def "finds the containers of a service"() {
+    given:
+    def manageTask = Mock(ManageTask)
+    def running = Stub(Task) {
+      getStatus() >> Stub(Task.getMethod("getStatus").returnType) {
+        getContainerStatus() >> Stub(Task.getMethod("getStatus").returnType.getMethod("getContainerStatus").returnType) {
+          getContainerID() >> "container-id"
+        }
+      }
+    }
+    def pending = Stub(Task)
+
+    when:
+    def containers = LogAggregator.serviceContainers(manageTask, "web")
+
+    then:
+    1 * manageTask.tasks('{"service":{"web":true},"desired-state":{"running":true}}') >> new EngineResponseContent<List<Task>>([running, pending])
+    containers == ["container-id"]
+  }
+
+  Frame frame(String payload) {
+    Frame frame = Stub(Frame)
+    frame.payload >> payload.bytes
+    frame.streamType >> Frame.StreamType.STDOUT
+    return frame
+  }
+
+  static class CollectingCallback implements StreamCallback<LogLine> {
+
+    final List<LogLine> lines
+    int cancelAfter = -1
+    Cancellable cancellable
+    boolean finished
+
+    CollectingCallback(List<LogLine> lines) {
+      this.lines = lines
+    }
+
+    @Override
+    void onStarting(Cancellable cancellable) {
+      this.cancellable = cancellable
+    }
+
+    @Override
+    void onNext(LogLine element) {
+      lines << element
+      if (lines.size() == cancelAfter) {
+        cancellable.cancel()
+      }
+    }
+
+    @Override
+    void onFinished() {
+      finished = true
+    }
+  }
+}
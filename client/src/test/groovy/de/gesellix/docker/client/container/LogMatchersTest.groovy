@@ -0,0 +1,39 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.remote.api.core.Frame
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.regex.Pattern
+
+class LogMatchersTest extends Specification {
+
+  @Unroll
+  def "contains '#text' in '#payload': #expected"() {
+    given:
+    Frame frame = Stub(Frame)
+    frame.payload >> payload?.bytes
+
+    expect:
+    LogMatchers.contains(text).test(frame) == expected
+
+    where:
+    text       | payload                     | expected
+    "started"  | "server started on port 80" | true
+    "aab"      | "aaab"                      | true
+    "abab"     | "abacabab"                  | true
+    "port 81"  | "server started on port 80" | false
+    "too long" | "short"                     | false
+    "any"      | null                        | false
+  }
+
+  def "finds patterns in the decoded payload"() {
+    given:
+    Frame frame = Stub(Frame)
+    frame.payload >> "listening on port 8080 ✓".getBytes("UTF-8")
+
+    expect:
+    LogMatchers.find(Pattern.compile("port \\d+ ✓")).test(frame)
+    !LogMatchers.find(Pattern.compile("^port")).test(frame)
+  }
+}
@@ -0,0 +1,113 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.remote.api.core.Cancellable
+import de.gesellix.docker.remote.api.core.Frame
+import de.gesellix.docker.remote.api.core.StreamCallback
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class LogWatcherTest extends Specification {
+
+  ManageContainer manageContainer = Mock(ManageContainer)
+  LogWatcher watcher = new LogWatcher(manageContainer)
+
+  def cleanup() {
+    watcher.close()
+  }
+
+  def "completes with the first matching frame and cancels the stream"() {
+    given:
+    def cancelled = new CountDownLatch(1)
+    def cancellable = Stub(Cancellable) {
+      cancel() >> { cancelled.countDown() }
+    }
+    def other = frame("starting")
+    def match = frame("server started")
+    def query = [tail: 0]
+
+    when:
+    def result = watcher.watch("a-container", query, LogMatchers.contains("started"), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS)
+
+    then:
+    1 * manageContainer.logs("a-container", [follow: true, tail: 0], _, Duration.ofSeconds(5)) >> { String container, Map q, StreamCallback<Frame> callback, Duration timeout ->
+      callback.onStarting(cancellable)
+      callback.onNext(other)
+      callback.onNext(match)
+    }
+    and:
+    result == match
+    query == [tail: 0]
+    cancelled.await(5, TimeUnit.SECONDS)
+  }
+
+  def "times out and cancels the stream"() {
+    given:
+    def cancelled = new CountDownLatch(1)
+    def cancellable = Stub(Cancellable) {
+      cancel() >> { cancelled.countDown() }
+    }
+    manageContainer.logs("a-container", _, _, _) >> { String container, Map q, StreamCallback<Frame> callback, Duration timeout ->
+      callback.onStarting(cancellable)
+      cancelled.await(5, TimeUnit.SECONDS)
+    }
+
+    when:
+    watcher.watch("a-container", null, LogMatchers.contains("never"), Duration.ofMillis(50)).get(5, TimeUnit.SECONDS)
+
+    then:
+    def e = thrown(ExecutionException)
+    e.cause instanceof TimeoutException
+    cancelled.await(5, TimeUnit.SECONDS)
+  }
+
+  def "fails when the stream ends without a match"() {
+    given:
+    manageContainer.logs("a-container", _, _, _) >> { String container, Map q, StreamCallback<Frame> callback, Duration timeout ->
+      callback.onFinished()
+    }
+
+    when:
+    watcher.watch("a-container", [:], LogMatchers.contains("never"), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS)
+
+    then:
+    def e = thrown(ExecutionException)
+    e.cause instanceof NoSuchElementException
+  }
+
+  def "queued watches time out while all threads are busy"() {
+    given:
+    def executor = Executors.newSingleThreadExecutor()
+    def bounded = new LogWatcher(manageContainer, executor)
+    def release = new CountDownLatch(1)
+    manageContainer.logs("busy", _, _, _) >> { String container, Map q, StreamCallback<Frame> callback, Duration timeout ->
+      release.await(5, TimeUnit.SECONDS)
+    }
+
+    when:
+    def busy = bounded.watch("busy", null, LogMatchers.contains("never"), Duration.ofSeconds(5))
+    bounded.watch("queued", null, LogMatchers.contains("never"), Duration.ofMillis(50)).get(5, TimeUnit.SECONDS)
+
+    then:
+    def e = thrown(ExecutionException)
+    e.cause instanceof TimeoutException
+    !busy.done
+    0 * manageContainer.logs("queued", _, _, _)
+
+    cleanup:
+    release.countDown()
+    bounded.close()
+    executor.shutdownNow()
+  }
+
+  Frame frame(String payload) {
+    Frame frame = Stub(Frame)
+    frame.payload >> payload.bytes
+    return frame
+  }
+}
@@ -1,6 +1,10 @@
 package de.gesellix.docker.client.container
 
+import de.gesellix.docker.client.archive.TarProducerTest
+import de.gesellix.docker.engine.AttachConfig
 import de.gesellix.docker.engine.EngineClient
+import de.gesellix.docker.engine.EngineResponse
+import de.gesellix.docker.engine.EngineResponseStatus
 import de.gesellix.docker.remote.api.ContainerConfig
 import de.gesellix.docker.remote.api.ContainerCreateRequest
 import de.gesellix.docker.remote.api.ContainerCreateResponse
@@ -19,15 +23,20 @@ import de.gesellix.docker.remote.api.IdResponse
 import de.gesellix.docker.remote.api.client.ContainerApi
 import de.gesellix.docker.remote.api.client.ExecApi
 import de.gesellix.docker.remote.api.client.ImageApi
+import de.gesellix.docker.remote.api.core.Frame
 import de.gesellix.docker.remote.api.core.StreamCallback
 import spock.lang.Ignore
 import spock.lang.Specification
 
+import java.nio.file.Files
 import java.time.Duration
 import java.time.temporal.ChronoUnit
 
 class ManageContainerClientTest extends Specification {
 
+  static final String CONTAINER_ID = "1" * 64
+  static final String OTHER_CONTAINER_ID = "2" * 64
+
   ManageContainerClient service
   EngineApiClient client = Mock(EngineApiClient)
   EngineClient httpClient = Mock(EngineClient)
@@ -53,6 +62,26 @@ class ManageContainerClientTest extends Specification {
     response.content == exportedFile
   }
 
+  def "export container to a file"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def directory = Files.createTempDirectory("export")
+    def target = directory.resolve("container.tar")
+
+    when:
+    def result = service.exportTo("container-id", target, null)
+
+    then:
+    1 * containerApi.containerExport("container-id") >> new ByteArrayInputStream("exported".bytes)
+    and:
+    result.sha256 == "exported".bytes.sha256()
+    new String(Files.readAllBytes(target)) == "exported"
+
+    cleanup:
+    directory?.toFile()?.deleteDir()
+  }
+
   def "restart container"() {
     given:
     def containerApi = Mock(ContainerApi)
@@ -369,6 +398,25 @@ class ManageContainerClientTest extends Specification {
     result.content == archive
   }
 
+  def "extract folder from container into a directory"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def archive = ArchiveExtractorTest.tar(["path/": null, "path/file.txt": "content"])
+    def target = Files.createTempDirectory("extract")
+
+    when:
+    def result = service.extractArchive("a-container", "/path/", target, new ExtractOptions().setStripComponents(1))
+
+    then:
+    1 * containerApi.containerArchive("a-container", "/path/") >> archive
+    result.files == 1
+    new String(Files.readAllBytes(target.resolve("file.txt"))) == "content"
+
+    cleanup:
+    target?.toFile()?.deleteDir()
+  }
+
   def "upload file/folder to container"() {
     given:
     def containerApi = Mock(ContainerApi)
@@ -382,6 +430,53 @@ class ManageContainerClientTest extends Specification {
     1 * containerApi.putContainerArchive("a-container", "/path/", tarStream, null, null)
   }
 
+  def "upload directory to container"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def source = Files.createTempDirectory("upload")
+    Files.write(source.resolve(".dockerignore"), "*".bytes)
+    Files.write(source.resolve("file.txt"), "content".bytes)
+    def entries = null
+
+    when:
+    service.putArchive("a-container", "/path/", source, null)
+
+    then:
+    1 * containerApi.putContainerArchive("a-container", "/path/", _ as InputStream, null, null) >> { arguments ->
+      entries = TarProducerTest.entries(arguments[2] as InputStream)
+    }
+    entries == [".dockerignore": "*", "file.txt": "content"]
+
+    cleanup:
+    source?.toFile()?.deleteDir()
+  }
+
+  def "copy between containers"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def archive = ArchiveExtractorTest.tar(["data/": null, "data/db.sqlite": "db"])
+    def entries = null
+
+    when:
+    service.copyBetweenContainers("source", "/var/lib/data", "target", "/backup")
+
+    then:
+    1 * containerApi.containerArchive("source", "/var/lib/data") >> archive
+    1 * containerApi.putContainerArchive("target", "/backup", archive, null, null)
+
+    when:
+    service.copyBetweenContainers("source", "/var/lib/data", "target", "/backup", new CopyOptions().rename("data", "restored"))
+
+    then:
+    1 * containerApi.containerArchive("source", "/var/lib/data") >> ArchiveExtractorTest.tar(["data/": null, "data/db.sqlite": "db"])
+    1 * containerApi.putContainerArchive("target", "/backup", _ as InputStream, null, null) >> { arguments ->
+      entries = TarProducerTest.entries(arguments[2] as InputStream)
+    }
+    entries == ["restored/": null, "restored/db.sqlite": "db"]
+  }
+
   def "rename container"() {
     given:
     def containerApi = Mock(ContainerApi)
@@ -408,6 +503,127 @@ class ManageContainerClientTest extends Specification {
     1 * containerApi.containerAttach("a-container", null, true, true, false, true, true, callback, timeout.toMillis())
   }
 
+  def "attach reuses the tty mode of created containers"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def createRequest = new ContainerCreateRequest().tap { c ->
+      c.image = "example"
+      c.tty = true
+    }
+    def createResponse = Mock(ContainerCreateResponse)
+    createResponse.id >> CONTAINER_ID
+    def attachConfig = Mock(AttachConfig)
+
+    when:
+    service.createContainer(createRequest, "foo")
+    service.attach(CONTAINER_ID, [stream: true], attachConfig)
+
+    then:
+    1 * containerApi.containerCreate(createRequest, "foo") >> createResponse
+    0 * containerApi.containerInspect(*_)
+    1 * httpClient.post({ it.multiplexStreams == false && it.attach == attachConfig }) >> Mock(EngineResponse)
+  }
+
+  def "attach remembers inspected containers by id"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def inspect = Mock(ContainerInspectResponse)
+    inspect.id >> CONTAINER_ID
+    inspect.config >> Mock(ContainerConfig, { it.tty >> false })
+    def attachConfig = Mock(AttachConfig)
+
+    when:
+    service.attach("a-container", [stream: true], attachConfig)
+    service.attach("a-container", [stream: true], attachConfig)
+    service.attach(CONTAINER_ID, [stream: true], attachConfig)
+
+    then:
+    2 * containerApi.containerInspect("a-container", null) >> inspect
+    0 * containerApi.containerInspect(CONTAINER_ID, null)
+    3 * httpClient.post({ it.multiplexStreams == true }) >> Mock(EngineResponse)
+  }
+
+  def "attach uses the tty mode of the container which reused a name"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def createRequest = new ContainerCreateRequest().tap { c ->
+      c.image = "example"
+      c.tty = true
+    }
+    def createResponse = Mock(ContainerCreateResponse)
+    createResponse.id >> CONTAINER_ID
+    // "foo" has been removed and created again without tty, e.g. by another client
+    def inspect = Mock(ContainerInspectResponse)
+    inspect.id >> OTHER_CONTAINER_ID
+    inspect.config >> Mock(ContainerConfig, { it.tty >> false })
+    def attachConfig = Mock(AttachConfig)
+
+    when:
+    service.createContainer(createRequest, "foo")
+    service.attach("foo", [stream: true], attachConfig)
+
+    then:
+    1 * containerApi.containerCreate(createRequest, "foo") >> createResponse
+    1 * containerApi.containerInspect("foo", null) >> inspect
+    1 * httpClient.post({ it.multiplexStreams == true }) >> Mock(EngineResponse)
+  }
+
+  def "attach with explicit tty mode"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def attachConfig = Mock(AttachConfig)
+
+    when:
+    service.attach("a-container", [stream: true], attachConfig, true)
+
+    then:
+    0 * containerApi.containerInspect(*_)
+    1 * httpClient.post({ it.multiplexStreams == false }) >> Mock(EngineResponse)
+  }
+
+  def "rm forgets the tty mode by id and name"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def inspect = Mock(ContainerInspectResponse)
+    inspect.id >> CONTAINER_ID
+    inspect.config >> Mock(ContainerConfig, { it.tty >> true })
+    def attachConfig = Mock(AttachConfig)
+    httpClient.post(_) >> Mock(EngineResponse)
+
+    when:
+    service.attach("a-container", [:], attachConfig)
+    service.attach(CONTAINER_ID, [:], attachConfig)
+    service.rm("a-container")
+    service.attach(CONTAINER_ID, [:], attachConfig)
+
+    then:
+    1 * containerApi.containerInspect("a-container", null) >> inspect
+    1 * containerApi.containerInspect(CONTAINER_ID, null) >> inspect
+  }
+
+  def "start exec reuses the tty mode of created execs"() {
+    given:
+    def execApi = Mock(ExecApi)
+    client.execApi >> execApi
+    def execConfig = Mock(ExecConfig, { it.tty >> true })
+    def idResponse = Mock(IdResponse, { it.id >> "exec-id" })
+    def attachConfig = Mock(AttachConfig)
+
+    when:
+    service.createExec("a-container", execConfig)
+    service.startExec("exec-id", new ExecStartConfig(false, true, null), attachConfig)
+
+    then:
+    1 * execApi.containerExec("a-container", execConfig) >> idResponse
+    0 * execApi.execInspect(*_)
+    1 * httpClient.post({ it.path == "/exec/exec-id/start" && it.multiplexStreams == false }) >> Mock(EngineResponse)
+  }
+
   // TODO
   @Ignore
   "attach websocket"() {
@@ -550,6 +766,50 @@ class ManageContainerClientTest extends Specification {
     1 * containerApi.containerLogs("a-container", true, true, true, 0, null, false, 'all', callback, 1000)
   }
 
+  def "wait for log event keeps the query"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def query = [tail: 0]
+    def match = Mock(Frame)
+
+    when:
+    service.waitForLogEvent("a-container", query, { it == match }, Duration.of(5, ChronoUnit.SECONDS))
+
+    then:
+    1 * containerApi.containerLogs("a-container", true, true, true, 0, null, false, '0', _, 5000) >> { arguments ->
+      StreamCallback<Frame> callback = arguments[8]
+      callback.onNext(match)
+      callback.onFinished()
+    }
+    and:
+    query == [tail: 0]
+  }
+
+  def "logs into output streams"() {
+    given:
+    def containerApi = Mock(ContainerApi)
+    client.containerApi >> containerApi
+    def inspect = Mock(ContainerInspectResponse)
+    inspect.id >> "container-id"
+    inspect.config >> Mock(ContainerConfig, { it.tty >> false })
+    def stream = StreamDemultiplexerTest.frames([1: "out\n"], [2: "err\n"])
+    def stdout = new ByteArrayOutputStream()
+    def stderr = new ByteArrayOutputStream()
+
+    when:
+    def copied = service.logs("container-id", [follow: false, tail: 10], stdout, stderr)
+
+    then:
+    1 * containerApi.containerInspect("container-id", null) >> inspect
+    1 * httpClient.get({ it.path == "/containers/container-id/logs" && it.async && it.query.follow == false && it.query.tail == 10 && it.query.stderr }) >>
+        new EngineResponse(status: new EngineResponseStatus(success: true), stream: stream)
+    and:
+    stdout.toString("UTF-8") == "out\n"
+    stderr.toString("UTF-8") == "err\n"
+    copied == 8
+  }
+
   def "pruneContainers removes containers"() {
     given:
     def containerApi = Mock(ContainerApi)
@@ -0,0 +1,59 @@
+package de.gesellix.docker.client.container
+
+import spock.lang.Specification
+
+class OutputRingBufferTest extends Specification {
+
+  def "keeps everything below capacity"() {
+    given:
+    def buffer = new OutputRingBuffer(8)
+
+    when:
+    buffer.write("abc".bytes)
+    buffer.write("de".bytes)
+
+    then:
+    buffer.toString() == "abcde"
+    buffer.totalBytes == 5
+    !buffer.truncated
+  }
+
+  def "keeps the tail when wrapping around"() {
+    given:
+    def buffer = new OutputRingBuffer(4)
+
+    when:
+    buffer.write("abc".bytes)
+    buffer.write("def".bytes)
+
+    then:
+    buffer.toString() == "cdef"
+    buffer.totalBytes == 6
+    buffer.truncated
+  }
+
+  def "keeps the tail of a single large write"() {
+    given:
+    def buffer = new OutputRingBuffer(3)
+
+    when:
+    buffer.write("0123456789".bytes, 2, 6)
+
+    then:
+    buffer.toString() == "567"
+    buffer.totalBytes == 6
+  }
+
+  def "zero capacity only counts bytes"() {
+    given:
+    def buffer = new OutputRingBuffer(0)
+
+    when:
+    buffer.write("abc".bytes)
+
+    then:
+    buffer.toByteArray().length == 0
+    buffer.totalBytes == 3
+    buffer.truncated
+  }
+}
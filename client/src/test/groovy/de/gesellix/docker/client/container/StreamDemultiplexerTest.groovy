@@ -0,0 +1,90 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.util.ByteBufferPool
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
+
+class StreamDemultiplexerTest extends Specification {
+
+  ByteBufferPool buffers = new ByteBufferPool(4, 2)
+  StreamDemultiplexer demultiplexer = new StreamDemultiplexer(buffers)
+
+  def "splits stdout and stderr frames"() {
+    given:
+    def stdout = new ByteArrayOutputStream()
+    def stderr = new ByteArrayOutputStream()
+    def stream = frames([1: "line 1\n"], [2: "oops\n"], [1: "line 2\n"], [0: "in\n"])
+
+    when:
+    def copied = demultiplexer.demultiplex(stream, stdout, stderr)
+
+    then:
+    stdout.toString("UTF-8") == "line 1\nline 2\nin\n"
+    stderr.toString("UTF-8") == "oops\n"
+    copied == 22
+    and:
+    buffers.pooled == 1
+  }
+
+  def "writes into channels and discards missing sinks"() {
+    given:
+    def stdout = new ByteArrayOutputStream()
+    def stream = frames([1: "first frame"], [2: "ignored"], [1: ", second frame"])
+
+    when:
+    demultiplexer.demultiplex(stream, Channels.newChannel(stdout), null)
+
+    then:
+    stdout.toString("UTF-8") == "first frame, second frame"
+  }
+
+  def "copies raw streams"() {
+    given:
+    def stdout = new ByteArrayOutputStream()
+
+    when:
+    def copied = demultiplexer.copy(new ByteArrayInputStream("raw tty output".bytes), stdout)
+
+    then:
+    stdout.toString("UTF-8") == "raw tty output"
+    copied == 14
+  }
+
+  def "fails on truncated frames"() {
+    given:
+    def complete = frames([1: "truncated"]).bytes
+    def stream = new ByteArrayInputStream(complete, 0, complete.length - 2)
+
+    when:
+    demultiplexer.demultiplex(stream, new ByteArrayOutputStream(), new ByteArrayOutputStream())
+
+    then:
+    thrown(EOFException)
+    and:
+    buffers.pooled == 1
+  }
+
+  def "fails with errors reported by the daemon"() {
+    when:
+    demultiplexer.demultiplex(frames([1: "output"], [3: "no such container"]), new ByteArrayOutputStream(), null)
+
+    then:
+    def e = thrown(IOException)
+    e.message == "daemon reported an error: no such container"
+  }
+
+  static InputStream frames(Map<Integer, String>... frames) {
+    def bytes = new ByteArrayOutputStream()
+    frames.each { Map<Integer, String> frame ->
+      frame.each { Integer streamType, String payload ->
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8)
+        bytes.write(ByteBuffer.allocate(8).put(streamType as byte).position(4).putInt(payloadBytes.length).array())
+        bytes.write(payloadBytes)
+      }
+    }
+    return new ByteArrayInputStream(bytes.toByteArray())
+  }
+}
@@ -0,0 +1,128 @@
+package de.gesellix.docker.client.container
+
+import de.gesellix.docker.remote.api.EventMessage
+import de.gesellix.docker.remote.api.core.Cancellable
+import spock.lang.Specification
+
+class TtyModesTest extends Specification {
+
+  static final String CONTAINER_ID = "a" * 64
+  static final String OTHER_CONTAINER_ID = "b" * 64
+
+  TtyModes ttyModes = new TtyModes()
+
+  def "remembers containers only by full id"() {
+    when:
+    ttyModes.rememberContainer(CONTAINER_ID, true)
+    ttyModes.rememberContainer("foo", false)
+    ttyModes.rememberAlias("/foo", CONTAINER_ID)
+
+    then:
+    ttyModes.getContainerTty(CONTAINER_ID) == true
+    ttyModes.getContainerTty("foo") == null
+    ttyModes.getContainerTty("aaaaaaaaaaaa") == null
+    ttyModes.getContainerTty("unknown") == null
+  }
+
+  def "forgetting a container by name evicts its id"() {
+    given:
+    ttyModes.rememberContainer(CONTAINER_ID, true)
+    ttyModes.rememberAlias("foo", CONTAINER_ID)
+    ttyModes.rememberContainer(OTHER_CONTAINER_ID, true)
+    ttyModes.rememberAlias("bar", OTHER_CONTAINER_ID)
+
+    when:
+    ttyModes.forgetContainer("/foo")
+
+    then:
+    ttyModes.getContainerTty(CONTAINER_ID) == null
+    ttyModes.getContainerTty(OTHER_CONTAINER_ID) == true
+  }
+
+  def "forgetting a container by id evicts its aliases"() {
+    given:
+    ttyModes.rememberContainer(CONTAINER_ID, true)
+    ttyModes.rememberAlias("foo", CONTAINER_ID)
+
+    when:
+    ttyModes.forgetContainer(CONTAINER_ID)
+    // "foo" is reused by another container
+    ttyModes.rememberContainer(OTHER_CONTAINER_ID, false)
+    ttyModes.rememberAlias("foo", OTHER_CONTAINER_ID)
+    ttyModes.forgetContainer("foo")
+
+    then:
+    ttyModes.getContainerTty(OTHER_CONTAINER_ID) == null
+  }
+
+  def "destroy events evict containers by id and name"() {
+    given:
+    ttyModes.rememberContainer(CONTAINER_ID, true)
+    ttyModes.rememberAlias("foo", CONTAINER_ID)
+    ttyModes.rememberContainer(OTHER_CONTAINER_ID, true)
+
+    when:
+    ttyModes.onEvent(event("container", "destroy", CONTAINER_ID, [name: "foo"]))
+
+    then:
+    ttyModes.getContainerTty(CONTAINER_ID) == null
+    ttyModes.getContainerTty(OTHER_CONTAINER_ID) == true
+  }
+
+  def "exec_die events evict execs"() {
+    given:
+    ttyModes.rememberExec("exec-id", false)
+
+    when:
+    ttyModes.onEvent(event("container", "exec_die", "container-id", [execID: "exec-id", exitCode: "0"]))
+
+    then:
+    ttyModes.getExecTty("exec-id") == null
+  }
+
+  def "forgets everything when the events stream (re)connects"() {
+    given:
+    ttyModes.rememberContainer(CONTAINER_ID, true)
+    ttyModes.rememberExec("exec-id", true)
+
+    when:
+    ttyModes.eventCallback.onStarting(Mock(Cancellable))
+
+    then:
+    ttyModes.getContainerTty(CONTAINER_ID) == null
+    ttyModes.getExecTty("exec-id") == null
+  }
+
+  def "evicts least recently used entries"() {
+    given:
+    def bounded = new TtyModes(2)
+    bounded.rememberContainer("a" * 64, true)
+    bounded.rememberContainer("b" * 64, true)
+    bounded.getContainerTty("a" * 64)
+
+    when:
+    bounded.rememberContainer("c" * 64, true)
+
+    then:
+    bounded.getContainerTty("a" * 64) == true
+    bounded.getContainerTty("b" * 64) == null
+    bounded.getContainerTty("c" * 64) == true
+  }
+
+  def "requests only destroy and exec_die events"() {
+    expect:
+    ttyModes.eventsRequest.filters == '{"type":{"container":true},"event":{"destroy":true,"exec_die":true}}'
+  }
+
+  EventMessage event(String type, String action, String id, Map<String, String> attributes) {
+    def actor = Stub(EventMessage.getMethod("getActor").returnType) {
+      getID() >> id
+      getAttributes() >> attributes
+    }
+    def event = Mock(EventMessage)
+    event.type >> EventMessage.Type.values().find { it.value == type }
+    event.action >> action
+    event.actor >> actor
+    return event
+  }
+}
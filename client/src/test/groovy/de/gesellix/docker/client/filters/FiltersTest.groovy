@@ -0,0 +1,69 @@
+package de.gesellix.docker.client.filters
+
+import spock.lang.Specification
+
+class FiltersTest extends Specification {
+
+  def "encodes filters like the engine's filters.Args"() {
+    when:
+    def filters = Filters.builder()
+        .label("com.example.team=backend", "com.example.service")
+        .status("running", "paused")
+        .build()
+
+    then:
+    filters.toJson() == '{"label":{"com.example.team=backend":true,"com.example.service":true},"status":{"running":true,"paused":true}}'
+  }
+
+  def "combines and deduplicates values of the same filter"() {
+    when:
+    def filters = Filters.builder()
+        .name("a")
+        .name("b", "a")
+        .build()
+
+    then:
+    filters.get("name") == ["a", "b"]
+    filters.toJson() == '{"name":{"a":true,"b":true}}'
+  }
+
+  def "escapes special characters"() {
+    when:
+    def filters = Filters.builder().add("label", "quote=\"\\\n\u0001").build()
+
+    then:
+    filters.toJson() == '{"label":{"quote=\\"\\\\\\n\\u0001":true}}'
+  }
+
+  def "encodes empty filters"() {
+    expect:
+    Filters.empty().toJson() == '{}'
+    Filters.empty().empty
+  }
+
+  def "derived filters don't change the original"() {
+    given:
+    def base = Filters.builder().node("self").label("stack=a").build()
+
+    when:
+    def derived = base.toBuilder().set("node", "node-id").service("web").build()
+
+    then:
+    base.toJson() == '{"node":{"self":true},"label":{"stack=a":true}}'
+    derived.toJson() == '{"node":{"node-id":true},"label":{"stack=a":true},"service":{"web":true}}'
+  }
+
+  def "equal filters are interchangeable"() {
+    expect:
+    Filters.builder().status("running").build() == Filters.builder().add("status", ["running"]).build()
+    Filters.builder().status("running").build().hashCode() == Filters.builder().status("running").build().hashCode()
+  }
+
+  def "rejects null values"() {
+    when:
+    Filters.builder().name((String) null)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+}
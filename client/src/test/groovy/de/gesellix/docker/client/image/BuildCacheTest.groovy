@@ -0,0 +1,142 @@
+package de.gesellix.docker.client.image
+
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.remote.api.BuildInfo
+import de.gesellix.docker.remote.api.ImageID
+import de.gesellix.docker.remote.api.ImageInspect
+import de.gesellix.docker.remote.api.core.ClientException
+import de.gesellix.docker.remote.api.core.StreamCallback
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+import static de.gesellix.docker.client.archive.TarProducerTest.entries
+
+class BuildCacheTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  ManageImage manageImage = Mock(ManageImage)
+  Path context
+  BuildCache cache
+
+  def setup() {
+    context = tempDir.resolve("context")
+    Files.createDirectories(context)
+    Files.write(context.resolve("Dockerfile"), "FROM scratch\nCOPY . /".bytes)
+    Files.write(context.resolve("app.txt"), "app".bytes)
+    cache = new BuildCache(manageImage, tempDir.resolve("cache"))
+  }
+
+  def cleanup() {
+    cache.close()
+  }
+
+  def "skips the build of an unchanged context"() {
+    when:
+    def first = cache.build(context, null, "app:1", [VERSION: "1"], null, null, Duration.ofSeconds(5))
+
+    then:
+    1 * manageImage.build(*_) >> { arguments ->
+      assert arguments[3] == "app:1"
+      assert arguments[8] != null
+      assert entries(arguments[12] as InputStream).keySet() == ["Dockerfile", "app.txt"] as Set
+      succeed(arguments[0] as StreamCallback<BuildInfo>, "sha256:4711")
+    }
+    !first.skipped
+    first.imageId == "sha256:4711"
+
+    when:
+    def second = new BuildCache(manageImage, tempDir.resolve("cache")).build(context, null, "app:1", [VERSION: "1"], null, null, Duration.ofSeconds(5))
+
+    then:
+    1 * manageImage.inspectImage("sha256:4711") >> new EngineResponseContent<>(new ImageInspect())
+    1 * manageImage.tag("sha256:4711", "app:1")
+    0 * manageImage.build(*_)
+    second.skipped
+    second.imageId == "sha256:4711"
+    second.contextDigest == first.contextDigest
+  }
+
+  def "builds again when the inputs change"() {
+    given:
+    manageImage.build(*_) >> { arguments ->
+      entries(arguments[12] as InputStream)
+      succeed(arguments[0] as StreamCallback<BuildInfo>, "sha256:4711")
+    }
+    manageImage.inspectImage(_) >> new EngineResponseContent<>(new ImageInspect())
+    cache.build(context, null, "app:1", [VERSION: "1"], null, null, Duration.ofSeconds(5))
+
+    expect:
+    !cache.build(context, null, "app:1", [VERSION: "2"], null, null, Duration.ofSeconds(5)).skipped
+    !cache.build(context, null, "app:2", [VERSION: "2"], null, null, Duration.ofSeconds(5)).skipped
+    !cache.build(context, "Dockerfile", "app:2", [:], null, null, Duration.ofSeconds(5)).skipped
+    !cache.build(touch(context.resolve("app.txt"), "changed"), null, "app:2", [:], null, null, Duration.ofSeconds(5)).skipped
+    cache.build(context, null, "app:2", [:], null, null, Duration.ofSeconds(5)).skipped
+  }
+
+  def "builds again when a base image has changed"() {
+    given:
+    manageImage.build(*_) >> { arguments ->
+      entries(arguments[12] as InputStream)
+      succeed(arguments[0] as StreamCallback<BuildInfo>, "sha256:app")
+    }
+
+    when:
+    cache.build(context, null, "app:1", null, [base: "sha256:base-1"], null, null, Duration.ofSeconds(5))
+
+    then:
+    cache.build(context, null, "app:1", null, [base: "sha256:base-1"], null, null, Duration.ofSeconds(5)).skipped
+    !cache.build(context, null, "app:1", null, [base: "sha256:base-2"], null, null, Duration.ofSeconds(5)).skipped
+  }
+
+  def "builds again when the image has been removed"() {
+    given:
+    manageImage.build(*_) >> { arguments ->
+      entries(arguments[12] as InputStream)
+      succeed(arguments[0] as StreamCallback<BuildInfo>, "sha256:4711")
+    }
+    cache.build(context, null, "app:1", null, null, null, Duration.ofSeconds(5))
+
+    when:
+    def result = cache.build(context, null, "app:1", null, null, null, Duration.ofSeconds(5))
+
+    then:
+    1 * manageImage.inspectImage("sha256:4711") >> { throw new ClientException("no such image", 404, null) }
+    !result.skipped
+  }
+
+  def "doesn't remember failed builds"() {
+    given:
+    def callback = Mock(StreamCallback)
+
+    when:
+    cache.build(context, null, "app:1", null, null, callback, Duration.ofSeconds(5))
+
+    then:
+    1 * manageImage.build(*_) >> { arguments ->
+      entries(arguments[12] as InputStream)
+      def buildCallback = arguments[0] as StreamCallback<BuildInfo>
+      buildCallback.onNext(new BuildInfo().tap { error = "COPY failed" })
+      buildCallback.onFinished()
+    }
+    1 * callback.onNext({ it.error == "COPY failed" })
+    def exception = thrown(IllegalStateException)
+    exception.message == "build failed: COPY failed"
+    !Files.exists(tempDir.resolve("cache/builds.properties"))
+  }
+
+  static void succeed(StreamCallback<BuildInfo> callback, String imageId) {
+    callback.onNext(new BuildInfo().tap { aux = new ImageID(imageId) })
+    callback.onFinished()
+  }
+
+  static Path touch(Path file, String content) {
+    Files.write(file, content.bytes)
+    return file.parent
+  }
+}
@@ -0,0 +1,233 @@
+package de.gesellix.docker.client.image
+
+import de.gesellix.docker.remote.api.BuildInfo
+import de.gesellix.docker.remote.api.ImageID
+import de.gesellix.docker.remote.api.core.Cancellable
+import de.gesellix.docker.remote.api.core.StreamCallback
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.IntBinaryOperator
+
+import static de.gesellix.docker.client.archive.TarProducerTest.entries
+
+class BuildOrchestratorTest extends Specification {
+
+  @TempDir
+  Path tempDir
+
+  ManageImage manageImage = Mock(ManageImage)
+  BuildOrchestrator orchestrator
+
+  def cleanup() {
+    orchestrator?.close()
+  }
+
+  def "derives dependencies from the Dockerfiles"() {
+    given:
+    def definitions = [
+        definition("app", "FROM base:1 AS build\nFROM build\nCOPY --from=tools /bin/tool /bin/"),
+        definition("base:1", "# FROM app\nFROM --platform=linux/amd64 alpine"),
+        definition("tools", "FROM \\\n  docker.io/library/alpine"),
+        definition("alpine", "FROM scratch")]
+
+    expect:
+    BuildOrchestrator.dependencies(definitions) == [
+        "app"   : ["base:1", "tools"],
+        "base:1": ["alpine"],
+        "tools" : ["alpine"],
+        "alpine": []]
+  }
+
+  def "finds base images"() {
+    expect:
+    BuildOrchestrator.baseImages(new StringReader(dockerfile)) == baseImages
+
+    where:
+    dockerfile                                                  | baseImages
+    "FROM alpine:3.20\nRUN true"                                | ["alpine:3.20"]
+    "from golang AS build\nFROM scratch\nCOPY --from=build / /" | ["golang"]
+    "FROM a AS one\nFROM one AS two\nFROM two"                  | ["a"]
+    "FROM a\nCOPY --from=0 /x /x\nCOPY --from=b:1 /y /y"        | ["a", "b:1"]
+  }
+
+  def "normalizes image references"() {
+    expect:
+    BuildOrchestrator.normalize(image) == normalized
+
+    where:
+    image                          | normalized
+    "alpine"                       | "alpine:latest"
+    "docker.io/library/alpine:3"   | "alpine:3"
+    "localhost:5000/app"           | "localhost:5000/app:latest"
+    "app@sha256:4711"              | "app@sha256:4711"
+  }
+
+  def "rejects cyclic dependencies"() {
+    when:
+    BuildOrchestrator.dependencies([
+        definition("a", "FROM c"),
+        definition("b", "FROM a"),
+        definition("c", "FROM b"),
+        definition("d", "FROM a")])
+
+    then:
+    def exception = thrown(IllegalArgumentException)
+    exception.message == "cyclic dependencies between [a, b, c, d]"
+  }
+
+  def "builds base images first with limited concurrency"() {
+    given:
+    def definitions = [
+        definition("app-1", "FROM base"),
+        definition("app-2", "FROM base"),
+        definition("app-3", "FROM base"),
+        definition("base", "FROM alpine"),
+        definition("other", "FROM alpine")]
+    def started = new CopyOnWriteArrayList<String>()
+    def running = new AtomicInteger()
+    def maxRunning = new AtomicInteger()
+    manageImage.build(*_) >> { arguments ->
+      String tag = arguments[3]
+      started << tag
+      maxRunning.accumulateAndGet(running.incrementAndGet(), { int current, int max -> Math.max(current, max) } as IntBinaryOperator)
+      entries(arguments[12] as InputStream)
+      Thread.sleep(50)
+      running.decrementAndGet()
+      succeed(arguments[0] as StreamCallback<BuildInfo>, tag)
+    }
+    def progress = []
+    orchestrator = new BuildOrchestrator(new BuildCache(manageImage, null), 2)
+
+    when:
+    def report = orchestrator.buildAll(definitions, new StreamCallback<BuildProgress>() {
+
+      @Override
+      void onNext(BuildProgress element) {
+        progress << element.tag
+      }
+    }, Duration.ofSeconds(5))
+
+    then:
+    report.successful
+    report.results.keySet() as List == ["app-1", "app-2", "app-3", "base", "other"]
+    report.results["base"].imageId == "sha256:base"
+    started.indexOf("base") < ["app-1", "app-2", "app-3"].collect { started.indexOf(it) }.min()
+    maxRunning.get() == 2
+    progress.sort() == ["app-1", "app-2", "app-3", "base", "other"]
+    report.serialTime >= report.wallClockTime
+  }
+
+  def "doesn't build dependents of failed builds"() {
+    given:
+    def definitions = [
+        definition("base", "FROM alpine"),
+        definition("app", "FROM base"),
+        definition("app-test", "FROM app"),
+        definition("other", "FROM alpine")]
+    manageImage.build(*_) >> { arguments ->
+      String tag = arguments[3]
+      entries(arguments[12] as InputStream)
+      def callback = arguments[0] as StreamCallback<BuildInfo>
+      if (tag == "base") {
+        callback.onNext(new BuildInfo().tap { error = "RUN failed" })
+        callback.onFinished()
+      } else {
+        succeed(callback, tag)
+      }
+    }
+    orchestrator = new BuildOrchestrator(manageImage)
+
+    when:
+    def report = orchestrator.buildAll(definitions, null, Duration.ofSeconds(5))
+
+    then:
+    report.results.keySet() == ["other"] as Set
+    report.failures["base"].message == "build failed: RUN failed"
+    report.failures["app"] instanceof CancellationException
+    report.failures["app-test"].message == "base image base failed"
+    report.durations.keySet() == ["base", "other"] as Set
+  }
+
+  def "rebuilds dependents of changed base images"() {
+    given:
+    def definitions = [
+        definition("base", "FROM alpine"),
+        definition("app", "FROM base")]
+    def built = new CopyOnWriteArrayList<String>()
+    manageImage.build(*_) >> { arguments ->
+      String tag = arguments[3]
+      entries(arguments[12] as InputStream)
+      built << tag
+      def callback = arguments[0] as StreamCallback<BuildInfo>
+      callback.onNext(new BuildInfo().tap { aux = new ImageID("sha256:${tag}-${built.size()}".toString()) })
+      callback.onFinished()
+    }
+    orchestrator = new BuildOrchestrator(new BuildCache(manageImage, tempDir.resolve("cache")), 2)
+
+    when:
+    orchestrator.buildAll(definitions, null, Duration.ofSeconds(5))
+    def unchanged = orchestrator.buildAll(definitions, null, Duration.ofSeconds(5))
+
+    then:
+    built == ["base", "app"]
+    unchanged.results.values().every { it.skipped }
+
+    when:
+    Files.write(tempDir.resolve("base").resolve("changed.txt"), "changed".bytes)
+    def report = orchestrator.buildAll(definitions, null, Duration.ofSeconds(5))
+
+    then:
+    built == ["base", "app", "base", "app"]
+    report.results["base"].imageId == "sha256:base-3"
+    !report.results["app"].skipped
+  }
+
+  def "cancels pending builds"() {
+    given:
+    def definitions = [
+        definition("base", "FROM alpine"),
+        definition("app", "FROM base")]
+    Cancellable cancellable = null
+    manageImage.build(*_) >> { arguments ->
+      entries(arguments[12] as InputStream)
+      succeed(arguments[0] as StreamCallback<BuildInfo>, arguments[3] as String)
+    }
+    orchestrator = new BuildOrchestrator(manageImage)
+
+    when:
+    def report = orchestrator.buildAll(definitions, new StreamCallback<BuildProgress>() {
+
+      @Override
+      void onStarting(Cancellable c) {
+        cancellable = c
+      }
+
+      @Override
+      void onNext(BuildProgress element) {
+        cancellable.cancel()
+      }
+    }, Duration.ofSeconds(5))
+
+    then:
+    !report.results.containsKey("app")
+    report.failures["app"].message == "build has been cancelled"
+  }
+
+  BuildDefinition definition(String tag, String dockerfile) {
+    def context = Files.createDirectories(tempDir.resolve(tag.replaceAll("[^a-z0-9]", "_")))
+    Files.write(context.resolve("Dockerfile"), dockerfile.bytes)
+    return new BuildDefinition(tag, context)
+  }
+
+  static void succeed(StreamCallback<BuildInfo> callback, String tag) {
+    callback.onNext(new BuildInfo().tap { aux = new ImageID("sha256:${tag}".toString()) })
+    callback.onFinished()
+  }
+}
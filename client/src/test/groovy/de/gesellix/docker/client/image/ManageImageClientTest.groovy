@@ -1,6 +1,9 @@
 package de.gesellix.docker.client.image
 
 import de.gesellix.docker.authentication.AuthConfig
+import de.gesellix.docker.client.archive.TarOptions
+import de.gesellix.docker.client.archive.TarProducerTest
+import de.gesellix.docker.client.archive.TransferOptions
 import de.gesellix.docker.client.authentication.ManageAuthentication
 import de.gesellix.docker.remote.api.EngineApiClient
 import de.gesellix.docker.remote.api.ImageInspect
@@ -9,6 +12,9 @@ import de.gesellix.docker.remote.api.ImageSummary
 import de.gesellix.docker.remote.api.client.ImageApi
 import spock.lang.Specification
 
+import java.nio.file.Files
+import java.util.zip.GZIPInputStream
+
 class ManageImageClientTest extends Specification {
 
   ManageImageClient service
@@ -53,6 +59,34 @@ class ManageImageClientTest extends Specification {
                             null, null)
   }
 
+  def "build with a context directory"() {
+    def imageApi = Mock(ImageApi)
+    client.imageApi >> imageApi
+    def context = Files.createTempDirectory("build-context")
+    Files.write(context.resolve("build.Dockerfile"), "FROM scratch".bytes)
+    Files.write(context.resolve(".dockerignore"), "*.Dockerfile".bytes)
+    Files.write(context.resolve("ignored.txt"), "ignored".bytes)
+    Files.write(context.resolve("app.txt"), "app".bytes)
+    def entries = null
+
+    when:
+    service.build(null, null, "build.Dockerfile", "a-tag", context, new TarOptions().setDockerfile("build.Dockerfile").exclude("ignored.*"))
+
+    then:
+    1 * manageAuthentication.getAllAuthConfigs() >> [:]
+    1 * manageAuthentication.encodeAuthConfigs([:]) >> "base-64-encoded"
+    1 * imageApi.imageBuild("build.Dockerfile", "a-tag", null, null, null, null, null, null, true, null,
+                            null, null, null, null, null, null, null, null, null, null, null,
+                            ImageApi.ContentTypeImageBuild.ApplicationSlashXMinusTar, "base-64-encoded", null, null, null, _ as InputStream,
+                            null, null) >> { arguments ->
+      entries = TarProducerTest.entries(arguments[26] as InputStream)
+    }
+    entries.keySet() as List == [".dockerignore", "app.txt", "build.Dockerfile"]
+
+    cleanup:
+    context?.toFile()?.deleteDir()
+  }
+
   def "tag with defaults"() {
     given:
     def imageApi = Mock(ImageApi)
@@ -221,6 +255,48 @@ class ManageImageClientTest extends Specification {
     1 * imageApi.imageLoad(null, archive)
   }
 
+  def "save images to a file"() {
+    given:
+    def imageApi = Mock(ImageApi)
+    client.imageApi >> imageApi
+    def directory = Files.createTempDirectory("save")
+    def target = directory.resolve("images.tar.gz")
+
+    when:
+    def result = service.saveTo(["image:tag"], target, new TransferOptions().setGzip(true))
+
+    then:
+    1 * imageApi.imageGetAll(["image:tag"]) >> new ByteArrayInputStream("saved images".bytes)
+    and:
+    result.bytesRead == "saved images".length()
+    result.bytesWritten == Files.size(target)
+    new GZIPInputStream(Files.newInputStream(target)).text == "saved images"
+
+    cleanup:
+    directory?.toFile()?.deleteDir()
+  }
+
+  def "load images from a file"() {
+    given:
+    def imageApi = Mock(ImageApi)
+    client.imageApi >> imageApi
+    def tarball = Files.createTempFile("images", ".tar")
+    Files.write(tarball, "saved images".bytes)
+    def uploaded = null
+
+    when:
+    service.loadFrom(tarball)
+
+    then:
+    1 * imageApi.imageLoad(null, _ as InputStream) >> { arguments ->
+      uploaded = TarProducerTest.read(arguments[1] as InputStream)
+    }
+    new String(uploaded) == "saved images"
+
+    cleanup:
+    Files.deleteIfExists(tarball)
+  }
+
   def "inspect image"() {
     given:
     def imageApi = Mock(ImageApi)
@@ -0,0 +1,184 @@
+package de.gesellix.docker.client.inventory
+
+import de.gesellix.docker.client.DockerClient
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.remote.api.EventMessage
+import de.gesellix.docker.remote.api.ImageSummary
+import de.gesellix.docker.remote.api.Network
+import de.gesellix.docker.remote.api.Volume
+import de.gesellix.docker.remote.api.VolumeListResponse
+import de.gesellix.docker.remote.api.core.Cancellable
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+class DockerInventoryTest extends Specification {
+
+  DockerClient client = Mock(DockerClient)
+  DockerInventory inventory = new DockerInventory(client, { Runnable task -> task.run() } as Executor)
+
+  def "reload indexes all objects"() {
+    when:
+    inventory.reload()
+
+    then:
+    1 * client.ps(true, null, false, null) >> new EngineResponseContent<List<Map<String, Object>>>([
+        container("c1", "web", "nginx:1.19", "running", [tier: "frontend"]),
+        container("c2", "db", "postgres:13", "exited", [tier: "backend"]),
+        container("c3", "cache", "redis:6", "running", [tier: "backend"])])
+    1 * client.images(false, null, null) >> new EngineResponseContent<List<ImageSummary>>([image("sha256:1", ["nginx:1.19"])])
+    1 * client.networks(null as String) >> new EngineResponseContent<List<Network>>([network("n1", "backend")])
+    1 * client.volumes(null as String) >> new EngineResponseContent<VolumeListResponse>(volumes(volume("data")))
+
+    and:
+    inventory.getContainer("c1").get().Names == ["/web"]
+    inventory.getContainer("db").get().Id == "c2"
+    inventory.getContainer("/cache").get().Id == "c3"
+    !inventory.getContainer("unknown").present
+    inventory.getContainersByLabel("tier")*.Id == ["c1", "c2", "c3"]
+    inventory.getContainersByLabel("tier=backend")*.Id == ["c2", "c3"]
+    inventory.getContainersByStatus("running")*.Id == ["c1", "c3"]
+    inventory.getContainersByImage("postgres:13")*.Id == ["c2"]
+    inventory.getImage("nginx:1.19").get().id == "sha256:1"
+    inventory.getNetwork("backend").get().id == "n1"
+    inventory.getVolume("data").present
+    inventory.lastReload != null
+  }
+
+  def "container events list only the changed container"() {
+    given:
+    reloadWith([container("c1", "web", "nginx:1.19", "running", [:]), container("c2", "db", "postgres:13", "running", [:])])
+
+    when:
+    inventory.onEvent(event("container", "die", "c2"))
+
+    then:
+    1 * client.ps(true, null, false, '{"id":{"c2":true}}') >> new EngineResponseContent<List<Map<String, Object>>>([
+        container("c2", "db", "postgres:13", "exited", [:])])
+    0 * client.ps(*_)
+    inventory.getContainersByStatus("running")*.Id == ["c1"]
+    inventory.getContainersByStatus("exited")*.Id == ["c2"]
+
+    when:
+    inventory.onEvent(event("container", "destroy", "c2"))
+
+    then:
+    1 * client.ps(true, null, false, '{"id":{"c2":true}}') >> new EngineResponseContent<List<Map<String, Object>>>([])
+    !inventory.getContainer("c2").present
+    !inventory.getContainer("db").present
+    inventory.containers*.Id == ["c1"]
+  }
+
+  def "ignores events which don't change the listed containers"() {
+    given:
+    reloadWith([container("c1", "web", "nginx:1.19", "running", [:])])
+
+    when:
+    inventory.onEvent(event("container", "exec_start: sh", "c1"))
+    inventory.onEvent(event("container", "resize", "c1"))
+
+    then:
+    0 * client._
+  }
+
+  def "network events update the network and the connected container"() {
+    given:
+    reloadWith([container("c1", "web", "nginx:1.19", "running", [:])])
+
+    when:
+    inventory.onEvent(event("network", "connect", "n2", [container: "c1"]))
+
+    then:
+    1 * client.ps(true, null, false, '{"id":{"c1":true}}') >> new EngineResponseContent<List<Map<String, Object>>>([
+        container("c1", "web", "nginx:1.19", "running", [:])])
+    1 * client.networks('{"id":{"n2":true}}') >> new EngineResponseContent<List<Network>>([network("n2", "frontend")])
+    inventory.getNetwork("frontend").get().id == "n2"
+  }
+
+  def "image events reload the images"() {
+    given:
+    reloadWith([])
+
+    when:
+    inventory.onEvent(event("image", "pull", "alpine:3.13"))
+
+    then:
+    1 * client.images(false, null, null) >> new EngineResponseContent<List<ImageSummary>>([image("sha256:2", ["alpine:3.13"])])
+    inventory.getImage("sha256:2").present
+  }
+
+  def "reloads everything when the events stream (re)connects"() {
+    given:
+    reloadWith([container("c1", "web", "nginx:1.19", "running", [:])])
+    def callback = inventory.eventCallback
+
+    when:
+    callback.onStarting(Mock(Cancellable))
+
+    then:
+    1 * client.ps(true, null, false, null) >> new EngineResponseContent<List<Map<String, Object>>>([
+        container("c2", "db", "postgres:13", "running", [:])])
+    1 * client.images(false, null, null) >> new EngineResponseContent<List<ImageSummary>>([])
+    1 * client.networks(null as String) >> new EngineResponseContent<List<Network>>([])
+    1 * client.volumes(null as String) >> new EngineResponseContent<VolumeListResponse>(volumes())
+    inventory.containers*.Id == ["c2"]
+  }
+
+  def "requests only relevant events"() {
+    expect:
+    inventory.eventsRequest.filters == '{"type":{"container":true,"image":true,"network":true,"volume":true}}'
+  }
+
+  void reloadWith(List<Map<String, Object>> containers) {
+    client.ps(true, null, false, null) >> new EngineResponseContent<List<Map<String, Object>>>(containers)
+    client.images(false, null, null) >> new EngineResponseContent<List<ImageSummary>>([])
+    client.networks(null as String) >> new EngineResponseContent<List<Network>>([])
+    client.volumes(null as String) >> new EngineResponseContent<VolumeListResponse>(volumes())
+    inventory.reload()
+  }
+
+  Map<String, Object> container(String id, String name, String image, String state, Map<String, String> labels) {
+    return [Id: id, Names: ["/${name}".toString()], Image: image, ImageID: "sha256:${id}".toString(), State: state, Labels: labels]
+  }
+
+  ImageSummary image(String id, List<String> repoTags) {
+    def image = Mock(ImageSummary)
+    image.id >> id
+    image.repoTags >> repoTags
+    image.labels >> [:]
+    return image
+  }
+
+  Network network(String id, String name) {
+    def network = Mock(Network)
+    network.id >> id
+    network.name >> name
+    network.labels >> [:]
+    return network
+  }
+
+  Volume volume(String name) {
+    def volume = Mock(Volume)
+    volume.name >> name
+    volume.labels >> [:]
+    return volume
+  }
+
+  VolumeListResponse volumes(Volume... volumes) {
+    def response = Mock(VolumeListResponse)
+    response.volumes >> volumes.toList()
+    return response
+  }
+
+  EventMessage event(String type, String action, String id, Map<String, String> attributes = [:]) {
+    def actor = Stub(EventMessage.getMethod("getActor").returnType) {
+      getID() >> id
+      getAttributes() >> attributes
+    }
+    def event = Mock(EventMessage)
+    event.type >> EventMessage.Type.values().find { it.value == type }
+    event.action >> action
+    event.actor >> actor
+    return event
+  }
+}
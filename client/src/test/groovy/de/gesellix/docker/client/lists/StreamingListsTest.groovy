@@ -0,0 +1,163 @@
+package de.gesellix.docker.client.lists
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.client.DockerClientImpl
+import de.gesellix.docker.remote.api.ImageSummary
+import de.gesellix.docker.remote.api.Service
+import de.gesellix.docker.remote.api.Task
+import de.gesellix.docker.testutil.HttpTestServer
+import spock.lang.Specification
+
+class StreamingListsTest extends Specification {
+
+  HttpTestServer server = new HttpTestServer()
+  ListHandler handler = new ListHandler()
+  DockerClientImpl dockerClient
+
+  def setup() {
+    def address = server.start('/', handler)
+    dockerClient = new DockerClientImpl("tcp://127.0.0.1:${address.port}")
+  }
+
+  def cleanup() {
+    dockerClient.close()
+    server.stop()
+  }
+
+  def "streams containers"() {
+    given:
+    handler.containers = 1000
+
+    when:
+    def ids = dockerClient.streamingLists.ps(true, '{"status":{"running":true}}').collect { it.Id }
+
+    then:
+    ids.size() == 1000
+    ids.first() == "container-0"
+    ids.last() == "container-999"
+    handler.lastQuery.contains("all=true")
+    handler.lastQuery.contains("filters=")
+  }
+
+  def "stops reading after the element of interest"() {
+    given:
+    handler.containers = 100_000
+
+    when:
+    def found = dockerClient.streamingLists.ps().stream().withCloseable { containers ->
+      containers.filter { it.Names == ["/name-42"] }.findFirst()
+    }
+
+    then:
+    found.get().Id == "container-42"
+  }
+
+  def "streams typed images"() {
+    given:
+    handler.containers = 3
+
+    when:
+    List<ImageSummary> images = dockerClient.streamingLists.images(true).collect()
+
+    then:
+    images*.id == ["sha256:image-0", "sha256:image-1", "sha256:image-2"]
+    images.first().repoTags == ["name-0:latest"]
+    images.first().labels == [stage: "0"]
+    handler.lastPath == "/images/json"
+  }
+
+  def "streams typed tasks"() {
+    given:
+    handler.containers = 3
+
+    when:
+    List<Task> tasks = dockerClient.streamingLists.tasks('{"service":["a-service"]}').collect()
+
+    then:
+    tasks*.id == ["task-0", "task-1", "task-2"]
+    tasks.first().serviceID == "a-service"
+    handler.lastPath == "/tasks"
+    handler.lastQuery.contains("filters=")
+  }
+
+  def "streams typed services"() {
+    given:
+    handler.containers = 3
+
+    when:
+    List<Service> services = dockerClient.streamingLists.services().collect()
+
+    then:
+    services*.id == ["service-0", "service-1", "service-2"]
+    services*.spec*.name == ["name-0", "name-1", "name-2"]
+    handler.lastPath == "/services"
+  }
+
+  def "fails on error responses"() {
+    given:
+    handler.status = 500
+
+    when:
+    dockerClient.streamingLists.ps().hasNext()
+
+    then:
+    thrown(Exception)
+  }
+
+  static class ListHandler implements HttpHandler {
+
+    volatile int containers
+    volatile int status = 200
+    volatile String lastQuery
+    volatile String lastPath
+
+    @Override
+    void handle(HttpExchange httpExchange) {
+      lastQuery = httpExchange.requestURI.rawQuery
+      lastPath = httpExchange.requestURI.path.replaceFirst("^/v[0-9.]+", "")
+      httpExchange.responseHeaders.set("Content-Type", "application/json")
+      if (status != 200) {
+        byte[] body = '{"message":"failure"}'.bytes
+        httpExchange.sendResponseHeaders(status, body.length)
+        httpExchange.responseBody.write(body)
+        httpExchange.close()
+        return
+      }
+      // chunked, like the daemon's responses
+      httpExchange.sendResponseHeaders(200, 0)
+      try {
+        def out = new BufferedWriter(new OutputStreamWriter(httpExchange.responseBody))
+        out.write("[")
+        for (int i = 0; i < containers; i++) {
+          if (i > 0) {
+            out.write(",")
+          }
+          out.write(element(lastPath, i))
+        }
+        out.write("]")
+        out.flush()
+      }
+      catch (IOException ignored) {
+        // the client stopped reading
+      }
+      finally {
+        httpExchange.close()
+      }
+    }
+
+    static String element(String path, int i) {
+      switch (path) {
+        case "/images/json":
+          return """{"Id":"sha256:image-${i}","ParentId":"","RepoTags":["name-${i}:latest"],"RepoDigests":[],""" +
+              """"Created":1700000000,"Size":1024,"SharedSize":-1,"VirtualSize":1024,"Labels":{"stage":"${i}"},"Containers":-1}"""
+        case "/tasks":
+          return """{"ID":"task-${i}","ServiceID":"a-service","CreatedAt":"2024-01-01T00:00:00.000000000Z"}"""
+        case "/services":
+          return """{"ID":"service-${i}","Spec":{"Name":"name-${i}"},"CreatedAt":"2024-01-01T00:00:00.000000000Z"}"""
+        default:
+          return """{"Id":"container-${i}","Names":["/name-${i}"],"State":"running"}"""
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package de.gesellix.docker.client.metrics
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.client.DockerClientImpl
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.client.InterceptingClients
+import de.gesellix.docker.client.system.ManageSystem
+import de.gesellix.docker.client.system.ManageSystemClient
+import de.gesellix.docker.client.system.SystemEventsRequest
+import de.gesellix.docker.remote.api.EventMessage
+import de.gesellix.docker.remote.api.SystemDataUsageResponse
+import de.gesellix.docker.remote.api.SystemInfo
+import de.gesellix.docker.remote.api.SystemVersion
+import de.gesellix.docker.remote.api.core.StreamCallback
+import de.gesellix.docker.testutil.HttpTestServer
+import spock.lang.Specification
+
+import java.time.Duration
+
+class InMemoryDockerClientMetricsTest extends Specification {
+
+  InMemoryDockerClientMetrics metrics = new InMemoryDockerClientMetrics()
+
+  def "records count, errors and latency per operation"() {
+    given:
+    def manageSystem = Mock(ManageSystem)
+    ManageSystem metered = InterceptingClients.wrap(ManageSystem, manageSystem, new MeteringInterceptor(metrics))
+    manageSystem.ping() >> new EngineResponseContent<String>("OK") >> { throw new IllegalStateException("down") }
+
+    when:
+    metered.ping()
+    metered.ping()
+
+    then:
+    thrown(IllegalStateException)
+    and:
+    def ping = metrics.snapshot("ping")
+    ping.count == 2
+    ping.errors == 1
+    ping.inFlight == 0
+    ping.latency.count == 2
+  }
+
+  def "counts http body bytes per operation"() {
+    given:
+    def server = new HttpTestServer()
+    def serverAddress = server.start('/', { HttpExchange httpExchange ->
+      byte[] body = "OK".bytes
+      httpExchange.responseHeaders.set("Content-Type", "text/plain")
+      httpExchange.sendResponseHeaders(200, body.length)
+      httpExchange.responseBody.write(body)
+      httpExchange.close()
+    } as HttpHandler)
+    def dockerClient = new DockerClientImpl("tcp://127.0.0.1:${serverAddress.port}")
+    dockerClient.metrics = metrics
+
+    when:
+    dockerClient.ping()
+
+    then:
+    metrics.snapshot("ping").count == 1
+    metrics.snapshot("ping").bytesIn == 2
+
+    cleanup:
+    dockerClient.close()
+    server.stop()
+  }
+
+  def "exposes the current operation while it is running"() {
+    given:
+    def manageSystem = Mock(ManageSystem)
+    ManageSystem metered = InterceptingClients.wrap(ManageSystem, manageSystem, new MeteringInterceptor(metrics))
+    String operation = null
+
+    when:
+    metered.ping()
+
+    then:
+    1 * manageSystem.ping() >> {
+      operation = MeteringInterceptor.currentOperation()
+      new EngineResponseContent<String>("OK")
+    }
+    operation == "ping"
+    MeteringInterceptor.currentOperation() == null
+    InterceptingClients.unwrap(metered).is(manageSystem)
+  }
+
+  def "tracks requests in flight"() {
+    given:
+    metrics.requestStarted("containerCreate")
+    metrics.requestStarted("containerCreate")
+    metrics.requestFinished("containerCreate", 1000, null)
+
+    expect:
+    metrics.snapshot()["containerCreate"].inFlight == 1
+    metrics.snapshot()["containerCreate"].count == 1
+  }
+
+  def "noop metrics don't wrap the Manage* clients"() {
+    given:
+    def dockerClient = new DockerClientImpl("tcp://127.0.0.1:2375")
+
+    expect:
+    dockerClient.manageSystem instanceof ManageSystemClient
+
+    cleanup:
+    dockerClient.close()
+  }
+
+  def "undeclared checked exceptions are passed on unchanged"() {
+    given:
+    ManageSystem metered = InterceptingClients.wrap(ManageSystem, new UnreachableSystem(), new MeteringInterceptor(metrics))
+
+    when:
+    metered.ping()
+
+    then:
+    thrown(IOException)
+    metrics.snapshot("ping").errors == 1
+  }
+
+  static class UnreachableSystem implements ManageSystem {
+
+    @Override
+    EngineResponseContent<SystemDataUsageResponse> systemDf() {
+      throw new IOException("unreachable")
+    }
+
+    @Override
+    void events(SystemEventsRequest request, StreamCallback<EventMessage> callback, Duration timeout) {
+      throw new IOException("unreachable")
+    }
+
+    @Override
+    EngineResponseContent<String> ping() {
+      throw new IOException("unreachable")
+    }
+
+    @Override
+    EngineResponseContent<SystemVersion> version() {
+      throw new IOException("unreachable")
+    }
+
+    @Override
+    EngineResponseContent<SystemInfo> info() {
+      throw new IOException("unreachable")
+    }
+  }
+}
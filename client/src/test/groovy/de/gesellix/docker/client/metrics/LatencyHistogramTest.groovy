@@ -0,0 +1,56 @@
+package de.gesellix.docker.client.metrics
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LatencyHistogramTest extends Specification {
+
+  @Unroll
+  def "bucket for #value contains the value"() {
+    when:
+    int index = LatencyHistogram.bucketIndex(value)
+
+    then:
+    LatencyHistogram.lowerBound(index) <= value
+    LatencyHistogram.upperBound(index) >= value
+
+    where:
+    value << [0L, 1L, 15L, 16L, 17L, 31L, 32L, 33L, 1_000L, 1_000_000L, 123_456_789L, 1L << 43]
+  }
+
+  def "bucket indexes are continuous"() {
+    expect:
+    (0..<LatencyHistogram.BUCKETS - 1).every { int index ->
+      LatencyHistogram.bucketIndex(LatencyHistogram.lowerBound(index)) == index &&
+      LatencyHistogram.bucketIndex(LatencyHistogram.upperBound(index)) == index
+    }
+  }
+
+  def "values beyond the trackable range end up in the last bucket"() {
+    expect:
+    LatencyHistogram.bucketIndex(Long.MAX_VALUE) == LatencyHistogram.BUCKETS - 1
+  }
+
+  def "percentiles stay within the relative error"() {
+    given:
+    def histogram = new LatencyHistogram()
+    (1..1000).each { histogram.record(it * 1_000L) }
+
+    when:
+    def snapshot = histogram.snapshot()
+
+    then:
+    snapshot.count == 1000
+    snapshot.max == 1_000_000L
+    snapshot.mean == 500_500d
+    Math.abs(snapshot.getValueAtPercentile(50) - 500_000L) <= 500_000L * 0.07
+    Math.abs(snapshot.getValueAtPercentile(99) - 990_000L) <= 990_000L * 0.07
+    snapshot.getValueAtPercentile(100) == 1_000_000L
+    snapshot.cumulativeBuckets.values().last() == 1000
+  }
+
+  def "empty histogram"() {
+    expect:
+    new LatencyHistogram().snapshot().getValueAtPercentile(99) == 0
+  }
+}
@@ -0,0 +1,327 @@
+package de.gesellix.docker.client.pool
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.client.DockerClient
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.engine.DockerClientConfig
+import de.gesellix.docker.remote.api.ContainerCreateRequest
+import de.gesellix.docker.remote.api.ContainerCreateResponse
+import de.gesellix.docker.testutil.HttpTestServer
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Function
+
+class DockerClientPoolTest extends Specification {
+
+  List<HttpTestServer> servers = []
+  List<DaemonHandler> handlers = []
+  DockerClientPool pool
+
+  def cleanup() {
+    pool?.close()
+    servers*.stop()
+  }
+
+  def "round robin spreads operations across all daemons"() {
+    given:
+    pool = new DockerClientPool(startDaemons(200, 200, 200), RoutingPolicy.roundRobin(), manualHealthChecks())
+
+    when:
+    6.times { pool.execute { DockerClient client -> client.ping() } }
+
+    then:
+    handlers*.pings*.get() == [2, 2, 2]
+  }
+
+  def "health check ejects failing daemons and readmits them"() {
+    given:
+    pool = new DockerClientPool(startDaemons(200, 500, 200), RoutingPolicy.roundRobin(), manualHealthChecks())
+
+    when:
+    pool.checkHealth()
+
+    then:
+    pool.availableMembers.size() == 2
+    !pool.members[1].isAvailable()
+    pool.members[1].unavailableReason.startsWith("ping failed")
+
+    when:
+    handlers*.pings*.set(0)
+    4.times { pool.execute { DockerClient client -> client.ping() } }
+
+    then:
+    handlers*.pings*.get() == [2, 0, 2]
+
+    when:
+    handlers[1].status = 200
+    pool.checkHealth()
+
+    then:
+    pool.availableMembers.size() == 3
+  }
+
+  def "ejects slow daemons"() {
+    given:
+    def config = manualHealthChecks()
+    config.slowPingThreshold = Duration.ofMillis(100)
+    config.healthCheckTimeout = Duration.ofMillis(500)
+    pool = new DockerClientPool(startDaemons(200, 200), RoutingPolicy.roundRobin(), config)
+    handlers[0].delayMillis = 250
+    handlers[1].delayMillis = 1000
+
+    when:
+    pool.checkHealth()
+
+    then:
+    pool.availableMembers.empty
+    pool.members[0].unavailableReason.startsWith("slow ping")
+    pool.members[1].unavailableReason.startsWith("ping timed out")
+
+    when:
+    pool.execute { DockerClient client -> client.ping() }
+
+    then:
+    thrown(IllegalStateException)
+  }
+
+  def "ejects daemons after consecutive server errors"() {
+    given:
+    def config = manualHealthChecks()
+    config.maxConsecutiveFailures = 2
+    pool = new DockerClientPool(startDaemons(500), RoutingPolicy.roundRobin(), config)
+
+    when:
+    2.times {
+      try {
+        pool.execute { DockerClient client -> client.ping() }
+      }
+      catch (Exception ignored) {
+      }
+    }
+
+    then:
+    def member = pool.members[0]
+    !member.isAvailable()
+    member.failures == 2
+    member.inFlight == 0
+  }
+
+  def "client errors don't eject daemons"() {
+    given:
+    def config = manualHealthChecks()
+    config.maxConsecutiveFailures = 1
+    pool = new DockerClientPool(startDaemons(200), RoutingPolicy.roundRobin(), config)
+
+    when:
+    pool.execute { DockerClient client -> throw new IllegalArgumentException("no such container") }
+
+    then:
+    thrown(IllegalArgumentException)
+    pool.members[0].isAvailable()
+    pool.members[0].failures == 0
+  }
+
+  def "sticky routing keeps a container on its daemon until the daemon is ejected"() {
+    given:
+    def sticky = RoutingPolicy.sticky(RoutingPolicy.roundRobin())
+    pool = new DockerClientPool(startDaemons(200, 200, 200), sticky, manualHealthChecks())
+
+    when:
+    def first = pool.select("container-a")
+
+    then:
+    (1..5).every { pool.select("container-a").is(first) }
+    !pool.select("container-b").is(first)
+
+    when:
+    handlers[pool.members.indexOf(first)].status = 500
+    pool.checkHealth()
+    def second = pool.select("container-a")
+
+    then:
+    !second.is(first)
+    pool.select("container-a").is(second)
+  }
+
+  def "started containers reach the daemon which created them"() {
+    given:
+    def clients = (1..2).collect { int i ->
+      String id = "container-${i}".toString()
+      Mock(DockerClient) {
+        createContainer(_, _) >> new EngineResponseContent<ContainerCreateResponse>(Mock(ContainerCreateResponse, { it.id >> id }))
+        startContainer(_) >> { String container ->
+          if (container != id) {
+            throw new IllegalStateException("no such container: ${container}")
+          }
+        }
+      }
+    }
+    def nextClient = clients.iterator()
+    def endpoints = [new DockerClientConfig("tcp://127.0.0.1:2376"), new DockerClientConfig("tcp://127.0.0.1:2377")]
+    pool = new DockerClientPool(endpoints, RoutingPolicy.sticky(RoutingPolicy.roundRobin()), manualHealthChecks(), { nextClient.next() })
+
+    when:
+    List<String> ids = (1..4).collect {
+      pool.executeAndBind(Function.identity(), { DockerClient client -> client.createContainer(new ContainerCreateRequest(), null).content.id })
+    }
+    ids.each { String id -> pool.run(id) { DockerClient client -> client.startContainer(id) } }
+
+    then:
+    notThrown(IllegalStateException)
+    ids as Set == ["container-1", "container-2"] as Set
+    (pool.routingPolicy as StickyPolicy).size() == 2
+  }
+
+  def "bound keys stay on their daemon while it is ejected"() {
+    given:
+    def sticky = RoutingPolicy.sticky(RoutingPolicy.roundRobin())
+    pool = new DockerClientPool(startDaemons(200, 200), sticky, manualHealthChecks())
+    def owner = pool.members[0]
+    sticky.bind("container-a", owner)
+
+    when:
+    handlers[0].status = 500
+    pool.checkHealth()
+    pool.select("container-a")
+
+    then:
+    thrown(IllegalStateException)
+
+    when:
+    handlers[0].status = 200
+    pool.checkHealth()
+
+    then:
+    pool.select("container-a").is(owner)
+  }
+
+  def "sticky routing evicts the least recently used keys"() {
+    given:
+    def members = (1..2).collect { new PoolMember(new DockerClientConfig("tcp://127.0.0.1:${2375 + it}"), Mock(DockerClient)) }
+    def sticky = new StickyPolicy(RoutingPolicy.roundRobin(), 2)
+
+    when:
+    sticky.select(members, "a")
+    sticky.select(members, "b")
+    sticky.select(members, "a")
+    sticky.select(members, "c")
+
+    then:
+    sticky.size() == 2
+
+    when:
+    sticky.unbind("a")
+
+    then:
+    sticky.size() == 1
+  }
+
+  def "undeclared checked exceptions finish the operation"() {
+    given:
+    pool = new DockerClientPool(startDaemons(200), RoutingPolicy.roundRobin(), manualHealthChecks())
+
+    when:
+    // a closure would be coerced via a java.lang.reflect.Proxy, which wraps the checked exception
+    pool.execute(new Function<DockerClient, Object>() {
+
+      @Override
+      Object apply(DockerClient client) {
+        throw new Exception("undeclared")
+      }
+    })
+
+    then:
+    def e = thrown(Exception)
+    e.message == "undeclared"
+    pool.members[0].inFlight == 0
+    pool.members[0].isAvailable()
+  }
+
+  def "binding requires sticky routing"() {
+    given:
+    pool = new DockerClientPool(startDaemons(200), RoutingPolicy.roundRobin(), manualHealthChecks())
+
+    when:
+    pool.executeAndBind(Function.identity()) { DockerClient client -> "container-id" }
+
+    then:
+    thrown(IllegalStateException)
+  }
+
+  def "readmits ejected daemons on selection without periodic health checks"() {
+    given:
+    def config = manualHealthChecks()
+    config.maxConsecutiveFailures = 1
+    config.ejectionDuration = Duration.ofMillis(100)
+    pool = new DockerClientPool(startDaemons(500), RoutingPolicy.roundRobin(), config)
+
+    when:
+    pool.execute { DockerClient client -> client.ping() }
+
+    then:
+    thrown(Exception)
+    !pool.members[0].isAvailable()
+
+    when:
+    handlers[0].status = 200
+    Thread.sleep(150)
+    pool.execute { DockerClient client -> client.ping() }
+
+    then:
+    pool.members[0].isAvailable()
+  }
+
+  def "least in-flight prefers idle members"() {
+    given:
+    def members = (1..3).collect { new PoolMember(new DockerClientConfig("tcp://127.0.0.1:${2375 + it}"), Mock(DockerClient)) }
+    members[0].started()
+    members[0].started()
+    members[2].started()
+    def policy = RoutingPolicy.leastInFlight()
+
+    expect:
+    (1..4).every { policy.select(members, null).is(members[1]) }
+  }
+
+  DockerClientPoolConfig manualHealthChecks() {
+    def config = new DockerClientPoolConfig()
+    config.healthCheckInterval = Duration.ZERO
+    return config
+  }
+
+  List<DockerClientConfig> startDaemons(int... statuses) {
+    return statuses.collect { int status ->
+      def handler = new DaemonHandler(status: status)
+      def server = new HttpTestServer()
+      def address = server.start('/', handler)
+      handlers << handler
+      servers << server
+      new DockerClientConfig("tcp://127.0.0.1:${address.port}")
+    }
+  }
+
+  static class DaemonHandler implements HttpHandler {
+
+    volatile int status
+    volatile long delayMillis
+    AtomicInteger pings = new AtomicInteger()
+
+    @Override
+    void handle(HttpExchange httpExchange) {
+      if (delayMillis > 0) {
+        Thread.sleep(delayMillis)
+      }
+      if (httpExchange.requestURI.path.endsWith("/_ping")) {
+        pings.incrementAndGet()
+      }
+      byte[] body = status == 200 ? "OK".bytes : '{"message":"daemon failure"}'.bytes
+      httpExchange.responseHeaders.set("Content-Type", status == 200 ? "text/plain" : "application/json")
+      httpExchange.sendResponseHeaders(status, body.length)
+      httpExchange.responseBody.write(body)
+      httpExchange.close()
+    }
+  }
+}
@@ -258,4 +258,21 @@ class ManageStackClientTest extends Specification {
         filters: ['label': [(namespaceFilter): true]]]) >> new EngineResponseContent([])
     1 * manageService.createService(serviceCreateRequest, null)
   }
+
+  def "reads the swarm state for every deployment"() {
+    given:
+    def swarmInfo = Mock(SwarmInfo)
+    swarmInfo.controlAvailable >> true
+    def systemInfo = Mock(SystemInfo)
+    systemInfo.swarm >> swarmInfo
+    manageNetwork.networks(_) >> new EngineResponseContent([])
+    manageService.services(_) >> new EngineResponseContent([])
+
+    when:
+    service.stackDeploy("the-stack", new DeployStackConfig(), new DeployStackOptions())
+    service.stackDeploy("the-stack", new DeployStackConfig(), new DeployStackOptions())
+
+    then:
+    2 * manageSystem.info() >> new EngineResponseContent<SystemInfo>(systemInfo)
+  }
 }
@@ -0,0 +1,210 @@
+package de.gesellix.docker.client.stats
+
+import groovy.json.JsonOutput
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicInteger
+
+class StatsMonitorTest extends Specification {
+
+  StatsMonitor monitor
+
+  def cleanup() {
+    monitor?.close()
+  }
+
+  def "computes rates from a stats stream"() {
+    given:
+    def base = Instant.parse("2025-01-18T20:57:00Z")
+    def samples = (0..<3).collect { int i -> sample(base.plusSeconds(i), i) }
+    StatsSource source = { String container, boolean stream ->
+      assert stream
+      new ByteArrayInputStream(samples.collect { JsonOutput.toJson(it) }.join("\n").bytes)
+    }
+    monitor = new StatsMonitor(source)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getWindow("a-container")?.size() == 3 }
+    def latest = monitor.getLatest("a-container")
+    def window = monitor.getWindow("a-container")
+
+    then:
+    latest.read == base.plusSeconds(2)
+    // 100ms of 1s cpu time on 2 cpus
+    latest.cpuPercent.round(3) == 20.0d
+    // inactive_file doesn't count as used
+    latest.memoryUsage == 100 * 1024 * 1024 + 2 * 1024 * 1024
+    latest.memoryLimit == 1024 * 1024 * 1024
+    latest.memoryPercent > 9.9d
+    latest.blockRead == 2 * 4096
+    latest.blockReadRate == 4096d
+    latest.blockWriteRate == 512d
+    latest.networkRx == 2 * 2000 + 2 * 1000
+    latest.networkRxRate == 3000d
+    latest.networkTxRate == 100d
+    latest.pids == 7
+    and:
+    window.size() == 3
+    // the first sample has no previous system cpu usage
+    window.cpuPercent.collect { it.round(3) } == [0d, 20.0d, 20.0d]
+    window.networkRxRate == [0d, 3000d, 3000d] as double[]
+    window.maxMemoryUsage == latest.memoryUsage
+  }
+
+  def "samples at an interval"() {
+    given:
+    def opened = new AtomicInteger()
+    def base = Instant.parse("2025-01-18T20:57:00Z")
+    StatsSource source = { String container, boolean stream ->
+      assert !stream
+      int i = opened.getAndIncrement()
+      new ByteArrayInputStream(JsonOutput.toJson(sample(base.plusSeconds(i), i)).bytes)
+    }
+    monitor = new StatsMonitor(source, Duration.ofMillis(20), 2)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getLatest("a-container")?.read >= base.plusSeconds(2) }
+
+    then:
+    monitor.getWindow("a-container").size() == 2
+    monitor.getLatest("a-container").networkTxRate == 100d
+    monitor.latest.keySet() == ["a-container"] as Set
+  }
+
+  def "ignores unknown and missing fields"() {
+    given:
+    StatsSource source = { String container, boolean stream ->
+      new ByteArrayInputStream('{"id":"a","read":"0001-01-01T00:00:00Z","networks":null,"blkio_stats":{"io_service_bytes_recursive":null},"memory_stats":{},"extra":[1,{"x":2}]}'.bytes)
+    }
+    monitor = new StatsMonitor(source, Duration.ofMillis(20), 2)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getLatest("a-container") != null }
+    def latest = monitor.getLatest("a-container")
+
+    then:
+    latest.read == null
+    latest.cpuPercent == 0d
+    latest.memoryUsage == 0
+  }
+
+  def "removed containers aren't sampled anymore"() {
+    given:
+    def opened = new AtomicInteger()
+    StatsSource source = { String container, boolean stream ->
+      opened.incrementAndGet()
+      new ByteArrayInputStream(JsonOutput.toJson(sample(Instant.now(), 0)).bytes)
+    }
+    monitor = new StatsMonitor(source, Duration.ofMillis(20), 2)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getLatest("a-container") != null }
+    monitor.remove("a-container")
+    Thread.sleep(100)
+    def count = opened.get()
+    Thread.sleep(100)
+
+    then:
+    opened.get() <= count + 1
+    monitor.containers.isEmpty()
+    monitor.getLatest("a-container") == null
+  }
+
+  def "stops following containers which don't exist anymore"() {
+    given:
+    def opened = new AtomicInteger()
+    StatsSource source = { String container, boolean stream ->
+      opened.incrementAndGet()
+      throw new FileNotFoundException("no such container: ${container}")
+    }
+    monitor = new StatsMonitor(source)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getFailure("a-container") != null }
+    Thread.sleep(StatsMonitor.RECONNECT_DELAY.toMillis() + 500)
+
+    then:
+    opened.get() == 1
+    monitor.getFailure("a-container") instanceof FileNotFoundException
+    monitor.containers == ["a-container"] as Set
+  }
+
+  def "backs off while reconnecting fails and exposes the failure"() {
+    given:
+    def opened = new AtomicInteger()
+    def failure = new IOException("connection refused")
+    StatsSource source = { String container, boolean stream ->
+      opened.incrementAndGet()
+      throw failure
+    }
+    monitor = new StatsMonitor(source)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getFailure("a-container") != null }
+    // reconnects after 1s and 2s more, instead of every second
+    Thread.sleep(StatsMonitor.RECONNECT_DELAY.multipliedBy(5).dividedBy(2).toMillis())
+
+    then:
+    opened.get() == 2
+    monitor.getFailure("a-container").is(failure)
+  }
+
+  def "samples clear the latest failure"() {
+    given:
+    def opened = new AtomicInteger()
+    StatsSource source = { String container, boolean stream ->
+      if (opened.getAndIncrement() == 0) {
+        throw new IOException("connection reset")
+      }
+      new ByteArrayInputStream(JsonOutput.toJson(sample(Instant.now(), 0)).bytes)
+    }
+    monitor = new StatsMonitor(source, Duration.ofMillis(20), 2)
+
+    when:
+    monitor.add("a-container")
+    await { monitor.getLatest("a-container") != null }
+
+    then:
+    monitor.getFailure("a-container") == null
+  }
+
+  static void await(Closure<Boolean> condition) {
+    long deadline = System.currentTimeMillis() + 5000
+    while (!condition()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new IllegalStateException("condition not met in time")
+      }
+      Thread.sleep(10)
+    }
+  }
+
+  static Map<String, Object> sample(Instant read, int i) {
+    return [
+        read        : read.toString(),
+        pids_stats  : [current: 7],
+        cpu_stats   : [
+            cpu_usage       : [total_usage: 100_000_000L * (i + 1), percpu_usage: [1, 2]],
+            system_cpu_usage: 1_000_000_000L * (i + 1),
+            online_cpus     : 2],
+        precpu_stats: [
+            cpu_usage       : [total_usage: 100_000_000L * i],
+            system_cpu_usage: 1_000_000_000L * i],
+        memory_stats: [usage: 100 * 1024 * 1024 + (i + 1) * 1024 * 1024, limit: 1024 * 1024 * 1024, stats: [inactive_file: 1024 * 1024, active_anon: 4711]],
+        blkio_stats : [io_service_bytes_recursive: [
+            [major: 8, minor: 0, op: "read", value: 4096 * i],
+            [major: 8, minor: 0, op: "write", value: 512 * i],
+            [major: 8, minor: 0, op: "sync", value: 99]]],
+        networks    : [
+            eth0: [rx_bytes: 2000 * i, tx_bytes: 100 * i, rx_packets: 1],
+            eth1: [rx_bytes: 1000 * i, tx_bytes: 0]],
+    ]
+  }
+}
@@ -0,0 +1,132 @@
+package de.gesellix.docker.client.system
+
+import de.gesellix.docker.client.EngineResponseContent
+import de.gesellix.docker.remote.api.EventMessage
+import de.gesellix.docker.remote.api.SwarmInfo
+import de.gesellix.docker.remote.api.SystemInfo
+import de.gesellix.docker.remote.api.SystemVersion
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+
+class DaemonCapabilitiesTest extends Specification {
+
+  ManageSystem manageSystem = Mock(ManageSystem)
+  AtomicLong now = new AtomicLong()
+  DaemonCapabilities capabilities = new DaemonCapabilities(manageSystem, Duration.ofSeconds(10), { now.get() })
+
+  def "version is fetched once within the ttl"() {
+    given:
+    def systemVersion = Mock(SystemVersion)
+    systemVersion.os >> "windows"
+    systemVersion.arch >> "amd64"
+
+    when:
+    def results = (1..60).collect { capabilities.nativeWindows }
+
+    then:
+    1 * manageSystem.version() >> new EngineResponseContent<SystemVersion>(systemVersion)
+    results.every { it }
+  }
+
+  def "version is fetched again after the ttl"() {
+    given:
+    manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+    capabilities.version
+
+    when:
+    now.set(Duration.ofSeconds(11).toNanos())
+    capabilities.version
+
+    then:
+    1 * manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+  }
+
+  def "zero ttl disables caching"() {
+    given:
+    capabilities.ttl = Duration.ZERO
+
+    when:
+    capabilities.osType
+    capabilities.osType
+
+    then:
+    2 * manageSystem.info() >> new EngineResponseContent<SystemInfo>(Mock(SystemInfo))
+  }
+
+  def "swarm node id and manager status"() {
+    given:
+    def swarmInfo = Mock(SwarmInfo)
+    swarmInfo.nodeID >> "node-id"
+    swarmInfo.controlAvailable >> true
+    def systemInfo = Mock(SystemInfo)
+    systemInfo.swarm >> swarmInfo
+
+    when:
+    def nodeId = capabilities.swarmNodeId
+    def manager = capabilities.swarmManager
+
+    then:
+    1 * manageSystem.info() >> new EngineResponseContent<SystemInfo>(systemInfo)
+    nodeId == "node-id"
+    manager
+  }
+
+  def "node events invalidate the info only"() {
+    given:
+    manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+    manageSystem.info() >> new EngineResponseContent<SystemInfo>(Mock(SystemInfo))
+    capabilities.version
+    capabilities.info
+
+    when:
+    capabilities.eventCallback.onNext(event("node"))
+    capabilities.version
+    capabilities.info
+
+    then:
+    0 * manageSystem.version()
+    1 * manageSystem.info() >> new EngineResponseContent<SystemInfo>(Mock(SystemInfo))
+  }
+
+  def "daemon events invalidate everything"() {
+    given:
+    manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+    manageSystem.info() >> new EngineResponseContent<SystemInfo>(Mock(SystemInfo))
+    capabilities.version
+    capabilities.info
+
+    when:
+    capabilities.onEvent(event("daemon"))
+    capabilities.onEvent(event("container"))
+    capabilities.version
+    capabilities.info
+
+    then:
+    1 * manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+    1 * manageSystem.info() >> new EngineResponseContent<SystemInfo>(Mock(SystemInfo))
+  }
+
+  def "failures are not cached"() {
+    when:
+    capabilities.version
+
+    then:
+    1 * manageSystem.version() >> { throw new IllegalStateException("down") }
+    thrown(IllegalStateException)
+
+    when:
+    capabilities.version
+
+    then:
+    1 * manageSystem.version() >> new EngineResponseContent<SystemVersion>(Mock(SystemVersion))
+  }
+
+  EventMessage event(String type) {
+    def event = Mock(EventMessage)
+    event.type >> EventMessage.Type.values().find { it.value == type }
+    event.action >> "update"
+    return event
+  }
+}
@@ -1,5 +1,6 @@
 package de.gesellix.docker.client.tasks
 
+import de.gesellix.docker.client.filters.Filters
 import de.gesellix.docker.remote.api.EngineApiClient
 import de.gesellix.docker.remote.api.Task
 import de.gesellix.docker.remote.api.client.TaskApi
@@ -29,6 +30,19 @@ class ManageTaskClientTest extends Specification {
     responseContent.content == tasks
   }
 
+  def "list tasks with typed filters"() {
+    given:
+    def taskApi = Mock(TaskApi)
+    client.taskApi >> taskApi
+    def filters = Filters.builder().service("service-name").desiredState("running").build()
+
+    when:
+    service.tasks([filters: filters])
+
+    then:
+    1 * taskApi.taskList('{"service":{"service-name":true},"desired-state":{"running":true}}')
+  }
+
   def "inspect task"() {
     given:
     def taskApi = Mock(TaskApi)
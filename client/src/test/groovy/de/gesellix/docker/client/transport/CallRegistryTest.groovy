@@ -0,0 +1,105 @@
+package de.gesellix.docker.client.transport
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import de.gesellix.docker.testutil.HttpTestServer
+import de.gesellix.util.InterruptibleFuture
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import spock.lang.Specification
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class CallRegistryTest extends Specification {
+
+  CountDownLatch requested = new CountDownLatch(1)
+  CountDownLatch release = new CountDownLatch(1)
+  HttpTestServer server = new HttpTestServer()
+  CallRegistry calls = new CallRegistry()
+  OkHttpClient client = new OkHttpClient.Builder().eventListenerFactory(calls).build()
+  String url
+
+  def setup() {
+    def address = server.start('/', { HttpExchange httpExchange ->
+      if (httpExchange.requestURI.path == "/slow") {
+        requested.countDown()
+        release.await(30, TimeUnit.SECONDS)
+      }
+      byte[] body = "OK".bytes
+      httpExchange.sendResponseHeaders(200, body.length)
+      httpExchange.responseBody.write(body)
+      httpExchange.close()
+    } as HttpHandler)
+    url = "http://127.0.0.1:${address.port}"
+  }
+
+  def cleanup() {
+    release.countDown()
+    server.stop()
+  }
+
+  def "forgets finished calls"() {
+    when:
+    def body = client.newCall(new Request.Builder().url("${url}/fast").build()).execute().withCloseable { it.body().string() }
+
+    then:
+    body == "OK"
+    calls.size() == 0
+  }
+
+  def "cancels the blocking call of a cancelled future"() {
+    given:
+    def future = new InterruptibleFuture<String>({
+      client.newCall(new Request.Builder().url("${url}/slow").build()).execute().withCloseable { it.body().string() }
+    }, calls)
+    Executors.newSingleThreadExecutor().with { executor ->
+      executor.execute(future)
+      executor.shutdown()
+    }
+    requested.await(5, TimeUnit.SECONDS)
+
+    when:
+    future.cancel(true)
+    future.get(5, TimeUnit.SECONDS)
+
+    then:
+    thrown(CancellationException)
+    calls.size() == 0
+  }
+
+  def "doesn't cancel calls which outlive the action of a future"() {
+    given:
+    def future = new InterruptibleFuture<Response>({
+      client.newCall(new Request.Builder().url("${url}/fast").build()).execute()
+    }, calls)
+
+    when:
+    future.run()
+    def response = future.get()
+
+    then:
+    calls.size() == 0
+    !future.cancel(true)
+    response.withCloseable { it.body().string() } == "OK"
+  }
+
+  def "doesn't track calls outside of a future"() {
+    given:
+    def response = CompletableFuture.supplyAsync {
+      client.newCall(new Request.Builder().url("${url}/slow").build()).execute().withCloseable { it.body().string() }
+    }
+    requested.await(5, TimeUnit.SECONDS)
+
+    expect:
+    calls.size() == 0
+
+    cleanup:
+    release.countDown()
+    response.get(5, TimeUnit.SECONDS)
+  }
+}
@@ -0,0 +1,55 @@
+package de.gesellix.docker.client.transport
+
+import de.gesellix.docker.engine.DockerClientConfig
+import okhttp3.OkHttpClient
+import spock.lang.Specification
+
+import java.time.Duration
+
+class EngineTransportTest extends Specification {
+
+  EngineTransport transport = new EngineTransport(new EngineTransportConfig(3, Duration.ofSeconds(30), 16, 8))
+
+  def cleanup() {
+    transport.close()
+  }
+
+  def "applies the configured limits"() {
+    expect:
+    transport.dispatcher.maxRequests == 16
+    transport.dispatcher.maxRequestsPerHost == 8
+  }
+
+  def "clients share connection pool and dispatcher"() {
+    when:
+    OkHttpClient first = transport.configure(new OkHttpClient.Builder()).build()
+    OkHttpClient second = transport.configure(new OkHttpClient.Builder().readTimeout(Duration.ofSeconds(5))).build()
+
+    then:
+    first.connectionPool().is(second.connectionPool())
+    first.dispatcher().is(second.dispatcher())
+    first.connectionPool().is(transport.connectionPool)
+    transport.client.connectionPool().is(transport.connectionPool)
+    transport.client.newBuilder().build().dispatcher().is(transport.dispatcher)
+  }
+
+  def "pooled OkDockerClient uses the shared transport"() {
+    given:
+    def okDockerClient = new PooledOkDockerClient(transport, new DockerClientConfig("tcp://127.0.0.1:2375"))
+
+    when:
+    OkHttpClient client = okDockerClient.newClient(new OkHttpClient.Builder())
+
+    then:
+    client.connectionPool().is(transport.connectionPool)
+    client.dispatcher().is(transport.dispatcher)
+  }
+
+  def "close evicts idle connections"() {
+    when:
+    transport.close()
+
+    then:
+    transport.connectionPool.connectionCount() == 0
+  }
+}
@@ -0,0 +1,103 @@
+package de.gesellix.util
+
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import spock.lang.Specification
+
+class JsonArrayIteratorTest extends Specification {
+
+  def adapter = new Moshi.Builder().build().adapter(Types.newParameterizedType(Map, String, Object))
+
+  def "reads elements one by one"() {
+    given:
+    def iterator = new JsonArrayIterator<Map<String, Object>>(json('[{"Id":"a"},{"Id":"b","Names":["/b"]},{"Id":"c"}]'), adapter)
+
+    expect:
+    iterator.collect { it.Id } == ["a", "b", "c"]
+    !iterator.hasNext()
+  }
+
+  def "supports empty arrays"() {
+    expect:
+    !new JsonArrayIterator<Map<String, Object>>(json('[]'), adapter).hasNext()
+  }
+
+  def "closes the source after the last element"() {
+    given:
+    def source = new CloseTrackingStream('[{"Id":"a"}]')
+    def iterator = new JsonArrayIterator<Map<String, Object>>(source, adapter)
+
+    when:
+    iterator.next()
+
+    then:
+    !source.closed
+
+    when:
+    iterator.hasNext()
+
+    then:
+    source.closed
+  }
+
+  def "stops early and closes the source"() {
+    given:
+    def source = new CloseTrackingStream('[{"Id":"a"},{"Id":"b"},{"Id":"c"},' + ('x' * 100_000))
+    def iterator = new JsonArrayIterator<Map<String, Object>>(source, adapter)
+
+    when:
+    def visited = []
+    def count = iterator.forEachWhile { Map<String, Object> container ->
+      visited << container.Id
+      container.Id != "b"
+    }
+
+    then:
+    count == 2
+    visited == ["a", "b"]
+    source.closed
+  }
+
+  def "streams are closed via try-with-resources"() {
+    given:
+    def source = new CloseTrackingStream('[{"Id":"a"},{"Id":"b"}]')
+
+    when:
+    def first = new JsonArrayIterator<Map<String, Object>>(source, adapter).stream().withCloseable { it.findFirst().get() }
+
+    then:
+    first.Id == "a"
+    source.closed
+  }
+
+  def "fails on malformed content"() {
+    given:
+    def source = new CloseTrackingStream('{"message":"not a list"}')
+
+    when:
+    new JsonArrayIterator<Map<String, Object>>(source, adapter).hasNext()
+
+    then:
+    thrown(Exception)
+    source.closed
+  }
+
+  InputStream json(String json) {
+    return new ByteArrayInputStream(json.bytes)
+  }
+
+  static class CloseTrackingStream extends ByteArrayInputStream {
+
+    boolean closed
+
+    CloseTrackingStream(String content) {
+      super(content.bytes)
+    }
+
+    @Override
+    void close() {
+      closed = true
+      super.close()
+    }
+  }
+}
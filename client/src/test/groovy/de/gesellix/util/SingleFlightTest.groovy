@@ -0,0 +1,152 @@
+package de.gesellix.util
+
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SingleFlightTest extends Specification {
+
+  def executor = Executors.newCachedThreadPool()
+
+  def cleanup() {
+    executor.shutdownNow()
+  }
+
+  def "concurrent callers share one call"() {
+    given:
+    def coalescedKeys = []
+    def singleFlight = new SingleFlight<String, String>({ String key -> synchronized (coalescedKeys) { coalescedKeys << key } })
+    def release = new CountDownLatch(1)
+    def calls = new AtomicInteger()
+
+    when:
+    def leader = CompletableFuture.supplyAsync({
+      singleFlight.execute("container-a", {
+        calls.incrementAndGet()
+        release.await(5, TimeUnit.SECONDS)
+        return "response-${calls.get()}".toString()
+      })
+    }, executor)
+    waitUntil { singleFlight.inFlight == 1 }
+    def followers = (1..4).collect {
+      CompletableFuture.supplyAsync({ singleFlight.execute("container-a", { calls.incrementAndGet(); "unexpected" }) }, executor)
+    }
+    waitUntil { singleFlight.coalesced == 4 }
+    release.countDown()
+
+    then:
+    leader.get(5, TimeUnit.SECONDS) == "response-1"
+    followers*.get(5, TimeUnit.SECONDS) == ["response-1"] * 4
+    calls.get() == 1
+    coalescedKeys == ["container-a"] * 4
+    singleFlight.calls == 5
+    singleFlight.hitRate == 0.8d
+    singleFlight.inFlight == 0
+  }
+
+  def "doesn't cache finished calls"() {
+    given:
+    def singleFlight = new SingleFlight<String, Integer>()
+    def calls = new AtomicInteger()
+
+    when:
+    def first = singleFlight.execute("image", { calls.incrementAndGet() })
+    def second = singleFlight.execute("image", { calls.incrementAndGet() })
+
+    then:
+    first == 1
+    second == 2
+    singleFlight.coalesced == 0
+  }
+
+  def "shares failures with all waiting callers"() {
+    given:
+    def singleFlight = new SingleFlight<String, String>()
+    def release = new CountDownLatch(1)
+
+    when:
+    def leader = CompletableFuture.supplyAsync({
+      singleFlight.execute("network", {
+        release.await(5, TimeUnit.SECONDS)
+        throw new IllegalStateException("no such network")
+      })
+    }, executor)
+    waitUntil { singleFlight.inFlight == 1 }
+    def follower = CompletableFuture.supplyAsync({ singleFlight.execute("network", { "unexpected" }) }, executor)
+    waitUntil { singleFlight.coalesced == 1 }
+    release.countDown()
+    follower.get(5, TimeUnit.SECONDS)
+
+    then:
+    def e = thrown(Exception)
+    e.cause instanceof IllegalStateException
+    e.cause.message == "no such network"
+    leader.isCompletedExceptionally()
+    singleFlight.inFlight == 0
+  }
+
+  def "interceptor coalesces only the configured operations"() {
+    given:
+    def singleFlight = new SingleFlight<List<Object>, Object>()
+    def release = new CountDownLatch(1)
+    def calls = new AtomicInteger()
+    Inspector inspector = new Inspector() {
+
+      @Override
+      String inspect(String id) {
+        calls.incrementAndGet()
+        release.await(5, TimeUnit.SECONDS)
+        return "inspected ${id}".toString()
+      }
+
+      @Override
+      String remove(String id) {
+        calls.incrementAndGet()
+        return "removed ${id}".toString()
+      }
+    }
+    def interceptor = new CoalescingInterceptor(["inspect"], singleFlight)
+    Inspector proxy = new Inspector() {
+
+      @Override
+      String inspect(String id) {
+        return interceptor.intercept("inspect", [id] as Object[], { inspector.inspect(id) })
+      }
+
+      @Override
+      String remove(String id) {
+        return interceptor.intercept("remove", [id] as Object[], { inspector.remove(id) })
+      }
+    }
+
+    when:
+    def inspects = (1..3).collect { CompletableFuture.supplyAsync({ proxy.inspect("a") }, executor) }
+    waitUntil { singleFlight.calls == 3 }
+    proxy.remove("a")
+    proxy.remove("a")
+    release.countDown()
+
+    then:
+    inspects*.get(5, TimeUnit.SECONDS) == ["inspected a"] * 3
+    calls.get() == 3
+    singleFlight.coalesced == 2
+  }
+
+  void waitUntil(Closure<Boolean> condition) {
+    long deadline = System.currentTimeMillis() + 5000
+    while (!condition() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5)
+    }
+  }
+
+  static interface Inspector {
+
+    String inspect(String id)
+
+    String remove(String id)
+  }
+}
@@ -890,7 +890,7 @@ class DockerContainerIntegrationSpec extends Specification {
     String containerId = containerStatus.content.id
 
     when:
-    dockerClient.waitForLogEvent(containerId, [tail: 0], matcher, Duration.of(5, ChronoUnit.SECONDS))
+    dockerClient.waitForLogEvent(containerId, [:], matcher, Duration.of(5, ChronoUnit.SECONDS))
 
     then:
     matcherMatched
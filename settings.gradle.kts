@@ -3,7 +3,8 @@ include(
     "client",
     "client-groovy4",
     "integration-test",
-    "explore")
+    "explore",
+    "benchmarks")
 
 // https://docs.gradle.org/current/userguide/toolchains.html#sub:download_repositories
 plugins {